@@ -3,6 +3,9 @@ package org.apache.olingo.jpa.metadata.core.edm.converter;
 /**
  * A class that implements this interface can be used to convert entity
  * attribute state into oData representation and back again.
+ * <p>
+ * Only one instance of a converter is created per attribute and shared by all
+ * requests, so the implementation must be stateless (thread safe).
  *
  * @param <X> The type of the JPA entity attribute.
  * @param <Y> The (JAVA representation) type of the oData entity attribute. The
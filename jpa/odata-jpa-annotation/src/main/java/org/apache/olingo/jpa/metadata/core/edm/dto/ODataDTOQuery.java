@@ -0,0 +1,113 @@
+package org.apache.olingo.jpa.metadata.core.edm.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+
+/**
+ * The already parsed query options of a request to read DTOs via {@link ODataDTOStreamingHandler}.
+ *
+ */
+public final class ODataDTOQuery {
+
+  /**
+   * One sort criterion of <code>$orderby</code>.
+   */
+  public static final class SortOrder {
+    private final String propertyPath;
+    private final List<String> attributeNames;
+    private final boolean descending;
+
+    public SortOrder(final String propertyPath, final List<String> attributeNames, final boolean descending) {
+      this.propertyPath = propertyPath;
+      this.attributeNames = Collections.unmodifiableList(attributeNames);
+      this.descending = descending;
+    }
+
+    /**
+     *
+     * @return The path of OData property names as used in the request, like <i>Address/City</i>.
+     */
+    public String getPropertyPath() {
+      return propertyPath;
+    }
+
+    /**
+     *
+     * @return The names of the Java attributes (fields of DTO and nested complex types) to sort by.
+     */
+    public List<String> getAttributeNames() {
+      return attributeNames;
+    }
+
+    public boolean isDescending() {
+      return descending;
+    }
+  }
+
+  private final Integer top;
+  private final int skip;
+  private final List<SortOrder> orderBy;
+  private final Expression filter;
+  private final String search;
+  private final boolean countRequested;
+
+  public ODataDTOQuery(final Integer top, final int skip, final List<SortOrder> orderBy, final Expression filter,
+      final String search, final boolean countRequested) {
+    this.top = top;
+    this.skip = skip;
+    this.orderBy = Collections.unmodifiableList(orderBy);
+    this.filter = filter;
+    this.search = search;
+    this.countRequested = countRequested;
+  }
+
+  /**
+   *
+   * @return The maximum number of DTOs to return or <code>null</code> if not limited.
+   */
+  public Integer getTop() {
+    return top;
+  }
+
+  /**
+   *
+   * @return The number of DTOs to skip, 0 if not given.
+   */
+  public int getSkip() {
+    return skip;
+  }
+
+  /**
+   *
+   * @return The sort criteria in order of precedence, never <code>null</code>.
+   */
+  public List<SortOrder> getOrderBy() {
+    return orderBy;
+  }
+
+  /**
+   *
+   * @return The parsed <code>$filter</code> expression or <code>null</code>.
+   */
+  public Expression getFilter() {
+    return filter;
+  }
+
+  /**
+   *
+   * @return The raw <code>$search</code> term or <code>null</code>.
+   */
+  public String getSearch() {
+    return search;
+  }
+
+  /**
+   *
+   * @return TRUE if the client has requested the total count (<code>$count=true</code>).
+   */
+  public boolean isCountRequested() {
+    return countRequested;
+  }
+}
@@ -0,0 +1,34 @@
+package org.apache.olingo.jpa.metadata.core.edm.dto;
+
+import java.util.stream.Stream;
+
+import org.apache.olingo.server.api.uri.UriInfoResource;
+
+/**
+ * Handler for DTOs backed by a large data source. Instead of returning a complete collection, the handler gets the
+ * parsed query options and must deliver only the requested page. The DTOs are converted and serialized one by one
+ * while the response is written.
+ * <p>
+ * The {@link ODataDTOHandler#read(UriInfoResource) collection based read} is not used for streaming handlers.
+ *
+ * @param <T>
+ *            The DTO class type.
+ */
+public interface ODataDTOStreamingHandler<T> extends ODataDTOHandler<T> {
+
+  /**
+   * Read the DTOs for the given query. The handler has to apply the filter, search, ordering and paging of
+   * <i>query</i> itself, the DTOs of the stream are returned 'as is'.
+   *
+   * @return The lazy stream of DTOs, will be closed after the response is written (or on error).
+   */
+  public Stream<T> read(UriInfoResource requestedResource, ODataDTOQuery query) throws RuntimeException;
+
+  /**
+   * Called only if the client requests the total count.
+   *
+   * @return The number of DTOs matching the filter and search of <i>query</i>, ignoring the paging.
+   */
+  public long count(UriInfoResource requestedResource, ODataDTOQuery query) throws RuntimeException;
+
+}
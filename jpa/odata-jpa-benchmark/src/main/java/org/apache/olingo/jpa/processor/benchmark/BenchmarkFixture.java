@@ -0,0 +1,116 @@
+package org.apache.olingo.jpa.processor.benchmark;
+
+import java.util.Collections;
+import java.util.logging.LogManager;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.jpa.metadata.api.JPAEdmProvider;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.api.JPAODataContextAccessDouble;
+import org.apache.olingo.jpa.processor.core.query.NavigationIfc;
+import org.apache.olingo.jpa.processor.core.query.NavigationRoot;
+import org.apache.olingo.jpa.processor.core.util.TestGenericJPAPersistenceAdapter;
+import org.apache.olingo.jpa.test.util.Constant;
+import org.apache.olingo.jpa.test.util.DataSourceHelper;
+import org.apache.olingo.server.ODataFactory;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Shared state for all benchmarks: the test model on a in-memory database, the meta model and the OData service
+ * metadata. The fixture is created once per benchmark (not per iteration) to exclude the expensive meta model build
+ * from measurement.
+ *
+ * @author agent
+ *
+ */
+@State(Scope.Benchmark)
+public class BenchmarkFixture {
+
+  /**
+   * The request context used for the query builder, returning a real {@link OData} instance.
+   */
+  private class BenchmarkRequestContext extends JPAODataContextAccessDouble {
+
+    BenchmarkRequestContext() {
+      super(edmProvider, persistenceAdapter);
+    }
+
+    @Override
+    public OData getOdata() {
+      return odata;
+    }
+
+    @Override
+    public ServiceMetadata getServiceMetaData() {
+      return serviceMetadata;
+    }
+  }
+
+  private TestGenericJPAPersistenceAdapter persistenceAdapter;
+  private JPAEdmProvider edmProvider;
+  private OData odata;
+  private ServiceMetadata serviceMetadata;
+
+  @Setup(Level.Trial)
+  public void setupFixture() throws ODataException {
+    // avoid logging of every request to falsify the measurement
+    LogManager.getLogManager().getLogger("").setLevel(java.util.logging.Level.WARNING);
+    DataSourceHelper.forceFreshCreatedDatabase();
+    persistenceAdapter = new TestGenericJPAPersistenceAdapter(Constant.PUNIT_NAME, DataSourceHelper.DatabaseType.H2);
+    edmProvider = new JPAEdmProvider(Constant.PUNIT_NAME, persistenceAdapter.getMetamodel());
+    odata = ODataFactory.createCustomODataInstance();
+    serviceMetadata = odata.createServiceMetadata(edmProvider, Collections.emptyList());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownFixture() {
+    persistenceAdapter.dispose();
+  }
+
+  public TestGenericJPAPersistenceAdapter getPersistenceAdapter() {
+    return persistenceAdapter;
+  }
+
+  public JPAEdmProvider getEdmProvider() {
+    return edmProvider;
+  }
+
+  public OData getOdata() {
+    return odata;
+  }
+
+  public ServiceMetadata getServiceMetadata() {
+    return serviceMetadata;
+  }
+
+  public EntityManager createEntityManager() {
+    return persistenceAdapter.createEntityManager();
+  }
+
+  public JPAODataRequestContext createRequestContext() {
+    return new BenchmarkRequestContext();
+  }
+
+  /**
+   *
+   * @param path The resource path, like <code>Organizations</code>.
+   * @param query The (not encoded) query options or <code>null</code>.
+   */
+  public UriInfo parseUri(final String path, final String query) throws ODataException {
+    return new Parser(serviceMetadata.getEdm(), odata).parseUri(path, query, null, null);
+  }
+
+  public NavigationIfc createNavigation(final String path, final String query) throws ODataException {
+    return new NavigationRoot(parseUri(path, query));
+  }
+}
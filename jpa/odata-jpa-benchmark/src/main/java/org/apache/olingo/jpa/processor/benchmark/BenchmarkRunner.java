@@ -0,0 +1,31 @@
+package org.apache.olingo.jpa.processor.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of the benchmark jar. Accepts the usual JMH command line options (like a benchmark name pattern) and
+ * always adds the GC profiler to report the allocation rate of every benchmark.
+ *
+ * @author agent
+ *
+ */
+public class BenchmarkRunner {
+
+  public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+    final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    final ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLineOptions).addProfiler(
+        GCProfiler.class);
+    if (commandLineOptions.getIncludes().isEmpty()) {
+      builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+    }
+    final Options options = builder.build();
+    new Runner(options).run();
+  }
+}
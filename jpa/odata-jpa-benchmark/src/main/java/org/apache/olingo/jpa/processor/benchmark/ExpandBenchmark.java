@@ -0,0 +1,72 @@
+package org.apache.olingo.jpa.processor.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.jpa.processor.core.api.JPAODataServletHandler;
+import org.apache.olingo.jpa.processor.core.util.HttpServletRequestDouble;
+import org.apache.olingo.jpa.processor.core.util.HttpServletResponseDouble;
+import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for complete requests (query, conversion and serialization) with nested $expand of increasing depth on
+ * the self referencing <code>AdministrativeDivisions</code>. The servlet handler is shared between all invocations
+ * (like in a servlet), so the meta model is not built again for every request.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpandBenchmark {
+
+  private static final String BASE_URI = "http://localhost:8080/Test" + ServerCallSimulator.SERVLET_PATH + "/";
+
+  @Param({ "1", "2", "3" })
+  public int depth;
+
+  private JPAODataServletHandler handler;
+  private URI requestUri;
+
+  @Setup(Level.Trial)
+  public void setup(final BenchmarkFixture fixture) throws ODataException {
+    handler = new JPAODataServletHandler(fixture.getPersistenceAdapter());
+    requestUri = URI.create(BASE_URI + "AdministrativeDivisions?$filter=CodeID%20eq%20'NUTS1'&$expand=" + buildExpand(
+        depth));
+  }
+
+  private static String buildExpand(final int level) {
+    if (level <= 1) {
+      return "Children";
+    }
+    return "Children($expand=" + buildExpand(level - 1) + ")";
+  }
+
+  @Benchmark
+  public int requestWithExpand() throws IOException {
+    final HttpServletRequestDouble request = new HttpServletRequestDouble(requestUri, null);
+    request.setMethod(HttpMethod.GET);
+    final HttpServletResponseDouble response = new HttpServletResponseDouble();
+    handler.process(request, response);
+    return response.getStatus();
+  }
+}
@@ -0,0 +1,122 @@
+package org.apache.olingo.jpa.processor.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.filter.JPAEntityFilterProcessor;
+import org.apache.olingo.jpa.processor.core.filter.JPALiteralParameterBinding;
+import org.apache.olingo.jpa.processor.core.query.FilterContextQueryBuilderIfc;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the translation of a $filter expression into a JPA criteria expression by the
+ * {@link org.apache.olingo.jpa.processor.core.filter.JPAVisitor JPAVisitor}, without query execution.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FilterBenchmark {
+
+  private class FilterContext implements FilterContextQueryBuilderIfc {
+
+    private final CriteriaQuery<Tuple> query;
+    private final Root<?> root;
+
+    FilterContext() {
+      query = em.getCriteriaBuilder().createTupleQuery();
+      root = query.from(jpaEntityType.getTypeClass());
+    }
+
+    @Override
+    public JPAODataRequestContext getContext() {
+      return requestContext;
+    }
+
+    @Override
+    public EntityManager getEntityManager() {
+      return em;
+    }
+
+    @Override
+    public <T> Subquery<T> createSubquery(final Class<T> subqueryResultType) {
+      return query.subquery(subqueryResultType);
+    }
+
+    @Override
+    public JPAEntityType getQueryResultType() {
+      return jpaEntityType;
+    }
+
+    @Override
+    public From<?, ?> getQueryResultFrom() {
+      return root;
+    }
+
+    @Override
+    public JPALiteralParameterBinding getLiteralParameterBinding() {
+      return null;
+    }
+  }
+
+  @Param({ "ID eq '3'", "Name1 eq 'Third Org.' and Country ne 'DEU'", "contains(Name1,'Org')",
+  "Address/Region ne 'xyz'", "Roles/any(d:d/RoleCategory eq 'A')" })
+  public String filter;
+
+  private BenchmarkFixture fixture;
+  private JPAODataRequestContext requestContext;
+  private EntityManager em;
+  private UriInfo uriInfo;
+  private JPAEntityType jpaEntityType;
+
+  @Setup(Level.Trial)
+  public void setup(final BenchmarkFixture benchmarkFixture) throws ODataException {
+    this.fixture = benchmarkFixture;
+    requestContext = fixture.createRequestContext();
+    em = fixture.createEntityManager();
+    uriInfo = fixture.parseUri("Organizations", "$filter=" + filter);
+    jpaEntityType = fixture.getEdmProvider().getServiceDocument().getEntityType("Organizations");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    em.close();
+  }
+
+  @Benchmark
+  public Expression<Boolean> compileFilter() throws ExpressionVisitException, ODataException {
+    final JPAEntityFilterProcessor<Boolean> filterProcessor = new JPAEntityFilterProcessor<>(fixture.getOdata(),
+        fixture.getEdmProvider().getServiceDocument(), em, jpaEntityType, requestContext.getDatabaseProcessor(),
+        uriInfo.getUriResourceParts(), uriInfo.getFilterOption().getExpression(), new FilterContext());
+    return filterProcessor.compile();
+  }
+}
@@ -0,0 +1,35 @@
+package org.apache.olingo.jpa.processor.benchmark;
+
+import org.apache.olingo.jpa.processor.core.query.result.QueryEntityResult;
+import org.apache.olingo.jpa.processor.transformation.Transformation;
+import org.apache.olingo.server.api.serializer.SerializerException;
+
+/**
+ * Transformation returning the raw query result, so the query execution can be measured without conversion.
+ *
+ * @author agent
+ *
+ */
+class PassThroughTransformation implements Transformation<QueryEntityResult, QueryEntityResult> {
+
+  @Override
+  public Class<QueryEntityResult> getInputType() {
+    return QueryEntityResult.class;
+  }
+
+  @Override
+  public Class<QueryEntityResult> getOutputType() {
+    return QueryEntityResult.class;
+  }
+
+  @Override
+  public QueryEntityResult transform(final QueryEntityResult input) throws SerializerException {
+    return input;
+  }
+
+  @Override
+  public <I> Transformation<I, QueryEntityResult> createSubTransformation(final Class<I> newStart)
+      throws SerializerException {
+    throw new SerializerException("No sub transformation possible", SerializerException.MessageKeys.UNSUPPORTED_FORMAT);
+  }
+}
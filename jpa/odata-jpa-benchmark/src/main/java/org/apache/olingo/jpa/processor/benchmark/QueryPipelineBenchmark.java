@@ -0,0 +1,132 @@
+package org.apache.olingo.jpa.processor.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.jpa.processor.core.query.DatabaseQueryResult2ODataEntityConverter;
+import org.apache.olingo.jpa.processor.core.query.EntityQueryBuilder;
+import org.apache.olingo.jpa.processor.core.query.NavigationIfc;
+import org.apache.olingo.jpa.processor.core.query.result.QueryEntityResult;
+import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
+import org.apache.olingo.server.api.serializer.ODataSerializer;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the single stages of a entity collection request: building the criteria query, executing the
+ * query, converting the result tuples into OData entities and serializing the entities as JSON. Every stage is
+ * measured separately, the input for a stage is prepared once per trial. A query builder can be executed only once,
+ * so the execution stage is measured as single shot of {@value #EXECUTION_BATCH_SIZE} executions with builders
+ * prepared per iteration (a setup per invocation would distort the timing of such short operations); the score of
+ * that stage is the time of the complete batch.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryPipelineBenchmark {
+
+  private static final int EXECUTION_BATCH_SIZE = 50;
+
+  @Param({ "Organizations", "Persons", "AdministrativeDivisions" })
+  public String entitySet;
+
+  private BenchmarkFixture fixture;
+  private EntityManager em;
+  private UriInfo uriInfo;
+  private NavigationIfc navigation;
+  private EdmEntitySet edmEntitySet;
+  private final Deque<EntityQueryBuilder> preparedQueryBuilders = new ArrayDeque<>();
+  private QueryEntityResult queryResult;
+  private EntityCollection entityCollection;
+  private ODataSerializer serializer;
+  private final byte[] buffer = new byte[8192];
+
+  @Setup(Level.Trial)
+  public void setup(final BenchmarkFixture benchmarkFixture) throws ODataException, IOException {
+    this.fixture = benchmarkFixture;
+    em = fixture.createEntityManager();
+    uriInfo = fixture.parseUri(entitySet, null);
+    navigation = fixture.createNavigation(entitySet, null);
+    edmEntitySet = ((UriResourceEntitySet) uriInfo.getUriResourceParts().get(0)).getEntitySet();
+    queryResult = buildQuery().execute(false, new PassThroughTransformation());
+    entityCollection = convertResult();
+    serializer = fixture.getOdata().createSerializer(ContentType.APPLICATION_JSON);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    em.close();
+  }
+
+  @Benchmark
+  public EntityQueryBuilder buildQuery() throws ODataException {
+    return new EntityQueryBuilder(fixture.createRequestContext(), navigation, em, fixture.getServiceMetadata());
+  }
+
+  @Setup(Level.Iteration)
+  public void prepareQueryBuilders() throws ODataException {
+    preparedQueryBuilders.clear();
+    for (int i = 0; i < EXECUTION_BATCH_SIZE; i++) {
+      preparedQueryBuilders.push(buildQuery());
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 5, batchSize = EXECUTION_BATCH_SIZE)
+  @Measurement(iterations = 10, batchSize = EXECUTION_BATCH_SIZE)
+  public QueryEntityResult executeQuery() throws ODataException {
+    return preparedQueryBuilders.pop().execute(false, new PassThroughTransformation());
+  }
+
+  @Benchmark
+  public EntityCollection convertResult() throws ODataException {
+    return new DatabaseQueryResult2ODataEntityConverter(fixture.getEdmProvider().getServiceDocument(), fixture
+        .getOdata().createUriHelper(), fixture.getServiceMetadata()).convertDBTuple2OData(queryResult);
+  }
+
+  @Benchmark
+  public long serializeResult() throws ODataException, IOException {
+    final ContextURL contextUrl = ContextURL.with().entitySet(edmEntitySet).build();
+    final EntityCollectionSerializerOptions options = EntityCollectionSerializerOptions.with().contextURL(
+        contextUrl).id(entitySet).build();
+    final InputStream content = serializer.entityCollection(fixture.getServiceMetadata(), edmEntitySet
+        .getEntityType(), entityCollection, options).getContent();
+    // consume the stream, the serializer may produce the content lazy
+    long size = 0;
+    int read;
+    while ((read = content.read(buffer)) > -1) {
+      size += read;
+    }
+    return size;
+  }
+}
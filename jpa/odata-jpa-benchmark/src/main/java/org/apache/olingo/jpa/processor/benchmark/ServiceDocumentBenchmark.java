@@ -0,0 +1,77 @@
+package org.apache.olingo.jpa.processor.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAElement;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.IntermediateServiceDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention benchmark for the type lookups of the {@link IntermediateServiceDocument} done for every request. The
+ * lookups are measured with concurrent readers only and with readers running concurrently to a thread rendering the
+ * schemas (like a <code>$metadata</code> request), that is holding the lock of the service document.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceDocumentBenchmark {
+
+  private IntermediateServiceDocument serviceDocument;
+  private FullQualifiedName entityTypeName;
+  private JPAEntityType entityType;
+
+  @Setup(Level.Trial)
+  public void setup(final BenchmarkFixture benchmarkFixture) throws ODataJPAModelException {
+    serviceDocument = benchmarkFixture.getEdmProvider().getServiceDocument();
+    entityType = serviceDocument.getEntityType("Organizations");
+    entityTypeName = entityType.getExternalFQN();
+  }
+
+  private JPAElement lookupTypes() throws ODataJPAModelException {
+    if (serviceDocument.getEntityType(entityTypeName) == null) {
+      throw new IllegalStateException("Entity type not found: " + entityTypeName);
+    }
+    return serviceDocument.getEntitySet(entityType);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public JPAElement lookupUncontended() throws ODataJPAModelException {
+    return lookupTypes();
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(7)
+  public JPAElement lookupContended() throws ODataJPAModelException {
+    return lookupTypes();
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(1)
+  public List<CsdlSchema> renderSchemas() throws ODataJPAModelException {
+    return serviceDocument.getEdmSchemas();
+  }
+}
@@ -0,0 +1,24 @@
+package org.apache.olingo.jpa.metadata.core.edm.mapper.api;
+
+import org.apache.olingo.jpa.metadata.core.edm.converter.ODataAttributeConverter;
+
+/**
+ * Element of the meta model keeping the converter used for all values of the element while converting from JPA into
+ * OData. The converter is resolved by the processor only once per element and is part of the meta model, so it is
+ * released together with the service document.
+ */
+public interface JPAConvertibleElement extends JPADescribedElement {
+
+  /**
+   *
+   * @return The converter set via {@link #setJPA2ODataConverter(ODataAttributeConverter)} or <code>null</code> if not
+   * resolved yet.
+   */
+  public ODataAttributeConverter<Object, Object> getJPA2ODataConverter();
+
+  /**
+   * Keep the resolved converter for all further conversions of values of this element. Multiple threads may resolve
+   * the converter concurrently, so the converter must be stateless.
+   */
+  public void setJPA2ODataConverter(ODataAttributeConverter<Object, Object> converter);
+}
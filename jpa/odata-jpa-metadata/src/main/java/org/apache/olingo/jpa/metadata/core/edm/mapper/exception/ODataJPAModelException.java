@@ -41,6 +41,9 @@ public class ODataJPAModelException extends ODataJPAException {
 		INVALID_PARAMETER,
 
 		PROPERTY_DEFAULT_ERROR,
+		PROPERTY_NOT_ACCESSIBLE,
+		PROPERTY_READ_ONLY,
+		PROPERTY_WRITE_ONLY,
 		REFERENCED_PROPERTY_NOT_FOUND,
 		INHERITANCE_NOT_ALLOWED,
 		TO_MANY_STREAMS,
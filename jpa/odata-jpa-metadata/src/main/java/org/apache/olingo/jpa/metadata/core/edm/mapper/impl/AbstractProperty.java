@@ -9,16 +9,34 @@ import java.util.Arrays;
 import javax.persistence.metamodel.Attribute;
 
 import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmItem;
+import org.apache.olingo.jpa.metadata.core.edm.converter.ODataAttributeConverter;
 
 public abstract class AbstractProperty<CsdlType extends CsdlAbstractEdmItem> extends
     IntermediateModelElement<CsdlType> {
 
+  // resolved by the processor on first conversion of a value
+  private volatile ODataAttributeConverter<Object, Object> jpa2ODataConverter = null;
+
   protected AbstractProperty(final JPAEdmNameBuilder nameBuilder, final String internalName) {
     super(nameBuilder, internalName);
   }
 
   abstract boolean isStream();
 
+  /**
+   * @see org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAConvertibleElement#getJPA2ODataConverter()
+   */
+  public ODataAttributeConverter<Object, Object> getJPA2ODataConverter() {
+    return jpa2ODataConverter;
+  }
+
+  /**
+   * @see org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAConvertibleElement#setJPA2ODataConverter(ODataAttributeConverter)
+   */
+  public void setJPA2ODataConverter(final ODataAttributeConverter<Object, Object> converter) {
+    this.jpa2ODataConverter = converter;
+  }
+
   /**
    * With the different JPA implementations we may have several scenarios:
    * <ul>
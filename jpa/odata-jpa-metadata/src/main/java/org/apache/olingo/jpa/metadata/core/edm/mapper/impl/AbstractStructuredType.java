@@ -32,7 +32,13 @@ implements JPAStructuredType {
   private final Map<String, JPAPathImpl> simpleAttributePathMap;
   private final Map<String, JPAPathImpl> complexAttributePathMap;
   private final Map<String, JPAAssociationPathImpl> associationPathMap;
-  private InitializationState initStateType = InitializationState.NotInitialized;
+  private volatile InitializationState initStateType = InitializationState.NotInitialized;
+  /**
+   * Set after the path maps are built completely (while holding the monitor of this type), so the reading access to a
+   * built type is lock free.
+   */
+  private volatile boolean completePathMapBuilt = false;
+  private volatile boolean completeAssociationPathMapBuilt = false;
 
   protected AbstractStructuredType(final JPAEdmNameBuilder nameBuilder, final String qualifiedInternalTypeName)
       throws ODataJPAModelException {
@@ -231,25 +237,33 @@ implements JPAStructuredType {
   protected abstract void buildPropertyList() throws ODataJPAModelException;
 
   /**
-   * Internal class/type method to initialize state of type.
+   * Internal class/type method to initialize state of type. The initialization is done once while holding the monitor
+   * of this type, a concurrent caller waits until the type is initialized. The types are initialized while resolving
+   * the schemas under the lock of the service document (enum and DTO types may be created on demand), so that lock is
+   * always acquired before the monitor of a type.
    */
   protected final void initializeType() throws ODataJPAModelException {
-    switch (initStateType) {
-    case Initialized:
+    if (initStateType == InitializationState.Initialized) {
       return;
-    case InProgress:
-      throw new IllegalStateException("Initialization already in progress, recursion problem!");
-    default:
-      break;
     }
+    synchronized (this) {
+      switch (initStateType) {
+      case Initialized:
+        return;
+      case InProgress:
+        // only reachable by the thread holding the monitor
+        throw new IllegalStateException("Initialization already in progress, recursion problem!");
+      default:
+        break;
+      }
 
-    try {
-      initStateType = InitializationState.InProgress;
-      buildPropertyList();
-    } finally {
-      initStateType = InitializationState.Initialized;
+      try {
+        initStateType = InitializationState.InProgress;
+        buildPropertyList();
+      } finally {
+        initStateType = InitializationState.Initialized;
+      }
     }
-
   }
 
   final protected FullQualifiedName determineBaseType() throws ODataJPAModelException {
@@ -316,9 +330,15 @@ implements JPAStructuredType {
   }
 
   private void lazyBuildCompleteAssociationPathMap() throws ODataJPAModelException {
+    if (completeAssociationPathMapBuilt) {
+      return;
+    }
     JPAAssociationPathImpl associationPath;
     lazyBuildCompletePathMap();
-    if (associationPathMap.size() == 0) {
+    synchronized (this) {
+      if (completeAssociationPathMapBuilt || associationPathMap.size() != 0) {
+        return;
+      }
       for (final JPAAssociationAttribute navProperty : getAssociations()) {
         associationPath = new JPAAssociationPathImpl((AbstractNavigationProperty) navProperty, this);
         associationPathMap.put(associationPath.getAlias(), associationPath);
@@ -342,6 +362,7 @@ implements JPAStructuredType {
           }
         }
       }
+      completeAssociationPathMapBuilt = true;
     }
   }
 
@@ -351,11 +372,21 @@ implements JPAStructuredType {
   abstract protected String determineDBFieldName(final JPAMemberAttribute property, final JPAAttributePath jpaPath);
 
   private void lazyBuildCompletePathMap() throws ODataJPAModelException {
-    initializeType();
-
-    if (!simpleAttributePathMap.isEmpty()) {
+    if (completePathMapBuilt) {
       return;
     }
+    initializeType();
+    synchronized (this) {
+      if (!simpleAttributePathMap.isEmpty()) {
+        // already built or recursive call while building
+        return;
+      }
+      buildCompletePathMap();
+      completePathMapBuilt = true;
+    }
+  }
+
+  private void buildCompletePathMap() throws ODataJPAModelException {
     ArrayList<JPAAttribute<?>> pathList;
     String externalName;
     for (final JPAMemberAttribute property : declaredPropertiesList.values()) {
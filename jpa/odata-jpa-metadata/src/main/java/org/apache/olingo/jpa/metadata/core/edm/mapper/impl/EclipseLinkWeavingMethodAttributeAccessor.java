@@ -6,6 +6,7 @@ import java.util.logging.Logger;
 import javax.persistence.metamodel.Attribute;
 
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttributeAccessor;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 
 /**
  * Special method access implementation for properties affected by weaving of EclipseLink to workaround the
@@ -24,7 +25,8 @@ public class EclipseLinkWeavingMethodAttributeAccessor extends MethodAttributeAc
 
   private static boolean weavingDetectedAlreadyLogged = false;
 
-  public EclipseLinkWeavingMethodAttributeAccessor(final Attribute<?, ?> jpaAttribute) {
+  public EclipseLinkWeavingMethodAttributeAccessor(final Attribute<?, ?> jpaAttribute)
+      throws ODataJPAModelException {
     super(findReadMethod(jpaAttribute), findWriteMethod(jpaAttribute));
     // the java member is normally the synthetic getter method created by class weaver
     if (!isEclipseLinkValueHolderWeavingMethod((Method) jpaAttribute.getJavaMember())) {
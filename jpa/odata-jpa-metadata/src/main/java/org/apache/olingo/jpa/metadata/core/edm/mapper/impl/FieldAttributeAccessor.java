@@ -1,5 +1,8 @@
 package org.apache.olingo.jpa.metadata.core.edm.mapper.impl;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -8,12 +11,35 @@ import java.util.Collection;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttributeAccessor;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 
+/**
+ * Accessor for an attribute declared as field. The getter and setter are created once as {@link MethodHandle method
+ * handles} while building the model, so the access is cheap and without any modification of the (shared)
+ * {@link Field} while processing requests.
+ */
 class FieldAttributeAccessor implements JPAAttributeAccessor {
 
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
   private final Field field;
+  private final boolean isCollectionField;
+  private final MethodHandle getter;
+  private final MethodHandle setter;
 
-  public FieldAttributeAccessor(final Field field) {
+  public FieldAttributeAccessor(final Field field) throws ODataJPAModelException {
     this.field = field;
+    this.isCollectionField = Collection.class.isAssignableFrom(field.getType());
+    try {
+      // work on our own copy of the field, so the accessibility of the field object from the JPA metamodel is not
+      // changed
+      final Field accessibleField = field.getDeclaringClass().getDeclaredField(field.getName());
+      accessibleField.setAccessible(true);
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      this.getter = lookup.unreflectGetter(accessibleField).asType(GETTER_TYPE);
+      this.setter = lookup.unreflectSetter(accessibleField).asType(SETTER_TYPE);
+    } catch (NoSuchFieldException | IllegalAccessException | SecurityException e) {
+      throw new ODataJPAModelException(e);
+    }
   }
 
   @Override
@@ -44,8 +70,10 @@ class FieldAttributeAccessor implements JPAAttributeAccessor {
       return;
     }
     try {
-      writeJPAFieldValue(jpaEntity, field, jpaPropertyValue);
-    } catch (IllegalArgumentException | IllegalAccessException e) {
+      writeJPAFieldValue(jpaEntity, jpaPropertyValue);
+    } catch (final Error e) {
+      throw e;
+    } catch (final Throwable e) {
       throw new ODataJPAModelException(e);
     }
   }
@@ -53,54 +81,33 @@ class FieldAttributeAccessor implements JPAAttributeAccessor {
   @Override
   public Object getPropertyValue(final Object jpaEntity) throws ODataJPAModelException {
     try {
-      return readJPAFieldValue(jpaEntity, field);
-    } catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
+      return getter.invokeExact(jpaEntity);
+    } catch (final Error e) {
+      throw e;
+    } catch (final Throwable e) {
       throw new ODataJPAModelException(e);
     }
   }
 
-  private static Object readJPAFieldValue(final Object object, /* final Class<?> jpaClassType, */ final Field field)
-      throws NoSuchFieldException, IllegalArgumentException, IllegalAccessException {
-    boolean revertAccessibility = false;
-    // try {
-    // final Field field = jpaClassType.getDeclaredField(fieldName);
-    if (!field.isAccessible()) {
-      field.setAccessible(true);
-      revertAccessibility = true;
-    }
-    final Object value = field.get(object);
-    if (revertAccessibility) {
-      field.setAccessible(false);
-    }
-    return value;
-
-  }
-
-  private static void writeJPAFieldValue(final Object jpaEntity, final Field field, final Object jpaPropertyValue)
-      throws IllegalArgumentException, IllegalAccessException {
-    boolean revertAccessibility = false;
-    if (!field.isAccessible()) {
-      field.setAccessible(true);
-      revertAccessibility = true;
-    }
+  private void writeJPAFieldValue(final Object jpaEntity, final Object jpaPropertyValue) throws Throwable {
     // 'Set' is also handled as collection, because correct type must be created outside...
-    if (Collection.class.isAssignableFrom(field.getType()) && Collection.class.isInstance(jpaPropertyValue)
-        && field.get(jpaEntity) != null) {
-      // do not set the collection directly, because some specific implementations may
-      // cause problems... add entries in collection instead
-      @SuppressWarnings("unchecked")
-      final Collection<Object> target = (Collection<Object>) field.get(jpaEntity);
-      target.clear();
-      @SuppressWarnings("unchecked")
-      final Collection<Object> source = (Collection<Object>) jpaPropertyValue;
-      target.addAll(source);
-    } else {
-      // replace 'null' value with our collection (List, Set)
-      field.set(jpaEntity, jpaPropertyValue);
-    }
-    if (revertAccessibility) {
-      field.setAccessible(false);
+    if (isCollectionField && Collection.class.isInstance(jpaPropertyValue)) {
+      // the call site type must match exactly, so cast the result afterwards
+      final Object currentValue = getter.invokeExact(jpaEntity);
+      if (currentValue != null) {
+        @SuppressWarnings("unchecked")
+        final Collection<Object> target = (Collection<Object>) currentValue;
+        // do not set the collection directly, because some specific implementations may
+        // cause problems... add entries in collection instead
+        target.clear();
+        @SuppressWarnings("unchecked")
+        final Collection<Object> source = (Collection<Object>) jpaPropertyValue;
+        target.addAll(source);
+        return;
+      }
     }
+    // replace 'null' value with our collection (List, Set)
+    setter.invokeExact(jpaEntity, jpaPropertyValue);
   }
 
 }
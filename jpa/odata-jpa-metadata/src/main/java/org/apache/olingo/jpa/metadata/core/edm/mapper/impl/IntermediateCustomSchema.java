@@ -34,13 +34,15 @@ class IntermediateCustomSchema extends AbstractJPASchema {
 
   private static boolean mapWarningAlreadyLogged = false;
 
-  final private Map<String, IntermediateEnumType> enumTypes = new TreeMap<>();
-  final private Map<String, IntermediateEnityTypeDTO> dtoTypes = new TreeMap<>();
-  final private Map<String, AbstractIntermediateComplexTypeDTO> complexTypes = new TreeMap<>();
-  final private Map<String, IntermediateAction> actions = new TreeMap<>();
-  final private Map<String, JPAEntitySet> entitySets = new TreeMap<>();
+  // the maps are modified only while holding the lock of the service document and replaced by an immutable copy for
+  // every change, so readers without lock never iterate over a map modified concurrently
+  private volatile Map<String, IntermediateEnumType> enumTypes = Collections.emptyMap();
+  private volatile Map<String, IntermediateEnityTypeDTO> dtoTypes = Collections.emptyMap();
+  private volatile Map<String, AbstractIntermediateComplexTypeDTO> complexTypes = Collections.emptyMap();
+  private volatile Map<String, IntermediateAction> actions = Collections.emptyMap();
+  private volatile Map<String, JPAEntitySet> entitySets = Collections.emptyMap();
   final private IntermediateServiceDocument serviceDocument;
-  private CsdlSchema edmSchema = null;
+  private volatile CsdlSchema edmSchema = null;
   private int dtCount = 0;
 
   IntermediateCustomSchema(final IntermediateServiceDocument serviceDocument, final String namespace)
@@ -49,6 +51,17 @@ class IntermediateCustomSchema extends AbstractJPASchema {
     this.serviceDocument = serviceDocument;
   }
 
+  private static <V> Map<String, V> copyWith(final Map<String, V> map,
+      final Map<? extends String, ? extends V> newEntries) {
+    final Map<String, V> copy = new TreeMap<>(map);
+    copy.putAll(newEntries);
+    return Collections.unmodifiableMap(copy);
+  }
+
+  private static <V> Map<String, V> copyWith(final Map<String, V> map, final String key, final V value) {
+    return copyWith(map, Collections.singletonMap(key, value));
+  }
+
   @Override
   JPAComplexType getComplexType(final Class<?> targetClass) {
     return getComplexType(getNameBuilder().buildComplexTypeName(targetClass));
@@ -82,12 +95,13 @@ class IntermediateCustomSchema extends AbstractJPASchema {
     buildActionList();
 
     // take it...
-    edmSchema = new CsdlSchema();
-    edmSchema.setNamespace(getNameBuilder().buildNamespace());
-    edmSchema.setEnumTypes(buildEnumTypeList());
-    edmSchema.setComplexTypes(buildComplexTypeList());
-    edmSchema.setEntityTypes(buildEntityTypeList());
-    edmSchema.setActions(buildActionList());
+    final CsdlSchema schema = new CsdlSchema();
+    schema.setNamespace(getNameBuilder().buildNamespace());
+    schema.setEnumTypes(buildEnumTypeList());
+    schema.setComplexTypes(buildComplexTypeList());
+    schema.setEntityTypes(buildEntityTypeList());
+    schema.setActions(buildActionList());
+    edmSchema = schema;
   }
 
   private List<CsdlEntityType> buildEntityTypeList() throws RuntimeException {
@@ -116,7 +130,7 @@ class IntermediateCustomSchema extends AbstractJPASchema {
     IntermediateEnumType enumType = getEnumType(clazz);
     if (enumType == null) {
       enumType = new IntermediateEnumType(getNameBuilder(), clazz, serviceDocument);
-      enumTypes.put(enumType.getExternalName(), enumType);
+      enumTypes = copyWith(enumTypes, enumType.getExternalName(), enumType);
       // force rebuild
       edmSchema = null;
     }
@@ -145,7 +159,7 @@ class IntermediateCustomSchema extends AbstractJPASchema {
       LOGGER.info("The type " + Map.class.getCanonicalName()
           + " was created as complex open type. Open types are not supported by Olingo's (de)serializer, so a custom (de)serializer by OData-JPA-Adapter must be used. There is only JSON supported!");
     }
-    complexTypes.put(mapType.getExternalName(), mapType);
+    complexTypes = copyWith(complexTypes, mapType.getExternalName(), mapType);
     // force rebuild
     edmSchema = null;
     return mapType;
@@ -160,7 +174,7 @@ class IntermediateCustomSchema extends AbstractJPASchema {
     AbstractIntermediateComplexTypeDTO complexType = (AbstractIntermediateComplexTypeDTO) getComplexType(clazz);
     if (complexType == null) {
       complexType = new IntermediateComplexTypeDTO(getNameBuilder(), clazz, serviceDocument);
-      complexTypes.put(complexType.getExternalName(), complexType);
+      complexTypes = copyWith(complexTypes, complexType.getExternalName(), complexType);
       // force rebuild
       edmSchema = null;
     }
@@ -176,13 +190,15 @@ class IntermediateCustomSchema extends AbstractJPASchema {
     IntermediateEnityTypeDTO dtoType = getDTOType(clazz);
     if (dtoType == null) {
       dtoType = new IntermediateEnityTypeDTO(getNameBuilder(), clazz, serviceDocument);
-      dtoTypes.put(dtoType.getExternalName(), dtoType);
       // build actions for DTO
       final IntermediateActionFactory factory = new IntermediateActionFactory();
-      actions.putAll(factory.create(getNameBuilder(), dtoType.getTypeClass(), serviceDocument));
+      final Map<? extends String, ? extends IntermediateAction> dtoActions = factory.create(getNameBuilder(), dtoType.getTypeClass(),
+          serviceDocument);
       // build entity set
       final IntermediateEntitySet es = new IntermediateEntitySet(dtoType);
-      entitySets.put(es.getExternalName(), es);
+      actions = copyWith(actions, dtoActions);
+      entitySets = copyWith(entitySets, es.getExternalName(), es);
+      dtoTypes = copyWith(dtoTypes, dtoType.getExternalName(), dtoType);
       // force rebuild
       edmSchema = null;
     }
@@ -33,7 +33,7 @@ class IntermediateNavigationDTOProperty extends AbstractNavigationProperty {
   private InitializationState initStateEdm = InitializationState.NotInitialized;
 
   IntermediateNavigationDTOProperty(final JPAEdmNameBuilder nameBuilder, final Field field,
-      final IntermediateServiceDocument serviceDocument) {
+      final IntermediateServiceDocument serviceDocument) throws ODataJPAModelException {
     super(nameBuilder, field.getName());
     this.serviceDocument = serviceDocument;
     this.field = field;
@@ -77,7 +77,7 @@ IntermediateNavigationPropertyAccess {
 
   IntermediateNavigationProperty(final JPAEdmNameBuilder nameBuilder, final AbstractStructuredTypeJPA<?, ?> parent,
       final Attribute<?, ?> jpaAttribute,
-      final IntermediateServiceDocument serviceDocument) {
+      final IntermediateServiceDocument serviceDocument) throws ODataJPAModelException {
     super(nameBuilder, jpaAttribute.getName());
     this.jpaAttribute = jpaAttribute;
     this.serviceDocument = serviceDocument;
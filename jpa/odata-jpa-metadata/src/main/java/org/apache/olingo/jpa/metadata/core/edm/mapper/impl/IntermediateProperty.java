@@ -30,6 +30,7 @@ import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmMediaStream;
 import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmSearchable;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.AttributeMapping;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttributeAccessor;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAConvertibleElement;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
@@ -49,7 +50,7 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelExc
  * @author Oliver Grande
  *
  */
-class IntermediateProperty extends AbstractProperty<CsdlProperty> implements JPAMemberAttribute {
+class IntermediateProperty extends AbstractProperty<CsdlProperty> implements JPAMemberAttribute, JPAConvertibleElement {
 
   private final static Logger LOG = Logger.getLogger(IntermediateProperty.class.getName());
   private static final String DB_FIELD_NAME_PATTERN = "\"&1\"";
@@ -68,6 +69,8 @@ class IntermediateProperty extends AbstractProperty<CsdlProperty> implements JPA
   private final JPAAttributeAccessor accessor;
   private final Member javaMember;
   private final Class<?> attributeClass;
+  // resolved on demand, the lookup may scan the class hierarchy
+  private AnnotatedElement annotatedElement = null;
 
   IntermediateProperty(final JPAEdmNameBuilder nameBuilder, final Attribute<?, ?> jpaAttribute,
       final IntermediateServiceDocument serviceDocument) throws ODataJPAModelException {
@@ -108,7 +111,10 @@ class IntermediateProperty extends AbstractProperty<CsdlProperty> implements JPA
 
   @Override
   public AnnotatedElement getAnnotatedElement() {
-    return determineRealPropertyDeclarationElement(jpaAttribute);
+    if (annotatedElement == null) {
+      annotatedElement = determineRealPropertyDeclarationElement(jpaAttribute);
+    }
+    return annotatedElement;
   }
 
   @Override
@@ -18,6 +18,7 @@ import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmIgnore;
 import org.apache.olingo.jpa.metadata.core.edm.complextype.ODataComplexType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.AttributeMapping;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttributeAccessor;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAConvertibleElement;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
@@ -28,7 +29,8 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelExc
  * @author Ralf Zozmann
  *
  */
-class IntermediatePropertyDTOField extends AbstractProperty<CsdlProperty> implements JPAMemberAttribute {
+class IntermediatePropertyDTOField extends AbstractProperty<CsdlProperty> implements JPAMemberAttribute,
+    JPAConvertibleElement {
 
   private final IntermediateServiceDocument serviceDocument;
   private final Field field;
@@ -38,7 +40,7 @@ class IntermediatePropertyDTOField extends AbstractProperty<CsdlProperty> implem
   private FullQualifiedName propertyTypeName = null;
 
   public IntermediatePropertyDTOField(final JPAEdmNameBuilder nameBuilder, final Field field,
-      final IntermediateServiceDocument serviceDocument) {
+      final IntermediateServiceDocument serviceDocument) throws ODataJPAModelException {
     super(nameBuilder, field.getName());
     this.serviceDocument = serviceDocument;
     this.field = field;
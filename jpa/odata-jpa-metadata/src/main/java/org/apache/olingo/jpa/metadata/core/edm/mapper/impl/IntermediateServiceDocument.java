@@ -2,13 +2,19 @@ package org.apache.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 import javax.persistence.metamodel.Metamodel;
 
 import org.apache.olingo.commons.api.edm.EdmAction;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmFunction;
 import org.apache.olingo.commons.api.edm.EdmType;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
@@ -16,6 +22,7 @@ import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAction;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAComplexType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAElement;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntitySet;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
@@ -33,10 +40,62 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelExc
  * @see org.apache.olingo.client.api.data.ServiceDocument
  */
 public class IntermediateServiceDocument {
+
+  /**
+   * Immutable state of the model published to readers without lock.
+   */
+  private static final class ModelSnapshot {
+    private final Map<String, AbstractJPASchema> schemas;
+    /**
+     * The completely built entity container or <code>null</code> if not built for the current schemas.
+     */
+    private final CsdlEntityContainer container;
+
+    private ModelSnapshot(final Map<String, AbstractJPASchema> schemas, final CsdlEntityContainer container) {
+      this.schemas = schemas;
+      this.container = container;
+    }
+  }
+
+  /**
+   * Upper limit of cached dynamic types, the least recently used type is removed if exceeded.
+   */
+  private static final int MAX_DYNAMIC_TYPES = 200;
+
   private final Object lock = new Object();
+  /**
+   * The working map of schemas, modified only while holding the lock.
+   */
   private final Map<String, AbstractJPASchema> schemaListInternalKey = new HashMap<>();
-  private boolean dependendSchemaCreationRequired = false;
+  /**
+   * Replaced (under lock) for every change of the model. Used for all reading access without lock; the schemas are
+   * publishing their types also as immutable copies, so readers never iterate over a map modified concurrently.
+   */
+  private volatile ModelSnapshot snapshot = new ModelSnapshot(Collections.emptyMap(), null);
+  /**
+   * Set to TRUE (under lock) if the metamodel was changed and all schemas must be resolved before the next reading
+   * access. Reset only after the resolving is finished, so readers without lock will see only completely resolved
+   * schemas.
+   */
+  private volatile boolean dependendSchemaCreationRequired = false;
+  private int resolveRequests = 0;
+  /**
+   * Incremented (under lock) for every published change of the schemas and every type added to a custom schema.
+   */
+  private volatile long modelVersion = 0;
+  private boolean resolving = false;
   private final IntermediateEntityContainer intermediateContainer;
+  /**
+   * LRU cache of the types created while processing requests; access only while holding the monitor of the map.
+   */
+  @SuppressWarnings("serial")
+  private final Map<String, EdmEntityType> dynamicEntityTypes = new LinkedHashMap<String, EdmEntityType>(16, 0.75f,
+      true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, EdmEntityType> eldest) {
+      return size() > MAX_DYNAMIC_TYPES;
+    }
+  };
 
   /**
    *
@@ -60,21 +119,79 @@ public class IntermediateServiceDocument {
     }
   }
 
-  private final void resolveSchemas() {
+  /**
+   * Must be called while holding the lock.
+   */
+  private void publishSchemas(final boolean resolveRequired) {
+    final Map<String, AbstractJPASchema> schemas = Collections.unmodifiableMap(new HashMap<>(schemaListInternalKey));
+    modelVersion++;
+    if (resolveRequired) {
+      // new entity types affect the entity sets, so the container must be rebuilt
+      intermediateContainer.reset();
+      snapshot = new ModelSnapshot(schemas, null);
+      resolveRequests++;
+      dependendSchemaCreationRequired = true;
+    } else {
+      snapshot = new ModelSnapshot(schemas, snapshot.container);
+    }
+  }
+
+  /**
+   * The lock is only acquired if the metamodel was changed since the last call, so in a warm model the reading access
+   * is lock free.
+   *
+   * @return The (unmodifiable) map of all resolved schemas.
+   */
+  private final Map<String, AbstractJPASchema> resolveSchemas() {
+    if (!dependendSchemaCreationRequired) {
+      return snapshot.schemas;
+    }
     synchronized (lock) {
-      if (!dependendSchemaCreationRequired) {
-        return;
+      if (!dependendSchemaCreationRequired || resolving) {
+        // prevent recursive calls
+        return snapshot.schemas;
       }
-      // prevent recursive calls
-      dependendSchemaCreationRequired = false;
+      final int requests = resolveRequests;
+      resolving = true;
+      try {
+        // we have to do something very tricky/dirty:
+        // some custom schemas are created on demand while traversing the metamodel from
+        // JPA
+        // so we have trigger here the creation of all meta informations (including schema creation)
+        invokeEverySchema();
+        // recursive second strike to touch also new (on demand) created schemas
+        invokeEverySchema();
+      } finally {
+        resolving = false;
+      }
+      if (requests == resolveRequests) {
+        dependendSchemaCreationRequired = false;
+      }
+      return snapshot.schemas;
+    }
+  }
 
-      // we have to do something very tricky/dirty:
-      // some custom schemas are created on demand while traversing the metamodel from
-      // JPA
-      // so we have trigger here the creation of all meta informations (including schema creation)
-      invokeEverySchema();
-      // recursive second strike to touch also new (on demand) created schemas
-      invokeEverySchema();
+  /**
+   *
+   * @return The version of the model, changed for every new schema, DTO or type (like an enumeration) added after
+   * creation of the service document. Useful to invalidate rendered documents (like <code>$metadata</code>).
+   */
+  public long getModelVersion() {
+    return modelVersion;
+  }
+
+  /**
+   * Dynamic entity types are created while processing requests (like the result type of <code>$apply</code>), they are
+   * not part of the schemas, but cached for the life time of this service document.
+   *
+   * @param shape The key describing the structure of the type completely, must not depend on values of the result.
+   * @param typeFactory Called to create the type for the shape, if not cached.
+   * @return The cached or created type.
+   */
+  public EdmEntityType getDynamicEntityType(final String shape,
+      final Function<String, EdmEntityType> typeFactory) {
+    synchronized (dynamicEntityTypes) {
+      return dynamicEntityTypes.computeIfAbsent(shape, typeFactory);
     }
   }
 
@@ -83,7 +200,22 @@ public class IntermediateServiceDocument {
    * @return The only entity container of OData service.
    */
   public CsdlEntityContainer getEntityContainer() throws ODataJPAModelException {
-    return intermediateContainer.getEdmItem();
+    // the container is built from the entity types, so they must be resolved before
+    resolveSchemas();
+    final CsdlEntityContainer container = snapshot.container;
+    if (container != null) {
+      return container;
+    }
+    synchronized (lock) {
+      final ModelSnapshot current = snapshot;
+      if (current.container != null) {
+        return current.container;
+      }
+      // publish only the completely built container
+      final CsdlEntityContainer builtContainer = intermediateContainer.getEdmItem();
+      snapshot = new ModelSnapshot(current.schemas, builtContainer);
+      return builtContainer;
+    }
   }
 
   public CsdlEntityContainerInfo getEntityContainerInfo() {
@@ -93,8 +225,7 @@ public class IntermediateServiceDocument {
   public List<CsdlSchema> getEdmSchemas() throws ODataJPAModelException {
     final List<CsdlSchema> schemas = new ArrayList<CsdlSchema>();
     synchronized (lock) {
-      resolveSchemas();
-      for (final AbstractJPASchema schema : schemaListInternalKey.values()) {
+      for (final AbstractJPASchema schema : resolveSchemas().values()) {
         // assign entity container to schema... only to the schema of same name space as
         // in entity container (simply to reduce complexity of meta data)
         final CsdlSchema cdslSchema = schema.getEdmItem();
@@ -107,21 +238,59 @@ public class IntermediateServiceDocument {
     return schemas;
   }
 
-  Collection<AbstractJPASchema> getJPASchemas() {
-    synchronized (lock) {
-      resolveSchemas();
-      return schemaListInternalKey.values();
+  /**
+   * Build the complete model now instead of lazy on first use. The schemas are resolved first (sequentially, as on
+   * every first access), then the path maps of all structured types are built in parallel.
+   *
+   * @param pool The pool used to build the structured types.
+   */
+  public void buildCompleteModel(final ForkJoinPool pool) throws ODataJPAModelException {
+    final List<AbstractStructuredType<?>> types = new ArrayList<>();
+    for (final AbstractJPASchema schema : getJPASchemas()) {
+      for (final JPAEntityType entityType : schema.getEntityTypes()) {
+        types.add((AbstractStructuredType<?>) entityType);
+      }
+      for (final JPAComplexType complexType : schema.getComplexTypes()) {
+        if (AbstractStructuredType.class.isInstance(complexType)) {
+          types.add((AbstractStructuredType<?>) complexType);
+        }
+      }
+    }
+    try {
+      // a parallel stream started in a task of the pool will use only the threads of that pool
+      pool.submit(() -> types.parallelStream().forEach(type -> {
+        try {
+          type.getPathList();
+          type.getAssociationPathList();
+        } catch (final ODataJPAModelException e) {
+          throw new IllegalStateException(e);
+        }
+      })).get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ODataJPAModelException(e);
+    } catch (final ExecutionException e) {
+      // the pool may wrap the original exception (thrown in another thread) again
+      Throwable cause = e.getCause();
+      while (cause != null && !ODataJPAModelException.class.isInstance(cause)) {
+        cause = cause.getCause();
+      }
+      if (cause != null) {
+        throw (ODataJPAModelException) cause;
+      }
+      throw new ODataJPAModelException(e.getCause());
     }
   }
 
-  public JPAEntityType getEntityType(final EdmType edmType) {
-    synchronized (lock) {
-      resolveSchemas();
+  Collection<AbstractJPASchema> getJPASchemas() {
+    return resolveSchemas().values();
+  }
 
-      final AbstractJPASchema schema = schemaListInternalKey.get(edmType.getNamespace());
-      if (schema != null) {
-        return schema.getEntityType(edmType.getName());
-      }
+  public JPAEntityType getEntityType(final EdmType edmType) {
+    final Map<String, AbstractJPASchema> schemas = resolveSchemas();
+    final AbstractJPASchema schema = schemas.get(edmType.getNamespace());
+    if (schema != null) {
+      return schema.getEntityType(edmType.getName());
     }
     return null;
   }
@@ -131,48 +300,40 @@ public class IntermediateServiceDocument {
    * @return The entity type based on given external (OData) related full qualified name.
    */
   public JPAEntityType getEntityType(final FullQualifiedName typeName) {
-    synchronized (lock) {
-      resolveSchemas();
-      final AbstractJPASchema schema = schemaListInternalKey.get(typeName.getNamespace());
-      if (schema != null) {
-        return schema.getEntityType(typeName.getName());
-      }
+    final Map<String, AbstractJPASchema> schemas = resolveSchemas();
+    final AbstractJPASchema schema = schemas.get(typeName.getNamespace());
+    if (schema != null) {
+      return schema.getEntityType(typeName.getName());
     }
     return null;
   }
 
   public JPAEntityType getEntityType(final String edmEntitySetName) throws ODataJPAModelException {
-    synchronized (lock) {
-      // do not resolve the on-demand schemas here; we have to avoid recursion
-      // problems and want to optimize performance
-      for (final AbstractJPASchema schema : schemaListInternalKey.values()) {
-        final JPAEntitySet es = schema.getEntitySet(edmEntitySetName);
-        if (es != null) {
-          return es.getEntityType();
-        }
+    // do not resolve the on-demand schemas here; we have to avoid recursion
+    // problems and want to optimize performance
+    for (final AbstractJPASchema schema : snapshot.schemas.values()) {
+      final JPAEntitySet es = schema.getEntitySet(edmEntitySetName);
+      if (es != null) {
+        return es.getEntityType();
       }
     }
     return null;
   }
 
   public JPAFunction getFunction(final EdmFunction function) {
-    synchronized (lock) {
-      resolveSchemas();
-      final AbstractJPASchema schema = schemaListInternalKey.get(function.getNamespace());
-      if (schema != null) {
-        return schema.getFunction(function.getName());
-      }
+    final Map<String, AbstractJPASchema> schemas = resolveSchemas();
+    final AbstractJPASchema schema = schemas.get(function.getNamespace());
+    if (schema != null) {
+      return schema.getFunction(function.getName());
     }
     return null;
   }
 
   public JPAAction getAction(final EdmAction action) {
-    synchronized (lock) {
-      resolveSchemas();
-      final AbstractJPASchema schema = schemaListInternalKey.get(action.getNamespace());
-      if (schema != null) {
-        return schema.getAction(action);
-      }
+    final Map<String, AbstractJPASchema> schemas = resolveSchemas();
+    final AbstractJPASchema schema = schemas.get(action.getNamespace());
+    if (schema != null) {
+      return schema.getAction(action);
     }
     return null;
   }
@@ -184,26 +345,22 @@ public class IntermediateServiceDocument {
     if (targetClass.isPrimitive()) {
       return null;
     }
-    synchronized (lock) {
-      // do not resolve the on-demand schemas here; we have to avoid recursion
-      // problems and want to optimize performance
-      for (final AbstractJPASchema schema : schemaListInternalKey.values()) {
-        final JPAStructuredType structuredType = schema.getStructuredType(targetClass);
-        if (structuredType != null) {
-          return structuredType;
-        }
+    // do not resolve the on-demand schemas here; we have to avoid recursion
+    // problems and want to optimize performance
+    for (final AbstractJPASchema schema : snapshot.schemas.values()) {
+      final JPAStructuredType structuredType = schema.getStructuredType(targetClass);
+      if (structuredType != null) {
+        return structuredType;
       }
     }
     return null;
   }
 
   public JPAStructuredType getStructuredType(final FullQualifiedName typeName) {
-    synchronized (lock) {
-      resolveSchemas();
-      final AbstractJPASchema schema = schemaListInternalKey.get(typeName.getNamespace());
-      if (schema != null) {
-        return schema.getStructuredType(typeName.getName());
-      }
+    final Map<String, AbstractJPASchema> schemas = resolveSchemas();
+    final AbstractJPASchema schema = schemas.get(typeName.getNamespace());
+    if (schema != null) {
+      return schema.getStructuredType(typeName.getName());
     }
     return null;
   }
@@ -213,13 +370,11 @@ public class IntermediateServiceDocument {
     if (Object.class.equals(targetClass)) {
       return null;
     }
-    synchronized (lock) {
-      resolveSchemas();
-      for (final AbstractJPASchema schema : schemaListInternalKey.values()) {
-        entityType = schema.getEntityType(targetClass);
-        if (entityType != null) {
-          return entityType;
-        }
+    final Map<String, AbstractJPASchema> schemas = resolveSchemas();
+    for (final AbstractJPASchema schema : schemas.values()) {
+      entityType = schema.getEntityType(targetClass);
+      if (entityType != null) {
+        return entityType;
       }
     }
     return null;
@@ -227,13 +382,11 @@ public class IntermediateServiceDocument {
 
   IntermediateEnumType getEnumType(final Class<?> targetClass) {
     IntermediateEnumType enumType;
-    synchronized (lock) {
-      resolveSchemas();
-      for (final AbstractJPASchema schema : schemaListInternalKey.values()) {
-        enumType = schema.getEnumType(targetClass);
-        if (enumType != null) {
-          return enumType;
-        }
+    final Map<String, AbstractJPASchema> schemas = resolveSchemas();
+    for (final AbstractJPASchema schema : schemas.values()) {
+      enumType = schema.getEnumType(targetClass);
+      if (enumType != null) {
+        return enumType;
       }
     }
     return null;
@@ -244,13 +397,11 @@ public class IntermediateServiceDocument {
     if (Object.class.equals(targetClass)) {
       return null;
     }
-    synchronized (lock) {
-      resolveSchemas();
-      for (final AbstractJPASchema schema : schemaListInternalKey.values()) {
-        complexType = schema.getComplexType(targetClass);
-        if (complexType != null) {
-          return complexType;
-        }
+    final Map<String, AbstractJPASchema> schemas = resolveSchemas();
+    for (final AbstractJPASchema schema : schemas.values()) {
+      complexType = schema.getComplexType(targetClass);
+      if (complexType != null) {
+        return complexType;
       }
     }
     return null;
@@ -266,7 +417,7 @@ public class IntermediateServiceDocument {
       final IntermediateMetamodelSchema schema = new IntermediateMetamodelSchema(this, namespace,
           jpaMetamodel);
       schemaListInternalKey.put(namespace, schema);
-      dependendSchemaCreationRequired = true;
+      publishSchemas(true);
       return schema;
     }
   }
@@ -277,6 +428,7 @@ public class IntermediateServiceDocument {
     }
     final IntermediateCustomSchema schema = new IntermediateCustomSchema(this, namespace);
     schemaListInternalKey.put(namespace, schema);
+    publishSchemas(false);
     return schema;
   }
 
@@ -284,6 +436,10 @@ public class IntermediateServiceDocument {
     synchronized (lock) {
       final String namespace = clazz.getPackage().getName();
       final AbstractJPASchema schema = findOrCreateCustomSchema(namespace);
+      if (schema.getEnumType(clazz) == null) {
+        // the new type is added to the existing schema
+        modelVersion++;
+      }
       return schema.findOrCreateEnumType(clazz);
     }
   }
@@ -295,10 +451,13 @@ public class IntermediateServiceDocument {
    */
   IntermediateMapComplexTypeDTO createDynamicJavaUtilMapType(final Class<?> mapKeyType,
       final Class<?> mapValueType, final boolean valueIsCollection) throws ODataJPAModelException {
-    final String namespace = Map.class.getPackage().getName();
-    final AbstractJPASchema schema = findOrCreateCustomSchema(namespace);
-    // Map type is created on-demand while creating other DTO types, so we have to avoid to reset the container
-    return ((IntermediateCustomSchema) schema).createDynamicMapType(mapKeyType, mapValueType, valueIsCollection);
+    synchronized (lock) {
+      final String namespace = Map.class.getPackage().getName();
+      final AbstractJPASchema schema = findOrCreateCustomSchema(namespace);
+      // Map type is created on-demand while creating other DTO types, so we have to avoid to reset the container
+      modelVersion++;
+      return ((IntermediateCustomSchema) schema).createDynamicMapType(mapKeyType, mapValueType, valueIsCollection);
+    }
   }
 
   AbstractIntermediateComplexTypeDTO findOrCreateDTOComplexType(final Class<?> clazz) throws ODataJPAModelException {
@@ -306,6 +465,9 @@ public class IntermediateServiceDocument {
     synchronized (lock) {
       final String namespace = clazz.getPackage().getName();
       final AbstractJPASchema schema = findOrCreateCustomSchema(namespace);
+      if (schema.getComplexType(clazz) == null) {
+        modelVersion++;
+      }
       return ((IntermediateCustomSchema) schema).findOrCreateDTOComplexType(clazz);
     }
   }
@@ -321,20 +483,24 @@ public class IntermediateServiceDocument {
         // DTO's can be defined only in custom schemas
         throw new ODataJPAModelException(MessageKeys.RUNTIME_PROBLEM);
       }
-      // this will affect the number of entity set's so we have to refresh the container
-      intermediateContainer.reset();
-      return ((IntermediateCustomSchema) schema).findOrCreateDTOType(clazz);
+      final IntermediateEnityTypeDTO existingType = ((IntermediateCustomSchema) schema).getDTOType(clazz);
+      if (existingType != null) {
+        return existingType;
+      }
+      final IntermediateEnityTypeDTO dtoType = ((IntermediateCustomSchema) schema).findOrCreateDTOType(clazz);
+      // this will affect the number of entity set's, so readers must wait until the changed schema is resolved
+      // again and the container is rebuilt
+      publishSchemas(true);
+      return dtoType;
     }
   }
 
   public JPAElement getEntitySet(final JPAEntityType entityType) throws ODataJPAModelException {
-    synchronized (lock) {
-      resolveSchemas();
-      for (final AbstractJPASchema schema : schemaListInternalKey.values()) {
-        final JPAEntitySet es = schema.getEntitySet(entityType.getEntitySetName());
-        if (es != null) {
-          return es;
-        }
+    final Map<String, AbstractJPASchema> schemas = resolveSchemas();
+    for (final AbstractJPASchema schema : schemas.values()) {
+      final JPAEntitySet es = schema.getEntitySet(entityType.getEntitySetName());
+      if (es != null) {
+        return es;
       }
     }
     return null;
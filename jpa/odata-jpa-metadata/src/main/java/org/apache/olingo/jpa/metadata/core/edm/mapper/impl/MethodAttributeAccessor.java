@@ -1,24 +1,46 @@
 package org.apache.olingo.jpa.metadata.core.edm.mapper.impl;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttributeAccessor;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 
 /**
+ * Accessor for an attribute using getter and setter methods. The methods are converted once into
+ * {@link MethodHandle method handles}, to avoid the overhead of reflective method invocation for every access.
  *
  * @author Ralf Zozmann
  *
  */
 public class MethodAttributeAccessor implements JPAAttributeAccessor {
 
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
   private final Method methodRead;
   private final Method methodWrite;
+  private final MethodHandle getter;
+  private final MethodHandle setter;
 
-  public MethodAttributeAccessor(final Method methodRead, final Method methodWrite) {
+  public MethodAttributeAccessor(final Method methodRead, final Method methodWrite) throws ODataJPAModelException {
     this.methodRead = methodRead;
     this.methodWrite = methodWrite;
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      this.getter = methodRead != null ? lookup.unreflect(methodRead).asType(GETTER_TYPE) : null;
+      this.setter = methodWrite != null ? lookup.unreflect(methodWrite).asType(SETTER_TYPE) : null;
+    } catch (final IllegalAccessException e) {
+      throw new ODataJPAModelException(ODataJPAModelException.MessageKeys.PROPERTY_NOT_ACCESSIBLE, e,
+          determineAttributeName(methodRead, methodWrite));
+    }
+  }
+
+  private static String determineAttributeName(final Method methodRead, final Method methodWrite) {
+    final Method method = methodRead != null ? methodRead : methodWrite;
+    return method != null ? method.toGenericString() : null;
   }
 
   protected final Method getMethodRead() {
@@ -31,9 +53,15 @@ public class MethodAttributeAccessor implements JPAAttributeAccessor {
 
   @Override
   public void setPropertyValue(final Object jpaEntity, final Object jpaPropertyValue) throws ODataJPAModelException {
+    if (setter == null) {
+      throw new ODataJPAModelException(ODataJPAModelException.MessageKeys.PROPERTY_READ_ONLY, methodRead
+          .toGenericString());
+    }
     try {
-      methodWrite.invoke(jpaEntity, jpaPropertyValue);
-    } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+      setter.invokeExact(jpaEntity, jpaPropertyValue);
+    } catch (final Error e) {
+      throw e;
+    } catch (final Throwable e) {
       throw new ODataJPAModelException(e);
     }
   }
@@ -45,9 +73,15 @@ public class MethodAttributeAccessor implements JPAAttributeAccessor {
 
   @Override
   public Object getPropertyValue(final Object jpaEntity) throws ODataJPAModelException {
+    if (getter == null) {
+      throw new ODataJPAModelException(ODataJPAModelException.MessageKeys.PROPERTY_WRITE_ONLY, methodWrite
+          .toGenericString());
+    }
     try {
-      return methodRead.invoke(jpaEntity);
-    } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+      return getter.invokeExact(jpaEntity);
+    } catch (final Error e) {
+      throw e;
+    } catch (final Throwable e) {
       throw new ODataJPAModelException(e);
     }
   }
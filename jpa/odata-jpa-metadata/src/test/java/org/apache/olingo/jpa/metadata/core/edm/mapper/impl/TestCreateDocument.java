@@ -1,8 +1,21 @@
 package org.apache.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.Proxy;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.metadata.test.util.TestMappingRoot;
 import org.junit.Test;
@@ -35,4 +48,61 @@ public class TestCreateDocument extends TestMappingRoot {
     assertNotNull("Entity Set not found", svc.getEdmSchemas().get(0).getEntityContainer().getEntitySets());
   }
 
+  @Test
+  public void checkServiceDocumentBuildCompleteModel() throws ODataJPAModelException {
+    final IntermediateServiceDocument svc = new IntermediateServiceDocument(PUNIT_NAME);
+    svc.createMetamodelSchema(PUNIT_NAME, emf.getMetamodel());
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      svc.buildCompleteModel(pool);
+    } finally {
+      pool.shutdown();
+    }
+    int numberOfTypes = 0;
+    for (final AbstractJPASchema schema : svc.getJPASchemas()) {
+      for (final JPAEntityType entityType : schema.getEntityTypes()) {
+        assertFalse(entityType.getExternalName(), entityType.getPathList().isEmpty());
+        numberOfTypes++;
+      }
+    }
+    assertFalse(numberOfTypes == 0);
+    assertEquals("Wrong number of schemas", 5, svc.getEdmSchemas().size());
+  }
+
+
+  @Test
+  public void checkServiceDocumentDynamicEntityTypeCache() throws ODataJPAModelException {
+    final IntermediateServiceDocument svc = new IntermediateServiceDocument(PUNIT_NAME);
+    final AtomicInteger created = new AtomicInteger();
+    final Function<String, EdmEntityType> factory = shape -> {
+      created.incrementAndGet();
+      return (EdmEntityType) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {
+          EdmEntityType.class }, (proxy, method, args) -> null);
+    };
+    final EdmEntityType type = svc.getDynamicEntityType("shape0", factory);
+    assertSame(type, svc.getDynamicEntityType("shape0", factory));
+    assertEquals(1, created.get());
+    // the least recently used types are removed
+    for (int i = 1; i <= 1000; i++) {
+      svc.getDynamicEntityType("shape" + i, factory);
+    }
+    assertEquals(1001, created.get());
+    assertNotSame(type, svc.getDynamicEntityType("shape0", factory));
+    assertEquals(1002, created.get());
+  }
+
+  @Test
+  public void checkServiceDocumentModelVersionForNewTypes() throws ODataJPAModelException {
+    final IntermediateServiceDocument svc = new IntermediateServiceDocument(PUNIT_NAME);
+    svc.findOrCreateEnumType(DayOfWeek.class);
+    final long version = svc.getModelVersion();
+    // new type in existing custom schema
+    svc.findOrCreateEnumType(Month.class);
+    assertTrue(svc.getModelVersion() > version);
+    final long versionWithMonth = svc.getModelVersion();
+    svc.findOrCreateEnumType(Month.class);
+    assertEquals(versionWithMonth, svc.getModelVersion());
+    svc.createDynamicJavaUtilMapType(String.class, String.class, false);
+    assertTrue(svc.getModelVersion() > versionWithMonth);
+  }
 }
@@ -5,8 +5,14 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.persistence.metamodel.EntityType;
 
@@ -362,6 +368,36 @@ public class TestIntermediateEntityType extends TestMappingRoot {
 
   }
 
+  @Test
+  public void checkConcurrentTypeInitialization() throws Exception {
+    final IntermediateEntityTypeJPA et = new IntermediateEntityTypeJPA(new JPAEdmNameBuilder(PUNIT_NAME), getEntityType(
+        "BusinessPartner"), serviceDocument);
+    final int numberOfThreads = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+    try {
+      final List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < numberOfThreads; i++) {
+        results.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            start.await();
+            return Integer.valueOf(et.getPathList().size());
+          }
+        }));
+      }
+      start.countDown();
+      final int expected = results.get(0).get().intValue();
+      assertTrue(expected > 0);
+      for (final Future<Integer> result : results) {
+        // a concurrent caller must wait for the initialization instead of failing with a 'recursion problem'
+        assertEquals(expected, result.get().intValue());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   private EntityType<?> getEntityType(final String typeName) {
     for (final EntityType<?> entityType : etList) {
       if (entityType.getJavaType().getSimpleName().equals(typeName)) {
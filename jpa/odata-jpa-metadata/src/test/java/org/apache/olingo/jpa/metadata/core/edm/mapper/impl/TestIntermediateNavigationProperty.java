@@ -29,7 +29,7 @@ public class TestIntermediateNavigationProperty extends TestMappingRoot {
   }
 
   @Test
-  public void checkNaviProptertyCanBeCreated() {
+  public void checkNaviProptertyCanBeCreated() throws ODataJPAModelException {
     final EntityType<?> et = helper.getEntityType("BusinessPartner");
     final Attribute<?, ?> jpaAttribute = helper.getDeclaredAttribute(et, "roles");
     new IntermediateNavigationProperty(new JPAEdmNameBuilder(PUNIT_NAME),
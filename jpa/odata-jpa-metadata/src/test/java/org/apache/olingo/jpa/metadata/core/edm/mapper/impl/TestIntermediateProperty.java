@@ -2,6 +2,7 @@ package org.apache.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import javax.persistence.metamodel.Attribute;
@@ -10,6 +11,7 @@ import javax.persistence.metamodel.EmbeddableType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.metadata.test.util.TestMappingRoot;
+import org.apache.olingo.jpa.processor.core.testmodel.Organization;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -168,6 +170,26 @@ public class TestIntermediateProperty extends TestMappingRoot {
     assertTrue(property.isStream());
   }
 
+  @Test
+  public void checkAttributeAccessor() throws ODataJPAModelException {
+    final Attribute<?, ?> jpaAttribute = helper.getAttribute(helper.getEntityType("Organization"), "name1");
+    final IntermediateProperty property = new IntermediateProperty(new JPAEdmNameBuilder(PUNIT_NAME), jpaAttribute,
+        helper.getEdmProvider().getServiceDocument());
+    final Organization organization = new Organization();
+    property.getAttributeAccessor().setPropertyValue(organization, "Test Org.");
+    assertEquals("Test Org.", organization.getName1());
+    assertEquals("Test Org.", property.getAttributeAccessor().getPropertyValue(organization));
+    property.getAttributeAccessor().setPropertyValue(organization, null);
+    assertNull(property.getAttributeAccessor().getPropertyValue(organization));
+  }
+
+  @Test(expected = ODataJPAModelException.class)
+  public void checkReadOnlyMethodAttributeAccessor() throws ODataJPAModelException, NoSuchMethodException {
+    final MethodAttributeAccessor accessor = new MethodAttributeAccessor(Organization.class.getMethod("getName1"),
+        null);
+    accessor.setPropertyValue(new Organization(), "Test Org.");
+  }
+
   @Ignore
   @Test
   public void checkGetSRID() {
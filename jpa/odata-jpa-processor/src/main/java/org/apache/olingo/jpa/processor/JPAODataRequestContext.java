@@ -7,6 +7,7 @@ import javax.persistence.EntityManager;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.jpa.processor.core.api.JPAServiceDebugger;
 import org.apache.olingo.jpa.processor.core.util.DependencyInjectorImpl;
+import org.apache.olingo.jpa.processor.metrics.JPARequestMetrics;
 import org.apache.olingo.jpa.processor.transformation.TransformingFactory;
 
 /**
@@ -38,6 +39,15 @@ public interface JPAODataRequestContext extends JPAODataContext {
 
   public JPAServiceDebugger getServiceDebugger();
 
+  /**
+   *
+   * @return The performance measurement of the current request, never <code>null</code>. The measurement is
+   * {@link JPARequestMetrics#isEnabled() enabled} only if a
+   * {@link org.apache.olingo.jpa.processor.metrics.JPAMetricsCollector JPAMetricsCollector} is registered as
+   * dependency value or the Olingo debug mode is active.
+   */
+  public JPARequestMetrics getRequestMetrics();
+
   //  public DebugSupport getDebugSupport();
 
   //  public void setDebugSupport(final DebugSupport jpaDebugSupport);
@@ -4,6 +4,13 @@ import org.apache.olingo.jpa.processor.core.util.TypedParameter;
 
 /**
  * More specific interface allowing the modification of values handled by the dependency injector.
+ * <p>
+ * The optional configurations of the processor (like
+ * {@link org.apache.olingo.jpa.processor.core.query.PagingConfiguration PagingConfiguration} or
+ * {@link org.apache.olingo.jpa.processor.impl.BatchConfiguration BatchConfiguration}) are registered as dependency
+ * value in the global context (for all requests) or in the request context (for a single request):
+ * <p>
+ * <code>requestContext.getDependencyInjector().registerDependencyMapping(PagingConfiguration.class, config);</code>
  *
  */
 public interface ModifiableDependencyInjector extends DependencyInjector {
@@ -0,0 +1,75 @@
+package org.apache.olingo.jpa.processor.core.api;
+
+import java.io.IOException;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response wrapper counting the bytes written into the {@link #getOutputStream() output stream}.
+ *
+ */
+class ByteCountingResponseWrapper extends HttpServletResponseWrapper {
+
+  private class CountingOutputStream extends ServletOutputStream {
+
+    private final ServletOutputStream out;
+
+    CountingOutputStream(final ServletOutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public boolean isReady() {
+      return out.isReady();
+    }
+
+    @Override
+    public void setWriteListener(final WriteListener writeListener) {
+      out.setWriteListener(writeListener);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      out.write(b);
+      byteCount++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      out.write(b, off, len);
+      byteCount += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+  private CountingOutputStream outputStream = null;
+  private long byteCount = 0;
+
+  ByteCountingResponseWrapper(final HttpServletResponse response) {
+    super(response);
+  }
+
+  @Override
+  public ServletOutputStream getOutputStream() throws IOException {
+    if (outputStream == null) {
+      outputStream = new CountingOutputStream(super.getOutputStream());
+    }
+    return outputStream;
+  }
+
+  long getByteCount() {
+    return byteCount;
+  }
+}
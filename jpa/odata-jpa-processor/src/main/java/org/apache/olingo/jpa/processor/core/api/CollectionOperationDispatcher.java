@@ -0,0 +1,140 @@
+package org.apache.olingo.jpa.processor.core.api;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.commons.core.Decoder;
+import org.apache.olingo.commons.core.Encoder;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import org.apache.olingo.jpa.processor.impl.JPAODataBulkProcessor;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.processor.Processor;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.core.uri.parser.UriParserException;
+
+/**
+ * Dispatches collection operations (PATCH and DELETE on an entity collection with filter), which are not dispatched by
+ * Olingo, to the registered {@link JPAODataBulkProcessor}. Used by every OData handler of the servlet handler.
+ *
+ */
+class CollectionOperationDispatcher {
+
+  private static final String EACH_SEGMENT = "/$each";
+  private static final String FILTER_SEGMENT = "/$filter(";
+
+  private final JPAODataGlobalContextImpl globalContext;
+  /**
+   * The processor for collection operations or <code>null</code>.
+   */
+  private JPAODataBulkProcessor bulkProcessor = null;
+
+  CollectionOperationDispatcher(final JPAODataGlobalContextImpl globalContext) {
+    this.globalContext = globalContext;
+  }
+
+  /**
+   * Remember the processor for collection operations, other processors are ignored.
+   */
+  void register(final Processor processor) {
+    if (JPAODataBulkProcessor.class.isInstance(processor)) {
+      bulkProcessor = JPAODataBulkProcessor.class.cast(processor);
+    }
+  }
+
+  /**
+   * Olingo does not support the path segment <code>$each</code> of OData 4.01, so we convert
+   * <code>.../Set/$filter(...)/$each</code> into <code>.../Set?$filter=...</code> and <code>.../Set/$each</code> into
+   * <code>.../Set?$filter=true</code> for collection operations. The filter is decoded from the path segment and
+   * encoded again as query option value, so characters like <code>&amp;</code> or <code>+</code> keep their meaning.
+   */
+  void rewriteEachPath(final ODataRequest request) throws ODataJPAProcessorException {
+    if (bulkProcessor == null || (request.getMethod() != HttpMethod.DELETE && request
+        .getMethod() != HttpMethod.PATCH)) {
+      return;
+    }
+    String path = request.getRawODataPath();
+    if (path == null || !path.endsWith(EACH_SEGMENT)) {
+      return;
+    }
+    path = path.substring(0, path.length() - EACH_SEGMENT.length());
+    String filter = "true";
+    final int filterStart = path.lastIndexOf(FILTER_SEGMENT);
+    if (filterStart > -1 && path.endsWith(")")) {
+      filter = Decoder.decode(path.substring(filterStart + FILTER_SEGMENT.length(), path.length() - 1));
+      path = path.substring(0, filterStart);
+    }
+    final String query = request.getRawQueryPath();
+    if (hasFilterOption(query)) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.BULK_EACH_WITH_FILTER,
+          HttpStatusCode.BAD_REQUEST);
+    }
+    final String filterOption = "$filter=" + Encoder.encode(filter);
+    request.setRawODataPath(path);
+    request.setRawQueryPath(query == null || query.isEmpty() ? filterOption : query + "&" + filterOption);
+  }
+
+  /**
+   * The <code>$each</code> path of the request must be already {@link #rewriteEachPath(ODataRequest) rewritten}.
+   *
+   * @return The response or <code>null</code> if the request is not a collection operation or no processor for
+   * collection operations is registered.
+   */
+  ODataResponse processCollectionOperation(final ODataRequest request) throws ODataLibraryException,
+  ODataApplicationException {
+    if (bulkProcessor == null || (request.getMethod() != HttpMethod.DELETE && request
+        .getMethod() != HttpMethod.PATCH) || !isCollectionOperationCandidate(request)) {
+      return null;
+    }
+    final UriInfo uriInfo;
+    try {
+      uriInfo = new Parser(globalContext.getServiceMetaData().getEdm(), globalContext.getOdata()).parseUri(request
+          .getRawODataPath(), request.getRawQueryPath(), null, request.getRawBaseUri());
+    } catch (final UriParserException e) {
+      // let Olingo create the error response
+      return null;
+    }
+    if (uriInfo.getKind() != UriInfoKind.resource || uriInfo.getFilterOption() == null || uriInfo
+        .getUriResourceParts().size() != 1 || !UriResourceEntitySet.class.isInstance(uriInfo.getUriResourceParts()
+            .get(0)) || !((UriResourceEntitySet) uriInfo.getUriResourceParts().get(0)).getKeyPredicates().isEmpty()) {
+      return null;
+    }
+    final ODataResponse response = new ODataResponse();
+    if (request.getMethod() == HttpMethod.DELETE) {
+      bulkProcessor.deleteEntityCollection(request, response, uriInfo);
+    } else {
+      final String contentType = request.getHeader(HttpHeader.CONTENT_TYPE);
+      bulkProcessor.updateEntityCollection(request, response, uriInfo, contentType == null
+          ? ContentType.APPLICATION_JSON : ContentType.parse(contentType));
+    }
+    return response;
+  }
+
+  /**
+   * Check of the raw request without parsing the URI: a collection operation addresses a single entity set path
+   * segment without key and has a filter.
+   */
+  private static boolean isCollectionOperationCandidate(final ODataRequest request) {
+    final String path = request.getRawODataPath();
+    final String query = request.getRawQueryPath();
+    if (path == null || path.indexOf('(') > -1 || path.lastIndexOf('/') > 0) {
+      return false;
+    }
+    return hasFilterOption(query);
+  }
+
+  /**
+   *
+   * @param query The raw query, maybe <code>null</code>.
+   * @return TRUE if the query contains a $filter option, also with percent encoded <code>$</code>.
+   */
+  private static boolean hasFilterOption(final String query) {
+    return query != null && (query.contains("$filter=") || query.contains("%24filter="));
+  }
+}
@@ -0,0 +1,79 @@
+package org.apache.olingo.jpa.processor.core.api;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.olingo.jpa.processor.metrics.JPAMetric;
+import org.apache.olingo.jpa.processor.metrics.JPARequestMetrics;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.debug.DebugSupport;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+
+/**
+ * Request specific debugger delegating all calls to the (global) Olingo debugger, used to take the URI parsing done by
+ * the Olingo handler into the {@link JPARequestMetrics request metrics}. Olingo reports the parsing as measurement
+ * <code>Parser#parseUri</code> without nested measurements, so the next stop call is the end of parsing.
+ *
+ */
+class JPAMetricsServerDebugger extends ServerCoreDebugger {
+
+  private static final String PARSER_CLASS = "Parser";
+  private static final String PARSER_METHOD = "parseUri";
+
+  private final ServerCoreDebugger delegate;
+  private JPAODataRequestContextImpl requestContext = null;
+  private JPARequestMetrics uriParsingMetrics = null;
+  private long uriParsingStart = 0;
+
+  JPAMetricsServerDebugger(final OData odata, final ServerCoreDebugger delegate) {
+    super(odata);
+    this.delegate = delegate;
+  }
+
+  void setRequestContext(final JPAODataRequestContextImpl requestContext) {
+    this.requestContext = requestContext;
+  }
+
+  @Override
+  public void resolveDebugMode(final HttpServletRequest request) {
+    delegate.resolveDebugMode(request);
+  }
+
+  @Override
+  public ODataResponse createDebugResponse(final ODataRequest request, final ODataResponse response,
+      final Exception exception, final UriInfo uriInfo, final Map<String, String> serverEnvironmentVariables) {
+    return delegate.createDebugResponse(request, response, exception, uriInfo, serverEnvironmentVariables);
+  }
+
+  @Override
+  public int startRuntimeMeasurement(final String className, final String methodName) {
+    if (requestContext != null && PARSER_CLASS.equals(className) && PARSER_METHOD.equals(methodName)) {
+      uriParsingMetrics = requestContext.getRequestMetrics();
+      uriParsingStart = uriParsingMetrics.start();
+    }
+    return delegate.startRuntimeMeasurement(className, methodName);
+  }
+
+  @Override
+  public void stopRuntimeMeasurement(final int handle) {
+    if (uriParsingMetrics != null) {
+      uriParsingMetrics.stop(JPAMetric.UriParsing, uriParsingStart);
+      uriParsingMetrics = null;
+    }
+    delegate.stopRuntimeMeasurement(handle);
+  }
+
+  @Override
+  public void setDebugSupportProcessor(final DebugSupport debugSupport) {
+    delegate.setDebugSupportProcessor(debugSupport);
+  }
+
+  @Override
+  public boolean isDebugMode() {
+    return delegate.isDebugMode();
+  }
+}
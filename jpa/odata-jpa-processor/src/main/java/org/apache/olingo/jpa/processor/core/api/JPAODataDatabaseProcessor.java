@@ -7,7 +7,9 @@ import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Path;
 
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAFunction;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAFilterException;
 import org.apache.olingo.jpa.processor.core.filter.JPAAggregationOperation;
 import org.apache.olingo.jpa.processor.core.filter.JPABooleanOperation;
 import org.apache.olingo.jpa.processor.core.filter.JPAExpressionElement;
@@ -20,6 +22,11 @@ import org.apache.olingo.server.api.uri.queryoption.search.SearchTerm;
 
 public interface JPAODataDatabaseProcessor {
 
+  /**
+   * Default for the maximum number of entities matching a $search evaluated by a search provider.
+   */
+  public static final int DEFAULT_MAX_SEARCH_PROVIDER_MATCHES = 1000;
+
   /**
    * Database specific functionality to implement $search from OData specification.
    *
@@ -33,6 +40,25 @@ public interface JPAODataDatabaseProcessor {
   public Expression<Boolean> createSearchExpression(SearchTerm search, List<Path<?>> searchColumns)
       throws ODataApplicationException;
 
+  /**
+   *
+   * @return The full-text search backend to evaluate $search or <code>null</code> (default) to use
+   * {@link #createSearchExpression(SearchTerm, List)} for all entity types.
+   */
+  public default JPAODataSearchProvider getSearchProvider() {
+    return null;
+  }
+
+  /**
+   *
+   * @return The maximum number of entities matching a $search evaluated by the {@link #getSearchProvider() search
+   * provider}; the keys of all matches are part of the query, so a search with more matches is rejected. Default is
+   * {@link #DEFAULT_MAX_SEARCH_PROVIDER_MATCHES}.
+   */
+  public default int getMaxSearchProviderMatches() {
+    return DEFAULT_MAX_SEARCH_PROVIDER_MATCHES;
+  }
+
   public <Y extends Number> Expression<Number> createCalculation(BinaryOperatorKind operator, Expression<Y> operand1,
       Expression<Y> operand2) throws ODataApplicationException;
 
@@ -54,6 +80,26 @@ public interface JPAODataDatabaseProcessor {
       Expression<Y> operand2)
           throws ODataApplicationException;
 
+  /**
+   * Database specific functionality to implement the <code>in</code> operator from OData specification. The default
+   * implementation creates a single IN list and supports neither an empty list nor the <i>null</i> literal.
+   *
+   * @param operand
+   *            The expression to compare.
+   * @param values
+   *            The list of values to compare with, a <code>null</code> entry represents the <i>null</i> literal.
+   * @return The WHERE condition part containing the expression.
+   * @throws ODataApplicationException
+   */
+  public default Expression<Boolean> createInComparison(final Expression<?> operand,
+      final List<Expression<?>> values) throws ODataApplicationException {
+    if (values.isEmpty() || values.contains(null)) {
+      throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_OPERATOR,
+          HttpStatusCode.NOT_IMPLEMENTED, "IN");
+    }
+    return operand.in(values.toArray(new Expression<?>[values.size()]));
+  }
+
   public Expression<?> convertBuiltinFunction(final MethodKind methodCall,
       final List<JPAExpressionElement<?>> parameters) throws ODataApplicationException;
 
@@ -13,6 +13,7 @@ import org.apache.olingo.jpa.processor.JPAODataGlobalContext;
 import org.apache.olingo.jpa.processor.ModifiableDependencyInjector;
 import org.apache.olingo.jpa.processor.core.mapping.JPAAdapter;
 import org.apache.olingo.jpa.processor.core.util.DependencyInjectorImpl;
+import org.apache.olingo.jpa.processor.impl.MetadataDocumentCache;
 import org.apache.olingo.server.ODataFactory;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -46,6 +47,8 @@ class JPAODataGlobalContextImpl extends AbstractContextImpl implements JPAODataG
     di.registerDependencyMapping(JPAAdapter.class, mappingAdapter);
     di.registerDependencyMapping(JPAEdmProvider.class, jpaEdm);
     di.registerDependencyMapping(JPAODataGlobalContext.class, this);
+    di.registerDependencyMapping(MetadataDocumentCache.class, new MetadataDocumentCache(jpaEdm
+        .getServiceDocument()));
 
     registerDTOs();
   }
@@ -16,8 +16,12 @@ import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.jpa.exception.ODataErrorException;
 import org.apache.olingo.jpa.processor.core.mapping.JPAAdapter;
+import org.apache.olingo.jpa.processor.core.query.JPAQueryHints;
 import org.apache.olingo.jpa.processor.core.security.SecurityInceptor;
 import org.apache.olingo.jpa.processor.core.util.ExtensibleContentTypeSupport;
+import org.apache.olingo.jpa.processor.impl.IsolatedRequestHandler;
+import org.apache.olingo.jpa.processor.metrics.JPAMetric;
+import org.apache.olingo.jpa.processor.metrics.JPARequestMetrics;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataHttpHandler;
 import org.apache.olingo.server.api.ODataLibraryException;
@@ -53,21 +57,52 @@ class JPAODataHttpHandlerImpl extends ODataHandlerImpl implements ODataHttpHandl
   private final EntityManager em;
   private final ServerCoreDebugger debugger;
   private final JPAODataRequestContextImpl requestContext;
+  /**
+   * TRUE if the request is processed without transaction.
+   */
+  private final boolean readOnly;
   private int split = 0;
+  /**
+   * The adapter of the transaction to close after writing the response or <code>null</code>.
+   */
+  private JPAAdapter pendingReadingTransactionAdapter = null;
+  private final CollectionOperationDispatcher collectionOperationDispatcher;
 
   public JPAODataHttpHandlerImpl(final JPAODataServletHandler servletHandler,
       final JPAODataGlobalContextImpl globalContext, final HttpServletRequest request,
       final HttpServletResponse response) throws ODataException {
+    this(servletHandler, globalContext, new JPAMetricsServerDebugger(servletHandler.getJPAODataContext().getOdata(),
+        globalContext.getServerDebugger()), request, response);
+  }
+
+  private JPAODataHttpHandlerImpl(final JPAODataServletHandler servletHandler,
+      final JPAODataGlobalContextImpl globalContext, final JPAMetricsServerDebugger handlerDebugger,
+      final HttpServletRequest request, final HttpServletResponse response) throws ODataException {
     super(servletHandler.getJPAODataContext().getOdata(),
-        globalContext.getServiceMetaData(), globalContext.getServerDebugger());
+        globalContext.getServiceMetaData(), handlerDebugger);
     this.servletHandler = servletHandler;
     this.globalContext = globalContext;
-    this.em = globalContext.refreshMappingAdapter().createEntityManager();
+    this.collectionOperationDispatcher = new CollectionOperationDispatcher(globalContext);
+    final ReadOnlyConfiguration readOnlyConfiguration = servletHandler.getReadOnlyConfiguration();
+    this.readOnly = readOnlyConfiguration != null && ODataHttpHandlerImplAccessor.extractMethod(
+        request) == HttpMethod.GET;
+    final JPAAdapter mappingAdapter = globalContext.refreshMappingAdapter();
+    this.em = readOnly ? mappingAdapter.createReadOnlyEntityManager() : mappingAdapter.createEntityManager();
     this.debugger = globalContext.getServerDebugger();
     // call super to avoid 'forbidden' exception
     super.register(contentSupport);// at least for file uploads (but also for more...)
     requestContext = new JPAODataRequestContextImpl(em, globalContext, request, response);
+    handlerDebugger.setRequestContext(requestContext);
+    if (!debugger.isDebugMode()) {
+      // the debug output is only useful for sequential processing of $batch request parts
+      requestContext.getDependencyInjector().registerDependencyMapping(IsolatedRequestHandler.class,
+          new JPAODataIsolatedRequestHandler(servletHandler, globalContext, requestContext));
+    }
     servletHandler.prepareRequestContext(requestContext);
+    if (readOnly && requestContext.getDependencyInjector().getDependencyValue(JPAQueryHints.class) == null) {
+      requestContext.getDependencyInjector().registerDependencyMapping(JPAQueryHints.class, readOnlyConfiguration
+          .getQueryHints());
+    }
   }
 
   JPAODataRequestContextImpl getRequestContext() {
@@ -81,12 +116,17 @@ class JPAODataHttpHandlerImpl extends ODataHandlerImpl implements ODataHttpHandl
   protected ODataResponse processTransactional(final ODataRequest request) {
 
     try {
+      collectionOperationDispatcher.rewriteEachPath(request);
       checkSecurity(request);
     } catch (final ODataException e) {
       JPAODataServletHandler.LOG.log(Level.FINE, "Failed to preprocess request for security checks");
       return handleException(request, e);
     }
 
+    if (readOnly) {
+      return processReadOnly(request);
+    }
+
     final boolean isReadingRequest = request.getMethod() == HttpMethod.GET;
 
     final JPAAdapter mappingAdapter = requestContext.refreshMappingAdapter();
@@ -97,7 +137,7 @@ class JPAODataHttpHandlerImpl extends ODataHandlerImpl implements ODataHttpHandl
       servletHandler.modifyRequestContext(requestContext);
 
       // call super.... to avoid DPI overlay
-      odataResponse = super.process(request);
+      odataResponse = dispatch(request);
 
     } catch (final RuntimeException ex) {
       // do not commit on exceptions
@@ -108,9 +148,9 @@ class JPAODataHttpHandlerImpl extends ODataHandlerImpl implements ODataHttpHandl
     // finally processing
     if (odataResponse.getStatusCode() >= 200 && odataResponse.getStatusCode() < 300) {
       if (isReadingRequest) {
-        // reading requests (per definition without data modification) are not committed
-        JPAODataServletHandler.LOG.log(Level.FINER, "Do not commit request transaction, because is read only");
-        mappingAdapter.cancelTransaction(em);
+        // reading requests (per definition without data modification) are not committed; the transaction is closed
+        // after writing the response, because streamed content is loaded while writing
+        pendingReadingTransactionAdapter = mappingAdapter;
       } else {
         mappingAdapter.commitTransaction(em);
       }
@@ -123,17 +163,49 @@ class JPAODataHttpHandlerImpl extends ODataHandlerImpl implements ODataHttpHandl
     return odataResponse;
   }
 
+  /**
+   * Process the request without transaction; the entity manager is closed after writing the response (also on
+   * errors), because streamed content is loaded while writing.
+   */
+  private ODataResponse processReadOnly(final ODataRequest request) {
+    requestContext.refreshMappingAdapter();
+    servletHandler.modifyRequestContext(requestContext);
+    // call super.... to avoid DPI overlay
+    final ODataResponse odataResponse = super.process(request);
+    servletHandler.modifyResponse(odataResponse);
+    return odataResponse;
+  }
+
   @Override
   public ODataResponse process(final ODataRequest request) {
     // this method is also called for every part of an batch request... so we have prepare a fresh request context
     try {
       requestContext.startDependencyInjectorOverlay();
-      return super.process(request);
+      collectionOperationDispatcher.rewriteEachPath(request);
+      return dispatch(request);
+    } catch (final ODataException e) {
+      return handleException(request, e);
     } finally {
       requestContext.stopDependencyInjectorOverlay();
     }
   }
 
+  /**
+   * The <code>$each</code> path of the request must be already
+   * {@link CollectionOperationDispatcher#rewriteEachPath(ODataRequest) rewritten}.
+   */
+  private ODataResponse dispatch(final ODataRequest request) {
+    try {
+      final ODataResponse response = collectionOperationDispatcher.processCollectionOperation(request);
+      if (response != null) {
+        return response;
+      }
+    } catch (final ODataException e) {
+      return handleException(request, e);
+    }
+    return super.process(request);
+  }
+
   @Override
   public void process(final HttpServletRequest request, final HttpServletResponse response) {
     final ODataRequest odRequest = new ODataRequest();
@@ -163,12 +235,46 @@ class JPAODataHttpHandlerImpl extends ODataHandlerImpl implements ODataHttpHandl
           serverEnvironmentVariables);
     }
 
-    ODataHttpHandlerImplAccessor.convertToHttp(response, odResponse);
+    final JPARequestMetrics metrics = requestContext.getRequestMetrics();
+    try {
+      if (metrics.isEnabled()) {
+        final long start = metrics.start();
+        final ByteCountingResponseWrapper countingResponse = new ByteCountingResponseWrapper(response);
+        ODataHttpHandlerImplAccessor.convertToHttp(countingResponse, odResponse);
+        metrics.stop(JPAMetric.Serialization, start);
+        metrics.count(JPAMetric.SerializedBytes, countingResponse.getByteCount());
+      } else {
+        ODataHttpHandlerImplAccessor.convertToHttp(response, odResponse);
+      }
+    } finally {
+      finishReadingTransaction();
+      metrics.complete();
+    }
+  }
+
+  private void finishReadingTransaction() {
+    if (readOnly) {
+      if (em.isOpen()) {
+        em.close();
+      }
+      return;
+    }
+    if (pendingReadingTransactionAdapter == null) {
+      return;
+    }
+    JPAODataServletHandler.LOG.log(Level.FINER, "Do not commit request transaction, because is read only");
+    pendingReadingTransactionAdapter.cancelTransaction(em);
+    pendingReadingTransactionAdapter = null;
   }
 
   private ODataResponse handleException(final ODataRequest odRequest, final Exception e) {
     final ODataResponse resp = new ODataResponse();
-    ODataServerError serverError;
+    handleException(odRequest, resp, createServerError(e), e);
+    return resp;
+  }
+
+  static ODataServerError createServerError(final Exception e) {
+    final ODataServerError serverError;
     if (e instanceof ODataHandlerException) {
       serverError = ODataExceptionHelper.createServerErrorObject((ODataHandlerException) e, null);
     } else if (e instanceof ODataApplicationException) {
@@ -186,31 +292,38 @@ class JPAODataHttpHandlerImpl extends ODataHandlerImpl implements ODataHttpHandl
     } else {
       serverError = ODataExceptionHelper.createServerErrorObject(e);
     }
-    handleException(odRequest, resp, serverError, e);
-    return resp;
+    return serverError;
   }
 
   @Override
   public void handleException(final ODataRequest request, final ODataResponse response,
-      ODataServerError serverError, final Exception exception) {
-    if (ODataErrorException.class.isInstance(exception)) {
-      // special handling for already provided error embedded in exception
-      final ODataError error = ODataErrorException.class.cast(exception).getError();
-      if (ODataServerError.class.isInstance(error)) {
-        serverError = ODataServerError.class.cast(error);
-      } else {
-        serverError = new ODataServerError();
-        serverError.setStatusCode(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
-        serverError.setLocale(Locale.ENGLISH);
-        serverError.setException(exception);
-        serverError.setTarget(error.getTarget());
-        serverError.setMessage(error.getMessage());
-        serverError.setCode(error.getCode());
-        serverError.setInnerError(error.getInnerError());
-        serverError.setDetails(error.getDetails());
-      }
+      final ODataServerError serverError, final Exception exception) {
+    super.handleException(request, response, determineServerError(serverError, exception), exception);
+  }
+
+  /**
+   *
+   * @return The error already provided by an {@link ODataErrorException} or the given server error.
+   */
+  static ODataServerError determineServerError(final ODataServerError serverError, final Exception exception) {
+    if (!ODataErrorException.class.isInstance(exception)) {
+      return serverError;
+    }
+    // special handling for already provided error embedded in exception
+    final ODataError error = ODataErrorException.class.cast(exception).getError();
+    if (ODataServerError.class.isInstance(error)) {
+      return ODataServerError.class.cast(error);
     }
-    super.handleException(request, response, serverError, exception);
+    final ODataServerError embeddedError = new ODataServerError();
+    embeddedError.setStatusCode(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    embeddedError.setLocale(Locale.ENGLISH);
+    embeddedError.setException(exception);
+    embeddedError.setTarget(error.getTarget());
+    embeddedError.setMessage(error.getMessage());
+    embeddedError.setCode(error.getCode());
+    embeddedError.setInnerError(error.getInnerError());
+    embeddedError.setDetails(error.getDetails());
+    return embeddedError;
   }
 
   /**
@@ -277,6 +390,10 @@ class JPAODataHttpHandlerImpl extends ODataHandlerImpl implements ODataHttpHandl
 
   @Override
   public void register(final Processor processor) {
+    // the default processors are registered by the super constructor, before the dispatcher is created
+    if (collectionOperationDispatcher != null) {
+      collectionOperationDispatcher.register(processor);
+    }
     super.register(processor);
   }
 
@@ -305,10 +422,14 @@ class JPAODataHttpHandlerImpl extends ODataHandlerImpl implements ODataHttpHandl
       return;
     }
     requestContext.getDependencyInjector().injectDependencyValues(securityInceptor);
+    final JPARequestMetrics metrics = requestContext.getRequestMetrics();
+    // the additional parsing is part of the security check, the URI parsing is measured for the processing by Olingo
+    final long start = metrics.start();
     final UriInfo uriInfo = new Parser(globalContext.getServiceMetaData().getEdm(), globalContext.getOdata())
         .parseUri(request.getRawODataPath(),
             request.getRawQueryPath(), null, request.getRawBaseUri());
     securityInceptor.authorize(request, uriInfo);
+    metrics.stop(JPAMetric.SecurityCheck, start);
     // prepare the principal for DPI in case of a happened authentication
     final HttpServletRequest httpRequest = requestContext.getDependencyInjector().getDependencyValue(
         HttpServletRequest.class);
@@ -0,0 +1,145 @@
+package org.apache.olingo.jpa.processor.core.api;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import org.apache.olingo.jpa.processor.core.mapping.JPAAdapter;
+import org.apache.olingo.jpa.processor.core.util.ExtensibleContentTypeSupport;
+import org.apache.olingo.jpa.processor.core.util.ODataResponseHelper;
+import org.apache.olingo.jpa.processor.impl.IsolatedRequestHandler;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.processor.Processor;
+import org.apache.olingo.server.core.ODataHandlerImpl;
+import org.apache.olingo.server.core.batchhandler.BatchFacadeImpl;
+
+/**
+ * Processes a reading request or a modifying request part (of a $batch request) with an own entity manager and request
+ * context derived from the request context of the (outer) HTTP request.
+ *
+ */
+class JPAODataIsolatedRequestHandler implements IsolatedRequestHandler {
+
+  private final JPAODataServletHandler servletHandler;
+  private final JPAODataGlobalContextImpl globalContext;
+  private final JPAODataRequestContextImpl requestContext;
+
+  JPAODataIsolatedRequestHandler(final JPAODataServletHandler servletHandler,
+      final JPAODataGlobalContextImpl globalContext, final JPAODataRequestContextImpl requestContext) {
+    this.servletHandler = servletHandler;
+    this.globalContext = globalContext;
+    this.requestContext = requestContext;
+  }
+
+  @Override
+  public ODataResponse process(final ODataRequest request) throws ODataApplicationException {
+    final JPAAdapter mappingAdapter = globalContext.refreshMappingAdapter();
+    final EntityManager em = mappingAdapter.createEntityManager();
+    try {
+      final JPAODataRequestContextImpl isolatedContext = requestContext.createIsolatedRequestContext(em);
+      final ODataHandlerImpl handler = createHandler(isolatedContext);
+      mappingAdapter.beginTransaction(em);
+      servletHandler.modifyRequestContext(isolatedContext);
+      final ODataResponse response = handler.process(request);
+      // streamed content must be loaded before the transaction is closed
+      ODataResponseHelper.bufferStreamedContent(response);
+      return response;
+    } catch (final ODataException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    } finally {
+      // reading requests are never committed, the entity manager is closed
+      mappingAdapter.cancelTransaction(em);
+    }
+  }
+
+  @Override
+  public ODataResponsePart processModification(final ModificationProcessing processing) throws ODataException {
+    final JPAAdapter mappingAdapter = globalContext.refreshMappingAdapter();
+    final EntityManager em = mappingAdapter.createEntityManager();
+    boolean committed = false;
+    try {
+      final JPAODataRequestContextImpl isolatedContext = requestContext.createIsolatedRequestContext(em);
+      // the request part is already isolated
+      isolatedContext.getDependencyInjector().registerDependencyMapping(IsolatedRequestHandler.class, null);
+      final ODataHandlerImpl handler = createHandler(isolatedContext);
+      mappingAdapter.beginTransaction(em);
+      servletHandler.modifyRequestContext(isolatedContext);
+      // the facade is used only to process single requests, so no batch processor is required
+      final ODataResponsePart responsePart = processing.process(new BatchFacadeImpl(handler, null, true),
+          isolatedContext);
+      if (!hasErrorResponse(responsePart)) {
+        mappingAdapter.commitTransaction(em);
+        committed = true;
+      }
+      return responsePart;
+    } finally {
+      if (!committed) {
+        mappingAdapter.cancelTransaction(em);
+      }
+    }
+  }
+
+  private static boolean hasErrorResponse(final ODataResponsePart responsePart) {
+    for (final ODataResponse response : responsePart.getResponses()) {
+      if (response.getStatusCode() >= 400) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private ODataHandlerImpl createHandler(final JPAODataRequestContextImpl isolatedContext) throws ODataException {
+    final JPAMetricsServerDebugger debugger = new JPAMetricsServerDebugger(globalContext.getOdata(), globalContext
+        .getServerDebugger());
+    debugger.setRequestContext(isolatedContext);
+    final ODataHandlerImpl handler = new ODataHandlerImpl(globalContext.getOdata(), globalContext
+        .getServiceMetaData(), debugger) {
+      private final CollectionOperationDispatcher collectionOperationDispatcher = new CollectionOperationDispatcher(
+          globalContext);
+
+      @Override
+      public void register(final Processor processor) {
+        // the default processors are registered by the super constructor, before the dispatcher is created
+        if (collectionOperationDispatcher != null) {
+          collectionOperationDispatcher.register(processor);
+        }
+        super.register(processor);
+      }
+
+      @Override
+      public ODataResponse process(final ODataRequest request) {
+        // collection operations are not dispatched by Olingo
+        try {
+          collectionOperationDispatcher.rewriteEachPath(request);
+          final ODataResponse response = collectionOperationDispatcher.processCollectionOperation(request);
+          if (response != null) {
+            return response;
+          }
+        } catch (final ODataException e) {
+          final ODataResponse response = new ODataResponse();
+          handleException(request, response, JPAODataHttpHandlerImpl.createServerError(e), e);
+          return response;
+        }
+        return super.process(request);
+      }
+
+      @Override
+      public void handleException(final ODataRequest request, final ODataResponse response,
+          final ODataServerError serverError, final Exception exception) {
+        super.handleException(request, response, JPAODataHttpHandlerImpl.determineServerError(serverError,
+            exception), exception);
+      }
+    };
+    servletHandler.prepareRequestContext(isolatedContext);
+    final ExtensibleContentTypeSupport contentSupport = new ExtensibleContentTypeSupport();
+    handler.register(contentSupport);
+    servletHandler.activateCustomFormats(isolatedContext, contentSupport);
+    servletHandler.registerProcessors(handler, isolatedContext);
+    return handler;
+  }
+}
@@ -16,6 +16,8 @@ import org.apache.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import org.apache.olingo.jpa.processor.core.mapping.JPAAdapter;
 import org.apache.olingo.jpa.processor.core.util.DependencyInjectorImpl;
 import org.apache.olingo.jpa.processor.debug.JPACoreDebugger;
+import org.apache.olingo.jpa.processor.metrics.JPAMetricsCollector;
+import org.apache.olingo.jpa.processor.metrics.JPARequestMetrics;
 import org.apache.olingo.jpa.processor.transformation.TransformingFactory;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -33,6 +35,7 @@ class JPAODataRequestContextImpl extends AbstractContextImpl implements Modifiab
   private final EntityManager em;
   private JPADebugSupportWrapper debugSupport = null;
   private JPAServiceDebugger serviceDebugger = null;
+  private JPARequestMetrics requestMetrics = null;
   private boolean disposed = false;
   private DependencyInjectorImpl diOverlay = null;
 
@@ -76,6 +79,33 @@ class JPAODataRequestContextImpl extends AbstractContextImpl implements Modifiab
     return serviceDebugger;
   }
 
+  @Override
+  public JPARequestMetrics getRequestMetrics() {
+    if (parentContext instanceof JPAODataRequestContextImpl) {
+      // sub request contexts are part of the same request
+      return ((JPAODataRequestContextImpl) parentContext).getRequestMetrics();
+    }
+    if (requestMetrics == null) {
+      requestMetrics = createRequestMetrics();
+    }
+    return requestMetrics;
+  }
+
+  private JPARequestMetrics createRequestMetrics() {
+    final JPAMetricsCollector collector = di.getDependencyValue(JPAMetricsCollector.class);
+    // the debugger will show the measurements in the debug output
+    final JPAMetricsCollector debugCollector = serviceDebugger instanceof JPAMetricsCollector
+        ? (JPAMetricsCollector) serviceDebugger : null;
+    if (collector == null && debugCollector == null) {
+      return JPARequestMetrics.DISABLED;
+    } else if (collector == null) {
+      return new JPARequestMetrics(debugCollector);
+    } else if (debugCollector == null) {
+      return new JPARequestMetrics(collector);
+    }
+    return new JPARequestMetrics(collector, debugCollector);
+  }
+
   private void initializeRequestContext(final HttpServletRequest request) {
     if (disposed) {
       throw new IllegalStateException("Already disposed");
@@ -154,6 +184,14 @@ class JPAODataRequestContextImpl extends AbstractContextImpl implements Modifiab
     return new JPAODataRequestContextImpl(em, this, request, response);
   }
 
+  /**
+   * Create a request context for a request processed independent of this request (in another thread). In contrast to
+   * a {@link #createSubRequestContext() sub request context} the new context is working with another entity manager.
+   */
+  JPAODataRequestContextImpl createIsolatedRequestContext(final EntityManager isolatedEm) throws ODataException {
+    return new JPAODataRequestContextImpl(isolatedEm, this, request, response);
+  }
+
   @Override
   protected JPAAdapter getPersistenceAdapter() {
     return parentContext.getPersistenceAdapter();
@@ -0,0 +1,37 @@
+package org.apache.olingo.jpa.processor.core.api;
+
+import java.util.Collection;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Service provider interface for a full-text search backend used to evaluate $search. Instead of a LIKE condition
+ * over all searchable columns (forcing a full table scan) the provider determines the keys of matching entities, the
+ * query is then restricted to these keys.
+ * <p>
+ * Register the provider at the {@link org.apache.olingo.jpa.processor.core.database.AbstractJPADatabaseProcessor
+ * database processor}.
+ *
+ * @see org.apache.olingo.jpa.processor.core.database.AbstractJPADatabaseProcessor#setSearchProvider(JPAODataSearchProvider)
+ */
+public interface JPAODataSearchProvider {
+
+  /**
+   *
+   * @param em The entity manager of current request.
+   * @param entityType The entity type to search for, always having a single (not embedded) key attribute.
+   * @param searchTerm The search term given by client.
+   * @param maxKeys The maximum number of keys accepted for the query, a result with more keys is rejected. The
+   * provider should stop to collect keys after <code>maxKeys + 1</code> keys.
+   * @return The key values of all matching entities or <code>null</code> if the entity type is not supported by the
+   * provider, in that case the search is done via
+   * {@link JPAODataDatabaseProcessor#createSearchExpression(org.apache.olingo.server.api.uri.queryoption.search.SearchTerm, java.util.List)
+   * LIKE condition}.
+   * @throws ODataApplicationException
+   */
+  public Collection<?> findMatchingKeys(EntityManager em, JPAEntityType entityType, String searchTerm, int maxKeys)
+      throws ODataApplicationException;
+}
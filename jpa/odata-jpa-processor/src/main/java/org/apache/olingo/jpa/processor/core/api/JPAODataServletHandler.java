@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
 import javax.servlet.http.HttpServletRequest;
@@ -20,12 +21,17 @@ import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.mapping.JPAAdapter;
 import org.apache.olingo.jpa.processor.core.security.AnnotationBasedSecurityInceptor;
 import org.apache.olingo.jpa.processor.core.security.SecurityInceptor;
+import org.apache.olingo.jpa.processor.core.util.ExtensibleContentTypeSupport;
 import org.apache.olingo.jpa.processor.impl.JPAODataActionProcessor;
 import org.apache.olingo.jpa.processor.impl.JPAODataBatchProcessor;
+import org.apache.olingo.jpa.processor.impl.JPAODataBulkProcessor;
+import org.apache.olingo.jpa.processor.impl.JPAODataMetadataProcessor;
 import org.apache.olingo.jpa.processor.impl.JPAStructureProcessor;
 import org.apache.olingo.jpa.processor.transformation.Transformation;
 import org.apache.olingo.jpa.processor.transformation.TransformationDeclaration;
+import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.processor.DefaultProcessor;
 import org.apache.olingo.server.api.processor.Processor;
 import org.apache.olingo.server.api.serializer.RepresentationType;
 
@@ -56,6 +62,7 @@ public class JPAODataServletHandler {
   private final JPAODataGlobalContextImpl globalContext;
   private final List<CustomFormat<?, ?>> customOutputFormats = new LinkedList<>();
   private SecurityInceptor securityInceptor = new AnnotationBasedSecurityInceptor();// having one as default
+  private ReadOnlyConfiguration readOnlyConfiguration = null;
 
   public JPAODataServletHandler(final JPAAdapter mappingAdapter) throws ODataException {
     super();
@@ -66,7 +73,6 @@ public class JPAODataServletHandler {
     return globalContext;
   }
 
-  @SuppressWarnings("unchecked")
   public void process(final HttpServletRequest request, final HttpServletResponse response) {
 
     if ("OPTIONS".equals(request.getMethod().toUpperCase(Locale.ENGLISH))) {
@@ -78,18 +84,9 @@ public class JPAODataServletHandler {
       final JPAODataHttpHandlerImpl handler = new JPAODataHttpHandlerImpl(this, globalContext, request, response);
       final JPAODataRequestContext requestContext = handler.getRequestContext();
 
-      // bring custom output transformations into effect for request
-      for (final CustomFormat<?, ?> customFormat : customOutputFormats) {
-        requestContext.getTransformerFactory().registerTransformation(
-            (TransformationDeclaration<Object, Object>) customFormat.tDeclaration,
-            (Class<? extends Transformation<Object, Object>>) customFormat.tClass);
-        handler.getContentSupport().activateCustomContentType(customFormat.type, customFormat.representationTypes);
-      }
+      activateCustomFormats(requestContext, handler.getContentSupport());
 
-      final Collection<Processor> processors = collectProcessors(requestContext);
-      for (final Processor p : processors) {
-        handler.register(p);
-      }
+      registerProcessors(handler, requestContext);
 
       handler.process(request, response);
     } catch (final ODataException e) {
@@ -97,6 +94,20 @@ public class JPAODataServletHandler {
     }
   }
 
+  /**
+   * Bring custom output transformations into effect for request.
+   */
+  @SuppressWarnings("unchecked")
+  void activateCustomFormats(final JPAODataRequestContext requestContext,
+      final ExtensibleContentTypeSupport contentSupport) {
+    for (final CustomFormat<?, ?> customFormat : customOutputFormats) {
+      requestContext.getTransformerFactory().registerTransformation(
+          (TransformationDeclaration<Object, Object>) customFormat.tDeclaration,
+          (Class<? extends Transformation<Object, Object>>) customFormat.tClass);
+      contentSupport.activateCustomContentType(customFormat.type, customFormat.representationTypes);
+    }
+  }
+
   /**
    * As default we have to implement a behavior for preflight-requests in a CORS scenario to handle the
    * same-origin-policy (SOP) in modern browsers.
@@ -152,6 +163,10 @@ public class JPAODataServletHandler {
   /**
    * Client hook method to add custom resources (like dependencies for dependency
    * injection support or transformations) before anything is done with the request context.
+   * <p>
+   * With a {@link org.apache.olingo.jpa.processor.impl.BatchConfiguration BatchConfiguration} this method is also
+   * called for every concurrently processed $batch request part, from multiple threads at the same time (every call
+   * with an own request context), so implementations must be thread safe.
    *
    * @param requestContext The context of current request where processing will starting.
    */
@@ -163,6 +178,10 @@ public class JPAODataServletHandler {
    * Client hook method to change custom resources (like dependencies for dependency injection support) after
    * initialization of request handling (also after security checks), but before processing of request. A transaction
    * maybe in progress...
+   * <p>
+   * With a {@link org.apache.olingo.jpa.processor.impl.BatchConfiguration BatchConfiguration} this method is also
+   * called for every concurrently processed $batch request part, from multiple threads at the same time (every call
+   * with an own request context), so implementations must be thread safe.
    *
    * @param requestContext The context of current request where processing will starting.
    */
@@ -174,6 +193,20 @@ public class JPAODataServletHandler {
     globalContext.dispose();
   }
 
+  /**
+   * Build the complete meta model now, instead of lazy while processing the first requests. Call this method at
+   * startup, before the service is reported as ready.
+   *
+   * @param pool The pool to build the structured types in parallel or <code>null</code> to use the
+   * {@link ForkJoinPool#commonPool() common pool}.
+   */
+  public void buildMetamodel(final ForkJoinPool pool) throws ODataException {
+    globalContext.getEdmProvider().getServiceDocument().buildCompleteModel(pool != null ? pool : ForkJoinPool
+        .commonPool());
+    // prepare also the EDM of Olingo
+    globalContext.getServiceMetaData().getEdm().getSchemas();
+  }
+
   /**
    * Set or replace the security inceptor. A <code>null</code> parameter will
    * disable security constraints.
@@ -191,15 +224,57 @@ public class JPAODataServletHandler {
   }
 
   /**
-   * Client expendable list of processors.
+   * Set or replace the configuration to process GET requests without transaction. A <code>null</code> parameter will
+   * process all requests in a transaction (default).
+   */
+  public void setReadOnlyConfiguration(final ReadOnlyConfiguration readOnlyConfiguration) {
+    this.readOnlyConfiguration = readOnlyConfiguration;
+  }
+
+  /**
+   *
+   * @return The read-only configuration or <code>null</code> if no one is set.
+   */
+  ReadOnlyConfiguration getReadOnlyConfiguration() {
+    return readOnlyConfiguration;
+  }
+
+  /**
+   * Register the processors of {@link #collectProcessors(JPAODataRequestContext)}. Olingo prefers the last registered
+   * processor, so the {@link JPAODataMetadataProcessor} is registered again after processors derived from
+   * {@link DefaultProcessor} (often used as error processor), otherwise these would serve the <code>$metadata</code>
+   * document without cache.
+   */
+  void registerProcessors(final ODataHandler handler, final JPAODataRequestContext requestContext) {
+    JPAODataMetadataProcessor metadataProcessor = null;
+    boolean reregisterMetadataProcessor = false;
+    for (final Processor p : collectProcessors(requestContext)) {
+      handler.register(p);
+      if (JPAODataMetadataProcessor.class.isInstance(p)) {
+        metadataProcessor = (JPAODataMetadataProcessor) p;
+        reregisterMetadataProcessor = false;
+      } else if (metadataProcessor != null && DefaultProcessor.class.isInstance(p)) {
+        reregisterMetadataProcessor = true;
+      }
+    }
+    if (reregisterMetadataProcessor) {
+      handler.register(metadataProcessor);
+    }
+  }
+
+  /**
+   * Client expendable list of processors. Like {@link #modifyRequestContext(ModifiableJPAODataRequestContext)} this
+   * method may be called concurrently for $batch request parts.
    *
    * @return The collection of processors to use to handle the request.
    */
   protected Collection<Processor> collectProcessors(final JPAODataRequestContext requestContext) {
     final Collection<Processor> processors = new LinkedList<>();
+    processors.add(new JPAODataMetadataProcessor(requestContext));
     processors.add(new JPAStructureProcessor(requestContext));
     processors.add(new JPAODataActionProcessor(requestContext));
-    processors.add(new JPAODataBatchProcessor());
+    processors.add(new JPAODataBatchProcessor(requestContext));
+    processors.add(new JPAODataBulkProcessor(requestContext));
     return processors;
   }
 
@@ -0,0 +1,40 @@
+package org.apache.olingo.jpa.processor.core.api;
+
+import org.apache.olingo.jpa.processor.core.query.JPAQueryHints;
+
+/**
+ * Configuration to process GET requests in read-only mode: the entity manager is created via
+ * {@link org.apache.olingo.jpa.processor.core.mapping.JPAAdapter#createReadOnlyEntityManager()}, no transaction is
+ * started and the {@link #getQueryHints() query hints} are set on all queries of the request. The configuration is
+ * set on the servlet handler, because the entity manager is created before the request context is prepared:
+ * <p>
+ * <code>servletHandler.setReadOnlyConfiguration(config);</code>
+ * <p>
+ * Requests modifying data and <code>$batch</code> requests are always processed in a transaction.
+ *
+ */
+public class ReadOnlyConfiguration {
+
+  private final JPAQueryHints queryHints;
+
+  public ReadOnlyConfiguration() {
+    this(new JPAQueryHints());
+  }
+
+  /**
+   *
+   * @param queryHints The provider specific hints for read-only queries, for example
+   * <code>new JPAQueryHints().setHint("eclipselink.read-only", "true")</code>. The hints are taken as immutable copy,
+   * later changes of the given instance have no effect.
+   */
+  public ReadOnlyConfiguration(final JPAQueryHints queryHints) {
+    if (queryHints == null) {
+      throw new IllegalArgumentException("Query hints required");
+    }
+    this.queryHints = queryHints.toImmutable();
+  }
+
+  public JPAQueryHints getQueryHints() {
+    return queryHints;
+  }
+}
@@ -16,6 +16,7 @@ import javax.persistence.Query;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
 
 import org.apache.olingo.commons.api.edm.EdmFunction;
 import org.apache.olingo.commons.api.edm.EdmParameter;
@@ -29,6 +30,7 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAFunction;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAOperationParameter;
 import org.apache.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
+import org.apache.olingo.jpa.processor.core.api.JPAODataSearchProvider;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAFilterException;
 import org.apache.olingo.jpa.processor.core.filter.JPAAggregationOperation;
@@ -64,6 +66,8 @@ public abstract class AbstractJPADatabaseProcessor implements JPAODataDatabasePr
   private static final String PARAMETER_PLACEHOLDER = "$PARAMETER$";
 
   private CriteriaBuilder cb = null;
+  private JPAODataSearchProvider searchProvider = null;
+  private int maxSearchProviderMatches = DEFAULT_MAX_SEARCH_PROVIDER_MATCHES;
 
   protected AbstractJPADatabaseProcessor() {
     super();
@@ -73,6 +77,39 @@ public abstract class AbstractJPADatabaseProcessor implements JPAODataDatabasePr
     this.cb = cb;
   }
 
+  /**
+   *
+   * @param searchProvider The full-text search backend to evaluate $search or <code>null</code> to search via LIKE
+   * condition over the searchable columns.
+   */
+  public final void setSearchProvider(final JPAODataSearchProvider searchProvider) {
+    setSearchProvider(searchProvider, DEFAULT_MAX_SEARCH_PROVIDER_MATCHES);
+  }
+
+  /**
+   *
+   * @param searchProvider The full-text search backend to evaluate $search or <code>null</code> to search via LIKE
+   * condition over the searchable columns.
+   * @param maxMatches The maximum number of matching entities, a $search with more matches is rejected.
+   */
+  public final void setSearchProvider(final JPAODataSearchProvider searchProvider, final int maxMatches) {
+    if (maxMatches < 1 || maxMatches == Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid maximum number of search matches: " + maxMatches);
+    }
+    this.searchProvider = searchProvider;
+    this.maxSearchProviderMatches = maxMatches;
+  }
+
+  @Override
+  public JPAODataSearchProvider getSearchProvider() {
+    return searchProvider;
+  }
+
+  @Override
+  public int getMaxSearchProviderMatches() {
+    return maxSearchProviderMatches;
+  }
+
   protected final CriteriaBuilder getCriteriaBuilder() {
     if (cb == null) {
       throw new IllegalStateException("Call initialize() before to prepare cirteria builder");
@@ -164,6 +201,55 @@ public abstract class AbstractJPADatabaseProcessor implements JPAODataDatabasePr
     }
   }
 
+  /**
+   * Creates a single IN list for small value lists. Larger value lists are split into multiple IN lists (combined by
+   * OR), every one not exceeding the {@link #getMaxInListSize() maximal size} supported by the database.
+   */
+  @Override
+  public Expression<Boolean> createInComparison(final Expression<?> operand, final List<Expression<?>> values)
+      throws ODataApplicationException {
+    final CriteriaBuilder cb = getCriteriaBuilder();
+    final int maxInListSize = getMaxInListSize();
+    final List<Predicate> conditions = new LinkedList<>();
+    CriteriaBuilder.In<Object> inList = null;
+    int inListSize = 0;
+    boolean nullValue = false;
+    for (final Expression<?> value : values) {
+      if (value == null) {
+        nullValue = true;
+        continue;
+      }
+      if (inList == null || inListSize >= maxInListSize) {
+        inList = cb.in(operand);
+        inListSize = 0;
+        conditions.add(inList);
+      }
+      inList.value(value);
+      inListSize++;
+    }
+    if (nullValue) {
+      conditions.add(cb.isNull(operand));
+    }
+    if (conditions.isEmpty()) {
+      // nothing can match an empty list; avoid cb.disjunction(), because some JPA providers cannot handle an empty
+      // predicate in sub queries
+      return cb.equal(cb.literal(Integer.valueOf(1)), cb.literal(Integer.valueOf(0)));
+    } else if (conditions.size() == 1) {
+      return conditions.get(0);
+    }
+    return cb.or(conditions.toArray(new Predicate[conditions.size()]));
+  }
+
+  /**
+   * Overwrite this method to adapt the maximal number of values in a single IN list to the limits of the database
+   * (number of bind parameters or list entries).
+   *
+   * @return The maximal number of values in a single IN list; default is 1000.
+   */
+  protected int getMaxInListSize() {
+    return 1000;
+  }
+
   @SuppressWarnings({ "unchecked" })
   @Override
   public Expression<?> convertBuiltinFunction(final MethodKind methodCall,
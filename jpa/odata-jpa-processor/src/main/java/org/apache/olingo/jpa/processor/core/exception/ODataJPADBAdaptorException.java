@@ -16,6 +16,7 @@ public class ODataJPADBAdaptorException extends ODataJPAProcessException {
 	public static enum MessageKeys implements ODataJPAMessageKey {
 		PARAMETER_MISSING,
 		NOT_SUPPORTED_SEARCH,
+		SEARCH_TOO_MANY_MATCHES,
 		PARAMETER_CONVERSION_ERROR,
 		WRONG_NO_KEY_PROP;
 
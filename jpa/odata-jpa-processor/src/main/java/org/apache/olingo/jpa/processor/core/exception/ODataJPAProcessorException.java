@@ -18,11 +18,17 @@ public class ODataJPAProcessorException extends ODataJPAProcessException {
     QUERY_RESULT_CONV_ERROR,
     QUERY_RESULT_URI_ERROR,
     BATCH_CHANGE_SET_NOT_IMPLEMENTED,
+    BATCH_CHANGE_SET_FAILED,
+    BATCH_PART_PROCESSING_ERROR,
     NOT_SUPPORTED_CREATE,
     NOT_SUPPORTED_UPDATE,
     NOT_SUPPORTED_DELETE,
     NOT_SUPPORTED_RESOURCE_TYPE,
-    NOT_SUPPORTED_FUNC_WITH_NAVI;
+    NOT_SUPPORTED_FUNC_WITH_NAVI,
+    MEDIA_STREAM_ERROR,
+    MEDIA_STREAM_TOO_LARGE,
+    BULK_UPDATE_KEY_PROPERTY,
+    BULK_EACH_WITH_FILTER;
 
     @Override
     public String getKey() {
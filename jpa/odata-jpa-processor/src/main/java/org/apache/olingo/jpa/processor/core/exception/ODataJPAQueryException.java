@@ -21,6 +21,7 @@ public class ODataJPAQueryException extends ODataJPAProcessException {
     QUERY_RESULT_NAVI_PROPERTY_UNKNOWN,
     QUERY_RESULT_ACCESS_NOT_FOUND,
     QUERY_RESULT_EXPAND_ERROR,
+    QUERY_RESULT_COUNT_ERROR,
     QUERY_PREPARATION_FILTER_ERROR,
     QUERY_PREPARATION_ENTITY_UNKNOWN,
     QUERY_PREPARATION_INVALID_VALUE,
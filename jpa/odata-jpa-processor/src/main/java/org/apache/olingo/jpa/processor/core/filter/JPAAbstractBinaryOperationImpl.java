@@ -58,7 +58,7 @@ abstract class JPAAbstractBinaryOperationImpl<OT, ET> implements JPAExpressionOp
    * having more specific type information about literal (because a entity member attribute with meta informations)
    */
   @SuppressWarnings("unchecked")
-  private Expression<OT> determineLiteralExpression(final JPALiteralOperand literalOperand,
+  static <OT> Expression<OT> determineLiteralExpression(final JPALiteralOperand literalOperand,
       final JPAExpressionElement operandContext) throws ODataApplicationException {
     if (operandContext instanceof JPAMemberOperand) {
       final JPAMemberOperand rMemberOperand = (JPAMemberOperand) operandContext;
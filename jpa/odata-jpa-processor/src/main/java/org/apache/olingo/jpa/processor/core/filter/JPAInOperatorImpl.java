@@ -0,0 +1,65 @@
+package org.apache.olingo.jpa.processor.core.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.criteria.Expression;
+
+import org.apache.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.core.uri.queryoption.expression.BinaryImpl;
+
+/**
+ * The <code>in</code> operator, comparing an operand with a list of values:
+ * <code>$filter=ID in ('1','2','3')</code>. The values are compiled into IN lists instead of a tree of
+ * <code>or</code> conditions.
+ *
+ * @see JPAODataDatabaseProcessor#createInComparison(Expression, List)
+ */
+public final class JPAInOperatorImpl implements JPAExpressionOperation<BinaryOperatorKind, Boolean> {
+
+  private final JPAODataDatabaseProcessor converter;
+  private final JPAExpressionElement<?> left;
+  private final List<JPAExpressionElement<?>> right;
+
+  public JPAInOperatorImpl(final JPAODataDatabaseProcessor converter, final JPAExpressionElement<?> left,
+      final List<JPAExpressionElement<?>> right) {
+    this.converter = converter;
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  public Expression<Boolean> get() throws ODataApplicationException {
+    final List<Expression<?>> values = new ArrayList<>(right.size());
+    for (final JPAExpressionElement<?> value : right) {
+      values.add(determineExpression(value));
+    }
+    return converter.createInComparison(((JPAExpression<?>) left).get(), values);
+  }
+
+  private Expression<?> determineExpression(final JPAExpressionElement<?> value) throws ODataApplicationException {
+    if (value instanceof JPALiteralOperand) {
+      // the type of literal is taken from the left operand
+      return JPAAbstractBinaryOperationImpl.determineLiteralExpression((JPALiteralOperand) value, left);
+    }
+    return ((JPAExpression<?>) value).get();
+  }
+
+  @Override
+  public org.apache.olingo.server.api.uri.queryoption.expression.Expression getQueryExpressionElement() {
+    final List<org.apache.olingo.server.api.uri.queryoption.expression.Expression> values = new ArrayList<>(right
+        .size());
+    for (final JPAExpressionElement<?> value : right) {
+      values.add(value.getQueryExpressionElement());
+    }
+    return new BinaryImpl(left.getQueryExpressionElement(), BinaryOperatorKind.IN, values, null);
+  }
+
+  @Override
+  public BinaryOperatorKind getOperator() {
+    return BinaryOperatorKind.IN;
+  }
+
+}
@@ -16,6 +16,7 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAParameterizedElemen
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.TypeMapping;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAFilterException;
+import org.apache.olingo.jpa.processor.core.filter.JPALiteralParameterBinding.LiteralConversion;
 import org.apache.olingo.jpa.processor.core.query.ValueConverter;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
@@ -78,29 +79,56 @@ public class JPALiteralOperand implements JPAExpressionElement<Object> {
   private final Literal literal;
   private final OData odata;
   private final CriteriaBuilder cb;
+  private final JPALiteralParameterBinding parameterBinding;
 
   public JPALiteralOperand(final OData odata, final CriteriaBuilder cb, final Literal literal) {
+    this(odata, cb, literal, null);
+  }
+
+  /**
+   *
+   * @param parameterBinding Optional binding to lift the literal value into a query parameter.
+   */
+  public JPALiteralOperand(final OData odata, final CriteriaBuilder cb, final Literal literal,
+      final JPALiteralParameterBinding parameterBinding) {
     this.literal = literal;
     this.odata = odata;
     this.cb = cb;
+    this.parameterBinding = parameterBinding;
   }
 
-  private Expression<Object> wrapIntoExpression(final Object value) {
+  private Expression<Object> wrapIntoExpression(final Object value, final LiteralConversion conversion) {
     if (value == null) {
       return cb.nullLiteral(Object.class);
     }
+    if (parameterBinding != null) {
+      final Expression<Object> parameter = parameterBinding.bindAsParameter(literal, value, conversion);
+      if (parameter != null) {
+        return parameter;
+      }
+    }
     return cb.literal(value);
   }
 
+  /**
+   * The returned value will become part of the query as is, so the literal cannot be replaced by a query parameter.
+   */
   @Override
   public Comparable get() throws ODataApplicationException {
-    final JPAParameterizedElement typeInformation = new AnonymousSimpleTypeElement(null);
-    return convert2Value(null, typeInformation);
+    markAsInlined();
+    return convert2Value(literal, null, new AnonymousSimpleTypeElement(null));
+  }
+
+  private void markAsInlined() {
+    if (parameterBinding != null) {
+      parameterBinding.markAsInlined(literal);
+    }
   }
 
   public Expression<Object> getLiteralExpression()
       throws ODataApplicationException {
-    return wrapIntoExpression(get());
+    final LiteralConversion conversion = l -> convert2Value(l, null, new AnonymousSimpleTypeElement(null));
+    return wrapIntoExpression(conversion.convert(literal), conversion);
   }
 
   /**
@@ -115,9 +143,9 @@ public class JPALiteralOperand implements JPAExpressionElement<Object> {
   public Expression<Object> getLiteralExpression(final EdmPrimitiveTypeKind requestedTargetEdmTypeKind)
       throws ODataApplicationException {
     // try to convert/cast the literal into an object of requested type
-    final JPAParameterizedElement typeInformation = new AnonymousSimpleTypeElement(requestedTargetEdmTypeKind);
-    final Comparable<Object> value = convert2Value(requestedTargetEdmTypeKind, typeInformation);
-    return wrapIntoExpression(value);
+    final LiteralConversion conversion = l -> convert2Value(l, requestedTargetEdmTypeKind,
+        new AnonymousSimpleTypeElement(requestedTargetEdmTypeKind));
+    return wrapIntoExpression(conversion.convert(literal), conversion);
   }
 
   /**
@@ -130,33 +158,34 @@ public class JPALiteralOperand implements JPAExpressionElement<Object> {
     if (isNullLiteral()) {
       return null;
     }
+    final LiteralConversion conversion;
     if (attribute.getType().isEnum()) {
-      final Enum<?> enumValue = getEnumValue(attribute);
-      return wrapIntoExpression(enumValue);
-    }
-    try {
+      conversion = l -> getEnumValue(l, attribute);
+    } else {
       // normal primitive type handling
-      final EdmPrimitiveTypeKind edmTypeKind = TypeMapping.convertToEdmSimpleType(attribute);
-      final Object odataValue = convert2Value(edmTypeKind, attribute);
-      final Object convertedValue = CONVERTER.convertOData2JPAValue(attribute, odataValue);
-      return wrapIntoExpression(convertedValue);
-    } catch (final ODataJPAModelException e) {
-      throw new ODataJPAFilterException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+      final EdmPrimitiveTypeKind edmTypeKind;
+      try {
+        edmTypeKind = TypeMapping.convertToEdmSimpleType(attribute);
+      } catch (final ODataJPAModelException e) {
+        throw new ODataJPAFilterException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+      }
+      conversion = l -> CONVERTER.convertOData2JPAValue(attribute, convert2Value(l, edmTypeKind, attribute));
     }
+    return wrapIntoExpression(conversion.convert(literal), conversion);
   }
 
   @SuppressWarnings("unchecked")
-  private Comparable<Object> convert2Value(final EdmPrimitiveTypeKind requestedTargetEdmTypeKind,
-      final JPAParameterizedElement typeInformation)
+  private Comparable<Object> convert2Value(final Literal odataLiteral,
+      final EdmPrimitiveTypeKind requestedTargetEdmTypeKind, final JPAParameterizedElement typeInformation)
           throws ODataApplicationException {
-    if (isNullLiteral()) {
+    if (isNullLiteral(odataLiteral)) {
       return null;
     }
     final EdmPrimitiveType edmType;
     final Class<?> oadataType;
     if (requestedTargetEdmTypeKind == null) {
       // default behaviour
-      edmType = ((EdmPrimitiveType) literal.getType());
+      edmType = ((EdmPrimitiveType) odataLiteral.getType());
       oadataType = edmType.getDefaultType();
     } else {
       // use hint
@@ -168,11 +197,11 @@ public class JPALiteralOperand implements JPAExpressionElement<Object> {
         // build enum literal instance
         final Class<Enum> clazz = (Class<Enum>) Class
             .forName(((EdmEnumType) edmType).getFullQualifiedName().getFullQualifiedNameAsString());
-        return Enum.valueOf(clazz, literal.getText());
+        return Enum.valueOf(clazz, odataLiteral.getText());
       }
       // TODO literal does not convert decimals without scale properly
       // EdmPrimitiveType edmType = ((EdmPrimitiveType) literal.getType());
-      final String value = edmType.fromUriLiteral(literal.getText());
+      final String value = edmType.fromUriLiteral(odataLiteral.getText());
       return (Comparable<Object>) edmType.valueOfString(value, Boolean.valueOf(typeInformation.isNullable()),
           typeInformation.getMaxLength(), typeInformation.getPrecision(), typeInformation.getScale(),
           Boolean.TRUE, oadataType);
@@ -188,7 +217,11 @@ public class JPALiteralOperand implements JPAExpressionElement<Object> {
    * @see http://docs.oasis-open.org/odata/odata/v4.01/cs01/part1-protocol/odata-v4.01-cs01-part1-protocol.html#sec_BuiltinQueryFunctions
    */
   protected boolean isNullLiteral() {
-    final String text = literal.getText();
+    return isNullLiteral(literal);
+  }
+
+  private static boolean isNullLiteral(final Literal odataLiteral) {
+    final String text = odataLiteral.getText();
     if (text == null) {
       // not the 'null' text value for literal
       return false;
@@ -197,11 +230,16 @@ public class JPALiteralOperand implements JPAExpressionElement<Object> {
   }
 
   @SuppressWarnings({ "unchecked" })
-  private Enum<?> getEnumValue(final JPAParameterizedElement attribute) {
-    return Enum.valueOf((Class<Enum>) attribute.getType(), literal.getText());
+  private static Enum<?> getEnumValue(final Literal odataLiteral, final JPAParameterizedElement attribute) {
+    return Enum.valueOf((Class<Enum>) attribute.getType(), odataLiteral.getText());
   }
 
+  /**
+   *
+   * @return The literal, assuming that the literal text will be used directly as part of the query.
+   */
   public Literal getODataLiteral() {
+    markAsInlined();
     return literal;
   }
 
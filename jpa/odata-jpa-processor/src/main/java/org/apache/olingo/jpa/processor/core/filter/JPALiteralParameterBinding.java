@@ -0,0 +1,41 @@
+package org.apache.olingo.jpa.processor.core.filter;
+
+import javax.persistence.criteria.Expression;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+
+/**
+ * Optional binding used by {@link JPALiteralOperand} to lift literal values of a filter expression into query
+ * parameters. That allows the reuse of an already built (and by the JPA provider compiled) query for other requests
+ * with the same shape, but other literal values.
+ *
+ * @author agent
+ *
+ */
+public interface JPALiteralParameterBinding {
+
+  /**
+   * Function to convert the text of a literal into the value bound as query parameter. The conversion is called
+   * again with the literal of a later request to rebind the parameter of a reused query.
+   */
+  @FunctionalInterface
+  public static interface LiteralConversion {
+    public Object convert(Literal literal) throws ODataApplicationException;
+  }
+
+  /**
+   *
+   * @param literal The literal from filter expression.
+   * @param value The already converted (not <code>null</code>) value of literal.
+   * @param conversion The conversion used to create <i>value</i> from <i>literal</i>.
+   * @return The parameter expression to use instead of the literal value or <code>null</code> if the literal cannot
+   * be lifted into a parameter.
+   */
+  public Expression<Object> bindAsParameter(Literal literal, Object value, LiteralConversion conversion);
+
+  /**
+   * Register the literal as used directly as value, so the literal text will become part of the query.
+   */
+  public void markAsInlined(Literal literal);
+}
@@ -1,5 +1,9 @@
 package org.apache.olingo.jpa.processor.core.filter;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
 import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
 import org.apache.olingo.server.api.uri.queryoption.expression.Member;
@@ -16,7 +20,7 @@ JPAExpressionOperation<BinaryOperatorKind, Boolean> {
 
   private final BinaryOperatorKind operator;
   private final JPAMemberOperand<?> jpaMember;
-  private final JPALiteralOperand operand;
+  private final List<JPAExpressionElement<?>> operands;
 
   JPAMemberOperationNavigation(final JPAEntityFilterProcessor<?> jpaComplier, final BinaryOperatorKind operator,
       final JPAExpressionElement<?> left, final JPAExpressionElement<?> right) {
@@ -25,13 +29,25 @@ JPAExpressionOperation<BinaryOperatorKind, Boolean> {
     this.operator = operator;
     if (left instanceof JPAMemberOperand) {
       jpaMember = (JPAMemberOperand<?>) left;
-      operand = (JPALiteralOperand) right;
+      operands = Collections.singletonList(right);
     } else {
       jpaMember = (JPAMemberOperand<?>) right;
-      operand = (JPALiteralOperand) left;
+      operands = Collections.singletonList(left);
     }
   }
 
+  /**
+   * Constructor for operators having a list of operands on the right side, like <code>in</code>.
+   */
+  JPAMemberOperationNavigation(final JPAEntityFilterProcessor<?> jpaComplier, final BinaryOperatorKind operator,
+      final JPAMemberOperand<?> left, final List<JPAExpressionElement<?>> right) {
+
+    super(jpaComplier);
+    this.operator = operator;
+    this.jpaMember = left;
+    this.operands = right;
+  }
+
   @Override
   protected JPAMemberOperand<?> getNavigatingMember() {
     return jpaMember;
@@ -45,7 +61,14 @@ JPAExpressionOperation<BinaryOperatorKind, Boolean> {
 
   @Override
   protected VisitableExpression buildResultingExpression(final Member attribute) {
-    return new BinaryImpl(attribute, operator, operand.getODataLiteral(), null);
+    if (operator == BinaryOperatorKind.IN) {
+      final List<Expression> values = new ArrayList<>(operands.size());
+      for (final JPAExpressionElement<?> operand : operands) {
+        values.add(operand.getQueryExpressionElement());
+      }
+      return new BinaryImpl(attribute, operator, values, null);
+    }
+    return new BinaryImpl(attribute, operator, operands.get(0).getQueryExpressionElement(), null);
   }
 
   @Override
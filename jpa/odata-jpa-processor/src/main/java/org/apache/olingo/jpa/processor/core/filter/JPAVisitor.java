@@ -1,5 +1,6 @@
 package org.apache.olingo.jpa.processor.core.filter;
 
+import java.util.Collections;
 import java.util.List;
 
 import javax.persistence.criteria.CriteriaBuilder;
@@ -61,6 +62,8 @@ class JPAVisitor implements ExpressionVisitor<JPAExpressionElement<?>> {
         || operator == BinaryOperatorKind.LE) {
       return new JPAComparisonOperatorImp(this.filterProcessor.getConverter(), operator,
           (JPAExpressionElement<Comparable<?>>) left, (JPAExpressionElement<Comparable<?>>) right);
+    } else if (operator == BinaryOperatorKind.IN) {
+      return new JPAInOperatorImpl(this.filterProcessor.getConverter(), left, Collections.singletonList(right));
     } else if (operator == BinaryOperatorKind.AND || operator == BinaryOperatorKind.OR) {
       return new JPABooleanOperationImpl(this.filterProcessor.getConverter(), operator,
           checkBooleanExpressionOperand(left), checkBooleanExpressionOperand(right));
@@ -81,11 +84,24 @@ class JPAVisitor implements ExpressionVisitor<JPAExpressionElement<?>> {
   public JPAExpressionElement<?> visitBinaryOperator(final BinaryOperatorKind operator,
       final JPAExpressionElement<?> left,
       final List<JPAExpressionElement<?>> right) throws ExpressionVisitException, ODataApplicationException {
+    if (operator == BinaryOperatorKind.IN) {
+      if (hasMemberNavigation(left)) {
+        return new JPAMemberOperationNavigation(this.filterProcessor, operator, (JPAMemberOperand<?>) left, right);
+      }
+      for (final JPAExpressionElement<?> value : right) {
+        if (hasMemberNavigation(value)) {
+          throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_FILTER,
+              HttpStatusCode.NOT_IMPLEMENTED, "Navigation in value list of 'in' operator");
+        }
+      }
+      return new JPAInOperatorImpl(this.filterProcessor.getConverter(), left, right);
+    }
     if (right.isEmpty()) {
       return visitBinaryOperator(operator, left, (JPAExpressionElement<?>) null);
     }
     if (right.size() > 1) {
-      throw new UnsupportedOperationException("Multiple expressions on right side are currently not supported");
+      throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_OPERATOR,
+          HttpStatusCode.NOT_IMPLEMENTED, operator.name());
     }
     return visitBinaryOperator(operator, left, right.get(0));
   }
@@ -126,7 +142,7 @@ class JPAVisitor implements ExpressionVisitor<JPAExpressionElement<?>> {
           HttpStatusCode.NOT_IMPLEMENTED, "Multiple Enumeration values");
     }
     final Literal literal = new LiteralImpl(enumValues.get(0), type);
-    return new JPALiteralOperand(getOdata(), getCriteriaBuilder(), literal);
+    return new JPALiteralOperand(getOdata(), getCriteriaBuilder(), literal, getLiteralParameterBinding());
   }
 
   @Override
@@ -149,7 +165,7 @@ class JPAVisitor implements ExpressionVisitor<JPAExpressionElement<?>> {
   @Override
   public JPAExpressionElement<?> visitLiteral(final Literal literal)
       throws ExpressionVisitException, ODataApplicationException {
-    return new JPALiteralOperand(getOdata(), getCriteriaBuilder(), literal);
+    return new JPALiteralOperand(getOdata(), getCriteriaBuilder(), literal, getLiteralParameterBinding());
   }
 
   @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -254,6 +270,10 @@ class JPAVisitor implements ExpressionVisitor<JPAExpressionElement<?>> {
     return filterProcessor.getEntityManager().getCriteriaBuilder();
   }
 
+  private JPALiteralParameterBinding getLiteralParameterBinding() {
+    return filterProcessor.getParent().getLiteralParameterBinding();
+  }
+
   private OData getOdata() {
     return filterProcessor.getOdata();
   }
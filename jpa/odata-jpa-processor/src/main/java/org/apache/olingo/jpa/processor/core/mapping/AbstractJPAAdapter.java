@@ -23,6 +23,7 @@ public abstract class AbstractJPAAdapter implements JPAAdapter {
   private final String namespace;
   private final AbstractJPADatabaseProcessor dbAccessor;
   private final EntityManagerFactory emf;
+  private EntityManagerFactory readOnlyEmf = null;
   private final Set<Class<?>> dtos = new LinkedHashSet<>();
 
   /**
@@ -65,6 +66,25 @@ public abstract class AbstractJPAAdapter implements JPAAdapter {
     return getEntityManagerFactory().createEntityManager();
   }
 
+  /**
+   *
+   * @param readOnlyEmf The factory for entity managers used in read-only requests, normally connected to a read
+   * replica of the database. The persistence unit must have the same entities as the main factory. The factory is
+   * closed on {@link #dispose()}. Use <code>null</code> to create also the read-only entity managers by the main
+   * factory.
+   */
+  public void setReadOnlyEntityManagerFactory(final EntityManagerFactory readOnlyEmf) {
+    this.readOnlyEmf = readOnlyEmf;
+  }
+
+  @Override
+  public EntityManager createReadOnlyEntityManager() throws RuntimeException {
+    if (readOnlyEmf == null) {
+      return createEntityManager();
+    }
+    return readOnlyEmf.createEntityManager();
+  }
+
   @Override
   public String getNamespace() {
     return namespace;
@@ -100,5 +120,8 @@ public abstract class AbstractJPAAdapter implements JPAAdapter {
   @Override
   public void dispose() {
     emf.close();
+    if (readOnlyEmf != null && readOnlyEmf.isOpen()) {
+      readOnlyEmf.close();
+    }
   }
 }
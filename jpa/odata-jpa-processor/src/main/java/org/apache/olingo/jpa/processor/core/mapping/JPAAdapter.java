@@ -30,6 +30,18 @@ public interface JPAAdapter {
    */
   public EntityManager createEntityManager() throws RuntimeException;
 
+  /**
+   * Create an entity manager for a request without data modification. No transaction is started for such an entity
+   * manager, the entity manager is closed by the caller after the response was written.
+   *
+   * @return The entity manager, maybe created by another (read replica) entity manager factory, but always with the
+   * same meta model as {@link #createEntityManager()}.
+   * @see org.apache.olingo.jpa.processor.core.api.ReadOnlyConfiguration
+   */
+  public default EntityManager createReadOnlyEntityManager() throws RuntimeException {
+    return createEntityManager();
+  }
+
   /**
    *
    * @see javax.transaction.UserTransaction#begin()
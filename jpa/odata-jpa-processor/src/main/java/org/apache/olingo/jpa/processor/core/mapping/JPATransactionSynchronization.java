@@ -0,0 +1,108 @@
+package org.apache.olingo.jpa.processor.core.mapping;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Registry of actions to execute after the commit of the transaction started by the persistence adapters of this
+ * package for the current thread. Used to keep resources outside of the database (like a search index) in sync with
+ * the committed state of the database; the actions of a rolled back transaction are discarded.
+ */
+public final class JPATransactionSynchronization {
+
+  private static class TransactionScope {
+    private final EntityManager em;
+    private final List<Runnable> afterCommitActions = new ArrayList<>();
+
+    TransactionScope(final EntityManager em) {
+      this.em = em;
+    }
+  }
+
+  private final static Logger LOG = Logger.getLogger(JPATransactionSynchronization.class.getName());
+  /**
+   * The transactions of the current thread, the last one is the active transaction. Transactions may be nested (like
+   * the isolated processing of a $batch request part in the thread of the $batch request).
+   */
+  private static final ThreadLocal<LinkedList<TransactionScope>> TRANSACTIONS = new ThreadLocal<>();
+
+  private JPATransactionSynchronization() {
+    // static access only
+  }
+
+  /**
+   * Execute the action after the commit of the active transaction of the current thread. Without a transaction
+   * started via {@link JPAAdapter#beginTransaction(EntityManager)} (like changes done by other application code) the
+   * action is executed immediately.
+   */
+  public static void afterCommit(final Runnable action) {
+    final LinkedList<TransactionScope> transactions = TRANSACTIONS.get();
+    if (transactions == null || transactions.isEmpty()) {
+      action.run();
+      return;
+    }
+    transactions.getLast().afterCommitActions.add(action);
+  }
+
+  /**
+   *
+   * @return The entity manager of the active transaction of the current thread or <code>null</code> if no transaction
+   * was started via {@link JPAAdapter#beginTransaction(EntityManager)}.
+   */
+  public static EntityManager getActiveEntityManager() {
+    final LinkedList<TransactionScope> transactions = TRANSACTIONS.get();
+    if (transactions == null || transactions.isEmpty()) {
+      return null;
+    }
+    return transactions.getLast().em;
+  }
+
+  static void begin(final EntityManager em) {
+    LinkedList<TransactionScope> transactions = TRANSACTIONS.get();
+    if (transactions == null) {
+      transactions = new LinkedList<>();
+      TRANSACTIONS.set(transactions);
+    }
+    transactions.add(new TransactionScope(em));
+  }
+
+  /**
+   * Finish the transaction of the entity manager; the registered actions are executed only if the transaction was
+   * committed. Calls for an entity manager without transaction are ignored.
+   */
+  static void complete(final EntityManager em, final boolean committed) {
+    final LinkedList<TransactionScope> transactions = TRANSACTIONS.get();
+    if (transactions == null) {
+      return;
+    }
+    TransactionScope scope = null;
+    for (final Iterator<TransactionScope> iterator = transactions.descendingIterator(); iterator.hasNext();) {
+      final TransactionScope candidate = iterator.next();
+      if (candidate.em == em) {
+        iterator.remove();
+        scope = candidate;
+        break;
+      }
+    }
+    if (transactions.isEmpty()) {
+      TRANSACTIONS.remove();
+    }
+    if (scope == null || !committed) {
+      return;
+    }
+    for (final Runnable action : scope.afterCommitActions) {
+      try {
+        action.run();
+      } catch (final RuntimeException e) {
+        // the transaction is already committed
+        LOG.log(Level.WARNING, "Action after commit failed", e);
+      }
+    }
+  }
+}
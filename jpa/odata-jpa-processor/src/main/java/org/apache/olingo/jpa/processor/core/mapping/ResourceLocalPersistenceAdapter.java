@@ -34,11 +34,18 @@ public class ResourceLocalPersistenceAdapter extends AbstractJPAAdapter {
 	@Override
 	public void beginTransaction(final EntityManager em) throws RuntimeException {
 		em.getTransaction().begin();
+		JPATransactionSynchronization.begin(em);
 	}
 
 	@Override
 	public void commitTransaction(final EntityManager em) throws RuntimeException {
-		em.getTransaction().commit();
+		boolean committed = false;
+		try {
+			em.getTransaction().commit();
+			committed = true;
+		} finally {
+			JPATransactionSynchronization.complete(em, committed);
+		}
 		em.close();
 	}
 
@@ -47,6 +54,7 @@ public class ResourceLocalPersistenceAdapter extends AbstractJPAAdapter {
 		if (em.getTransaction().isActive()) {
 			em.getTransaction().rollback();
 		}
+		JPATransactionSynchronization.complete(em, false);
 		em.clear();
 		em.close();
 	}
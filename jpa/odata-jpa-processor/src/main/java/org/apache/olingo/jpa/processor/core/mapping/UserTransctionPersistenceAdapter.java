@@ -97,16 +97,21 @@ public class UserTransctionPersistenceAdapter extends AbstractJPAAdapter {
 		} catch (NotSupportedException | SystemException e) {
 			throw new RuntimeException(e);
 		}
+		JPATransactionSynchronization.begin(em);
 	}
 
 	@Override
 	public void commitTransaction(final EntityManager em) throws RuntimeException {
+		boolean committed = false;
 		try {
 			em.joinTransaction();
 			em.flush();
 			transactionAccessor.commit();
+			committed = true;
 		} catch (RollbackException | HeuristicMixedException | HeuristicRollbackException | SystemException e) {
 			throw new RuntimeException(e);
+		} finally {
+			JPATransactionSynchronization.complete(em, committed);
 		}
 		em.close();
 	}
@@ -118,6 +123,8 @@ public class UserTransctionPersistenceAdapter extends AbstractJPAAdapter {
 			transactionAccessor.rollback();
 		} catch (final SystemException e) {
 			throw new RuntimeException(e);
+		} finally {
+			JPATransactionSynchronization.complete(em, false);
 		}
 		em.close();
 	}
@@ -4,7 +4,6 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.util.Collection;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -31,85 +30,15 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAParameterizedElement;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
-import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.TypeMapping;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAConversionException;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAConversionException.MessageKeys;
-import org.apache.olingo.jpa.processor.core.mapping.converter.LocalDate2UtilCalendarODataAttributeConverter;
-import org.apache.olingo.jpa.processor.core.mapping.converter.LocalDateTime2SqlTimestampODataAttributeConverter;
-import org.apache.olingo.jpa.processor.core.mapping.converter.LocalDateTime2ZonedDateTimeODataAttributeConverter;
-import org.apache.olingo.jpa.processor.core.mapping.converter.LocalTime2UtilCalendarODataAttributeConverter;
-import org.apache.olingo.jpa.processor.core.mapping.converter.SqlDate2UtilCalendarODataAttributeConverter;
-import org.apache.olingo.jpa.processor.core.mapping.converter.SqlTime2UtilCalendarODataAttributeConverter;
-import org.apache.olingo.jpa.processor.core.mapping.converter.UtilDate2UtilCalendarODataAttributeConverter;
 import org.apache.olingo.server.api.ODataApplicationException;
 
 import javassist.util.proxy.ProxyFactory;
 
 public abstract class AbstractConverter {
 
-  private static class ConverterMapping {
-
-    private final Class<?> odataAttributeType;
-    private final Class<?> jpaAttributeType;
-    private final boolean matchSubClasses4JPA;
-    private final ODataAttributeConverter<Object, Object> converterInstance;
-
-    @SuppressWarnings("unchecked")
-    ConverterMapping(final Class<?> odataAttributeType, final Class<?> jpaAttributeType,
-        final boolean matchSubClassesForJPA,
-        @SuppressWarnings("rawtypes") final ODataAttributeConverter converterInstance) {
-      this.odataAttributeType = odataAttributeType;
-      this.jpaAttributeType = jpaAttributeType;
-      this.matchSubClasses4JPA = matchSubClassesForJPA;
-      this.converterInstance = converterInstance;
-    }
-
-    ODataAttributeConverter<Object, Object> getConverterInstance() {
-      return converterInstance;
-    }
-
-    boolean isMatching(final Class<?> odataAttributeType, final Class<?> jpaAttributeType) {
-      if (!this.odataAttributeType.isAssignableFrom(odataAttributeType)) {
-        return false;
-      }
-      if (matchSubClasses4JPA) {
-        return this.jpaAttributeType.isAssignableFrom(jpaAttributeType);
-      } else {
-        return this.jpaAttributeType.equals(jpaAttributeType);
-      }
-    }
-  }
-
-  private final static Collection<ConverterMapping> DEFAULT_ODATA_ATTRIBUTE_CONVERTERS = new LinkedList<>();
-
-  static {
-    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.util.Calendar.class,
-        java.sql.Date.class, false,
-        new SqlDate2UtilCalendarODataAttributeConverter()));
-    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.util.Calendar.class,
-        java.sql.Time.class, false,
-        new SqlTime2UtilCalendarODataAttributeConverter()));
-    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.util.Calendar.class, java.util.Date.class,
-        false, new UtilDate2UtilCalendarODataAttributeConverter()));
-    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS
-    .add(new ConverterMapping(java.util.Calendar.class, java.time.LocalDate.class, true,
-        new LocalDate2UtilCalendarODataAttributeConverter()));
-    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.util.Calendar.class,
-        java.time.LocalTime.class, true, new LocalTime2UtilCalendarODataAttributeConverter()));
-    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.time.ZonedDateTime.class,
-        java.time.LocalDateTime.class, true, new LocalDateTime2ZonedDateTimeODataAttributeConverter()));
-    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.sql.Timestamp.class,
-        java.time.LocalDateTime.class, true, new LocalDateTime2SqlTimestampODataAttributeConverter()));
-  }
-
   protected final Logger log = Logger.getLogger(AbstractConverter.class.getName());
-  @SuppressWarnings("rawtypes")
-  private final Map<String, ODataAttributeConverter> converterLookupCache = new HashMap<>();
-
-  private static String buildConverterKey(final Class<?> odataAttributeType, final Class<?> jpaAttributeType) {
-    return odataAttributeType.getName().concat("<->").concat(jpaAttributeType.getName());
-  }
-
   /**
    * Look for any matching converter, including default implementation for some
    * data type combinations.
@@ -117,7 +46,7 @@ public abstract class AbstractConverter {
    * @param jpaElement
    * The attribute to look for an assigned converter.
    * @param odataAttributeType If <code>null</code> then no
-   * {@link #determineDefaultODataAttributeConverter(Class, Class) default converter} can be used and only attributes
+   * default converter can be used and only attributes
    * annotated with {@link EdmAttributeConversion @EdmAttributeConversion} can handle <code>null</code> values in a
    * different way.
    *
@@ -126,65 +55,14 @@ public abstract class AbstractConverter {
   protected final ODataAttributeConverter<Object, Object> determineODataAttributeConverter(
       final JPADescribedElement jpaElement,
       final Class<?> odataAttributeType) throws ODataJPAConversionException {
-    final ODataAttributeConverter<Object, Object> converter = determineCustomODataAttributeConverter(jpaElement);
+    final ODataAttributeConverter<Object, Object> converter = ODataAttributeConverterRegistry
+        .determineCustomODataAttributeConverter(jpaElement);
     if (converter != null) {
       return converter;
     }
     // look for default converter
-    return determineDefaultODataAttributeConverter(jpaElement.getType(), odataAttributeType);
-  }
-
-  @SuppressWarnings("unchecked")
-  private ODataAttributeConverter<Object, Object> determineCustomODataAttributeConverter(
-      final JPADescribedElement jpaElement) throws ODataJPAConversionException {
-    if (jpaElement.getAnnotatedElement() == null) {
-      return null;
-    }
-    final EdmAttributeConversion annoConversionConfiguration = jpaElement.getAnnotatedElement().getAnnotation(
-        EdmAttributeConversion.class);
-    if (annoConversionConfiguration != null) {
-      try {
-        if (!EdmAttributeConversion.DEFAULT.class.equals(annoConversionConfiguration.converter())) {
-          return (ODataAttributeConverter<Object, Object>) annoConversionConfiguration.converter().newInstance();
-        }
-      } catch (InstantiationException | IllegalAccessException e) {
-        throw new ODataJPAConversionException(e, ODataJPAConversionException.MessageKeys.RUNTIME_PROBLEM, e.getMessage());
-      }
-    }
-    return null;
-  }
-
-  @SuppressWarnings("unchecked")
-  private ODataAttributeConverter<Object, Object> determineDefaultODataAttributeConverter(
-      final Class<?> jpaAttributeType,
-      final Class<?> odataAttributeType) {
-    if (jpaAttributeType == null || odataAttributeType == null) {
-      return null;
-    }
-    final String key = buildConverterKey(odataAttributeType, jpaAttributeType);
-    if (converterLookupCache.containsKey(key)) {
-      return converterLookupCache.get(key);
-    }
-    // lookup...
-    final List<ODataAttributeConverter<Object, Object>> matchingConverters = new LinkedList<>();
-    for (final ConverterMapping mapping : DEFAULT_ODATA_ATTRIBUTE_CONVERTERS) {
-      if (!mapping.isMatching(odataAttributeType, jpaAttributeType)) {
-        continue;
-      }
-      matchingConverters.add(mapping.getConverterInstance());
-    }
-    if (matchingConverters.size() > 1) {
-      log.log(Level.WARNING, "Multiple default converters are matching for " + odataAttributeType.getSimpleName() + "<->"
-          + jpaAttributeType.getSimpleName() + ". Will NOT use any of them!");
-      return null;
-    }
-    if (matchingConverters.isEmpty()) {
-      converterLookupCache.put(key, null);
-      return null;
-    }
-    final ODataAttributeConverter<Object, Object> converter = matchingConverters.get(0);
-    converterLookupCache.put(key, converter);
-    return converter;
+    return ODataAttributeConverterRegistry.determineDefaultODataAttributeConverter(jpaElement.getType(),
+        odataAttributeType);
   }
 
   /**
@@ -197,29 +75,12 @@ public abstract class AbstractConverter {
    */
   protected Object convertJPA2ODataPrimitiveValue(final JPADescribedElement attribute, final Object jpaValue)
       throws ODataJPAConversionException, ODataJPAModelException {
-
-    ODataAttributeConverter<Object, Object> converter = determineCustomODataAttributeConverter(attribute);
-    if (converter != null) {
-      return converter.convertToOData(jpaValue);
-    }
-
-    final Class<?> javaType = attribute.getType();
-    final Class<?> oadataType;
-    if (javaType.isEnum()) {
-      oadataType = null;
-    } else {
-      // use a intermediate conversion to an supported JAVA type in the Olingo library
-      oadataType = TypeMapping.determineODataRepresentationtype(attribute.getType(), attribute.getAnnotatedElement());
-    }
-    if (javaType.equals(oadataType)) {
+    final ODataAttributeConverter<Object, Object> converter = ODataAttributeConverterRegistry
+        .determineJPA2ODataConverter(attribute);
+    if (converter == null) {
       return jpaValue;
     }
-    converter = determineDefaultODataAttributeConverter(javaType, oadataType);
-    if (converter != null) {
-      return converter.convertToOData(jpaValue);
-    }
-    // use 'as is' without conversion
-    return jpaValue;
+    return converter.convertToOData(jpaValue);
   }
 
   /**
@@ -4,19 +4,25 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CommonAbstractCriteria;
+import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Selection;
 import javax.persistence.criteria.Subquery;
 
@@ -35,6 +41,7 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.IntermediateServiceDo
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 import org.apache.olingo.jpa.processor.core.filter.JPAEntityFilterProcessor;
+import org.apache.olingo.jpa.processor.core.filter.JPALiteralParameterBinding;
 import org.apache.olingo.jpa.processor.core.query.result.NavigationKeyBuilder;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
@@ -54,7 +61,7 @@ import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitEx
 import org.apache.olingo.server.api.uri.queryoption.expression.Member;
 import org.apache.olingo.server.api.uri.queryoption.expression.VisitableExpression;
 
-public abstract class AbstractCriteriaQueryBuilder<QT extends CriteriaQuery<DT>, DT> extends AbstractQueryBuilder {
+public abstract class AbstractCriteriaQueryBuilder<QT extends CommonAbstractCriteria, DT> extends AbstractQueryBuilder {
 
   protected static enum InitializationState {
     NotInitialized, Initialized;
@@ -99,8 +106,15 @@ public abstract class AbstractCriteriaQueryBuilder<QT extends CriteriaQuery<DT>,
       return filterFrom;
     }
 
+    @Override
+    public JPALiteralParameterBinding getLiteralParameterBinding() {
+      return AbstractCriteriaQueryBuilder.this.literalParameterBinding;
+    }
+
   }
 
+  private static final ExpandConfiguration DEFAULT_EXPAND_CONFIGURATION = new ExpandConfiguration();
+
   private final JPAODataRequestContext context;
   private final NavigationIfc uriNavigation;
   private final EdmType edmType;
@@ -110,6 +124,7 @@ public abstract class AbstractCriteriaQueryBuilder<QT extends CriteriaQuery<DT>,
   private final NavigationKeyBuilder jpaStartNavigationKeyBuilder;
   private List<NavigationBuilder> navigationQueryList = null;
   private InitializationState initStateType = InitializationState.NotInitialized;
+  private JPALiteralParameterBinding literalParameterBinding = null;
 
   protected AbstractCriteriaQueryBuilder(final JPAODataRequestContext context, final NavigationIfc uriInfo,
       final EntityManager em)
@@ -146,6 +161,15 @@ public abstract class AbstractCriteriaQueryBuilder<QT extends CriteriaQuery<DT>,
     return context;
   }
 
+  /**
+   *
+   * @param binding The binding used to lift literals of $filter into query parameters while building the WHERE clause
+   * or <code>null</code> to use the literals as values.
+   */
+  protected final void setLiteralParameterBinding(final JPALiteralParameterBinding binding) {
+    this.literalParameterBinding = binding;
+  }
+
   /**
    *
    * @return The entries from {@link UriInfoResource#getUriResourceParts()} that can be navigated, to avoid
@@ -274,7 +298,7 @@ public abstract class AbstractCriteriaQueryBuilder<QT extends CriteriaQuery<DT>,
     return (determineSkipValue() != null || determineTopValue() != null);
   }
 
-  private Integer determineSkipValue() throws ODataJPAQueryException {
+  protected final Integer determineSkipValue() throws ODataJPAQueryException {
     final UriInfoResource uriResource = getNavigation().getLastStep();
     final SkipOption skipOption = uriResource.getSkipOption();
     if (skipOption == null) {
@@ -289,7 +313,7 @@ public abstract class AbstractCriteriaQueryBuilder<QT extends CriteriaQuery<DT>,
     }
   }
 
-  private Integer determineTopValue() throws ODataJPAQueryException {
+  protected final Integer determineTopValue() throws ODataJPAQueryException {
     final UriInfoResource uriResource = getNavigation().getLastStep();
     final TopOption topOption = uriResource.getTopOption();
     if (topOption == null) {
@@ -339,6 +363,94 @@ public abstract class AbstractCriteriaQueryBuilder<QT extends CriteriaQuery<DT>,
     }
   }
 
+  /**
+   * Execute the query restricted to rows related to the given owning entities. The owning entities must be of type
+   * {@link #getQueryStartType()} and are identified by the key values in the given rows (<code>WHERE key IN
+   * (...)</code>). The keys are split into multiple queries if necessary to respect the
+   * {@link ExpandConfiguration#getMaxKeyParameters() limit of query parameters}.
+   *
+   * @param query The query to execute, already prepared except the WHERE clause.
+   * @param whereClause The condition built from request or <code>null</code>.
+   * @param owningEntityRows The rows with key values of owning entities.
+   * @return The merged result of all executed queries.
+   */
+  protected final List<Tuple> loadByStartEntityKeys(final CriteriaQuery<Tuple> query,
+      final javax.persistence.criteria.Expression<Boolean> whereClause, final List<Tuple> owningEntityRows) {
+    final List<JPASelector> keyPaths = jpaStartNavigationKeyBuilder.getNavigationKeyPaths();
+    final List<Path<?>> keyCriteriaPaths = new ArrayList<>(keyPaths.size());
+    for (final JPASelector keyPath : keyPaths) {
+      keyCriteriaPaths.add(convertToCriteriaAliasPath(getQueryStartFrom(), keyPath, jpaStartNavigationKeyBuilder
+          .getNavigationAliasPrefix()));
+    }
+    // the same owning entity may occur multiple times in the parent result
+    final Set<List<Object>> distinctKeys = new LinkedHashSet<>();
+    for (final Tuple row : owningEntityRows) {
+      final List<Object> keyValues = new ArrayList<>(keyPaths.size());
+      for (final JPASelector keyPath : keyPaths) {
+        keyValues.add(row.get(keyPath.getAlias()));
+      }
+      distinctKeys.add(keyValues);
+    }
+
+    final int keysPerQuery = Math.max(1, determineExpandConfiguration().getMaxKeyParameters() / keyPaths.size());
+    final List<List<Object>> keys = new ArrayList<>(distinctKeys);
+    final List<Tuple> result = new ArrayList<>(keys.size());
+    for (int start = 0; start < keys.size(); start += keysPerQuery) {
+      final List<List<Object>> batch = keys.subList(start, Math.min(start + keysPerQuery, keys.size()));
+      query.where(combineAND(whereClause, createKeyInCondition(keyCriteriaPaths, batch)));
+      result.addAll(applyQueryHints(getEntityManager().createQuery(query)).getResultList());
+    }
+    return result;
+  }
+
+  private javax.persistence.criteria.Expression<Boolean> createKeyInCondition(final List<Path<?>> keyCriteriaPaths,
+      final List<List<Object>> keys) {
+    final CriteriaBuilder cb = getCriteriaBuilder();
+    if (keyCriteriaPaths.size() == 1) {
+      final List<Object> values = new ArrayList<>(keys.size());
+      for (final List<Object> key : keys) {
+        values.add(key.get(0));
+      }
+      return keyCriteriaPaths.get(0).in(values);
+    }
+    // compound keys: (k1 = ? AND k2 = ?) OR (k1 = ? AND k2 = ?) ...
+    final List<Predicate> keyConditions = new ArrayList<>(keys.size());
+    for (final List<Object> key : keys) {
+      final List<Predicate> attributeConditions = new ArrayList<>(key.size());
+      for (int i = 0; i < key.size(); i++) {
+        attributeConditions.add(cb.equal(keyCriteriaPaths.get(i), key.get(i)));
+      }
+      keyConditions.add(cb.and(attributeConditions.toArray(new Predicate[attributeConditions.size()])));
+    }
+    return cb.or(keyConditions.toArray(new Predicate[keyConditions.size()]));
+  }
+
+  /**
+   * Set the {@link JPAQueryHints} registered in the request context (if any) on the given query.
+   *
+   * @return The given query.
+   */
+  protected final <Q extends Query> Q applyQueryHints(final Q query) {
+    final JPAQueryHints hints = context.getDependencyInjector().getDependencyValue(JPAQueryHints.class);
+    if (hints != null) {
+      hints.applyTo(query);
+    }
+    return query;
+  }
+
+  /**
+   *
+   * @return The configuration registered as dependency value or the default configuration, never <code>null</code>.
+   */
+  protected final ExpandConfiguration determineExpandConfiguration() {
+    final ExpandConfiguration configuration = context.getDependencyInjector().getDependencyValue(
+        ExpandConfiguration.class);
+    if (configuration == null) {
+      return DEFAULT_EXPAND_CONFIGURATION;
+    }
+    return configuration;
+  }
+
   private List<NavigationBuilder> createNavigationElements() throws ODataJPAModelException, ODataApplicationException {
 
     final List<UriResource> resourceParts = uriNavigation.getUriResourceParts();
@@ -381,9 +493,14 @@ public abstract class AbstractCriteriaQueryBuilder<QT extends CriteriaQuery<DT>,
   private final javax.persistence.criteria.Expression<Boolean> createWhereFromFilter(
       final FilterContextQueryBuilderIfc filterContext, final List<UriResource> navPath, final FilterOption filterOption)
           throws ExpressionVisitException, ODataApplicationException {
+    return createWhereFromFilter(filterContext, navPath, filterOption.getExpression());
+  }
+
+  private final javax.persistence.criteria.Expression<Boolean> createWhereFromFilter(
+      final FilterContextQueryBuilderIfc filterContext, final List<UriResource> navPath,
+      final VisitableExpression filterExpression) throws ExpressionVisitException, ODataApplicationException {
 
     // determine the navigation builder matching the filter affecting path element
-    final VisitableExpression filterExpression = filterOption.getExpression();
     if (filterExpression == null) {
       return null;
     }
@@ -397,6 +514,24 @@ public abstract class AbstractCriteriaQueryBuilder<QT extends CriteriaQuery<DT>,
     return filterProcessor.compile();
   }
 
+  /**
+   * Compile a filter expression for the entities of {@link #getQueryResultFrom()}, like the expression of a
+   * <code>filter()</code> transformation in $apply.
+   */
+  protected final javax.persistence.criteria.Expression<Boolean> createWhereFromFilterExpression(
+      final VisitableExpression filterExpression) throws ODataApplicationException {
+    final List<UriResource> navPath = extractNavigableResourcePath(context.getEdmProvider().getServiceDocument(),
+        uriNavigation.getLastStep().getUriResourceParts());
+    final FilterQueryBuilderContext filterContext = new FilterQueryBuilderContext(getQueryResultType(),
+        getQueryResultFrom());
+    try {
+      return createWhereFromFilter(filterContext, navPath, filterExpression);
+    } catch (final ExpressionVisitException e) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_FILTER_ERROR,
+          HttpStatusCode.BAD_REQUEST, e);
+    }
+  }
+
   protected javax.persistence.criteria.Expression<Boolean> createWhere() throws ODataApplicationException,
   ODataJPAModelException {
 
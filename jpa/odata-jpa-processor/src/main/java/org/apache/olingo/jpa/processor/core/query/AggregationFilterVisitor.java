@@ -0,0 +1,244 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAFilterException;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * Compiles a <code>filter()</code> applied after grouping into a HAVING condition. Such a filter can refer only to
+ * the properties of the aggregated result (grouping properties and aggregate aliases) and supports comparison and
+ * logical operators.
+ * <p>
+ * The visitor results are {@link Expression criteria expressions} or (not yet typed) {@link Literal literals}, a
+ * literal is converted into the type of the expression it is compared with.
+ */
+class AggregationFilterVisitor implements ExpressionVisitor<Object> {
+
+  private final CriteriaBuilder cb;
+  private final JPAODataDatabaseProcessor dbProcessor;
+  private final Map<String, Expression<?>> resultExpressions;
+
+  private AggregationFilterVisitor(final CriteriaBuilder cb, final JPAODataDatabaseProcessor dbProcessor,
+      final Map<String, Expression<?>> resultExpressions) {
+    this.cb = cb;
+    this.dbProcessor = dbProcessor;
+    this.resultExpressions = resultExpressions;
+  }
+
+  /**
+   *
+   * @param resultExpressions The expressions of the aggregated result properties, the key is the name of the
+   * property.
+   */
+  @SuppressWarnings("unchecked")
+  static Expression<Boolean> compile(final CriteriaBuilder cb, final JPAODataDatabaseProcessor dbProcessor,
+      final Map<String, Expression<?>> resultExpressions,
+      final org.apache.olingo.server.api.uri.queryoption.expression.Expression filter)
+          throws ExpressionVisitException, ODataApplicationException {
+    final Object result = filter.accept(new AggregationFilterVisitor(cb, dbProcessor, resultExpressions));
+    if (!(result instanceof Expression) || !Boolean.class.equals(((Expression<?>) result).getJavaType())) {
+      throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_FILTER,
+          HttpStatusCode.BAD_REQUEST, "filter() after grouping");
+    }
+    return (Expression<Boolean>) result;
+  }
+
+  /**
+   *
+   * @return The name of the (last) property addressed by the member or <code>null</code>.
+   */
+  static String determinePropertyName(final Member member) {
+    final List<UriResource> parts = member.getResourcePath().getUriResourceParts();
+    if (parts.size() != 1) {
+      return null;
+    }
+    return parts.get(0).getSegmentValue();
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  @Override
+  public Object visitBinaryOperator(final BinaryOperatorKind operator, final Object left, final Object right)
+      throws ExpressionVisitException, ODataApplicationException {
+    switch (operator) {
+    case AND:
+      return cb.and(asBoolean(left), asBoolean(right));
+    case OR:
+      return cb.or(asBoolean(left), asBoolean(right));
+    case EQ:
+    case NE:
+    case GE:
+    case GT:
+    case LE:
+    case LT:
+      final Expression leftExpression = asExpression(left, right);
+      final Expression rightExpression = asExpression(right, left);
+      return dbProcessor.createComparison(operator, leftExpression, rightExpression);
+    default:
+      throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_OPERATOR,
+          HttpStatusCode.NOT_IMPLEMENTED, operator.name());
+    }
+  }
+
+  @Override
+  public Object visitBinaryOperator(final BinaryOperatorKind operator, final Object left, final List<Object> right)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_OPERATOR,
+        HttpStatusCode.NOT_IMPLEMENTED, operator.name());
+  }
+
+  @Override
+  public Object visitUnaryOperator(final UnaryOperatorKind operator, final Object operand)
+      throws ExpressionVisitException, ODataApplicationException {
+    if (operator == UnaryOperatorKind.NOT) {
+      return cb.not(asBoolean(operand));
+    }
+    throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_OPERATOR,
+        HttpStatusCode.NOT_IMPLEMENTED, operator.name());
+  }
+
+  @Override
+  public Object visitMethodCall(final MethodKind methodCall, final List<Object> parameters)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_OPERATOR,
+        HttpStatusCode.NOT_IMPLEMENTED, methodCall.name());
+  }
+
+  @Override
+  public Object visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final org.apache.olingo.server.api.uri.queryoption.expression.Expression expression)
+          throws ExpressionVisitException, ODataApplicationException {
+    throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_FILTER,
+        HttpStatusCode.NOT_IMPLEMENTED, lambdaFunction);
+  }
+
+  @Override
+  public Object visitLiteral(final Literal literal) throws ExpressionVisitException, ODataApplicationException {
+    // converted on demand, because the type is given by the other operand
+    return literal;
+  }
+
+  @Override
+  public Object visitMember(final Member member) throws ExpressionVisitException, ODataApplicationException {
+    final String name = determinePropertyName(member);
+    final Expression<?> expression = name != null ? resultExpressions.get(name) : null;
+    if (expression == null) {
+      throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_FILTER,
+          HttpStatusCode.BAD_REQUEST, "Property of aggregated result expected: " + member.getResourcePath()
+          .getUriResourceParts());
+    }
+    return expression;
+  }
+
+  @Override
+  public Object visitAlias(final String aliasName) throws ExpressionVisitException, ODataApplicationException {
+    throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_FILTER,
+        HttpStatusCode.NOT_IMPLEMENTED, "Alias");
+  }
+
+  @Override
+  public Object visitTypeLiteral(final EdmType type) throws ExpressionVisitException, ODataApplicationException {
+    throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_FILTER,
+        HttpStatusCode.NOT_IMPLEMENTED, "Type Literal");
+  }
+
+  @Override
+  public Object visitLambdaReference(final String variableName) throws ExpressionVisitException,
+  ODataApplicationException {
+    throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_FILTER,
+        HttpStatusCode.NOT_IMPLEMENTED, "Lambda Reference");
+  }
+
+  @Override
+  public Object visitEnum(final EdmEnumType type, final List<String> enumValues) throws ExpressionVisitException,
+  ODataApplicationException {
+    throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_FILTER,
+        HttpStatusCode.NOT_IMPLEMENTED, "Enumeration");
+  }
+
+  @SuppressWarnings("unchecked")
+  private Expression<Boolean> asBoolean(final Object operand) throws ODataJPAFilterException {
+    if (operand instanceof Expression && Boolean.class.equals(((Expression<?>) operand).getJavaType())) {
+      return (Expression<Boolean>) operand;
+    }
+    throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_OPERATOR_TYPE,
+        HttpStatusCode.BAD_REQUEST, String.valueOf(operand));
+  }
+
+  /**
+   *
+   * @param operand The operand to convert.
+   * @param otherOperand The other operand of comparison, giving the type for a literal.
+   * @return The expression or <code>null</code> for the <i>null</i> literal.
+   */
+  private Expression<?> asExpression(final Object operand, final Object otherOperand)
+      throws ODataJPAFilterException {
+    if (operand instanceof Expression) {
+      return (Expression<?>) operand;
+    }
+    final Literal literal = (Literal) operand;
+    if (literal.getText() == null || "null".equalsIgnoreCase(literal.getText())) {
+      return null;
+    }
+    if (!(literal.getType() instanceof EdmPrimitiveType) || !(otherOperand instanceof Expression)) {
+      throw new ODataJPAFilterException(ODataJPAFilterException.MessageKeys.NOT_SUPPORTED_OPERATOR_TYPE,
+          HttpStatusCode.BAD_REQUEST, literal.getText());
+    }
+    final EdmPrimitiveType edmType = (EdmPrimitiveType) literal.getType();
+    final Class<?> targetType = ((Expression<?>) otherOperand).getJavaType();
+    try {
+      final Object value = edmType.valueOfString(edmType.fromUriLiteral(literal.getText()), Boolean.TRUE, null,
+          null, null, Boolean.TRUE, edmType.getDefaultType());
+      return cb.literal(convertNumber(value, targetType));
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new ODataJPAFilterException(e, HttpStatusCode.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Aggregates may have a different number type than the literal (e.g. <code>Long</code> for count compared with an
+   * <code>Int32</code> literal), so the literal value is converted into the type of aggregate.
+   */
+  private static Object convertNumber(final Object value, final Class<?> targetType) {
+    if (!(value instanceof Number) || targetType == null || targetType.isInstance(value)) {
+      return value;
+    }
+    final BigDecimal number = new BigDecimal(value.toString());
+    if (Long.class.equals(targetType)) {
+      return Long.valueOf(number.longValue());
+    } else if (Integer.class.equals(targetType)) {
+      return Integer.valueOf(number.intValue());
+    } else if (Short.class.equals(targetType)) {
+      return Short.valueOf(number.shortValue());
+    } else if (Double.class.equals(targetType)) {
+      return Double.valueOf(number.doubleValue());
+    } else if (Float.class.equals(targetType)) {
+      return Float.valueOf(number.floatValue());
+    } else if (BigInteger.class.equals(targetType)) {
+      return number.toBigInteger();
+    } else if (BigDecimal.class.equals(targetType)) {
+      return number;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,33 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Configuration to execute the query for the total count of an entity collection (<code>$count=true</code>)
+ * concurrently with the query of the (limited) entities.
+ * <p>
+ * The count query is build by the request thread and executed with an own read-only entity manager (see
+ * <code>JPAAdapter#createReadOnlyEntityManager()</code>), so it will use a second database connection. Without this configuration the count query is executed before the query of the entities in the
+ * current transaction.
+ *
+ */
+public class CountConfiguration {
+
+  private final ExecutorService executor;
+
+  /**
+   *
+   * @param executor The executor to run the count queries, should be bounded and shared by all requests. Count queries
+   * rejected by the executor are executed by the current thread. The executor is never shut down by the processor.
+   */
+  public CountConfiguration(final ExecutorService executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor required");
+    }
+    this.executor = executor;
+  }
+
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+}
@@ -3,11 +3,13 @@ package org.apache.olingo.jpa.processor.core.query;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.logging.Level;
+import java.util.stream.Stream;
 
 import javax.persistence.Tuple;
 import javax.persistence.TupleElement;
@@ -16,8 +18,10 @@ import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAElement;
@@ -29,6 +33,7 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.IntermediateServiceDo
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAConversionException;
 import org.apache.olingo.jpa.processor.core.query.result.AbstractEntityQueryResult;
 import org.apache.olingo.jpa.processor.core.query.result.ExpandQueryEntityResult;
+import org.apache.olingo.jpa.processor.core.query.result.NavigationKey;
 import org.apache.olingo.jpa.processor.core.query.result.QueryElementCollectionResult;
 import org.apache.olingo.jpa.processor.core.query.result.QueryEntityResult;
 import org.apache.olingo.server.api.ODataApplicationException;
@@ -54,6 +59,48 @@ public class DatabaseQueryResult2ODataEntityConverter extends AbstractEntityConv
     return odataEntityCollection;
   }
 
+  /**
+   * Convert the rows of given result on demand, one entity per {@link EntityIterator#next()} call. The (streamed)
+   * rows of the result are consumed by the iterator and the underlying stream is closed after the last row.
+   *
+   * @see QueryEntityResult#getQueryResultStream()
+   */
+  public EntityIterator convertDBTuple2ODataStreamed(final QueryEntityResult jpaQueryResult) {
+    final Stream<Tuple> rows = jpaQueryResult.getQueryResultStream();
+    final Iterator<Tuple> rowIterator = rows.iterator();
+    return new EntityIterator() {
+      private boolean closed = false;
+
+      @Override
+      public boolean hasNext() {
+        if (closed) {
+          return false;
+        }
+        if (rowIterator.hasNext()) {
+          return true;
+        }
+        close();
+        return false;
+      }
+
+      @Override
+      public Entity next() {
+        try {
+          return convertTuple2ODataEntity(rowIterator.next(), jpaQueryResult);
+        } catch (ODataJPAModelException | ODataJPAConversionException e) {
+          close();
+          throw new ODataRuntimeException("Unable to convert row into entity of type " + jpaQueryResult
+              .getEntityType().getExternalName(), e);
+        }
+      }
+
+      private void close() {
+        closed = true;
+        rows.close();
+      }
+    };
+  }
+
   @SuppressWarnings("null")
   private String determineContentType(final JPAEntityType jpaEntity, final Tuple row) throws ODataJPAModelException {
     if (jpaEntity.getContentType() != null && !jpaEntity.getContentType().isEmpty()) {
@@ -221,7 +268,7 @@ public class DatabaseQueryResult2ODataEntityConverter extends AbstractEntityConv
       final ExpandQueryEntityResult jpaExpandResult)
           throws ODataJPAModelException, ODataJPAConversionException {
 
-    final String owningEntityKey = jpaExpandResult.getNavigationKeyBuilder().buildKeyForNavigationOwningRow(
+    final NavigationKey owningEntityKey = jpaExpandResult.getNavigationKeyBuilder().buildKeyForNavigationOwningRow(
         owningEntityRow);
     final EntityCollection odataEntityCollection = new EntityCollection();
     final List<Tuple> subResult = jpaExpandResult.getAssociationResult(owningEntityKey);
@@ -248,7 +295,8 @@ public class DatabaseQueryResult2ODataEntityConverter extends AbstractEntityConv
         .getElementCollections();
     for (final Entry<JPAAttribute<?>, QueryElementCollectionResult> entry : elementCollections.entrySet()) {
 
-      final String key = entry.getValue().getNavigationKeyBuilder().buildKeyForNavigationOwningRow(owningEntityRow);
+      final NavigationKey key = entry.getValue().getNavigationKeyBuilder().buildKeyForNavigationOwningRow(
+          owningEntityRow);
 
       final Map<String, Object> complexValueBuffer = new HashMap<String, Object>();
       int index = -1;
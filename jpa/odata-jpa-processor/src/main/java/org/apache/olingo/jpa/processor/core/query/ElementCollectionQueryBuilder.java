@@ -92,7 +92,12 @@ class ElementCollectionQueryBuilder extends AbstractCriteriaQueryBuilder<Criteri
     return root;
   }
 
-  public QueryElementCollectionResult execute() throws ODataApplicationException {
+  /**
+   *
+   * @param owningEntityRows Optional rows of owning entities (of type {@link #getQueryStartType()}) used to restrict
+   * the result to entities related to that rows.
+   */
+  public QueryElementCollectionResult execute(final List<Tuple> owningEntityRows) throws ODataApplicationException {
     LOG.log(Level.FINE, "Process element collection for: " + getQueryResultNavigationKeyBuilder().getNavigationLabel()
         + "#" + attribute
         .getExternalName() + (attribute.getStructuredType() != null ? " (" + attribute.getStructuredType()
@@ -101,13 +106,18 @@ class ElementCollectionQueryBuilder extends AbstractCriteriaQueryBuilder<Criteri
       final List<Selection<?>> selections = createSelectClause(paths);
       cq.multiselect(selections);
       final Expression<Boolean> where = createWhere();
-      if (where != null) {
-        cq.where(where);
+      final List<Tuple> intermediateResult;
+      if (owningEntityRows != null) {
+        intermediateResult = loadByStartEntityKeys(cq, where, owningEntityRows);
+      } else {
+        if (where != null) {
+          cq.where(where);
+        }
+        final TypedQuery<Tuple> tq = applyQueryHints(getEntityManager().createQuery(cq));
+        // FIXME how to add TOP or SKIP for elements of another table? (do not work as
+        // in JPAExpandQuery, because we have to avoid loading of too much rows)
+        intermediateResult = tq.getResultList();
       }
-      final TypedQuery<Tuple> tq = getEntityManager().createQuery(cq);
-      // FIXME how to add TOP or SKIP for elements of another table? (do not work as
-      // in JPAExpandQuery, because we have to avoid loading of too much rows)
-      final List<Tuple> intermediateResult = tq.getResultList();
       return new QueryElementCollectionResult(intermediateResult, getLastAffectingNavigationKeyBuilder());
     } catch (final ODataJPAModelException e) {
       throw new ODataApplicationException(e.getMessage(), HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(),
@@ -2,16 +2,18 @@ package org.apache.olingo.jpa.processor.core.query;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
-import javax.persistence.TupleElement;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.From;
+import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
 
@@ -29,11 +31,15 @@ import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.commons.core.edm.EdmEntityTypeImpl;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPASelector;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.TypeMapping;
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAConversionException;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 import org.apache.olingo.jpa.processor.core.filter.JPAEntityFilterProcessor;
 import org.apache.olingo.jpa.processor.transformation.impl.ODataResponseContent;
@@ -44,61 +50,166 @@ import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.serializer.SerializerResult;
 import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceCount;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
 import org.apache.olingo.server.api.uri.queryoption.ApplyItem;
-import org.apache.olingo.server.api.uri.queryoption.ApplyItem.Kind;
 import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
 import org.apache.olingo.server.api.uri.queryoption.apply.Aggregate;
 import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.Filter;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupBy;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupByItem;
 import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
 
+/**
+ * Query builder for the $apply transformations <code>aggregate()</code> and <code>groupby()</code>, compiled into
+ * a single query:
+ * <ul>
+ * <li><code>filter()</code> before the grouping and $filter become the WHERE clause</li>
+ * <li>the properties of <code>groupby()</code> become the GROUP BY clause</li>
+ * <li>the aggregate methods (<code>sum</code>, <code>min</code>, <code>max</code>, <code>average</code>,
+ * <code>countdistinct</code> and <code>$count</code>) become the SELECT clause</li>
+ * <li><code>filter()</code> after the grouping becomes the HAVING clause</li>
+ * <li>$orderby, $top and $skip are applied to the aggregated result</li>
+ * </ul>
+ * <pre>
+ * URL example:
+ * .../BusinessPartnerRoles?$apply=filter(BusinessPartnerID ne '99')/groupby((RoleCategory),aggregate($count as Count))/filter(Count gt 1)&$orderby=Count desc&$top=2
+ * </pre>
+ */
 public class EntityAggregationQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQuery<Tuple>, Tuple> {
 
+  /**
+   * A property of the (dynamic) result type: a grouping property or an aggregate.
+   */
+  private static class ResultProperty {
+    private final String name;
+    private final Expression<?> expression;
+    /**
+     * The attribute for a grouping property or <code>null</code> for an aggregate.
+     */
+    private final JPAMemberAttribute attribute;
+
+    ResultProperty(final String name, final Expression<?> expression, final JPAMemberAttribute attribute) {
+      this.name = name;
+      this.expression = expression;
+      this.attribute = attribute;
+    }
+  }
+
+  private final static ValueConverter CONVERTER = new ValueConverter();
+  /**
+   * The scale facet accepting every number of decimal places, like 'variable' in OData.
+   */
+  private final static Integer VARIABLE_SCALE = Integer.valueOf(Integer.MAX_VALUE);
+
   private final CriteriaQuery<Tuple> cq;
   private final Root<?> root;
-  private final List<AggregateExpression> aggregateExpressions;
+  private final List<org.apache.olingo.server.api.uri.queryoption.expression.Expression> filtersBeforeGrouping =
+      new LinkedList<>();
+  private final List<GroupByItem> groupByItems = new LinkedList<>();
+  private final List<AggregateExpression> aggregateExpressions = new LinkedList<>();
+  private final List<org.apache.olingo.server.api.uri.queryoption.expression.Expression> filtersAfterGrouping =
+      new LinkedList<>();
 
   public EntityAggregationQueryBuilder(final JPAODataRequestContext context, final NavigationIfc uriInfo,
       final EntityManager em)
           throws ODataApplicationException, ODataJPAModelException {
     super(context, uriInfo, em);
-    aggregateExpressions = determineAggregateExpressions(uriInfo);
+    determineApplyItems(uriInfo);
     cq = getCriteriaBuilder().createTupleQuery();
     root = cq.from(getQueryStartType().getTypeClass());
     // now we are ready
     initializeQuery();
   }
 
-  private List<AggregateExpression> determineAggregateExpressions(final NavigationIfc uriInfo)
-      throws ODataApplicationException {
-    List<AggregateExpression> expressions = null;
+  private void determineApplyItems(final NavigationIfc uriInfo) throws ODataApplicationException {
+    boolean grouped = false;
     for (final UriInfoResource step : uriInfo.getNavigationSteps()) {
       final ApplyOption apply = step.getApplyOption();
       if (apply == null) {
         continue;
       }
       for (final ApplyItem item : apply.getApplyItems()) {
-        if (item.getKind() != Kind.AGGREGATE) {
-          throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
-              HttpStatusCode.NOT_IMPLEMENTED, "Only aggregate() calls are supported for $apply");
-        }
-        if (expressions != null) {
-          throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
-              HttpStatusCode.NOT_IMPLEMENTED, "Found multiple aggregate() calls, only one is supported");
-        }
-        expressions = ((Aggregate) item).getExpressions();
-        for (final AggregateExpression aggExp : expressions) {
-          if (aggExp.getStandardMethod() == null) {
-            throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
-                HttpStatusCode.NOT_IMPLEMENTED, "Only standard emthods are supported for aggegrate()");
+        switch (item.getKind()) {
+        case FILTER:
+          if (grouped) {
+            filtersAfterGrouping.add(((Filter) item).getFilterOption().getExpression());
+          } else {
+            filtersBeforeGrouping.add(((Filter) item).getFilterOption().getExpression());
           }
+          break;
+        case AGGREGATE:
+          assertNotGrouped(grouped);
+          addAggregateExpressions((Aggregate) item);
+          grouped = true;
+          break;
+        case GROUP_BY:
+          assertNotGrouped(grouped);
+          addGroupBy((GroupBy) item);
+          grouped = true;
+          break;
+        default:
+          throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+              HttpStatusCode.NOT_IMPLEMENTED, "Only filter(), groupby() and aggregate() calls are supported for $apply");
         }
       }
     }
-    if (expressions == null || expressions.isEmpty()) {
+    if (!grouped) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.BAD_REQUEST, "No aggregate() or groupby() call found");
+    }
+  }
+
+  private static void assertNotGrouped(final boolean grouped) throws ODataJPAQueryException {
+    if (grouped) {
       throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
-          HttpStatusCode.BAD_REQUEST, "No aggregate() call found");
+          HttpStatusCode.NOT_IMPLEMENTED, "Found multiple aggregate() or groupby() calls, only one is supported");
     }
-    return expressions;
+  }
+
+  private void addGroupBy(final GroupBy groupBy) throws ODataJPAQueryException {
+    for (final GroupByItem groupByItem : groupBy.getGroupByItems()) {
+      if (groupByItem.isRollupAll() || !groupByItem.getRollup().isEmpty()) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+            HttpStatusCode.NOT_IMPLEMENTED, "rollup() is not supported for groupby()");
+      }
+      groupByItems.add(groupByItem);
+    }
+    if (groupBy.getApplyOption() == null) {
+      return;
+    }
+    for (final ApplyItem item : groupBy.getApplyOption().getApplyItems()) {
+      if (item.getKind() != ApplyItem.Kind.AGGREGATE || !aggregateExpressions.isEmpty()) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+            HttpStatusCode.NOT_IMPLEMENTED, "Only a single aggregate() call is supported within groupby()");
+      }
+      addAggregateExpressions((Aggregate) item);
+    }
+  }
+
+  private void addAggregateExpressions(final Aggregate aggregate) throws ODataJPAQueryException {
+    for (final AggregateExpression aggExp : aggregate.getExpressions()) {
+      if (aggExp.getStandardMethod() == null && !isCount(aggExp)) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+            HttpStatusCode.NOT_IMPLEMENTED, "Only standard methods and $count are supported for aggregate()");
+      }
+      if (aggExp.getInlineAggregateExpression() != null || !aggExp.getFrom().isEmpty()) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+            HttpStatusCode.NOT_IMPLEMENTED, "Nested aggregations are not supported for aggregate()");
+      }
+      aggregateExpressions.add(aggExp);
+    }
+  }
+
+  private static boolean isCount(final AggregateExpression aggExp) {
+    final List<UriResource> path = aggExp.getPath();
+    return aggExp.getStandardMethod() == null && path != null && !path.isEmpty() && path.get(path.size()
+        - 1) instanceof UriResourceCount;
   }
 
   @Override
@@ -112,50 +223,80 @@ public class EntityAggregationQueryBuilder extends AbstractCriteriaQueryBuilder<
     return root;
   }
 
-  private Expression<?>[] createAggregationSelect() throws ODataApplicationException {
-    final List<Expression<? extends Number>> selects = new ArrayList<>(aggregateExpressions.size());
+  private List<ResultProperty> createGroupingSelect() throws ODataApplicationException, ODataJPAModelException {
+    final List<ResultProperty> selects = new ArrayList<>(groupByItems.size());
+    for (final GroupByItem groupByItem : groupByItems) {
+      final List<UriResource> path = groupByItem.getPath();
+      if (path.size() != 1 || !(path.get(0) instanceof UriResourcePrimitiveProperty)) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+            HttpStatusCode.NOT_IMPLEMENTED, "Only simple properties are supported for groupby()");
+      }
+      final String propertyName = ((UriResourcePrimitiveProperty) path.get(0)).getProperty().getName();
+      final JPASelector selector = getQueryResultType().getPath(propertyName);
+      final JPAAttribute<?> leaf = selector != null ? selector.getLeaf() : null;
+      if (!(leaf instanceof JPAMemberAttribute) || selector.getPathElements().size() != 1) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+            HttpStatusCode.NOT_IMPLEMENTED, "Only simple properties are supported for groupby()");
+      }
+      final Expression<?> groupExpression = convertToCriteriaAliasPath(getQueryResultFrom(), selector, null);
+      selects.add(new ResultProperty(propertyName, groupExpression, (JPAMemberAttribute) leaf));
+    }
+    return selects;
+  }
+
+  private List<ResultProperty> createAggregationSelect() throws ODataApplicationException {
+    final List<ResultProperty> selects = new ArrayList<>(aggregateExpressions.size());
     final JPAEntityType targetType = getQueryResultType();
     final FilterQueryBuilderContext filterContext = new FilterQueryBuilderContext(targetType, getQueryResultFrom());
     final JPAODataDatabaseProcessor dbProcessor = getContext().getDatabaseProcessor();
 
     for (final AggregateExpression aggExpressionDefinition : aggregateExpressions) {
-      final JPAEntityFilterProcessor<Number> filter = new JPAEntityFilterProcessor<>(getOData(), getServiceDocument(),
-          getEntityManager(), targetType, dbProcessor, aggExpressionDefinition.getPath(),
-          aggExpressionDefinition.getExpression(), filterContext);
-
-      try {
-        Expression<? extends Number> expressionFunction;
-        final Expression<Number> filterExpression = filter.compile();
-        switch (aggExpressionDefinition.getStandardMethod()) {
-        case SUM:
-          expressionFunction = getCriteriaBuilder().sum(filterExpression);
-          break;
-        case MAX:
-          expressionFunction = getCriteriaBuilder().max(filterExpression);
-          break;
-        case MIN:
-          expressionFunction = getCriteriaBuilder().min(filterExpression);
-          break;
-        case AVERAGE:
-          expressionFunction = getCriteriaBuilder().avg(filterExpression);
-          break;
-        default:
-          throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
-              HttpStatusCode.NOT_IMPLEMENTED, "Standard method " + aggExpressionDefinition.getStandardMethod()
-              + " is not supported for aggregate()");
+      final Expression<?> expressionFunction;
+      final String alias;
+      if (isCount(aggExpressionDefinition)) {
+        expressionFunction = getCriteriaBuilder().count(getQueryResultFrom());
+        alias = aggExpressionDefinition.getAlias() != null ? aggExpressionDefinition.getAlias() : "Count";
+      } else {
+        final JPAEntityFilterProcessor<Number> filter = new JPAEntityFilterProcessor<>(getOData(),
+            getServiceDocument(), getEntityManager(), targetType, dbProcessor, aggExpressionDefinition.getPath(),
+            aggExpressionDefinition.getExpression(), filterContext);
+        try {
+          final Expression<Number> filterExpression = filter.compile();
+          switch (aggExpressionDefinition.getStandardMethod()) {
+          case SUM:
+            expressionFunction = getCriteriaBuilder().sum(filterExpression);
+            break;
+          case MAX:
+            expressionFunction = getCriteriaBuilder().max(filterExpression);
+            break;
+          case MIN:
+            expressionFunction = getCriteriaBuilder().min(filterExpression);
+            break;
+          case AVERAGE:
+            expressionFunction = getCriteriaBuilder().avg(filterExpression);
+            break;
+          case COUNT_DISTINCT:
+            expressionFunction = getCriteriaBuilder().countDistinct(filterExpression);
+            break;
+          default:
+            throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+                HttpStatusCode.NOT_IMPLEMENTED, "Standard method " + aggExpressionDefinition.getStandardMethod()
+                + " is not supported for aggregate()");
+          }
+        } catch (final ExpressionVisitException e) {
+          throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_FILTER_ERROR,
+              HttpStatusCode.BAD_REQUEST, e);
         }
         if (aggExpressionDefinition.getAlias() != null && !aggExpressionDefinition.getAlias().isEmpty()) {
-          expressionFunction.alias(aggExpressionDefinition.getAlias());
+          alias = aggExpressionDefinition.getAlias();
         } else {
-          expressionFunction.alias(aggExpressionDefinition.getStandardMethod().name());
+          alias = aggExpressionDefinition.getStandardMethod().name();
         }
-        selects.add(expressionFunction);
-      } catch (final ExpressionVisitException e) {
-        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_FILTER_ERROR,
-            HttpStatusCode.BAD_REQUEST, e);
       }
+      expressionFunction.alias(alias);
+      selects.add(new ResultProperty(alias, expressionFunction, null));
     }
-    return selects.toArray(new Expression[selects.size()]);
+    return selects;
   }
 
   public final ODataResponseContent execute(final ContentType responseFormat) throws ODataApplicationException,
@@ -163,86 +304,179 @@ public class EntityAggregationQueryBuilder extends AbstractCriteriaQueryBuilder<
     final List<JPAAssociationAttribute> orderByNaviAttributes = extractOrderByNaviAttributes();
     /* final Map<String, From<?, ?>> resultsetAffectingTables = */ createFromClause(orderByNaviAttributes);
 
-    cq.multiselect(createAggregationSelect());
+    final List<ResultProperty> groupingProperties = createGroupingSelect();
+    final List<ResultProperty> resultProperties = new ArrayList<>(groupingProperties);
+    resultProperties.addAll(createAggregationSelect());
+    final List<Expression<?>> selections = new ArrayList<>(resultProperties.size());
+    final Map<String, Expression<?>> resultExpressions = new LinkedHashMap<>();
+    for (final ResultProperty property : resultProperties) {
+      selections.add(property.expression);
+      resultExpressions.put(property.name, property.expression);
+    }
+    cq.multiselect(selections.toArray(new Expression[selections.size()]));
 
-    final javax.persistence.criteria.Expression<Boolean> whereClause = createWhere();
+    javax.persistence.criteria.Expression<Boolean> whereClause = createWhere();
+    for (final org.apache.olingo.server.api.uri.queryoption.expression.Expression filter : filtersBeforeGrouping) {
+      whereClause = combineAND(whereClause, createWhereFromFilterExpression(filter));
+    }
     if (whereClause != null) {
       cq.where(whereClause);
     }
-    final TypedQuery<Tuple> tq = getEntityManager().createQuery(cq);
+    if (!groupingProperties.isEmpty()) {
+      final List<Expression<?>> grouping = new ArrayList<>(groupingProperties.size());
+      for (final ResultProperty property : groupingProperties) {
+        grouping.add(property.expression);
+      }
+      cq.groupBy(grouping);
+    }
+    javax.persistence.criteria.Expression<Boolean> havingClause = null;
+    for (final org.apache.olingo.server.api.uri.queryoption.expression.Expression filter : filtersAfterGrouping) {
+      havingClause = combineAND(havingClause, createHaving(filter, resultExpressions));
+    }
+    if (havingClause != null) {
+      cq.having(havingClause);
+    }
+    cq.orderBy(createOrderBy(resultExpressions));
 
+    final TypedQuery<Tuple> tq = applyQueryHints(getEntityManager().createQuery(cq));
+    if (hasQueryLimits()) {
+      addTopSkip(tq);
+    }
     final List<Tuple> intermediateResult = tq.getResultList();
-    return transform(intermediateResult, responseFormat);
+    return transform(intermediateResult, resultProperties, responseFormat);
   }
 
-  private ODataResponseContent transform(final List<Tuple> intermediateResult, final ContentType responseFormat)
-      throws SerializerException, ODataJPAModelException {
-    assert intermediateResult.size() == 1;
-    // build an entity collection with one element containing all the aggregated values
+  private javax.persistence.criteria.Expression<Boolean> createHaving(
+      final org.apache.olingo.server.api.uri.queryoption.expression.Expression filter,
+      final Map<String, Expression<?>> resultExpressions) throws ODataApplicationException {
+    try {
+      return AggregationFilterVisitor.compile(getCriteriaBuilder(), getContext().getDatabaseProcessor(),
+          resultExpressions, filter);
+    } catch (final ExpressionVisitException e) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_FILTER_ERROR,
+          HttpStatusCode.BAD_REQUEST, e);
+    }
+  }
 
-    final EntityCollection odataEntityCollection = new EntityCollection();
-    final Tuple row = intermediateResult.get(0);
-    final Entity odataEntity = new Entity();
-    final List<Property> properties = odataEntity.getProperties();
+  /**
+   * The $orderby can refer only to properties of the aggregated result.
+   */
+  private List<Order> createOrderBy(final Map<String, Expression<?>> resultExpressions)
+      throws ODataApplicationException {
+    final OrderByOption orderBy = getNavigation().getLastStep().getOrderByOption();
+    final List<Order> orders = new LinkedList<>();
+    if (orderBy == null) {
+      return orders;
+    }
+    for (final OrderByItem orderByItem : orderBy.getOrders()) {
+      final Expression<?> expression = orderByItem.getExpression() instanceof Member ? resultExpressions.get(
+          AggregationFilterVisitor.determinePropertyName((Member) orderByItem.getExpression())) : null;
+      if (expression == null) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+            HttpStatusCode.BAD_REQUEST, "$orderby must refer to a property of the aggregated result");
+      }
+      orders.add(orderByItem.isDescending() ? getCriteriaBuilder().desc(expression) : getCriteriaBuilder().asc(
+          expression));
+    }
+    return orders;
+  }
 
-    for (final TupleElement<?> element : row.getElements()) {
-      final Property p = new Property(null, element.getAlias());
-      final Object result = row.get(element.getAlias());
-      // if aggregation is working on an empty result set we got 'null' as result, but we want to give back at least a
-      // zero...
-      p.setValue(ValueType.PRIMITIVE, result != null ? result : BigDecimal.valueOf(0));
-      properties.add(p);
+  private ODataResponseContent transform(final List<Tuple> intermediateResult,
+      final List<ResultProperty> resultProperties, final ContentType responseFormat)
+          throws SerializerException, ODataJPAModelException, ODataJPAConversionException {
+    // build an entity collection with one element per group containing all the aggregated values
+    final boolean grouped = !groupByItems.isEmpty();
+    final EntityCollection odataEntityCollection = new EntityCollection();
+    final EdmPrimitiveTypeKind[] aggregateKinds = new EdmPrimitiveTypeKind[resultProperties.size()];
+    for (final Tuple row : intermediateResult) {
+      final Entity odataEntity = new Entity();
+      final List<Property> properties = odataEntity.getProperties();
+      for (int index = 0; index < resultProperties.size(); index++) {
+        final ResultProperty resultProperty = resultProperties.get(index);
+        Object value = row.get(index);
+        if (resultProperty.attribute != null) {
+          properties.add(convertGroupingValue(resultProperty, value));
+          continue;
+        }
+        // if aggregation is working on an empty result set we got 'null' as result, but we want to give back at
+        // least a zero...
+        if (value == null && !grouped) {
+          value = BigDecimal.valueOf(0);
+        }
+        if (value != null && aggregateKinds[index] == null) {
+          aggregateKinds[index] = TypeMapping.convertToEdmSimpleType(value.getClass());
+        }
+        final Property p = new Property(null, resultProperty.name);
+        p.setValue(ValueType.PRIMITIVE, value);
+        properties.add(p);
+      }
+      odataEntityCollection.getEntities().add(odataEntity);
     }
 
-    odataEntityCollection.getEntities().add(odataEntity);
     // create on demand type to get the pseudo entity serialized to client
     final ODataSerializer serializer = getContext().getOdata().createSerializer(responseFormat);
-
-    final EdmEntityType edmType = createDynamicEdmType(odataEntity);
-
+    final EdmEntityType edmType = determineDynamicEdmType(resultProperties, aggregateKinds);
     final ContextURL contextUrl = ContextURL.with().type(edmType).build();
     final EntityCollectionSerializerOptions opts = EntityCollectionSerializerOptions.with().contextURL(contextUrl)
         .build();
     final SerializerResult serializerResult = serializer.entityCollection(getContext().getServiceMetaData(), edmType,
         odataEntityCollection, opts);
     return new ODataResponseContent(ContentState.PRESENT, serializerResult.getContent());
-
   }
 
-  private EdmEntityType createDynamicEdmType(final Entity odataEntity) throws ODataJPAModelException {
-    final CsdlEntityType dT = createDynamicType(odataEntity);
-    final FullQualifiedName name = new FullQualifiedName(dT.getName());
-    return new EdmEntityTypeImpl(getContext().getServiceMetaData().getEdm(), name, dT);
+  private Property convertGroupingValue(final ResultProperty resultProperty, final Object value)
+      throws ODataJPAConversionException, ODataJPAModelException {
+    final Property p = new Property(null, resultProperty.name);
+    if (resultProperty.attribute.getType().isEnum()) {
+      // for OData we have to convert the value into a number
+      final Object ordinal = value != null ? Integer.valueOf(((Enum<?>) value).ordinal()) : null;
+      p.setValue(ValueType.ENUM, CONVERTER.convertJPA2ODataPrimitiveValue(resultProperty.attribute, ordinal));
+    } else {
+      p.setValue(ValueType.PRIMITIVE, CONVERTER.convertJPA2ODataPrimitiveValue(resultProperty.attribute, value));
+    }
+    return p;
   }
 
-  private CsdlEntityType createDynamicType(final Entity odataEntity) throws ODataJPAModelException {
-    final CsdlEntityType csdlEntityType = new CsdlEntityType();
-    csdlEntityType.setName(UUID.randomUUID().toString() + "." + getQueryResultType().getExternalName() + "Aggregation");
-
-    for (final Property odataProperty : odataEntity.getProperties()) {
-      final CsdlProperty csdlProperty = new CsdlProperty();
-      csdlProperty.setName(odataProperty.getName());
-      final boolean valueIsNull = odataProperty.getValue() == null;
-      final EdmPrimitiveTypeKind kind = valueIsNull ? EdmPrimitiveTypeKind.Decimal : TypeMapping.convertToEdmSimpleType(
-          odataProperty.getValue().getClass());
-      csdlProperty.setType(kind.getFullQualifiedName());
-      csdlProperty.setScale(determineScale(odataProperty.getValue()));
-      // don't set precision to avoid trouble with serializer for small numbers (double)
-      csdlProperty.setNullable(valueIsNull);
+  /**
+   *
+   * @param aggregateKinds The types of aggregated values, <code>null</code> entries for types not determinable from
+   * the values.
+   * @return The type shared by all requests with the same result structure.
+   */
+  private EdmEntityType determineDynamicEdmType(final List<ResultProperty> resultProperties,
+      final EdmPrimitiveTypeKind[] aggregateKinds) {
+    final FullQualifiedName name = new FullQualifiedName(getQueryResultType().getExternalFQN().getNamespace(),
+        getQueryResultType().getExternalName() + "Aggregation");
+    final StringBuilder shape = new StringBuilder(name.getFullQualifiedNameAsString());
+    final List<CsdlProperty> properties = new ArrayList<>(resultProperties.size());
+    for (int index = 0; index < resultProperties.size(); index++) {
+      final ResultProperty resultProperty = resultProperties.get(index);
+      final CsdlProperty csdlProperty;
+      if (resultProperty.attribute != null) {
+        final CsdlProperty attributeProperty = resultProperty.attribute.getProperty();
+        csdlProperty = new CsdlProperty().setType(attributeProperty.getType()).setMaxLength(attributeProperty
+            .getMaxLength()).setPrecision(attributeProperty.getPrecision()).setScale(attributeProperty.getScale());
+      } else {
+        final EdmPrimitiveTypeKind kind = aggregateKinds[index] != null ? aggregateKinds[index]
+            : EdmPrimitiveTypeKind.Decimal;
+        // don't set precision to avoid trouble with serializer for small numbers (double); the scale of aggregated
+        // values is variable
+        csdlProperty = new CsdlProperty().setType(kind.getFullQualifiedName()).setScale(VARIABLE_SCALE);
+      }
+      csdlProperty.setName(resultProperty.name);
+      csdlProperty.setNullable(true);
       csdlProperty.setCollection(false);
-
-      csdlEntityType.getProperties().add(csdlProperty);
+      properties.add(csdlProperty);
+      shape.append('|').append(csdlProperty.getName()).append(':').append(csdlProperty.getType()).append(':').append(
+          csdlProperty.getMaxLength()).append(':').append(csdlProperty.getPrecision()).append(':').append(csdlProperty
+              .getScale());
     }
-    return csdlEntityType;
+    return getServiceDocument().getDynamicEntityType(shape.toString(), key -> {
+      final CsdlEntityType csdlEntityType = new CsdlEntityType();
+      csdlEntityType.setName(name.getName());
+      csdlEntityType.setProperties(properties);
+      return new EdmEntityTypeImpl(getContext().getServiceMetaData().getEdm(), name, csdlEntityType);
+    });
   }
 
-  private Integer determineScale(final Object value) {
-    if (BigDecimal.class.isInstance(value)) {
-      return Integer.valueOf(BigDecimal.class.cast(value).scale());
-    }
-    if (Double.class.isInstance(value)) {
-      return Integer.valueOf(BigDecimal.valueOf(Double.class.cast(value).doubleValue()).scale());
-    }
-    return null;
-  }
 }
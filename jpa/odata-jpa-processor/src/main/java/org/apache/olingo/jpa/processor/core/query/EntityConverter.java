@@ -233,6 +233,38 @@ public class EntityConverter extends AbstractEntityConverter {
     return convertOData2JPAEntityInternal(entity, jpaEntityType, new HashMap<String, Pair<Entity, Object>>());
   }
 
+  /**
+   * Transfer the properties present in the OData entity into an existing (managed) JPA entity. Properties not present
+   * in the OData entity are not touched, so the OData entity can be a partial (PATCH) representation. Key and version
+   * attributes are never modified, navigation links are ignored.
+   *
+   * @param entity The OData entity containing the modified properties.
+   * @param targetJPAInstance The JPA entity to modify.
+   */
+  public void transferOData2JPAEntity(final Entity entity, final JPAEntityType jpaEntityType,
+      final Object targetJPAInstance)
+          throws ODataJPAModelException, ODataJPAConversionException {
+    try {
+      for (final JPAMemberAttribute jpaAttribute : jpaEntityType.getAttributes(false)) {
+        if (jpaAttribute.isKey() || jpaAttribute.isEtag() || entity.getProperty(jpaAttribute
+            .getExternalName()) == null) {
+          continue;
+        }
+        if (jpaAttribute.isComplex() && jpaAttribute.isCollection()) {
+          // the complete collection is replaced
+          final Collection<?> existing = (Collection<?>) jpaAttribute.getAttributeAccessor().getPropertyValue(
+              targetJPAInstance);
+          if (existing != null) {
+            existing.clear();
+          }
+        }
+        transferOData2JPAProperty(targetJPAInstance, jpaAttribute, entity.getProperties());
+      }
+    } catch (IllegalArgumentException | IllegalAccessException | NoSuchFieldException e) {
+      throw new ODataJPAConversionException(e, ODataJPAConversionException.MessageKeys.RUNTIME_PROBLEM, e.getMessage());
+    }
+  }
+
   /**
    * Flat comparison to ensure that both entities contains the same values. That means the entities must have:
    * <ul>
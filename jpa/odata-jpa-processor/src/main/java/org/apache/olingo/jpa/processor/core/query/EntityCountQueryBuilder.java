@@ -3,6 +3,7 @@ package org.apache.olingo.jpa.processor.core.query;
 import java.util.List;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Root;
@@ -73,7 +74,16 @@ public class EntityCountQueryBuilder extends AbstractCriteriaQueryBuilder<Criter
    * @see EntityQueryBuilder#execute(boolean)
    */
   public final long execute() throws ODataApplicationException, ODataJPAModelException {
+    return buildQuery().getSingleResult().longValue();
+  }
 
+  /**
+   * Build the count query without executing it, so the query can be executed by another thread owning the entity
+   * manager of this builder.
+   *
+   * @see #execute()
+   */
+  final TypedQuery<Long> buildQuery() throws ODataApplicationException, ODataJPAModelException {
     final List<JPAAssociationAttribute> orderByNaviAttributes = extractOrderByNaviAttributes();
     /* final Map<String, From<?, ?>> resultsetAffectingTables = */ createFromClause(orderByNaviAttributes);
 
@@ -86,8 +96,7 @@ public class EntityCountQueryBuilder extends AbstractCriteriaQueryBuilder<Criter
     if (whereClause != null) {
       cq.where(whereClause);
     }
-    final Long count = getEntityManager().createQuery(cq).getSingleResult();
-    return count.longValue();
+    return applyQueryHints(getEntityManager().createQuery(cq));
   }
 
 }
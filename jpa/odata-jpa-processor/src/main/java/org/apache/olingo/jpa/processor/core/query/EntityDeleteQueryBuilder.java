@@ -0,0 +1,76 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * <pre>
+ * URL example:
+ *
+ * DELETE .../Persons?$filter=...
+ * DELETE .../Persons/$filter(...)/$each
+ * </pre>
+ * Deletes all entities matching the filter (and access conditions) with one <code>DELETE</code> statement. The
+ * entities are not loaded into the persistence context, so no lifecycle callbacks or cascades are executed. Pending
+ * changes are flushed before the statement and the persistence context is cleared afterwards, because managed
+ * entities may be stale. Navigation paths are not supported. Every instance of the builder can execute only one
+ * statement.
+ */
+public class EntityDeleteQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaDelete<Object>, Object> {
+
+  private final CriteriaDelete<Object> cd;
+  private final Root<Object> root;
+
+  @SuppressWarnings("unchecked")
+  public EntityDeleteQueryBuilder(final JPAODataRequestContext context, final NavigationIfc uriInfo,
+      final EntityManager em)
+          throws ODataApplicationException, ODataJPAModelException {
+    super(context, uriInfo, em);
+    final Class<Object> typeClass = (Class<Object>) getQueryStartType().getTypeClass();
+    cd = getCriteriaBuilder().createCriteriaDelete(typeClass);
+    root = cd.from(typeClass);
+    // now we are ready
+    initializeQuery();
+  }
+
+  @Override
+  public <T> Subquery<T> createSubquery(final Class<T> subqueryResultType) {
+    return cd.subquery(subqueryResultType);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public From<?, ?> getQueryStartFrom() {
+    return root;
+  }
+
+  /**
+   *
+   * @return The number of deleted entities.
+   */
+  public final int execute() throws ODataApplicationException, ODataJPAModelException {
+    if (getQueryResultFrom() != root) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.NOT_IMPLEMENTED, "Navigation not supported for collection delete");
+    }
+    final Expression<Boolean> whereClause = createWhere();
+    if (whereClause != null) {
+      cd.where(whereClause);
+    }
+    final EntityManager em = getEntityManager();
+    em.flush();
+    final int count = applyQueryHints(em.createQuery(cd)).executeUpdate();
+    em.clear();
+    return count;
+  }
+}
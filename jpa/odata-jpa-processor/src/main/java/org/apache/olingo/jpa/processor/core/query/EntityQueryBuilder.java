@@ -8,6 +8,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
@@ -23,6 +27,7 @@ import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Selection;
 import javax.persistence.criteria.Subquery;
 
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
 import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.commons.api.edm.EdmStructuredType;
@@ -36,9 +41,12 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
+import org.apache.olingo.jpa.processor.core.mapping.JPAAdapter;
 import org.apache.olingo.jpa.processor.core.query.result.ExpandQueryEntityResult;
 import org.apache.olingo.jpa.processor.core.query.result.QueryElementCollectionResult;
 import org.apache.olingo.jpa.processor.core.query.result.QueryEntityResult;
+import org.apache.olingo.jpa.processor.metrics.JPAMetric;
+import org.apache.olingo.jpa.processor.metrics.JPARequestMetrics;
 import org.apache.olingo.jpa.processor.transformation.Transformation;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -46,12 +54,15 @@ import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriResource;
 import org.apache.olingo.server.api.uri.UriResourceComplexProperty;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
 import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.CountOption;
 import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
 import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
 import org.apache.olingo.server.api.uri.queryoption.SelectOption;
 import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
 import org.apache.olingo.server.api.uri.queryoption.expression.Member;
 
 public class EntityQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQuery<Tuple>, Tuple> {
@@ -92,10 +103,12 @@ public class EntityQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQue
 
   protected static final String SELECT_ITEM_SEPERATOR = ",";
   protected static final String SELECT_ALL = "*";
+  private static final String KEYSET_PARAMETER_PREFIX = "keyset";
 
   private final ServiceMetadata serviceMetadata;
   private final CriteriaQuery<Tuple> cq;
   private final Root<?> startFrom;
+  private boolean serverDrivenPagingEnabled = false;
 
   /**
    *
@@ -143,60 +156,402 @@ public class EntityQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQue
   public final <O> O execute(final boolean processExpandOption,
       final Transformation<QueryEntityResult, O> transformer) throws ODataApplicationException,
   ODataJPAModelException, SerializerException {
-    final QueryEntityResult queryResult = executeInternal(processExpandOption);
+    final QueryEntityResult queryResult = executeInternal(processExpandOption, null, isStreamingEnabled());
     return transformer.transform(queryResult);
   }
 
   protected final QueryEntityResult executeInternal(final boolean processExpandOption)
       throws ODataApplicationException, ODataJPAModelException {
+    return executeInternal(processExpandOption, null, false);
+  }
+
+  /**
+   *
+   * @param enabled TRUE to restrict the result to the page size given by an registered {@link PagingConfiguration}.
+   * Should be enabled only for requests of entity collections, with a response able to transport the
+   * <code>@odata.nextLink</code>.
+   * @see QueryEntityResult#getNextPageSkipToken()
+   */
+  public final void setServerDrivenPagingEnabled(final boolean enabled) {
+    this.serverDrivenPagingEnabled = enabled;
+  }
+
+  /**
+   *
+   * @return The paging state or <code>null</code> if no paging is required.
+   */
+  private KeysetPaging determinePaging(final List<JPASelector> allSelectionPaths) throws ODataApplicationException,
+  ODataJPAModelException {
+    if (!serverDrivenPagingEnabled) {
+      return null;
+    }
+    final PagingConfiguration configuration = getContext().getDependencyInjector().getDependencyValue(
+        PagingConfiguration.class);
+    if (configuration == null) {
+      return null;
+    }
+    final int maxPageSize = configuration.getMaxPageSize(getQueryResultType());
+    if (maxPageSize < 1) {
+      return null;
+    }
+    // only collections of entities are paged
+    final List<UriResource> resourceParts = getNavigation().getUriResourceParts();
+    final UriResource lastResource = resourceParts.get(resourceParts.size() - 1);
+    if (UriResourceEntitySet.class.isInstance(lastResource)) {
+      if (!((UriResourceEntitySet) lastResource).isCollection()) {
+        return null;
+      }
+    } else if (UriResourceNavigation.class.isInstance(lastResource)) {
+      if (!((UriResourceNavigation) lastResource).isCollection()) {
+        return null;
+      }
+    } else {
+      return null;
+    }
+    final Collection<String> selectedAliases = allSelectionPaths.stream().map(s -> s.getAlias()).collect(Collectors
+        .toSet());
+    return new KeysetPaging(getQueryResultType(), getNavigation().getLastStep(), selectedAliases, maxPageSize,
+        determineTopValue(), determineSkipValue());
+  }
+
+  /**
+   * Build the condition to select only entities after the last entity of previous page: <code>(s1 &gt; v1) OR (s1 =
+   * v1 AND s2 &gt; v2) OR ...</code> for all sort keys.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private javax.persistence.criteria.Expression<Boolean> createKeysetCondition(final KeysetPaging paging,
+      final boolean parameterized) {
+    final Object[] values = paging.getKeysetValues();
+    if (values == null) {
+      return null;
+    }
+    final CriteriaBuilder cb = getCriteriaBuilder();
+    javax.persistence.criteria.Expression<Boolean> condition = null;
+    javax.persistence.criteria.Expression<Boolean> equalPrefix = null;
+    int index = 0;
+    for (final KeysetPaging.SortKey sortKey : paging.getSortKeys()) {
+      final javax.persistence.criteria.Expression<Comparable> path = (javax.persistence.criteria.Expression<Comparable>) convertToCriteriaAliasPath(
+          getQueryResultFrom(), sortKey.getSelector(), null);
+      final javax.persistence.criteria.Expression<Comparable> value;
+      if (parameterized) {
+        final Class<?> type = values[index] instanceof Enum<?> ? ((Enum<?>) values[index]).getDeclaringClass()
+            : values[index].getClass();
+        value = (javax.persistence.criteria.Expression<Comparable>) cb.parameter(type, KEYSET_PARAMETER_PREFIX
+            + index);
+      } else {
+        value = cb.literal((Comparable) values[index]);
+      }
+      index++;
+      javax.persistence.criteria.Expression<Boolean> term = sortKey.isDescending() ? cb.lessThan(path, value) : cb
+          .greaterThan(path, value);
+      if (equalPrefix != null) {
+        term = cb.and(equalPrefix, term);
+      }
+      condition = condition == null ? term : cb.or(condition, term);
+      final javax.persistence.criteria.Expression<Boolean> equal = cb.equal(path, value);
+      equalPrefix = equalPrefix == null ? equal : cb.and(equalPrefix, equal);
+    }
+    return condition;
+  }
+
+  private void bindKeysetParameters(final TypedQuery<Tuple> tq, final KeysetPaging paging) {
+    final Object[] values = paging.getKeysetValues();
+    if (values == null) {
+      return;
+    }
+    for (int index = 0; index < values.length; index++) {
+      tq.setParameter(KEYSET_PARAMETER_PREFIX + index, values[index]);
+    }
+  }
+
+  private boolean isStreamingEnabled() {
+    return getContext().getDependencyInjector().getDependencyValue(StreamingMode.class) == StreamingMode.Streamed;
+  }
+
+  /**
+   *
+   * @param owningEntityRows Optional rows of owning entities (of type {@link #getQueryStartType()}) used to restrict
+   * the result to entities related to that rows.
+   * @param allowStreaming TRUE to create a result not loading all rows into memory, if the rows are not required to
+   * load $expand'ed entities.
+   */
+  private QueryEntityResult executeInternal(final boolean processExpandOption, final List<Tuple> owningEntityRows,
+      final boolean allowStreaming) throws ODataApplicationException, ODataJPAModelException {
     final UriInfoResource uriResource = getNavigation().getLastStep();
     // Pre-process URI parameter, so they can be used at different places
     // TODO check if Path is also required for OrderBy Attributes, as it is for descriptions
 
     final List<JPAAssociationAttribute> orderByNaviAttributes = extractOrderByNaviAttributes();
-    final Map<String, From<?, ?>> resultsetAffectingTables = createFromClause(orderByNaviAttributes);
 
     final PathSelectors paths = buildSelectionPathList(uriResource);
     final List<JPASelector> allSelectionPaths = paths.determineAllPaths();
     final Map<JPAAttribute<?>, List<JPASelector>> elementCollectionMap = separateElementCollectionPaths(
         allSelectionPaths);
 
+    final KeysetPaging paging = owningEntityRows == null ? determinePaging(allSelectionPaths) : null;
+    final QueryPlanCache queryPlanCache = owningEntityRows == null ? determineQueryPlanCache() : null;
+    final RequestShape shape = queryPlanCache != null ? determineRequestShape(paging) : null;
+
+    final JPARequestMetrics metrics = getContext().getRequestMetrics();
+    TypedQuery<Tuple> tq = shape != null ? queryPlanCache.createQuery(getEntityManager(), shape) : null;
+    javax.persistence.criteria.Expression<Boolean> whereClause = null;
+    if (tq == null) {
+      final long start = metrics.start();
+      // literals are lifted into parameters only for a query stored in cache
+      setLiteralParameterBinding(shape);
+      try {
+        whereClause = buildCriteriaQuery(orderByNaviAttributes, allSelectionPaths, paging, shape != null);
+      } finally {
+        setLiteralParameterBinding(null);
+      }
+      metrics.stop(JPAMetric.CriteriaBuild, start);
+    }
+
+    // load not yet processed @ElementCollection attribute content (before the entities, so no other query is
+    // executed while a result stream is open)
+    final Map<JPAAttribute<?>, QueryElementCollectionResult> elementCollectionResults = readElementCollections(
+        elementCollectionMap, owningEntityRows);
+
+    final Collection<String> requestedAttributes = paths.requestedPaths.stream().map(s -> s.getAlias()).collect(
+        Collectors.toList());
+    final boolean expandRequired = processExpandOption && uriResource.getExpandOption() != null;
+    final List<Tuple> intermediateResult;
+    final QueryEntityResult queryResult;
+    if (owningEntityRows != null) {
+      final long start = metrics.start();
+      intermediateResult = loadByStartEntityKeys(cq, whereClause, owningEntityRows);
+      metrics.stop(JPAMetric.DatabaseExecution, start);
+      metrics.count(JPAMetric.RowCount, intermediateResult.size());
+      queryResult = new QueryEntityResult(intermediateResult, requestedAttributes, getQueryResultType());
+    } else {
+      if (tq == null) {
+        if (whereClause != null) {
+          cq.where(whereClause);
+        }
+        tq = getEntityManager().createQuery(cq);
+        if (shape != null) {
+          // store before limits are applied
+          queryPlanCache.storeQuery(getEntityManager(), shape, tq);
+          shape.bindParameters(tq, shape.getParameterDefinitions());
+        }
+      }
+      applyQueryHints(tq);
+      if (shape != null && paging != null) {
+        bindKeysetParameters(tq, paging);
+      }
+      if (paging != null) {
+        paging.applyLimits(tq);
+      } else if (hasQueryLimits()) {
+        addTopSkip(tq);
+      }
+      // a page is limited in size, so there is no need to stream it
+      final boolean streaming = allowStreaming && !expandRequired && paging == null;
+      // the total count is the size of the result, if the result is complete and loaded
+      final Future<Long> totalCount = isCountRequested(uriResource) && (streaming || paging != null
+          || hasQueryLimits()) ? startTotalCountQuery() : null;
+      final long start = metrics.start();
+      if (streaming) {
+        // the rows are fetched while writing the response
+        queryResult = new QueryEntityResult(tq.getResultStream(), requestedAttributes, getQueryResultType());
+        metrics.stop(JPAMetric.DatabaseExecution, start);
+        queryResult.setTotalCount(waitForTotalCount(totalCount));
+        queryResult.putElementCollectionResults(elementCollectionResults);
+        return queryResult;
+      }
+      if (paging != null) {
+        intermediateResult = paging.processPage(tq.getResultList());
+      } else {
+        intermediateResult = tq.getResultList();
+      }
+      metrics.stop(JPAMetric.DatabaseExecution, start);
+      metrics.count(JPAMetric.RowCount, intermediateResult.size());
+      queryResult = new QueryEntityResult(intermediateResult, requestedAttributes, getQueryResultType());
+      if (paging != null) {
+        queryResult.setNextPageSkipToken(paging.getNextSkipToken());
+      }
+      queryResult.setTotalCount(waitForTotalCount(totalCount));
+    }
+    queryResult.putElementCollectionResults(elementCollectionResults);
+
+    if (processExpandOption && !intermediateResult.isEmpty()) {
+      // generate expand queries only for non empty entity result list
+      queryResult.putExpandResults(readExpandEntities(intermediateResult));
+    }
+    return queryResult;
+  }
+
+  private static boolean isCountRequested(final UriInfoResource uriResource) {
+    final CountOption countOption = uriResource.getCountOption();
+    return countOption != null && countOption.getValue();
+  }
+
+  /**
+   * Start the query for the total count of entities matching the request, ignoring $top, $skip and paging. The query
+   * is executed concurrently on an own read-only entity manager if a {@link CountConfiguration} is registered,
+   * otherwise immediately in the current transaction. The query is always build by the current thread, so the request
+   * context and the navigation are never accessed by the executor.
+   *
+   * @see EntityCountQueryBuilder#execute()
+   */
+  private Future<Long> startTotalCountQuery() throws ODataApplicationException, ODataJPAModelException {
+    final CountConfiguration configuration = getContext().getDependencyInjector().getDependencyValue(
+        CountConfiguration.class);
+    final JPAAdapter mappingAdapter = getContext().getDependencyInjector().getDependencyValue(JPAAdapter.class);
+    if (configuration != null && mappingAdapter != null) {
+      final EntityManager em = mappingAdapter.createReadOnlyEntityManager();
+      boolean submitted = false;
+      try {
+        final TypedQuery<Long> countQuery = new EntityCountQueryBuilder(getContext(), getNavigation(), em)
+            .buildQuery();
+        final Future<Long> totalCount = configuration.getExecutor().submit(() -> executeCountQuery(em, countQuery));
+        submitted = true;
+        return totalCount;
+      } catch (final RejectedExecutionException e) {
+        LOG.log(Level.FINE, "Count query rejected by executor, will be executed in current thread", e);
+      } finally {
+        if (!submitted) {
+          em.close();
+        }
+      }
+    }
+    final long count = new EntityCountQueryBuilder(getContext(), getNavigation(), getEntityManager()).execute();
+    return CompletableFuture.completedFuture(Long.valueOf(count));
+  }
+
+  private static Long executeCountQuery(final EntityManager em, final TypedQuery<Long> countQuery) {
+    try {
+      return countQuery.getSingleResult();
+    } finally {
+      // the entity manager is used only for the count query
+      em.close();
+    }
+  }
+
+  private Long waitForTotalCount(final Future<Long> totalCount) throws ODataApplicationException,
+  ODataJPAModelException {
+    if (totalCount == null) {
+      return null;
+    }
+    try {
+      return totalCount.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof ODataApplicationException) {
+        throw (ODataApplicationException) e.getCause();
+      } else if (e.getCause() instanceof ODataJPAModelException) {
+        throw (ODataJPAModelException) e.getCause();
+      }
+      throw new ODataJPAQueryException(e.getCause(), HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * Build the FROM, SELECT, ORDER BY and GROUP BY parts of {@link #cq}.
+   *
+   * @param parameterizedKeyset TRUE to use parameters for the values of keyset paging condition.
+   * @return The WHERE condition, not yet set for query.
+   */
+  private javax.persistence.criteria.Expression<Boolean> buildCriteriaQuery(
+      final List<JPAAssociationAttribute> orderByNaviAttributes, final List<JPASelector> allSelectionPaths,
+      final KeysetPaging paging, final boolean parameterizedKeyset) throws ODataApplicationException,
+  ODataJPAModelException {
+    final UriInfoResource uriResource = getNavigation().getLastStep();
+    final Map<String, From<?, ?>> resultsetAffectingTables = createFromClause(orderByNaviAttributes);
+
     // use selection for reduced list
     final List<Selection<?>> joinSelections = createSelectClause(allSelectionPaths);
 
     cq.multiselect(joinSelections);
 
-    final javax.persistence.criteria.Expression<Boolean> whereClause = createWhere();
-    if (whereClause != null) {
-      cq.where(whereClause);
-    }
+    javax.persistence.criteria.Expression<Boolean> whereClause = createWhere();
 
     // TODO force orderBy if 'hasLimits'
-    cq.orderBy(createOrderByList(resultsetAffectingTables, uriResource.getOrderByOption()));
+    final List<Order> orders = createOrderByList(resultsetAffectingTables, uriResource.getOrderByOption());
+    if (paging != null) {
+      // paging requires an unique order
+      for (final KeysetPaging.SortKey sortKey : paging.getAdditionalSortKeys()) {
+        orders.add(getCriteriaBuilder().asc(convertToCriteriaAliasPath(getQueryResultFrom(), sortKey.getSelector(),
+            null)));
+      }
+      final javax.persistence.criteria.Expression<Boolean> keysetCondition = createKeysetCondition(paging,
+          parameterizedKeyset);
+      if (keysetCondition != null) {
+        whereClause = whereClause == null ? keysetCondition : getCriteriaBuilder().and(whereClause, keysetCondition);
+      }
+    }
+    cq.orderBy(orders);
 
     if (!orderByNaviAttributes.isEmpty()) {
       cq.groupBy(createGroupBy(allSelectionPaths));
     }
+    return whereClause;
+  }
 
-    final TypedQuery<Tuple> tq = getEntityManager().createQuery(cq);
-    if (hasQueryLimits()) {
-      addTopSkip(tq);
-    }
-
-    final List<Tuple> intermediateResult = tq.getResultList();
-    final Collection<String> requestedAttributes = paths.requestedPaths.stream().map(s -> s.getAlias()).collect(
-        Collectors.toList());
-    final QueryEntityResult queryResult = new QueryEntityResult(intermediateResult, requestedAttributes,
-        getQueryResultType());
+  /**
+   *
+   * @return The cache registered as dependency value or <code>null</code>.
+   */
+  private QueryPlanCache determineQueryPlanCache() {
+    return getContext().getDependencyInjector().getDependencyValue(QueryPlanCache.class);
+  }
 
-    // load not yet processed @ElementCollection attribute content
-    queryResult.putElementCollectionResults(readElementCollections(elementCollectionMap));
+  /**
+   *
+   * @return The shape of request or <code>null</code> if the query for request cannot be cached.
+   */
+  private RequestShape determineRequestShape(final KeysetPaging paging) throws ODataApplicationException {
+    if (getQueryResultType().getDataAccessConditioner() != null) {
+      // the condition may depend on the current user
+      return null;
+    }
+    final String pagingShape;
+    if (paging == null) {
+      pagingShape = "";
+    } else {
+      pagingShape = paging.getKeysetValues() != null ? "#keyset" : "#page";
+    }
+    try {
+      final RequestShape shape = new RequestShape(getCriteriaBuilder(), getNavigation(), pagingShape);
+      return shape.isCacheable() ? shape : null;
+    } catch (final ExpressionVisitException e) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_FILTER_ERROR,
+          HttpStatusCode.BAD_REQUEST, e);
+    }
+  }
 
-    if (processExpandOption && !intermediateResult.isEmpty()) {
-      // generate expand queries only for non empty entity result list
-      queryResult.putExpandResults(readExpandEntities(null));
+  /**
+   * Build the navigation for {@link ExpandConfiguration.Strategy#KeyBatch} starting directly at the entity set of
+   * the entities loaded by this query, instead of repeating the complete navigation from the root of request.
+   *
+   * @return The navigation or <code>null</code> if the expand must be handled via
+   * {@link ExpandConfiguration.Strategy#NavigationJoin}.
+   */
+  private NavigationIfc determineKeyBatchNavigation(final NavigationViaExpand expandNavigation,
+      final JPAAssociationPath association) {
+    if (determineExpandConfiguration().getStrategy(association.getTargetType())
+        != ExpandConfiguration.Strategy.KeyBatch) {
+      return null;
     }
-    return queryResult;
+    // $top/$skip are affecting the complete expand result, that cannot be split into multiple queries
+    final UriInfoResource expandResource = expandNavigation.getLastStep();
+    if (expandResource.getTopOption() != null || expandResource.getSkipOption() != null) {
+      return null;
+    }
+    // the owning entities must be the result of this query, not a property (complex type) of them
+    final List<UriResource> resourceParts = getNavigation().getUriResourceParts();
+    final UriResource lastResource = resourceParts.get(resourceParts.size() - 1);
+    if (!UriResourceEntitySet.class.isInstance(lastResource) && !UriResourceNavigation.class.isInstance(
+        lastResource)) {
+      return null;
+    }
+    final EdmEntitySet owningEntitySet = Util.determineTargetEntitySet(resourceParts);
+    if (owningEntitySet == null || !owningEntitySet.getEntityType().getFullQualifiedName().equals(
+        getQueryResultEdmType().getFullQualifiedName())) {
+      return null;
+    }
+    return new NavigationViaExpand(new NavigationRoot(new EntitySetWrapper(owningEntitySet)), expandNavigation);
   }
 
   /**
@@ -206,6 +561,9 @@ public class EntityQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQue
    * round trip. It has not been measured under which conditions which solution as
    * the better performance.
    * <p>
+   * Depending on the {@link ExpandConfiguration} an expand query will repeat the complete navigation from the root
+   * of request or is restricted by the keys of the already loaded owning entities.
+   * <p>
    * For a general overview see: <a href=
    * "http://docs.oasis-open.org/odata/odata/v4.0/errata02/os/complete/part1-protocol/odata-v4.0-errata02-os-part1-protocol-complete.html#_Toc406398298"
    * >OData Version 4.0 Part 1 - 11.2.4.2 System Query Option $expand</a>
@@ -215,17 +573,13 @@ public class EntityQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQue
    * "http://docs.oasis-open.org/odata/odata/v4.0/errata02/os/complete/part2-url-conventions/odata-v4.0-errata02-os-part2-url-conventions-complete.html#_Toc406398162"
    * >OData Version 4.0 Part 2 - 5.1.2 System Query Option $expand</a>
    *
-   * @param headers
-   * @param naviStartEdmEntitySet
-   * @param parentHops
-   * @param uriInfo
+   * @param owningEntityRows The already loaded result of this query.
    * @return
    * @throws ODataApplicationException
    * @throws ODataJPAModelException
    */
-  private Map<JPAAssociationPath, ExpandQueryEntityResult> readExpandEntities(
-      final List<JPANavigationPropertyInfo> parentHops)
-          throws ODataApplicationException, ODataJPAModelException {
+  private Map<JPAAssociationPath, ExpandQueryEntityResult> readExpandEntities(final List<Tuple> owningEntityRows)
+      throws ODataApplicationException, ODataJPAModelException {
 
     final Map<JPAAssociationPath, ExpandQueryEntityResult> allExpResults =
         new HashMap<JPAAssociationPath, ExpandQueryEntityResult>();
@@ -238,13 +592,27 @@ public class EntityQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQue
 
     final JPAODataRequestContext context = getContext();
     final EntityManager em = getEntityManager();
+    final JPARequestMetrics metrics = context.getRequestMetrics();
 
     for (final Entry<NavigationViaExpand, JPAAssociationPath> itemExpand : expandMapList.entrySet()) {
-      // an expand is handled as navigation to that entity type, so we can (re)use the entity query
-      final EntityQueryBuilder expandQuery = new EntityQueryBuilder(context, itemExpand.getKey(), em, serviceMetadata);
-      LOG.log(Level.FINE, "Process $expand for: " + getQueryResultNavigationKeyBuilder().getNavigationLabel() + "#"
-          + itemExpand.getValue().getAlias());
-      final QueryEntityResult expandResult = expandQuery.executeInternal(true);
+      final long start = metrics.start();
+      final NavigationIfc keyBatchNavigation = determineKeyBatchNavigation(itemExpand.getKey(), itemExpand
+          .getValue());
+      final EntityQueryBuilder expandQuery;
+      final QueryEntityResult expandResult;
+      if (keyBatchNavigation != null) {
+        LOG.log(Level.FINE, "Process $expand (key batch) for: " + getQueryResultNavigationKeyBuilder()
+        .getNavigationLabel() + "#" + itemExpand.getValue().getAlias());
+        expandQuery = new EntityQueryBuilder(context, keyBatchNavigation, em, serviceMetadata);
+        expandResult = expandQuery.executeInternal(true, owningEntityRows, false);
+      } else {
+        // an expand is handled as navigation to that entity type, so we can (re)use the entity query
+        expandQuery = new EntityQueryBuilder(context, itemExpand.getKey(), em, serviceMetadata);
+        LOG.log(Level.FINE, "Process $expand for: " + getQueryResultNavigationKeyBuilder().getNavigationLabel() + "#"
+            + itemExpand.getValue().getAlias());
+        expandResult = expandQuery.executeInternal(true);
+      }
+      metrics.stop(JPAMetric.ExpandQuery, start);
       // convert result list to expand entity navigation key mapping structure
       allExpResults.put(itemExpand.getValue(), new ExpandQueryEntityResult(itemExpand.getValue(), expandResult,
           expandQuery
@@ -519,9 +887,14 @@ public class EntityQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQue
     return elementCollectionMap;
   }
 
+  /**
+   *
+   * @param owningEntityRows Optional rows of owning entities to restrict the element collection queries, see
+   * {@link #executeInternal(boolean, List, boolean)}.
+   */
   private final Map<JPAAttribute<?>, QueryElementCollectionResult> readElementCollections(
-      final Map<JPAAttribute<?>, List<JPASelector>> elementCollectionMap) throws ODataApplicationException,
-  ODataJPAModelException {
+      final Map<JPAAttribute<?>, List<JPASelector>> elementCollectionMap, final List<Tuple> owningEntityRows)
+          throws ODataApplicationException, ODataJPAModelException {
     if (elementCollectionMap.isEmpty()) {
       return Collections.emptyMap();
     }
@@ -535,7 +908,7 @@ public class EntityQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQue
       final JPAAttribute<?> attribute = entry.getKey();
       final ElementCollectionQueryBuilder query = new ElementCollectionQueryBuilder(owningType, attribute,
           entry.getValue(), getContext(), getNavigation(), getEntityManager());
-      final QueryElementCollectionResult result = query.execute();
+      final QueryElementCollectionResult result = query.execute(owningEntityRows);
       allResults.put(attribute, result);
     }
     return allResults;
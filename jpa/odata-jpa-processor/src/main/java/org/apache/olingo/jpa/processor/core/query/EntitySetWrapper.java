@@ -0,0 +1,119 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.CountOption;
+import org.apache.olingo.server.api.uri.queryoption.CustomQueryOption;
+import org.apache.olingo.server.api.uri.queryoption.DeltaTokenOption;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.FormatOption;
+import org.apache.olingo.server.api.uri.queryoption.IdOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipTokenOption;
+import org.apache.olingo.server.api.uri.queryoption.TopOption;
+import org.apache.olingo.server.core.uri.UriResourceEntitySetImpl;
+
+/**
+ * Wrapper to simulate the request of a complete entity set without any query options. Used as starting point for
+ * queries not based on the original request resource path.
+ *
+ */
+class EntitySetWrapper implements UriInfoResource {
+
+  private final List<UriResource> resourceParts;
+
+  EntitySetWrapper(final EdmEntitySet entitySet) {
+    super();
+    assert entitySet != null;
+    resourceParts = Collections.singletonList(new UriResourceEntitySetImpl(entitySet));
+  }
+
+  @Override
+  public List<UriResource> getUriResourceParts() {
+    return resourceParts;
+  }
+
+  @Override
+  public ApplyOption getApplyOption() {
+    return null;
+  }
+
+  @Override
+  public CountOption getCountOption() {
+    return null;
+  }
+
+  @Override
+  public List<CustomQueryOption> getCustomQueryOptions() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public DeltaTokenOption getDeltaTokenOption() {
+    return null;
+  }
+
+  @Override
+  public ExpandOption getExpandOption() {
+    return null;
+  }
+
+  @Override
+  public FilterOption getFilterOption() {
+    return null;
+  }
+
+  @Override
+  public FormatOption getFormatOption() {
+    return null;
+  }
+
+  @Override
+  public IdOption getIdOption() {
+    return null;
+  }
+
+  @Override
+  public OrderByOption getOrderByOption() {
+    return null;
+  }
+
+  @Override
+  public SearchOption getSearchOption() {
+    return null;
+  }
+
+  @Override
+  public SelectOption getSelectOption() {
+    return null;
+  }
+
+  @Override
+  public SkipOption getSkipOption() {
+    return null;
+  }
+
+  @Override
+  public SkipTokenOption getSkipTokenOption() {
+    return null;
+  }
+
+  @Override
+  public TopOption getTopOption() {
+    return null;
+  }
+
+  @Override
+  public String getValueForAlias(final String alias) {
+    return null;
+  }
+}
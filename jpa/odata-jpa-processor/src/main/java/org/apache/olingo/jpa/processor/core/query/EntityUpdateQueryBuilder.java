@@ -0,0 +1,120 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * <pre>
+ * URL example:
+ *
+ * PATCH .../Persons?$filter=...
+ * PATCH .../Persons/$filter(...)/$each
+ * </pre>
+ * Updates all entities matching the filter (and access conditions) with one <code>UPDATE</code> statement. The
+ * entities are not loaded into the persistence context, so no lifecycle callbacks are executed; a numeric version
+ * attribute is incremented. Pending changes are flushed before the statement and the persistence context is cleared
+ * afterwards, because managed entities may be stale. Only simple (not complex or collection) attributes can be set
+ * and navigation paths are not supported. Every instance of the builder can execute only one statement.
+ */
+public class EntityUpdateQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaUpdate<Object>, Object> {
+
+  private final CriteriaUpdate<Object> cu;
+  private final Root<Object> root;
+
+  @SuppressWarnings("unchecked")
+  public EntityUpdateQueryBuilder(final JPAODataRequestContext context, final NavigationIfc uriInfo,
+      final EntityManager em)
+          throws ODataApplicationException, ODataJPAModelException {
+    super(context, uriInfo, em);
+    final Class<Object> typeClass = (Class<Object>) getQueryStartType().getTypeClass();
+    cu = getCriteriaBuilder().createCriteriaUpdate(typeClass);
+    root = cu.from(typeClass);
+    // now we are ready
+    initializeQuery();
+  }
+
+  @Override
+  public <T> Subquery<T> createSubquery(final Class<T> subqueryResultType) {
+    return cu.subquery(subqueryResultType);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public From<?, ?> getQueryStartFrom() {
+    return root;
+  }
+
+  /**
+   *
+   * @param values The new values of simple attributes, already converted into the JPA attribute types.
+   * @return The number of updated entities.
+   */
+  public final int execute(final Map<JPAMemberAttribute, Object> values) throws ODataApplicationException,
+  ODataJPAModelException {
+    if (getQueryResultFrom() != root) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.NOT_IMPLEMENTED, "Navigation not supported for collection update");
+    }
+    if (values.isEmpty()) {
+      return 0;
+    }
+    for (final Map.Entry<JPAMemberAttribute, Object> entry : values.entrySet()) {
+      final JPAMemberAttribute attribute = entry.getKey();
+      if (!attribute.isSimple() || attribute.isCollection() || attribute.isKey()) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+            HttpStatusCode.NOT_IMPLEMENTED, "Attribute " + attribute.getExternalName()
+            + " not supported for collection update");
+      }
+      final Path<Object> path = root.get(attribute.getInternalName());
+      if (entry.getValue() == null) {
+        cu.<Object> set(path, getCriteriaBuilder().nullLiteral(attribute.getType()));
+      } else {
+        cu.set(path, entry.getValue());
+      }
+    }
+    incrementVersion();
+    final Expression<Boolean> whereClause = createWhere();
+    if (whereClause != null) {
+      cu.where(whereClause);
+    }
+    final EntityManager em = getEntityManager();
+    em.flush();
+    final int count = applyQueryHints(em.createQuery(cu)).executeUpdate();
+    em.clear();
+    return count;
+  }
+
+  /**
+   * A bulk update bypasses the optimistic locking of JPA provider, so we have to increment the version manually.
+   */
+  private void incrementVersion() throws ODataJPAModelException {
+    if (!getQueryResultType().hasEtag()) {
+      return;
+    }
+    for (final JPAMemberAttribute attribute : getQueryResultType().getAttributes(false)) {
+      if (!attribute.isEtag() || !isNumber(attribute.getType())) {
+        continue;
+      }
+      final Path<Number> versionPath = root.get(attribute.getInternalName());
+      cu.set(versionPath, getCriteriaBuilder().sum(versionPath, Integer.valueOf(1)));
+    }
+  }
+
+  private static boolean isNumber(final Class<?> type) {
+    return Number.class.isAssignableFrom(type) || type == int.class || type == long.class || type == short.class;
+  }
+}
@@ -0,0 +1,100 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
+
+/**
+ * Configuration to select the strategy used to load $expand'ed entities, globally or per expanded entity class.
+ * Without configuration the {@link Strategy#NavigationJoin} is used for all entities.
+ *
+ */
+public class ExpandConfiguration {
+
+  public static enum Strategy {
+    /**
+     * The default strategy: Every $expand query repeats the complete navigation (all joins and filters) from the
+     * root entity of request to the expanded entities.
+     */
+    NavigationJoin,
+    /**
+     * Every $expand level is loaded with a query restricted by the keys of the already loaded owning entities
+     * (<code>WHERE key IN (...)</code>) instead of repeating the navigation from the root entity. The keys are split
+     * into multiple queries if the number of keys exceeds the {@link ExpandConfiguration#getMaxKeyParameters() limit
+     * of parameters}.
+     */
+    KeyBatch;
+  }
+
+  /**
+   * Conservative default, because some databases (like Oracle) are limited to 1000 elements in a IN list.
+   */
+  public static final int DEFAULT_MAX_KEY_PARAMETERS = 1000;
+
+  private final Map<Class<?>, Strategy> entityStrategies = new HashMap<>();
+  private Strategy defaultStrategy;
+  private int maxKeyParameters = DEFAULT_MAX_KEY_PARAMETERS;
+
+  public ExpandConfiguration() {
+    this(Strategy.NavigationJoin);
+  }
+
+  public ExpandConfiguration(final Strategy defaultStrategy) {
+    setDefaultStrategy(defaultStrategy);
+  }
+
+  public void setDefaultStrategy(final Strategy defaultStrategy) {
+    if (defaultStrategy == null) {
+      throw new IllegalArgumentException("Strategy required");
+    }
+    this.defaultStrategy = defaultStrategy;
+  }
+
+  public Strategy getDefaultStrategy() {
+    return defaultStrategy;
+  }
+
+  /**
+   *
+   * @param entityClass The JPA entity class of the $expand'ed entities.
+   * @param strategy The strategy to use for that entities or <code>null</code> to use the
+   * {@link #getDefaultStrategy() default strategy}.
+   */
+  public void setStrategy(final Class<?> entityClass, final Strategy strategy) {
+    if (strategy == null) {
+      entityStrategies.remove(entityClass);
+    } else {
+      entityStrategies.put(entityClass, strategy);
+    }
+  }
+
+  /**
+   *
+   * @param expandTargetType The type of entities to load via $expand.
+   * @return The strategy to use, never <code>null</code>.
+   */
+  public Strategy getStrategy(final JPAStructuredType expandTargetType) {
+    final Strategy strategy = entityStrategies.get(expandTargetType.getTypeClass());
+    if (strategy != null) {
+      return strategy;
+    }
+    return defaultStrategy;
+  }
+
+  /**
+   *
+   * @param maxKeyParameters The maximal number of key values (query parameters) used in one query for
+   * {@link Strategy#KeyBatch}. For entities with a compound key every key attribute counts.
+   */
+  public void setMaxKeyParameters(final int maxKeyParameters) {
+    if (maxKeyParameters < 1) {
+      throw new IllegalArgumentException("Number of key parameters must be positive");
+    }
+    this.maxKeyParameters = maxKeyParameters;
+  }
+
+  public int getMaxKeyParameters() {
+    return maxKeyParameters;
+  }
+}
@@ -6,6 +6,7 @@ import javax.persistence.criteria.Subquery;
 
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.filter.JPALiteralParameterBinding;
 
 public interface FilterContextQueryBuilderIfc {
 
@@ -32,4 +33,11 @@ public interface FilterContextQueryBuilderIfc {
    */
   public From<?, ?> getQueryResultFrom();
 
+  /**
+   *
+   * @return The binding to lift filter literals into query parameters or <code>null</code> if literals are used as
+   * values.
+   */
+  public JPALiteralParameterBinding getLiteralParameterBinding();
+
 }
@@ -23,6 +23,7 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.IntermediateServiceDo
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 import org.apache.olingo.jpa.processor.core.filter.JPAEntityFilterProcessor;
+import org.apache.olingo.jpa.processor.core.filter.JPALiteralParameterBinding;
 import org.apache.olingo.jpa.processor.core.filter.JPAMemberOperand;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
@@ -93,6 +94,11 @@ public class FilterSubQueryBuilder extends AbstractSubQueryBuilder implements Fi
     return getOwningQueryBuilder().getContext();
   }
 
+  @Override
+  public final JPALiteralParameterBinding getLiteralParameterBinding() {
+    return getOwningQueryBuilder().getLiteralParameterBinding();
+  }
+
   @Override
   public final JPAEntityType getQueryResultType() {
     return entityType;
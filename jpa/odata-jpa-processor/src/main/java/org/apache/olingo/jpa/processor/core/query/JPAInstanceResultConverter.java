@@ -1,6 +1,8 @@
 package org.apache.olingo.jpa.processor.core.query;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URI;
@@ -28,12 +30,21 @@ public class JPAInstanceResultConverter {
   public static final String ACCESS_MODIFIER_GET = "get";
   public static final String ACCESS_MODIFIER_SET = "set";
   public static final String ACCESS_MODIFIER_IS = "is";
-  private final static Map<String, HashMap<String, Method>> MESSAGE_BUFFER =
-      new HashMap<String, HashMap<String, Method>>();
+  private final static MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  /**
+   * The getter methods of a result type as method handles, created once per type.
+   */
+  private final static ClassValue<Map<String, MethodHandle>> GETTER_BUFFER = new ClassValue<Map<String,
+      MethodHandle>>() {
+    @Override
+    protected Map<String, MethodHandle> computeValue(final Class<?> type) {
+      return getMethods(type);
+    }
+  };
 
   private final List<?> jpaQueryResult;
   private final EdmEntitySet edmEntitySet;
-  private final Map<String, Method> messageMap;
+  private final Map<String, MethodHandle> messageMap;
   private final List<JPASelector> pathList;
   private final UriHelper odataUriHelper;
 
@@ -44,23 +55,23 @@ public class JPAInstanceResultConverter {
     this.jpaQueryResult = jpaQueryResult;
     this.edmEntitySet = edmEntitySet;
     this.pathList = sd.getEntityType(edmEntitySet.getName()).getPathList();
-    this.messageMap = getMethods(resultType);
+    this.messageMap = GETTER_BUFFER.get(resultType);
     this.odataUriHelper = uriHelper;
   }
 
-  private Map<String, Method> getMethods(final Class<?> clazz) {
-    HashMap<String, Method> methods = MESSAGE_BUFFER.get(clazz.getName());
-    if (methods == null) {
-      methods = new HashMap<String, Method>();
-
-      final Method[] allMethods = clazz.getMethods();
-      for (final Method m : allMethods) {
-        if (m.getReturnType().getName() != "void"
-            && Modifier.isPublic(m.getModifiers())) {
-          methods.put(m.getName(), m);
+  private static Map<String, MethodHandle> getMethods(final Class<?> clazz) {
+    final Map<String, MethodHandle> methods = new HashMap<String, MethodHandle>();
+    final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    final Method[] allMethods = clazz.getMethods();
+    for (final Method m : allMethods) {
+      if (m.getReturnType() != void.class && m.getParameterCount() == 0
+          && !Modifier.isStatic(m.getModifiers())) {
+        try {
+          methods.put(m.getName(), lookup.unreflect(m).asType(GETTER_TYPE));
+        } catch (final IllegalAccessException e) {
+          // not accessible (e.g. public method of a non public class) -> not usable as getter
         }
       }
-      MESSAGE_BUFFER.put(clazz.getName(), methods);
     }
     return methods;
   }
@@ -81,19 +92,16 @@ public class JPAInstanceResultConverter {
           throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_ACCESS_NOT_FOUND,
               HttpStatusCode.INTERNAL_SERVER_ERROR, path.getAlias());
         }
-        Method getMethod;
-        getMethod = messageMap.get(getterName);
+        final MethodHandle getMethod = messageMap.get(getterName);
         try {
           properties.add(new Property(
               null,
               path.getLeaf().getExternalName(),
               ValueType.PRIMITIVE,
-              getMethod.invoke(row)));
-        } catch (final IllegalAccessException e) {
-          throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
-        } catch (final IllegalArgumentException e) {
-          throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
-        } catch (final InvocationTargetException e) {
+              getMethod.invokeExact(row)));
+        } catch (final Error e) {
+          throw e;
+        } catch (final Throwable e) {
           throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
         }
       }
@@ -0,0 +1,78 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.Query;
+
+/**
+ * Provider specific hints to set on all queries created by the query builders to read entities, element collections
+ * and counts.
+ * <p>
+ * Examples are the JDBC fetch size (<i>eclipselink.jdbc.fetch-size</i>, <i>org.hibernate.fetchSize</i>) or
+ * read-only results (<i>eclipselink.read-only</i>, <i>org.hibernate.readOnly</i>). Hints not known by the JPA
+ * provider are ignored.
+ * <p>
+ * Hints shared between requests (like the hints of the read-only configuration) are taken as
+ * {@link #toImmutable() immutable copy}, so they cannot be changed while requests are processed.
+ *
+ * @see org.apache.olingo.jpa.processor.core.api.ReadOnlyConfiguration
+ */
+public class JPAQueryHints {
+
+  private final Map<String, Object> hints;
+  private final boolean immutable;
+
+  public JPAQueryHints() {
+    this(new LinkedHashMap<>(), false);
+  }
+
+  private JPAQueryHints(final Map<String, Object> hints, final boolean immutable) {
+    this.hints = hints;
+    this.immutable = immutable;
+  }
+
+  /**
+   *
+   * @param name The name of hint.
+   * @param value The value of hint or <code>null</code> to remove the hint.
+   * @return This instance.
+   * @throws UnsupportedOperationException If the hints are {@link #toImmutable() immutable}.
+   */
+  public JPAQueryHints setHint(final String name, final Object value) {
+    if (immutable) {
+      throw new UnsupportedOperationException("Query hints are immutable");
+    }
+    if (name == null) {
+      throw new IllegalArgumentException("Name of hint required");
+    }
+    if (value == null) {
+      hints.remove(name);
+    } else {
+      hints.put(name, value);
+    }
+    return this;
+  }
+
+  /**
+   *
+   * @return An immutable copy of the hints or this instance if already immutable.
+   */
+  public JPAQueryHints toImmutable() {
+    if (immutable) {
+      return this;
+    }
+    return new JPAQueryHints(Collections.unmodifiableMap(new LinkedHashMap<>(hints)), true);
+  }
+
+  public Map<String, Object> getHints() {
+    return Collections.unmodifiableMap(hints);
+  }
+
+  void applyTo(final Query query) {
+    for (final Map.Entry<String, Object> entry : hints.entrySet()) {
+      query.setHint(entry.getKey(), entry.getValue());
+    }
+  }
+}
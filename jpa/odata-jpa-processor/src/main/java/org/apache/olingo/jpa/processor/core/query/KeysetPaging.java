@@ -0,0 +1,420 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import javax.persistence.TypedQuery;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAParameterizedElement;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPASelector;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceComplexProperty;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipTokenOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+
+/**
+ * State of server-driven paging for one entity collection query, see {@link PagingConfiguration}. The
+ * <code>$skiptoken</code> is an URL safe (Base64) encoding of:
+ * <ul>
+ * <li>the mode: keyset or offset</li>
+ * <li>a hash of the request shape (<code>$filter</code>, <code>$orderby</code> and <code>$search</code>) the token was
+ * created for; a token used with another shape is rejected</li>
+ * <li>the number of remaining entities requested by the original <code>$top</code></li>
+ * <li>the offset of the next page (offset mode) or the values of all sort keys of the last entity on the current
+ * page (keyset mode)</li>
+ * </ul>
+ *
+ */
+final class KeysetPaging {
+
+  static final class SortKey {
+    private final JPASelector selector;
+    private final boolean descending;
+
+    private SortKey(final JPASelector selector, final boolean descending) {
+      this.selector = selector;
+      this.descending = descending;
+    }
+
+    JPASelector getSelector() {
+      return selector;
+    }
+
+    boolean isDescending() {
+      return descending;
+    }
+  }
+
+  private static final byte MODE_OFFSET = 'O';
+  private static final byte MODE_KEYSET = 'K';
+  private static final int NO_TOP = -1;
+
+  private final List<SortKey> sortKeys = new LinkedList<>();
+  private final List<SortKey> additionalKeySortKeys = new LinkedList<>();
+  private final boolean keysetSupported;
+  private final int pageSize;
+  private final int shapeHash;
+  private final Integer remainingTop;
+  private final int offset;
+  private final Object[] keysetValues;
+  private String nextSkipToken = null;
+
+  /**
+   *
+   * @param selectedAliases The aliases of all attributes selected in the query; the values of all sort keys must be
+   * part of the result to build a keyset token.
+   * @param top The value of <code>$top</code> or <code>null</code>.
+   * @param skip The value of <code>$skip</code> or <code>null</code>.
+   */
+  KeysetPaging(final JPAEntityType entityType, final UriInfoResource uriResource,
+      final Collection<String> selectedAliases, final int pageSize, final Integer top, final Integer skip)
+          throws ODataJPAQueryException, ODataJPAModelException {
+    this.pageSize = pageSize;
+    this.keysetSupported = buildSortKeys(entityType, uriResource.getOrderByOption(), selectedAliases);
+    this.shapeHash = computeShapeHash(entityType, uriResource);
+
+    final SkipTokenOption skipTokenOption = uriResource.getSkipTokenOption();
+    if (skipTokenOption == null || skipTokenOption.getValue() == null) {
+      // first page
+      remainingTop = top;
+      offset = skip != null ? skip.intValue() : 0;
+      keysetValues = null;
+      return;
+    }
+    // all other pages: $top and $skip are already encoded in the token
+    final String token = skipTokenOption.getValue();
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+      final byte mode = in.readByte();
+      if (in.readInt() != shapeHash) {
+        throw new IllegalArgumentException("Token was created for another $filter, $orderby or $search");
+      }
+      final int top4Token = in.readInt();
+      remainingTop = top4Token == NO_TOP ? null : Integer.valueOf(top4Token);
+      if (mode == MODE_OFFSET) {
+        offset = in.readInt();
+        keysetValues = null;
+      } else if (mode == MODE_KEYSET && keysetSupported) {
+        offset = 0;
+        final int numberOfValues = in.readInt();
+        if (numberOfValues != sortKeys.size()) {
+          throw new IllegalArgumentException("Number of sort keys not matching");
+        }
+        keysetValues = new Object[numberOfValues];
+        for (int i = 0; i < numberOfValues; i++) {
+          keysetValues[i] = parseValue(determineType(sortKeys.get(i).getSelector()), in.readUTF());
+        }
+      } else {
+        throw new IllegalArgumentException("Invalid mode");
+      }
+      if (offset < 0 || (remainingTop != null && remainingTop.intValue() < 1)) {
+        throw new IllegalArgumentException("Invalid offset or top");
+      }
+    } catch (final IOException | IllegalArgumentException e) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_INVALID_VALUE,
+          HttpStatusCode.BAD_REQUEST, e, token, "$skiptoken");
+    }
+  }
+
+  /**
+   * The sort key values and the offset of a token are only meaningful for the same selection and ordering, so the
+   * token is bound to the text of the options defining them.
+   */
+  private static int computeShapeHash(final JPAEntityType entityType, final UriInfoResource uriResource) {
+    final FilterOption filterOption = uriResource.getFilterOption();
+    final OrderByOption orderByOption = uriResource.getOrderByOption();
+    final SearchOption searchOption = uriResource.getSearchOption();
+    return Objects.hash(entityType.getExternalName(), filterOption != null ? filterOption.getText() : null,
+        orderByOption != null ? orderByOption.getText() : null, searchOption != null ? searchOption.getText()
+            : null);
+  }
+
+  /**
+   *
+   * @return TRUE if all sort keys are supported for a keyset condition
+   */
+  private boolean buildSortKeys(final JPAEntityType entityType, final OrderByOption orderByOption,
+      final Collection<String> selectedAliases) throws ODataJPAModelException {
+    boolean supported = true;
+    if (orderByOption != null) {
+      for (final OrderByItem orderByItem : orderByOption.getOrders()) {
+        final JPASelector selector = determineSelector(entityType, orderByItem);
+        if (selector == null) {
+          // not a simple property (maybe $count of navigation)
+          supported = false;
+          continue;
+        }
+        sortKeys.add(new SortKey(selector, orderByItem.isDescending()));
+        if (!isSupportedSortKey(selector, selectedAliases)) {
+          supported = false;
+        }
+      }
+    }
+    // the keys are required to have a unique order
+    for (final JPASelector keyPath : Util.buildKeyPath(entityType)) {
+      if (containsSortKey(keyPath)) {
+        continue;
+      }
+      final SortKey sortKey = new SortKey(keyPath, false);
+      sortKeys.add(sortKey);
+      additionalKeySortKeys.add(sortKey);
+      if (!selectedAliases.contains(keyPath.getAlias()) || !isSupportedType(determineType(keyPath))) {
+        supported = false;
+      }
+    }
+    return supported;
+  }
+
+  private boolean containsSortKey(final JPASelector selector) {
+    for (final SortKey sortKey : sortKeys) {
+      if (sortKey.getSelector().getAlias().equals(selector.getAlias())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static JPASelector determineSelector(final JPAEntityType entityType, final OrderByItem orderByItem)
+      throws ODataJPAModelException {
+    if (!Member.class.isInstance(orderByItem.getExpression())) {
+      return null;
+    }
+    final UriInfoResource resourcePath = ((Member) orderByItem.getExpression()).getResourcePath();
+    final StringBuilder externalPath = new StringBuilder();
+    for (final UriResource uriResource : resourcePath.getUriResourceParts()) {
+      if (externalPath.length() > 0) {
+        externalPath.append(JPASelector.PATH_SEPERATOR);
+      }
+      if (uriResource instanceof UriResourcePrimitiveProperty) {
+        externalPath.append(((UriResourcePrimitiveProperty) uriResource).getProperty().getName());
+      } else if (uriResource instanceof UriResourceComplexProperty) {
+        externalPath.append(((UriResourceComplexProperty) uriResource).getProperty().getName());
+      } else {
+        return null;
+      }
+    }
+    final JPASelector selector = entityType.getPath(externalPath.toString());
+    if (selector == null || !selector.getLeaf().isSimple() || selector.getLeaf().isCollection()) {
+      return null;
+    }
+    return selector;
+  }
+
+  private static boolean isSupportedSortKey(final JPASelector selector, final Collection<String> selectedAliases) {
+    if (!selectedAliases.contains(selector.getAlias())) {
+      return false;
+    }
+    final JPAAttribute<?> leaf = selector.getLeaf();
+    if (!leaf.isKey() && (!JPAParameterizedElement.class.isInstance(leaf) || JPAParameterizedElement.class.cast(leaf)
+        .isNullable())) {
+      // a keyset condition for NULL values is depending on the database specific ordering
+      return false;
+    }
+    return isSupportedType(determineType(selector));
+  }
+
+  private static Class<?> determineType(final JPASelector selector) {
+    final JPAAttribute<?> leaf = selector.getLeaf();
+    if (!JPAParameterizedElement.class.isInstance(leaf)) {
+      return null;
+    }
+    return JPAParameterizedElement.class.cast(leaf).getType();
+  }
+
+  private static boolean isSupportedType(final Class<?> type) {
+    if (type == null) {
+      return false;
+    }
+    if (type.isEnum()) {
+      return true;
+    }
+    return type == String.class || type == Integer.class || type == Integer.TYPE || type == Long.class
+        || type == Long.TYPE || type == Short.class || type == Short.TYPE || type == Byte.class || type == Byte.TYPE
+        || type == BigDecimal.class || type == BigInteger.class || type == UUID.class
+        || type == java.time.LocalDate.class || type == java.time.LocalDateTime.class
+        || type == java.time.LocalTime.class || type == java.time.Instant.class || type == java.sql.Date.class
+        || type == java.sql.Timestamp.class;
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static Object parseValue(final Class<?> type, final String value) {
+    if (type == null) {
+      throw new IllegalArgumentException("Unsupported type");
+    }
+    if (type.isEnum()) {
+      return Enum.valueOf((Class<Enum>) type, value);
+    } else if (type == String.class) {
+      return value;
+    } else if (type == Integer.class || type == Integer.TYPE) {
+      return Integer.valueOf(value);
+    } else if (type == Long.class || type == Long.TYPE) {
+      return Long.valueOf(value);
+    } else if (type == Short.class || type == Short.TYPE) {
+      return Short.valueOf(value);
+    } else if (type == Byte.class || type == Byte.TYPE) {
+      return Byte.valueOf(value);
+    } else if (type == BigDecimal.class) {
+      return new BigDecimal(value);
+    } else if (type == BigInteger.class) {
+      return new BigInteger(value);
+    } else if (type == UUID.class) {
+      return UUID.fromString(value);
+    } else if (type == java.time.LocalDate.class) {
+      return java.time.LocalDate.parse(value);
+    } else if (type == java.time.LocalDateTime.class) {
+      return java.time.LocalDateTime.parse(value);
+    } else if (type == java.time.LocalTime.class) {
+      return java.time.LocalTime.parse(value);
+    } else if (type == java.time.Instant.class) {
+      return java.time.Instant.parse(value);
+    } else if (type == java.sql.Date.class) {
+      return java.sql.Date.valueOf(value);
+    } else if (type == java.sql.Timestamp.class) {
+      return java.sql.Timestamp.valueOf(value);
+    }
+    throw new IllegalArgumentException("Unsupported type: " + type.getName());
+  }
+
+  private static String formatValue(final Object value) {
+    if (value instanceof Enum<?>) {
+      return ((Enum<?>) value).name();
+    }
+    // all supported types have a toString() compatible with parseValue()
+    return value.toString();
+  }
+
+  /**
+   *
+   * @return The sort keys to append to the ORDER BY of query to get an unique ordering (the key attributes not
+   * already part of $orderby).
+   */
+  List<SortKey> getAdditionalSortKeys() {
+    return Collections.unmodifiableList(additionalKeySortKeys);
+  }
+
+  /**
+   *
+   * @return All sort keys in order: the properties of $orderby and the key attributes.
+   */
+  List<SortKey> getSortKeys() {
+    return Collections.unmodifiableList(sortKeys);
+  }
+
+  /**
+   *
+   * @return The values of {@link #getSortKeys() sort keys} of the last entity from previous page or <code>null</code>
+   * if no keyset condition is required.
+   */
+  Object[] getKeysetValues() {
+    return keysetValues;
+  }
+
+  /**
+   * Set the offset and the maximal number of results for the query. The query will select one row more than the page
+   * size to detect whether a next page is existing.
+   */
+  void applyLimits(final TypedQuery<Tuple> tq) {
+    if (offset > 0) {
+      tq.setFirstResult(offset);
+    }
+    if (remainingTop != null && remainingTop.intValue() <= pageSize) {
+      tq.setMaxResults(remainingTop.intValue());
+    } else {
+      tq.setMaxResults(pageSize + 1);
+    }
+  }
+
+  /**
+   * Cut the result to the page size and build the token for the next page.
+   *
+   * @param rows The result of query prepared by {@link #applyLimits(TypedQuery)}.
+   * @return The rows of the current page.
+   */
+  List<Tuple> processPage(final List<Tuple> rows) throws ODataJPAQueryException {
+    if (rows.size() <= pageSize) {
+      nextSkipToken = null;
+      return rows;
+    }
+    final List<Tuple> page = new ArrayList<>(rows.subList(0, pageSize));
+    final int nextTop = remainingTop != null ? remainingTop.intValue() - pageSize : NO_TOP;
+    try (ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer)) {
+      final Object[] lastValues = keysetSupported ? extractSortKeyValues(page.get(page.size() - 1)) : null;
+      if (lastValues != null) {
+        out.writeByte(MODE_KEYSET);
+        out.writeInt(shapeHash);
+        out.writeInt(nextTop);
+        out.writeInt(lastValues.length);
+        for (final Object value : lastValues) {
+          out.writeUTF(formatValue(value));
+        }
+      } else {
+        out.writeByte(MODE_OFFSET);
+        out.writeInt(shapeHash);
+        out.writeInt(nextTop);
+        out.writeInt(offset + pageSize);
+      }
+      out.flush();
+      nextSkipToken = Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.toByteArray());
+    } catch (final IOException e) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+    return page;
+  }
+
+  private Object[] extractSortKeyValues(final Tuple row) {
+    final Object[] values = new Object[sortKeys.size()];
+    int index = 0;
+    for (final SortKey sortKey : sortKeys) {
+      final String alias = sortKey.getSelector().getAlias();
+      Object value = null;
+      for (final TupleElement<?> element : row.getElements()) {
+        if (alias.equals(element.getAlias())) {
+          value = row.get(alias);
+          break;
+        }
+      }
+      if (value == null) {
+        // should not happen for not nullable attributes
+        return null;
+      }
+      values[index++] = value;
+    }
+    return values;
+  }
+
+  /**
+   *
+   * @return The <code>$skiptoken</code> to request the next page or <code>null</code> if the current page is the last
+   * one.
+   */
+  String getNextSkipToken() {
+    return nextSkipToken;
+  }
+}
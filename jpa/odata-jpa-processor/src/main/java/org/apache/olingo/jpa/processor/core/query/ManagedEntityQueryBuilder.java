@@ -0,0 +1,67 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * <pre>
+ * URL example:
+ *
+ * .../Persons('99')
+ * .../Organizations('3')/Roles
+ * </pre>
+ * Loads the managed JPA entities addressed by the resource path (incl. filter and access conditions) with one query
+ * and without conversion into OData entities, to modify them directly in the persistence context. Every instance of
+ * the builder can execute only one query.
+ */
+public class ManagedEntityQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQuery<Object>, Object> {
+
+  private final CriteriaQuery<Object> cq;
+  private final Root<?> root;
+
+  public ManagedEntityQueryBuilder(final JPAODataRequestContext context, final NavigationIfc uriInfo,
+      final EntityManager em)
+          throws ODataApplicationException, ODataJPAModelException {
+    super(context, uriInfo, em);
+    cq = getCriteriaBuilder().createQuery(Object.class);
+    root = cq.from(getQueryStartType().getTypeClass());
+    // now we are ready
+    initializeQuery();
+  }
+
+  @Override
+  public <T> Subquery<T> createSubquery(final Class<T> subqueryResultType) {
+    return cq.subquery(subqueryResultType);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public From<?, ?> getQueryStartFrom() {
+    return root;
+  }
+
+  /**
+   *
+   * @return The managed JPA entities, maybe empty.
+   */
+  public final List<Object> execute() throws ODataApplicationException, ODataJPAModelException {
+    createFromClause(new LinkedList<>());
+    cq.select(getQueryResultFrom());
+    final Expression<Boolean> whereClause = createWhere();
+    if (whereClause != null) {
+      cq.where(whereClause);
+    }
+    return applyQueryHints(getEntityManager().createQuery(cq)).getResultList();
+  }
+}
@@ -0,0 +1,100 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+/**
+ * The value of a media stream attribute loaded by {@link MediaStreamQueryBuilder}. Values of type {@link Blob} are
+ * read via {@link Blob#getBinaryStream(long, long)}, so only the requested part of the content is transferred from
+ * the database while writing the response; <code>byte[]</code> values are wrapped without copy.
+ */
+public final class MediaStreamContent {
+
+  private final Object value;
+  private final String contentType;
+  private final String eTag;
+
+  MediaStreamContent(final Object value, final String contentType, final String eTag) {
+    this.value = value;
+    this.contentType = contentType;
+    this.eTag = eTag;
+  }
+
+  /**
+   *
+   * @return TRUE if the media stream attribute has no value.
+   */
+  public boolean isNull() {
+    return value == null;
+  }
+
+  /**
+   *
+   * @return The content type of the media stream or <code>null</code> if not known.
+   */
+  public String getContentType() {
+    return contentType;
+  }
+
+  /**
+   *
+   * @return The strong ETag build from the version attribute of entity or <code>null</code> if the entity has no
+   * version attribute.
+   */
+  public String getETag() {
+    return eTag;
+  }
+
+  /**
+   *
+   * @return The length of content in bytes or -1 if the length is not known without reading the content.
+   */
+  public long getLength() throws SQLException {
+    if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    } else if (value instanceof Blob) {
+      return ((Blob) value).length();
+    }
+    return -1;
+  }
+
+  /**
+   *
+   * @param offset The position of first byte to read, starting with 0.
+   * @param length The number of bytes to read.
+   * @return The stream for the requested part of the content.
+   * @throws IllegalStateException If a part of content is requested for a media stream of unknown length.
+   */
+  public InputStream openStream(final long offset, final long length) throws SQLException, IOException {
+    if (value instanceof byte[]) {
+      return new ByteArrayInputStream((byte[]) value, (int) offset, (int) length);
+    } else if (value instanceof Blob) {
+      if (length == 0) {
+        return new ByteArrayInputStream(new byte[0]);
+      }
+      return ((Blob) value).getBinaryStream(offset + 1, length);
+    } else if (value instanceof InputStream) {
+      if (offset != 0 || length != -1) {
+        throw new IllegalStateException("Partial content not supported for stream of unknown length");
+      }
+      return (InputStream) value;
+    }
+    throw new IOException("Unsupported type of media stream: " + (value == null ? "null" : value.getClass()
+        .getName()));
+  }
+
+  /**
+   *
+   * @return The stream for the complete content.
+   */
+  public InputStream openStream() throws SQLException, IOException {
+    final long length = getLength();
+    if (length < 0) {
+      return openStream(0, -1);
+    }
+    return openStream(0, length);
+  }
+}
@@ -0,0 +1,121 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.criteria.Subquery;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPASelector;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * <pre>
+ * URL example:
+ *
+ * .../PersonImages('99')/$value
+ * .../Persons('99')/Image1/$value
+ * </pre>
+ * The query selects only the media stream attribute (and the content type and version attributes, if defined) of the
+ * media entity, so the other attributes are not loaded. Every instance of the builder can execute only one query.
+ */
+public class MediaStreamQueryBuilder extends AbstractCriteriaQueryBuilder<CriteriaQuery<Object>, Object> {
+
+  private final CriteriaQuery<Object> cq;
+  private final Root<?> root;
+
+  public MediaStreamQueryBuilder(final JPAODataRequestContext context, final NavigationIfc uriInfo,
+      final EntityManager em)
+          throws ODataApplicationException, ODataJPAModelException {
+    super(context, uriInfo, em);
+    cq = getCriteriaBuilder().createQuery(Object.class);
+    root = cq.from(getQueryStartType().getTypeClass());
+    // now we are ready
+    initializeQuery();
+  }
+
+  @Override
+  public <T> Subquery<T> createSubquery(final Class<T> subqueryResultType) {
+    return cq.subquery(subqueryResultType);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public From<?, ?> getQueryStartFrom() {
+    return root;
+  }
+
+  /**
+   *
+   * @return The media stream of the requested entity or <code>null</code> if the entity does not exist.
+   */
+  public final MediaStreamContent execute() throws ODataApplicationException, ODataJPAModelException {
+    final JPAEntityType jpaEntityType = getQueryResultType();
+    if (!jpaEntityType.hasStream()) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.BAD_REQUEST, "Entity type " + jpaEntityType.getExternalName() + " has no media stream");
+    }
+    final JPASelector contentTypePath = jpaEntityType.getContentTypeAttributePath();
+    final JPASelector versionPath = determineVersionPath(jpaEntityType);
+
+    final List<Selection<?>> selections = new LinkedList<>();
+    selections.add(convertToCriteriaAliasPath(getQueryResultFrom(), jpaEntityType.getStreamAttributePath(), null));
+    if (contentTypePath != null) {
+      selections.add(convertToCriteriaAliasPath(getQueryResultFrom(), contentTypePath, null));
+    }
+    if (versionPath != null) {
+      selections.add(convertToCriteriaAliasPath(getQueryResultFrom(), versionPath, null));
+    }
+    cq.multiselect(selections);
+
+    final List<Object> result = loadResult();
+    if (result.isEmpty()) {
+      return null;
+    }
+    final Object row = result.get(0);
+    if (selections.size() == 1) {
+      return new MediaStreamContent(row, jpaEntityType.getContentType(), null);
+    }
+    final Object[] values = (Object[]) row;
+    int index = 1;
+    final String contentType = contentTypePath != null ? (String) values[index++] : jpaEntityType.getContentType();
+    final Object version = versionPath != null ? values[index] : null;
+    return new MediaStreamContent(values[0], contentType, version != null ? "\"" + version.toString() + "\"" : null);
+  }
+
+  private List<Object> loadResult() throws ODataApplicationException, ODataJPAModelException {
+    createFromClause(new LinkedList<>());
+    final javax.persistence.criteria.Expression<Boolean> whereClause = createWhere();
+    if (whereClause != null) {
+      cq.where(whereClause);
+    }
+    final List<Object> result = applyQueryHints(getEntityManager().createQuery(cq)).getResultList();
+    if (result.size() > 1) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+    return result;
+  }
+
+  private static JPASelector determineVersionPath(final JPAEntityType jpaEntityType) throws ODataJPAModelException {
+    if (!jpaEntityType.hasEtag()) {
+      return null;
+    }
+    for (final JPAMemberAttribute attribute : jpaEntityType.getAttributes(false)) {
+      if (attribute.isEtag()) {
+        return jpaEntityType.getPath(attribute.getExternalName());
+      }
+    }
+    return null;
+  }
+}
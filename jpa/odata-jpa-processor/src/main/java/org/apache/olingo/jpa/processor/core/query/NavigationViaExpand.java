@@ -51,6 +51,20 @@ public class NavigationViaExpand implements NavigationIfc {
     this.steps.add(expandWrapper);
   }
 
+  /**
+   * Create a copy of the given expand navigation, but starting from another navigation (parent).
+   */
+  NavigationViaExpand(final NavigationIfc uriResource, final NavigationViaExpand template) {
+    super();
+    this.expandWrapper = template.expandWrapper;
+    mergedExpandResourcePath = new LinkedList<UriResource>();
+    mergedExpandResourcePath.addAll(uriResource.getUriResourceParts());
+    mergedExpandResourcePath.addAll(expandWrapper.getUriResourceParts());
+    this.parent = uriResource;
+    this.steps = new LinkedList<UriInfoResource>(parent.getNavigationSteps());
+    this.steps.add(expandWrapper);
+  }
+
   @Override
   public UriInfoResource getFirstStep() {
     return parent.getFirstStep();
@@ -0,0 +1,224 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmAttributeConversion;
+import org.apache.olingo.jpa.metadata.core.edm.converter.ODataAttributeConverter;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAConvertibleElement;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPADescribedElement;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.TypeMapping;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAConversionException;
+import org.apache.olingo.jpa.processor.core.mapping.converter.LocalDate2UtilCalendarODataAttributeConverter;
+import org.apache.olingo.jpa.processor.core.mapping.converter.LocalDateTime2SqlTimestampODataAttributeConverter;
+import org.apache.olingo.jpa.processor.core.mapping.converter.LocalDateTime2ZonedDateTimeODataAttributeConverter;
+import org.apache.olingo.jpa.processor.core.mapping.converter.LocalTime2UtilCalendarODataAttributeConverter;
+import org.apache.olingo.jpa.processor.core.mapping.converter.SqlDate2UtilCalendarODataAttributeConverter;
+import org.apache.olingo.jpa.processor.core.mapping.converter.SqlTime2UtilCalendarODataAttributeConverter;
+import org.apache.olingo.jpa.processor.core.mapping.converter.UtilDate2UtilCalendarODataAttributeConverter;
+
+/**
+ * Thread safe lookup of {@link ODataAttributeConverter converters}. For attributes of the meta model
+ * ({@link JPAConvertibleElement}) the converter is determined only once and kept on the attribute, so it is shared by
+ * all requests and released together with the service document. Negative results (no converter available) are kept
+ * also, so an attribute without conversion does cost only a field read.
+ * <p>
+ * Converters declared via {@link EdmAttributeConversion @EdmAttributeConversion} are instantiated only once per
+ * attribute of the meta model, so the implementation must be stateless.
+ *
+ */
+final class ODataAttributeConverterRegistry {
+
+  private static class ConverterMapping {
+
+    private final Class<?> odataAttributeType;
+    private final Class<?> jpaAttributeType;
+    private final boolean matchSubClasses4JPA;
+    private final ODataAttributeConverter<Object, Object> converterInstance;
+
+    @SuppressWarnings("unchecked")
+    ConverterMapping(final Class<?> odataAttributeType, final Class<?> jpaAttributeType,
+        final boolean matchSubClassesForJPA,
+        @SuppressWarnings("rawtypes") final ODataAttributeConverter converterInstance) {
+      this.odataAttributeType = odataAttributeType;
+      this.jpaAttributeType = jpaAttributeType;
+      this.matchSubClasses4JPA = matchSubClassesForJPA;
+      this.converterInstance = converterInstance;
+    }
+
+    ODataAttributeConverter<Object, Object> getConverterInstance() {
+      return converterInstance;
+    }
+
+    boolean isMatching(final Class<?> odataAttributeType, final Class<?> jpaAttributeType) {
+      if (!this.odataAttributeType.isAssignableFrom(odataAttributeType)) {
+        return false;
+      }
+      if (matchSubClasses4JPA) {
+        return this.jpaAttributeType.isAssignableFrom(jpaAttributeType);
+      } else {
+        return this.jpaAttributeType.equals(jpaAttributeType);
+      }
+    }
+  }
+
+  /**
+   * Marker for resolved negative results kept on the attribute, because <code>null</code> marks an unresolved
+   * attribute.
+   */
+  @SuppressWarnings("rawtypes")
+  private static final ODataAttributeConverter NO_CONVERTER = new EdmAttributeConversion.DEFAULT();
+
+  private static final Logger LOG = Logger.getLogger(ODataAttributeConverterRegistry.class.getName());
+
+  private static final Collection<ConverterMapping> DEFAULT_ODATA_ATTRIBUTE_CONVERTERS = new LinkedList<>();
+
+  static {
+    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.util.Calendar.class,
+        java.sql.Date.class, false,
+        new SqlDate2UtilCalendarODataAttributeConverter()));
+    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.util.Calendar.class,
+        java.sql.Time.class, false,
+        new SqlTime2UtilCalendarODataAttributeConverter()));
+    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.util.Calendar.class, java.util.Date.class,
+        false, new UtilDate2UtilCalendarODataAttributeConverter()));
+    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS
+    .add(new ConverterMapping(java.util.Calendar.class, java.time.LocalDate.class, true,
+        new LocalDate2UtilCalendarODataAttributeConverter()));
+    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.util.Calendar.class,
+        java.time.LocalTime.class, true, new LocalTime2UtilCalendarODataAttributeConverter()));
+    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.time.ZonedDateTime.class,
+        java.time.LocalDateTime.class, true, new LocalDateTime2ZonedDateTimeODataAttributeConverter()));
+    DEFAULT_ODATA_ATTRIBUTE_CONVERTERS.add(new ConverterMapping(java.sql.Timestamp.class,
+        java.time.LocalDateTime.class, true, new LocalDateTime2SqlTimestampODataAttributeConverter()));
+  }
+
+  private ODataAttributeConverterRegistry() {
+    // static access only
+  }
+
+  /**
+   *
+   * @return The converter declared via {@link EdmAttributeConversion @EdmAttributeConversion} or <code>null</code>.
+   */
+  static ODataAttributeConverter<Object, Object> determineCustomODataAttributeConverter(
+      final JPADescribedElement jpaElement) throws ODataJPAConversionException {
+    final EdmAttributeConversion annoConversionConfiguration = determineConversionAnnotation(jpaElement);
+    if (annoConversionConfiguration == null) {
+      return null;
+    }
+    if (!JPAConvertibleElement.class.isInstance(jpaElement)) {
+      return createCustomODataAttributeConverter(annoConversionConfiguration);
+    }
+    // the custom converter has precedence, so it's the converter kept on the attribute
+    final JPAConvertibleElement convertibleElement = (JPAConvertibleElement) jpaElement;
+    ODataAttributeConverter<Object, Object> converter = convertibleElement.getJPA2ODataConverter();
+    if (converter == null) {
+      converter = createCustomODataAttributeConverter(annoConversionConfiguration);
+      convertibleElement.setJPA2ODataConverter(converter);
+    }
+    return converter;
+  }
+
+  private static EdmAttributeConversion determineConversionAnnotation(final JPADescribedElement jpaElement) {
+    final AnnotatedElement annotatedElement = jpaElement.getAnnotatedElement();
+    if (annotatedElement == null) {
+      return null;
+    }
+    final EdmAttributeConversion annoConversionConfiguration = annotatedElement.getAnnotation(
+        EdmAttributeConversion.class);
+    if (annoConversionConfiguration == null || EdmAttributeConversion.DEFAULT.class.equals(
+        annoConversionConfiguration.converter())) {
+      return null;
+    }
+    return annoConversionConfiguration;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ODataAttributeConverter<Object, Object> createCustomODataAttributeConverter(
+      final EdmAttributeConversion annoConversionConfiguration) throws ODataJPAConversionException {
+    try {
+      return (ODataAttributeConverter<Object, Object>) annoConversionConfiguration.converter().newInstance();
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new ODataJPAConversionException(e, ODataJPAConversionException.MessageKeys.RUNTIME_PROBLEM, e.getMessage());
+    }
+  }
+
+  /**
+   *
+   * @return The built-in converter for the combination of types or <code>null</code>.
+   */
+  static ODataAttributeConverter<Object, Object> determineDefaultODataAttributeConverter(
+      final Class<?> jpaAttributeType,
+      final Class<?> odataAttributeType) {
+    if (jpaAttributeType == null || odataAttributeType == null) {
+      return null;
+    }
+    ODataAttributeConverter<Object, Object> converter = null;
+    for (final ConverterMapping mapping : DEFAULT_ODATA_ATTRIBUTE_CONVERTERS) {
+      if (!mapping.isMatching(odataAttributeType, jpaAttributeType)) {
+        continue;
+      }
+      if (converter != null) {
+        LOG.log(Level.WARNING, "Multiple default converters are matching for " + odataAttributeType.getSimpleName()
+            + "<->" + jpaAttributeType.getSimpleName() + ". Will NOT use any of them!");
+        return null;
+      }
+      converter = mapping.getConverterInstance();
+    }
+    return converter;
+  }
+
+  /**
+   *
+   * @return The converter to use for all values of the given attribute or <code>null</code> if the values are used 'as
+   * is'.
+   */
+  @SuppressWarnings("unchecked")
+  static ODataAttributeConverter<Object, Object> determineJPA2ODataConverter(final JPADescribedElement attribute)
+      throws ODataJPAConversionException, ODataJPAModelException {
+    if (!JPAConvertibleElement.class.isInstance(attribute)) {
+      // dynamic element, not part of the meta model
+      return createJPA2ODataConverter(attribute);
+    }
+    final JPAConvertibleElement convertibleElement = (JPAConvertibleElement) attribute;
+    final ODataAttributeConverter<Object, Object> converter = convertibleElement.getJPA2ODataConverter();
+    if (converter == null) {
+      // another thread may do the same, the result is equivalent
+      final ODataAttributeConverter<Object, Object> resolved = createJPA2ODataConverter(attribute);
+      convertibleElement.setJPA2ODataConverter(resolved != null ? resolved : NO_CONVERTER);
+      return resolved;
+    }
+    if (converter == NO_CONVERTER) {
+      return null;
+    }
+    return converter;
+  }
+
+  private static ODataAttributeConverter<Object, Object> createJPA2ODataConverter(final JPADescribedElement attribute)
+      throws ODataJPAConversionException, ODataJPAModelException {
+    final EdmAttributeConversion annoConversionConfiguration = determineConversionAnnotation(attribute);
+    if (annoConversionConfiguration != null) {
+      return createCustomODataAttributeConverter(annoConversionConfiguration);
+    }
+
+    final Class<?> javaType = attribute.getType();
+    final Class<?> oadataType;
+    if (javaType.isEnum()) {
+      oadataType = null;
+    } else {
+      // use a intermediate conversion to an supported JAVA type in the Olingo library
+      oadataType = TypeMapping.determineODataRepresentationtype(javaType, attribute.getAnnotatedElement());
+    }
+    if (javaType.equals(oadataType)) {
+      // use 'as is' without conversion
+      return null;
+    }
+    return determineDefaultODataAttributeConverter(javaType, oadataType);
+  }
+
+}
@@ -0,0 +1,80 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+
+/**
+ * Configuration of server-driven paging for entity collection requests. If a maximum page size is configured, the
+ * response will contain not more entities and a <code>@odata.nextLink</code> with an opaque <code>$skiptoken</code>
+ * to request the next page. Without configuration all entities are part of the response.
+ * <p>
+ * The <code>$skiptoken</code> contains the values of the last entity of the page, so the next page is selected via
+ * a keyset condition (<code>WHERE key &gt; ?</code>) instead of an growing offset. That is possible if the ordering
+ * is given only by the key attributes or by not nullable, selected properties. For all other cases (like
+ * <code>$orderby</code> on a navigation) the token will contain the offset of the next page.
+ *
+ */
+public class PagingConfiguration {
+
+  private final Map<Class<?>, Integer> entityPageSizes = new HashMap<>();
+  private int defaultMaxPageSize;
+
+  /**
+   * Create a configuration without paging for all entity sets not configured by
+   * {@link #setMaxPageSize(Class, Integer)}.
+   */
+  public PagingConfiguration() {
+    this(0);
+  }
+
+  public PagingConfiguration(final int defaultMaxPageSize) {
+    setDefaultMaxPageSize(defaultMaxPageSize);
+  }
+
+  /**
+   *
+   * @param defaultMaxPageSize The maximal number of entities in a response or 0 to disable the paging.
+   */
+  public void setDefaultMaxPageSize(final int defaultMaxPageSize) {
+    if (defaultMaxPageSize < 0) {
+      throw new IllegalArgumentException("Page size must not be negative");
+    }
+    this.defaultMaxPageSize = defaultMaxPageSize;
+  }
+
+  public int getDefaultMaxPageSize() {
+    return defaultMaxPageSize;
+  }
+
+  /**
+   *
+   * @param entityClass The JPA entity class of the entity set.
+   * @param maxPageSize The maximal number of entities in a response, 0 to disable the paging for that entities or
+   * <code>null</code> to use the {@link #getDefaultMaxPageSize() default page size}.
+   */
+  public void setMaxPageSize(final Class<?> entityClass, final Integer maxPageSize) {
+    if (maxPageSize == null) {
+      entityPageSizes.remove(entityClass);
+      return;
+    }
+    if (maxPageSize.intValue() < 0) {
+      throw new IllegalArgumentException("Page size must not be negative");
+    }
+    entityPageSizes.put(entityClass, maxPageSize);
+  }
+
+  /**
+   *
+   * @param entityType The type of entities in the requested collection.
+   * @return The maximal number of entities in a response or 0 if no paging is required.
+   */
+  public int getMaxPageSize(final JPAEntityType entityType) {
+    final Integer pageSize = entityPageSizes.get(entityType.getTypeClass());
+    if (pageSize != null) {
+      return pageSize.intValue();
+    }
+    return defaultMaxPageSize;
+  }
+}
@@ -0,0 +1,244 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Cache for entity queries, so a request with the same shape as an previous request (same resource path, $select,
+ * $orderby and $filter, but with other literal values in $filter) will reuse the already built and compiled query
+ * instead of building the JPA criteria query again. The cached queries are registered as named queries (see
+ * {@link EntityManagerFactory#addNamedQuery(String, javax.persistence.Query)}), so a JPA provider can reuse the
+ * prepared query including the SQL. Register one instance of this class as dependency value in the global context
+ * to share the cache between all requests:
+ * <p>
+ * <code>requestContext.getDependencyInjector().registerDependencyMapping(QueryPlanCache.class, cache);</code>
+ * <p>
+ * Queries for entity types having a {@link org.apache.olingo.jpa.metadata.core.edm.entity.DataAccessConditioner
+ * DataAccessConditioner} and queries with <code>$search</code> (the result depends on the state of the search
+ * provider) are never cached.
+ * <p>
+ * The cache is thread safe without a global lock: lookups are lock free, new queries are stored per shape. If the
+ * cache is full, the least recently used shape is evicted together with all queries of that shape.
+ *
+ */
+public class QueryPlanCache {
+
+  private static class Entry {
+    private final EntityManagerFactory emf;
+    private final String queryName;
+    private final int slot;
+    private final List<RequestShape.ParameterDefinition> parameters;
+    // set to false before the slot is reused for another query
+    private volatile boolean valid = true;
+
+    Entry(final EntityManagerFactory emf, final String queryName, final int slot,
+        final List<RequestShape.ParameterDefinition> parameters) {
+      this.emf = emf;
+      this.queryName = queryName;
+      this.slot = slot;
+      this.parameters = parameters;
+    }
+  }
+
+  /**
+   * All queries of one shape, differing only in the inlined literals.
+   */
+  private static class ShapeEntry {
+    /**
+     * The indexes of inlined literals
+     */
+    private final int[] inlinedLiteralIndexes;
+    private final Map<String, Entry> queries = new ConcurrentHashMap<>();
+    private volatile long lastAccess;
+
+    ShapeEntry(final int[] inlinedLiteralIndexes) {
+      this.inlinedLiteralIndexes = inlinedLiteralIndexes;
+    }
+  }
+
+  public static final int DEFAULT_MAX_ENTRIES = 500;
+
+  private static final Logger LOG = Logger.getLogger(QueryPlanCache.class.getName());
+  private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger(0);
+
+  private final int maxEntries;
+  private final String queryNamePrefix;
+  private final Map<String, ShapeEntry> shapes = new ConcurrentHashMap<>();
+  private final AtomicInteger numberOfEntries = new AtomicInteger(0);
+  private final AtomicLong accessCounter = new AtomicLong(0);
+  /**
+   * The names of evicted named queries are reused, because a named query cannot be removed from the entity manager
+   * factory.
+   */
+  private final Queue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger nextSlot = new AtomicInteger(0);
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicLong misses = new AtomicLong(0);
+
+  public QueryPlanCache() {
+    this(DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   *
+   * @param maxEntries The maximal number of cached queries, the least recently used shape is evicted from the cache.
+   */
+  public QueryPlanCache(final int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("At least one entry is required");
+    }
+    this.maxEntries = maxEntries;
+    this.queryNamePrefix = QueryPlanCache.class.getName() + "#" + INSTANCE_COUNTER.incrementAndGet() + "#";
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   *
+   * @return The number of requests served by a cached query.
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   *
+   * @return The number of requests requiring to build a new query.
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public int size() {
+    return numberOfEntries.get();
+  }
+
+  public void clear() {
+    for (final String shapeKey : shapes.keySet()) {
+      shapes.computeIfPresent(shapeKey, (k, shapeEntry) -> {
+        releaseQueries(shapeEntry);
+        return null;
+      });
+    }
+  }
+
+  /**
+   *
+   * @return The cached query with all parameters bound to the values of given request or <code>null</code> if no
+   * query is cached for the shape of request.
+   */
+  TypedQuery<Tuple> createQuery(final EntityManager em, final RequestShape shape) throws ODataApplicationException {
+    final ShapeEntry shapeEntry = shapes.get(shape.getShapeKey());
+    final Entry entry = shapeEntry == null ? null : shapeEntry.queries.get(shape.buildQueryKey(
+        shapeEntry.inlinedLiteralIndexes));
+    if (entry == null || entry.emf != em.getEntityManagerFactory()) {
+      misses.incrementAndGet();
+      return null;
+    }
+    shapeEntry.lastAccess = accessCounter.incrementAndGet();
+    final TypedQuery<Tuple> query = em.createNamedQuery(entry.queryName, Tuple.class);
+    if (!entry.valid) {
+      // evicted concurrently, the named query may be already replaced by another query
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    shape.bindParameters(query, entry.parameters);
+    return query;
+  }
+
+  /**
+   * Register a new built query (not yet limited by first and max results) for the given request.
+   */
+  void storeQuery(final EntityManager em, final RequestShape shape, final TypedQuery<Tuple> query) {
+    final int[] inlinedLiteralIndexes = shape.getInlinedLiteralIndexes();
+    final String queryKey = shape.buildQueryKey(inlinedLiteralIndexes);
+    final List<RequestShape.ParameterDefinition> parameters = new ArrayList<>(shape.getParameterDefinitions());
+    final EntityManagerFactory emf = em.getEntityManagerFactory();
+    shapes.compute(shape.getShapeKey(), (k, existingShape) -> {
+      final ShapeEntry shapeEntry = existingShape != null ? existingShape : new ShapeEntry(inlinedLiteralIndexes);
+      final Entry existing = shapeEntry.queries.get(queryKey);
+      final int slot;
+      if (existing != null) {
+        existing.valid = false;
+        slot = existing.slot;
+      } else {
+        final Integer freeSlot = freeSlots.poll();
+        slot = freeSlot != null ? freeSlot.intValue() : nextSlot.getAndIncrement();
+      }
+      final String queryName = queryNamePrefix + slot;
+      try {
+        emf.addNamedQuery(queryName, query);
+      } catch (final RuntimeException e) {
+        if (existing != null) {
+          shapeEntry.queries.remove(queryKey);
+          numberOfEntries.decrementAndGet();
+        }
+        freeSlots.add(Integer.valueOf(slot));
+        LOG.log(Level.WARNING, "Query cannot be cached by JPA provider", e);
+        return shapeEntry.queries.isEmpty() ? null : shapeEntry;
+      }
+      if (existing == null) {
+        numberOfEntries.incrementAndGet();
+      }
+      shapeEntry.queries.put(queryKey, new Entry(emf, queryName, slot, parameters));
+      shapeEntry.lastAccess = accessCounter.incrementAndGet();
+      return shapeEntry;
+    });
+    while (numberOfEntries.get() > maxEntries) {
+      if (!evictLeastRecentlyUsedShape()) {
+        break;
+      }
+    }
+  }
+
+  private boolean evictLeastRecentlyUsedShape() {
+    String eldestKey = null;
+    ShapeEntry eldest = null;
+    for (final Map.Entry<String, ShapeEntry> candidate : shapes.entrySet()) {
+      if (eldest == null || candidate.getValue().lastAccess < eldest.lastAccess) {
+        eldestKey = candidate.getKey();
+        eldest = candidate.getValue();
+      }
+    }
+    if (eldest == null) {
+      return false;
+    }
+    final ShapeEntry toEvict = eldest;
+    shapes.computeIfPresent(eldestKey, (k, shapeEntry) -> {
+      if (shapeEntry != toEvict) {
+        // replaced concurrently
+        return shapeEntry;
+      }
+      releaseQueries(shapeEntry);
+      return null;
+    });
+    return true;
+  }
+
+  private void releaseQueries(final ShapeEntry shapeEntry) {
+    for (final Entry entry : shapeEntry.queries.values()) {
+      entry.valid = false;
+      freeSlots.add(Integer.valueOf(entry.slot));
+      numberOfEntries.decrementAndGet();
+    }
+    shapeEntry.queries.clear();
+  }
+}
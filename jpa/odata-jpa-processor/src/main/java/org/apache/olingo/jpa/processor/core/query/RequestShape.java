@@ -0,0 +1,343 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.jpa.processor.core.filter.JPALiteralParameterBinding;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceComplexProperty;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceFunction;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAll;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAny;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * The normalized shape of an entity query request used as key for the {@link QueryPlanCache}. The shape contains
+ * the complete navigation (resource path, key predicates, $select, $orderby and $filter of all navigation
+ * steps), but the literals of $filter are replaced by placeholders. While building a new query the literals used as
+ * comparison values are lifted into query parameters, all other literals (like the pattern of <i>contains()</i>) are
+ * used as values and therefore the literal text becomes part of the {@link #buildQueryKey(int[]) query key}.
+ * <p>
+ * $top, $skip and $expand are not part of the shape, because there are not affecting the built criteria query. A
+ * request with $search is not cacheable.
+ *
+ */
+final class RequestShape implements JPALiteralParameterBinding {
+
+  /**
+   * Definition of a parameter lifted from a literal.
+   */
+  static final class ParameterDefinition {
+    private final String name;
+    private final int literalIndex;
+    private final LiteralConversion conversion;
+
+    private ParameterDefinition(final String name, final int literalIndex, final LiteralConversion conversion) {
+      this.name = name;
+      this.literalIndex = literalIndex;
+      this.conversion = conversion;
+    }
+  }
+
+  /**
+   * Render the expressions, assigning an index to every literal.
+   */
+  private class ShapeVisitor implements ExpressionVisitor<String> {
+
+    @Override
+    public String visitBinaryOperator(final BinaryOperatorKind operator, final String left, final String right)
+        throws ExpressionVisitException, ODataApplicationException {
+      return "(" + left + " " + operator.name() + " " + right + ")";
+    }
+
+    @Override
+    public String visitBinaryOperator(final BinaryOperatorKind operator, final String left, final List<String> right)
+        throws ExpressionVisitException, ODataApplicationException {
+      return "(" + left + " " + operator.name() + " " + right + ")";
+    }
+
+    @Override
+    public String visitUnaryOperator(final UnaryOperatorKind operator, final String operand)
+        throws ExpressionVisitException, ODataApplicationException {
+      return operator.name() + "(" + operand + ")";
+    }
+
+    @Override
+    public String visitMethodCall(final MethodKind methodCall, final List<String> parameters)
+        throws ExpressionVisitException, ODataApplicationException {
+      return methodCall.name() + parameters;
+    }
+
+    @Override
+    public String visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+        final org.apache.olingo.server.api.uri.queryoption.expression.Expression expression)
+            throws ExpressionVisitException, ODataApplicationException {
+      if (expression == null) {
+        return lambdaFunction + "()";
+      }
+      return lambdaFunction + "(" + lambdaVariable + ":" + expression.accept(this) + ")";
+    }
+
+    @Override
+    public String visitLiteral(final Literal literal) throws ExpressionVisitException, ODataApplicationException {
+      if (literal.getText() == null || "null".equalsIgnoreCase(literal.getText())) {
+        return "null";
+      }
+      literalIndexes.put(literal, Integer.valueOf(literals.size()));
+      literals.add(literal);
+      return "?" + renderType(literal.getType());
+    }
+
+    @Override
+    public String visitMember(final Member member) throws ExpressionVisitException, ODataApplicationException {
+      final StringBuilder buffer = new StringBuilder("[");
+      buffer.append(renderType(member.getStartTypeFilter()));
+      appendResourceParts(buffer, member.getResourcePath(), this);
+      buffer.append(']');
+      return buffer.toString();
+    }
+
+    @Override
+    public String visitAlias(final String aliasName) throws ExpressionVisitException, ODataApplicationException {
+      // the value of alias is not part of the expression
+      cacheable = false;
+      return "@" + aliasName;
+    }
+
+    @Override
+    public String visitTypeLiteral(final EdmType type) throws ExpressionVisitException, ODataApplicationException {
+      return renderType(type);
+    }
+
+    @Override
+    public String visitLambdaReference(final String variableName) throws ExpressionVisitException,
+    ODataApplicationException {
+      return variableName;
+    }
+
+    @Override
+    public String visitEnum(final EdmEnumType type, final List<String> enumValues) throws ExpressionVisitException,
+    ODataApplicationException {
+      return renderType(type) + enumValues;
+    }
+  }
+
+  private final CriteriaBuilder cb;
+  private final String shapeKey;
+  private final List<Literal> literals = new ArrayList<>();
+  private final Map<Literal, Integer> literalIndexes = new IdentityHashMap<>();
+  private final List<ParameterDefinition> parameters = new ArrayList<>();
+  private final SortedSet<Integer> inlinedLiterals = new TreeSet<>();
+  private boolean cacheable = true;
+
+  /**
+   *
+   * @param pagingShape The part of shape given by server-driven paging.
+   */
+  RequestShape(final CriteriaBuilder cb, final NavigationIfc navigation, final String pagingShape)
+      throws ExpressionVisitException, ODataApplicationException {
+    this.cb = cb;
+    final ShapeVisitor visitor = new ShapeVisitor();
+    final StringBuilder buffer = new StringBuilder();
+    for (final UriInfoResource step : navigation.getNavigationSteps()) {
+      buffer.append('{');
+      appendResourceParts(buffer, step, visitor);
+      appendQueryOptions(buffer, step, visitor);
+      buffer.append('}');
+    }
+    buffer.append(pagingShape);
+    this.shapeKey = buffer.toString();
+  }
+
+  private void appendResourceParts(final StringBuilder buffer, final UriInfoResource resource,
+      final ShapeVisitor visitor) throws ExpressionVisitException, ODataApplicationException {
+    if (resource == null) {
+      return;
+    }
+    for (final UriResource part : resource.getUriResourceParts()) {
+      buffer.append('/').append(part.getKind()).append(':').append(part.getSegmentValue());
+      if (part instanceof UriResourceEntitySet) {
+        final UriResourceEntitySet entitySet = (UriResourceEntitySet) part;
+        appendKeyPredicates(buffer, entitySet.getKeyPredicates());
+        buffer.append(renderType(entitySet.getTypeFilterOnCollection()));
+        buffer.append(renderType(entitySet.getTypeFilterOnEntry()));
+      } else if (part instanceof UriResourceNavigation) {
+        final UriResourceNavigation navigation = (UriResourceNavigation) part;
+        appendKeyPredicates(buffer, navigation.getKeyPredicates());
+        buffer.append(renderType(navigation.getTypeFilterOnCollection()));
+        buffer.append(renderType(navigation.getTypeFilterOnEntry()));
+      } else if (part instanceof UriResourceFunction) {
+        final UriResourceFunction function = (UriResourceFunction) part;
+        appendKeyPredicates(buffer, function.getParameters());
+        appendKeyPredicates(buffer, function.getKeyPredicates());
+      } else if (part instanceof UriResourceComplexProperty) {
+        buffer.append(renderType(((UriResourceComplexProperty) part).getComplexTypeFilter()));
+      } else if (part instanceof UriResourceLambdaAny) {
+        final UriResourceLambdaAny lambda = (UriResourceLambdaAny) part;
+        buffer.append(visitor.visitLambdaExpression("any", lambda.getLambdaVariable(), lambda.getExpression()));
+      } else if (part instanceof UriResourceLambdaAll) {
+        final UriResourceLambdaAll lambda = (UriResourceLambdaAll) part;
+        buffer.append(visitor.visitLambdaExpression("all", lambda.getLambdaVariable(), lambda.getExpression()));
+      }
+    }
+  }
+
+  /**
+   * Key predicates and function parameters are used as values, so the text is part of the shape.
+   */
+  private void appendKeyPredicates(final StringBuilder buffer, final List<UriParameter> keyPredicates) {
+    if (keyPredicates == null || keyPredicates.isEmpty()) {
+      return;
+    }
+    buffer.append('(');
+    for (final UriParameter keyPredicate : keyPredicates) {
+      if (keyPredicate.getText() == null) {
+        // alias or expression
+        cacheable = false;
+      }
+      buffer.append(keyPredicate.getName()).append('=').append(keyPredicate.getText()).append(',');
+    }
+    buffer.append(')');
+  }
+
+  private void appendQueryOptions(final StringBuilder buffer, final UriInfoResource step,
+      final ShapeVisitor visitor) throws ExpressionVisitException, ODataApplicationException {
+    final FilterOption filterOption = step.getFilterOption();
+    if (filterOption != null && filterOption.getExpression() != null) {
+      buffer.append("$filter=").append(filterOption.getExpression().accept(visitor));
+    }
+    final OrderByOption orderByOption = step.getOrderByOption();
+    if (orderByOption != null) {
+      buffer.append("$orderby=");
+      for (final OrderByItem item : orderByOption.getOrders()) {
+        buffer.append(item.getExpression().accept(visitor)).append(item.isDescending() ? " desc," : ",");
+      }
+    }
+    final SelectOption selectOption = step.getSelectOption();
+    if (selectOption != null) {
+      if (selectOption.getText() == null) {
+        cacheable = false;
+      }
+      buffer.append("$select=").append(selectOption.getText());
+    }
+    final SearchOption searchOption = step.getSearchOption();
+    if (searchOption != null) {
+      // the result depends on the state of the search provider (index) at execution time
+      cacheable = false;
+      buffer.append("$search=").append(searchOption.getText());
+    }
+  }
+
+  private static String renderType(final EdmType type) {
+    if (type == null) {
+      return "";
+    }
+    return type.getFullQualifiedName().getFullQualifiedNameAsString();
+  }
+
+  /**
+   *
+   * @return FALSE if the request contains elements not supported to create a shape.
+   */
+  boolean isCacheable() {
+    return cacheable;
+  }
+
+  String getShapeKey() {
+    return shapeKey;
+  }
+
+  /**
+   *
+   * @param inlinedLiteralIndexes The indexes of literals used as values in the query built for this shape.
+   * @return The key identifying the query for this request: the shape plus the text of all inlined literals.
+   */
+  String buildQueryKey(final int[] inlinedLiteralIndexes) {
+    final StringBuilder buffer = new StringBuilder(shapeKey);
+    for (final int index : inlinedLiteralIndexes) {
+      buffer.append('|').append(index).append('=').append(literals.get(index).getText());
+    }
+    return buffer.toString();
+  }
+
+  /**
+   *
+   * @return The indexes of literals {@link #markAsInlined(Literal) used as values} while building the query.
+   */
+  int[] getInlinedLiteralIndexes() {
+    final int[] indexes = new int[inlinedLiterals.size()];
+    int i = 0;
+    for (final Integer index : inlinedLiterals) {
+      indexes[i++] = index.intValue();
+    }
+    return indexes;
+  }
+
+  /**
+   *
+   * @return The parameters created while building the query.
+   */
+  List<ParameterDefinition> getParameterDefinitions() {
+    return Collections.unmodifiableList(parameters);
+  }
+
+  /**
+   * Bind the values of literals of this request to the parameters of query.
+   */
+  void bindParameters(final Query query, final List<ParameterDefinition> parameterDefinitions)
+      throws ODataApplicationException {
+    for (final ParameterDefinition definition : parameterDefinitions) {
+      query.setParameter(definition.name, definition.conversion.convert(literals.get(definition.literalIndex)));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Expression<Object> bindAsParameter(final Literal literal, final Object value,
+      final LiteralConversion conversion) {
+    final Integer index = literalIndexes.get(literal);
+    if (index == null) {
+      // literal created while processing, the text is already part of the shape
+      return null;
+    }
+    final Class<?> type = value instanceof Enum<?> ? ((Enum<?>) value).getDeclaringClass() : value.getClass();
+    final String name = "p" + parameters.size();
+    parameters.add(new ParameterDefinition(name, index.intValue(), conversion));
+    return (Expression<Object>) cb.parameter(type, name);
+  }
+
+  @Override
+  public void markAsInlined(final Literal literal) {
+    final Integer index = literalIndexes.get(literal);
+    if (index != null) {
+      inlinedLiterals.add(index);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.apache.olingo.jpa.processor.core.query;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -13,10 +14,13 @@ import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.commons.core.Decoder;
 import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmSearchable;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPASelector;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.api.JPAODataSearchProvider;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.queryoption.SearchOption;
@@ -86,6 +90,15 @@ class SearchSubQueryBuilder extends AbstractSubQueryBuilder {
       sTerm = Decoder.decode(sTerm);
       term = new SearchTermImpl(sTerm);
 
+      // EXISTS subselect needs only a marker select for existence
+      subQuery.select(getCriteriaBuilder().literal(Integer.valueOf(1)));
+
+      final Expression<Boolean> providerCondition = createSearchProviderCondition(scopeFrom, sTerm);
+      if (providerCondition != null) {
+        subQuery.where(combineAND(joinDummyFromCorrelation, providerCondition));
+        return subQuery;
+      }
+
       final List<Path<?>> columnList = new ArrayList<Path<?>>(searchableAttributes.size());
       for (final JPASelector searchableAttribute : searchableAttributes) {
         if (containsNavigationToOtherTable(searchableAttribute)) {
@@ -99,9 +112,6 @@ class SearchSubQueryBuilder extends AbstractSubQueryBuilder {
         columnList.add(path);
       }
 
-      // EXISTS subselect needs only a marker select for existence
-      subQuery.select(getCriteriaBuilder().literal(Integer.valueOf(1)));
-
       final Expression<Boolean> searchCondition = context.getDatabaseProcessor().createSearchExpression(term,
           columnList);
       if (searchCondition == null) {
@@ -117,6 +127,41 @@ class SearchSubQueryBuilder extends AbstractSubQueryBuilder {
     }
   }
 
+  /**
+   * Use the {@link JPAODataSearchProvider search provider} (if any) to determine the matching entities.
+   *
+   * @return The condition restricting the entities to the keys of matches or <code>null</code> if no search provider
+   * is able to handle the entity type.
+   * @throws ODataJPADBAdaptorException If the search term matches more entities than usable for the query.
+   */
+  private Expression<Boolean> createSearchProviderCondition(final From<?, ?> scopeFrom, final String searchTerm)
+      throws ODataApplicationException, ODataJPAModelException {
+    final JPAODataSearchProvider provider = context.getDatabaseProcessor().getSearchProvider();
+    if (provider == null) {
+      return null;
+    }
+    final JPAEntityType jpaEntityType = getOwningQueryBuilder().getQueryResultType();
+    final List<JPAMemberAttribute> keyAttributes = jpaEntityType.getKeyAttributes(false);
+    if (keyAttributes.size() != 1 || keyAttributes.get(0).isComplex()) {
+      return null;
+    }
+    final int maxKeys = context.getDatabaseProcessor().getMaxSearchProviderMatches();
+    final Collection<?> keys = provider.findMatchingKeys(getEntityManager(), jpaEntityType, searchTerm, maxKeys);
+    if (keys == null) {
+      return null;
+    }
+    if (keys.size() > maxKeys) {
+      throw new ODataJPADBAdaptorException(ODataJPADBAdaptorException.MessageKeys.SEARCH_TOO_MANY_MATCHES,
+          HttpStatusCode.BAD_REQUEST, searchTerm, Integer.toString(maxKeys));
+    }
+    final List<Expression<?>> values = new ArrayList<>(keys.size());
+    for (final Object key : keys) {
+      values.add(getCriteriaBuilder().literal(key));
+    }
+    final Path<?> keyPath = scopeFrom.get(keyAttributes.get(0).getInternalName());
+    return context.getDatabaseProcessor().createInComparison(keyPath, values);
+  }
+
   /**
    *
    * @return TRUE if any path element is uses a navigation to another table (like
@@ -0,0 +1,26 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+/**
+ * Configuration to select the processing of (large) entity collection results. Register the mode as dependency value
+ * in the global context (for all requests) or in the request context (for a single request) to change the default
+ * behaviour:
+ * <p>
+ * <code>requestContext.getDependencyInjector().registerDependencyMapping(StreamingMode.class, StreamingMode.Streamed);</code>
+ *
+ */
+public enum StreamingMode {
+  /**
+   * The default mode: The complete query result is loaded, converted into an entity collection and serialized into
+   * a buffer before the response is written.
+   */
+  Buffered,
+  /**
+   * The query result is read row by row (as far as supported by the JPA provider via
+   * {@link javax.persistence.TypedQuery#getResultStream()}), every row is converted into an entity on demand and
+   * written directly to the response output. Requests with $expand or $count=true must still load the complete
+   * result of the entity set before the response is written.
+   * <p>
+   * <b>Attention:</b> Errors occurring while writing the response cannot change the already sent response status.
+   */
+  Streamed;
+}
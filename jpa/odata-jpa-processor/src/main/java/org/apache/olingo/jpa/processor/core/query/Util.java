@@ -1,5 +1,6 @@
 package org.apache.olingo.jpa.processor.core.query;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -12,6 +13,8 @@ import org.apache.olingo.commons.api.edm.EdmBindingTarget;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.commons.core.Decoder;
+import org.apache.olingo.commons.core.Encoder;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
@@ -22,8 +25,10 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.IntermediateServiceDocument;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.JPAElementCollectionPathImpl;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAUtilException;
 import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriResource;
 import org.apache.olingo.server.api.uri.UriResourceAction;
@@ -477,7 +482,7 @@ public class Util {
   /**
    *
    * @param uriInfo
-   * @return TRUE if uri contains a $apply=aggregate(...) expression
+   * @return TRUE if uri contains a $apply=aggregate(...) or $apply=groupby(...) expression
    */
   public static boolean hasApplyAggregateOption(final UriInfoResource uriInfo) {
     final ApplyOption applyOption = uriInfo.getApplyOption();
@@ -485,10 +490,63 @@ public class Util {
       return false;
     }
     for (final ApplyItem item : applyOption.getApplyItems()) {
-      if (item.getKind() == Kind.AGGREGATE) {
+      if (item.getKind() == Kind.AGGREGATE || item.getKind() == Kind.GROUP_BY) {
         return true;
       }
     }
     return false;
   }
+
+  /**
+   * Build the <code>@odata.nextLink</code> for server-driven paging from the original request URL: the options
+   * <code>$skip</code> and <code>$top</code> are replaced by the given <code>$skiptoken</code>, all other options are
+   * kept.
+   *
+   * @param request The request for the current page.
+   * @param skipToken The (URL safe) token for the next page.
+   * @return The absolute URI of the next page.
+   */
+  public static URI buildNextLink(final ODataRequest request, final String skipToken) {
+    final StringBuilder link = new StringBuilder();
+    link.append(request.getRawBaseUri());
+    link.append(request.getRawODataPath());
+    link.append('?');
+    final String rawQuery = request.getRawQueryPath();
+    if (rawQuery != null && !rawQuery.isEmpty()) {
+      for (final String option : rawQuery.split("&")) {
+        if (option.isEmpty()) {
+          continue;
+        }
+        final int pos = option.indexOf('=');
+        final String name = Decoder.decode(pos < 0 ? option : option.substring(0, pos));
+        if ("$skip".equals(name) || "$top".equals(name) || "$skiptoken".equals(name)) {
+          continue;
+        }
+        // the raw query may be encoded or not (depending on the servlet container), so normalize the encoding
+        link.append(Encoder.encode(name));
+        if (pos > -1) {
+          link.append('=');
+          link.append(Encoder.encode(Decoder.decode(option.substring(pos + 1))));
+        }
+        link.append('&');
+      }
+    }
+    link.append("$skiptoken=");
+    link.append(Encoder.encode(skipToken));
+    return URI.create(link.toString());
+  }
+
+  /**
+   * The count of an entity collection is limited by Olingo to the range of an integer.
+   *
+   * @return The count as integer.
+   * @throws ODataJPAQueryException If the count is not in the range of an integer.
+   */
+  public static Integer convertCount(final long count) throws ODataJPAQueryException {
+    if (count < 0 || count > Integer.MAX_VALUE) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_COUNT_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, Long.toString(count));
+    }
+    return Integer.valueOf((int) count);
+  }
 }
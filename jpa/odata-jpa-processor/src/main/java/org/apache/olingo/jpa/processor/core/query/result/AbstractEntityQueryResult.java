@@ -64,14 +64,14 @@ public abstract class AbstractEntityQueryResult {
     return jpaEntityType;
   }
 
-  static Map<String, List<Tuple>> convertResult(final List<Tuple> expandResult,
+  static Map<NavigationKey, List<Tuple>> convertResult(final List<Tuple> expandResult,
       final NavigationKeyBuilder keyBuilder) {
 
     List<Tuple> subResult;
-    final Map<String, List<Tuple>> convertedResult = new HashMap<String, List<Tuple>>();
+    final Map<NavigationKey, List<Tuple>> convertedResult = new HashMap<NavigationKey, List<Tuple>>();
     for (final Tuple row : expandResult) {
       // build key using the key columns from owning entity to assign to that entity instances
-      final String actualKey = keyBuilder.buildKeyForNavigationTargetRow(row);
+      final NavigationKey actualKey = keyBuilder.buildKeyForNavigationTargetRow(row);
       subResult = convertedResult.get(actualKey);
       if (subResult == null) {
         subResult = new LinkedList<Tuple>();
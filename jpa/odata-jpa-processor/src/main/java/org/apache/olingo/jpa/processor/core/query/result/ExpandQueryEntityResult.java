@@ -17,7 +17,7 @@ import org.apache.olingo.server.api.ODataApplicationException;
 public final class ExpandQueryEntityResult extends AbstractEntityQueryResult {
 
   private final JPAAssociationPath navigationPath;
-  private final Map<String, List<Tuple>> resultValues;
+  private final Map<NavigationKey, List<Tuple>> resultValues;
   private final NavigationKeyBuilder resultNavigationKeyBuilder;
 
   public ExpandQueryEntityResult(final JPAAssociationPath navigationPath, final QueryEntityResult expandResult,
@@ -41,7 +41,7 @@ public final class ExpandQueryEntityResult extends AbstractEntityQueryResult {
    * @see NavigationKeyBuilder#buildKeyForNavigationTargetRow(Tuple)
    * @see getResultNavigationKeyPath()
    */
-  public List<Tuple> getAssociationResult(final String owningEntityKey) {
+  public List<Tuple> getAssociationResult(final NavigationKey owningEntityKey) {
     return resultValues.get(owningEntityKey);
   }
 
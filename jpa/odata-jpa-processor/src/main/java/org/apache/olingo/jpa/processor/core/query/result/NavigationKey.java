@@ -0,0 +1,81 @@
+package org.apache.olingo.jpa.processor.core.query.result;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Composite key built from the key column values of a row to assign the rows of an navigation target (like $expand
+ * or @ElementCollection) to the owning entity row. The values are compared with their type (a number is not equal to
+ * a string), but integral numbers are normalized, so a foreign key of type {@link Integer} matches the {@link Long} key
+ * of the target. The hash is computed only once.
+ *
+ * @see NavigationKeyBuilder#buildKeyForNavigationOwningRow(javax.persistence.Tuple)
+ * @see NavigationKeyBuilder#buildKeyForNavigationTargetRow(javax.persistence.Tuple)
+ */
+public final class NavigationKey {
+
+  private final Object[] values;
+  private final int hash;
+
+  NavigationKey(final Object[] values) {
+    for (int i = 0; i < values.length; i++) {
+      values[i] = normalize(values[i]);
+    }
+    this.values = values;
+    this.hash = Arrays.deepHashCode(values);
+  }
+
+  /**
+   *
+   * @return A {@link Long} for every integral number in the range of long, a {@link BigDecimal} without trailing zeros
+   * for other big numbers or the unchanged value.
+   */
+  private static Object normalize(final Object value) {
+    if (value instanceof Long) {
+      return value;
+    }
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return Long.valueOf(((Number) value).longValue());
+    }
+    if (value instanceof BigInteger) {
+      final BigInteger number = (BigInteger) value;
+      return number.bitLength() < Long.SIZE ? Long.valueOf(number.longValue()) : new BigDecimal(number)
+          .stripTrailingZeros();
+    }
+    if (value instanceof BigDecimal) {
+      final BigDecimal number = ((BigDecimal) value).stripTrailingZeros();
+      if (number.scale() <= 0 && number.precision() - number.scale() <= 19) {
+        try {
+          return Long.valueOf(number.longValueExact());
+        } catch (final ArithmeticException e) {
+          // out of the range of long
+        }
+      }
+      return number;
+    }
+    return value;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof NavigationKey)) {
+      return false;
+    }
+    final NavigationKey other = (NavigationKey) obj;
+    return hash == other.hash && Arrays.deepEquals(values, other.values);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.deepToString(values);
+  }
+}
@@ -1,8 +1,10 @@
 package org.apache.olingo.jpa.processor.core.query.result;
 
+import java.util.Arrays;
 import java.util.List;
 
 import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
 
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPANavigationPath;
@@ -17,12 +19,80 @@ import org.apache.olingo.jpa.processor.core.query.Util;
  */
 public final class NavigationKeyBuilder {
 
+  /**
+   * Helper to read the key values from rows (of the same query) via the tuple positions, resolved only once for the
+   * aliases.
+   */
+  private static final class TupleKeyExtractor {
+
+    private final String[] aliases;
+    private List<TupleElement<?>> resolvedElements = null;
+    private int[] resolvedPositions = null;
+
+    TupleKeyExtractor(final String[] aliases) {
+      this.aliases = aliases;
+    }
+
+    NavigationKey extractKey(final Tuple row) {
+      final int[] positions = resolvePositions(row);
+      final Object[] values = new Object[positions.length];
+      for (int i = 0; i < positions.length; i++) {
+        values[i] = row.get(positions[i]);
+      }
+      return new NavigationKey(values);
+    }
+
+    private int[] resolvePositions(final Tuple row) {
+      final List<TupleElement<?>> elements = row.getElements();
+      if (elements == resolvedElements || isMatchingResolvedPositions(elements)) {
+        return resolvedPositions;
+      }
+      final int[] positions = new int[aliases.length];
+      for (int i = 0; i < aliases.length; i++) {
+        positions[i] = determinePosition(elements, aliases[i]);
+      }
+      resolvedElements = elements;
+      resolvedPositions = positions;
+      return positions;
+    }
+
+    /**
+     * Rows of the same query may have different element list instances, but the same layout.
+     */
+    private boolean isMatchingResolvedPositions(final List<TupleElement<?>> elements) {
+      if (resolvedPositions == null) {
+        return false;
+      }
+      for (int i = 0; i < aliases.length; i++) {
+        if (resolvedPositions[i] >= elements.size() || !aliases[i].equals(elements.get(resolvedPositions[i])
+            .getAlias())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static int determinePosition(final List<TupleElement<?>> elements, final String alias) {
+      int index = 0;
+      for (final TupleElement<?> element : elements) {
+        if (alias.equals(element.getAlias())) {
+          return index;
+        }
+        index++;
+      }
+      throw new IllegalArgumentException("Key column '" + alias + "' not part of result");
+    }
+  }
+
   private final NavigationKeyBuilder parent;
   private final List<JPASelector> navigationKeyPaths;
   private final JPANavigationPath navigationPath;
   private final String targetLabel;
   private final JPAStructuredType jpaNavigationTargetType;
   private final int level;
+  private final String[] targetRowKeyAliases;
+  private final TupleKeyExtractor owningRowKeyExtractor;
+  private final TupleKeyExtractor targetRowKeyExtractor;
 
   /**
    *
@@ -71,6 +141,20 @@ public final class NavigationKeyBuilder {
     } else {
       this.targetLabel = jpaNavigationTargetType.getExternalName();
     }
+    // all aliases are built only once, including the keys of parent navigation
+    final String aliasPrefix = getNavigationAliasPrefix();
+    final String[] parentAliases = parent != null ? parent.targetRowKeyAliases : new String[0];
+    final String[] owningAliases = Arrays.copyOf(parentAliases, parentAliases.length + navigationKeyPaths.size());
+    targetRowKeyAliases = Arrays.copyOf(parentAliases, parentAliases.length + navigationKeyPaths.size());
+    int index = parentAliases.length;
+    for (final JPASelector jpaPath : navigationKeyPaths) {
+      // no alias prefix for owning row, because is the direct name from selection query of entity
+      owningAliases[index] = jpaPath.getAlias();
+      targetRowKeyAliases[index] = aliasPrefix.concat(jpaPath.getAlias());
+      index++;
+    }
+    owningRowKeyExtractor = new TupleKeyExtractor(owningAliases);
+    targetRowKeyExtractor = new TupleKeyExtractor(targetRowKeyAliases);
   }
 
   public NavigationKeyBuilder buildChildNavigation(final JPANavigationPath navigationPath,
@@ -114,25 +198,9 @@ public final class NavigationKeyBuilder {
    *
    * @param row The owning entity/type row stored in a parent {@link AbstractEntityQueryResult}.
    */
-  public String buildKeyForNavigationOwningRow(final Tuple row) {
-    final StringBuilder buffer = new StringBuilder();
-    if (parent != null) {
-      // for the parent we are an 'target' and have to use the key selection join with alias
-      buffer.append(parent.buildKeyForNavigationTargetRow(row));
-      buffer.append(JPASelector.PATH_SEPERATOR);
-    }
-    boolean first = true;
-    for (final JPASelector jpaPath : navigationKeyPaths) {
-      if (!first) {
-        buffer.append('|');
-      }
-      // no alias prefix here, because is the direct name from selection query of entity
-      final String alias = jpaPath.getAlias();
-      final Object keyValue = row.get(alias);
-      buffer.append(keyValue);
-      first = false;
-    }
-    return buffer.toString();
+  public NavigationKey buildKeyForNavigationOwningRow(final Tuple row) {
+    // for the parent we are an 'target' and have to use the key selection join with alias
+    return owningRowKeyExtractor.extractKey(row);
   }
 
   /**
@@ -140,24 +208,8 @@ public final class NavigationKeyBuilder {
    *
    * @param row The Child row stored as target (result) of an navigation.
    */
-  public String buildKeyForNavigationTargetRow(final Tuple row) {
-    final String aliasPrefix = (getNavigationAliasPrefix() != null) ? getNavigationAliasPrefix() : "";
-    final StringBuilder buffer = new StringBuilder();
-    if (parent != null) {
-      buffer.append(parent.buildKeyForNavigationTargetRow(row));
-      buffer.append(JPASelector.PATH_SEPERATOR);
-    }
-    boolean first = true;
-    for (final JPASelector jpaPath : navigationKeyPaths) {
-      if (!first) {
-        buffer.append('|');
-      }
-      final String alias = aliasPrefix.concat(jpaPath.getAlias());
-      final Object keyValue = row.get(alias);
-      buffer.append(keyValue);
-      first = false;
-    }
-    return buffer.toString();
+  public NavigationKey buildKeyForNavigationTargetRow(final Tuple row) {
+    return targetRowKeyExtractor.extractKey(row);
   }
 
   /**
@@ -11,7 +11,7 @@ import javax.persistence.Tuple;
  */
 public final class QueryElementCollectionResult {
 
-  private final Map<String, List<Tuple>> resultValues;
+  private final Map<NavigationKey, List<Tuple>> resultValues;
   private final NavigationKeyBuilder resultNavigationKeyBuilder;
 
   /**
@@ -30,7 +30,7 @@ public final class QueryElementCollectionResult {
     return resultNavigationKeyBuilder;
   }
 
-  public List<Tuple> getDirectMappingsResult(final String owningEntityKey) {
+  public List<Tuple> getDirectMappingsResult(final NavigationKey owningEntityKey) {
     return resultValues.get(owningEntityKey);
   }
 
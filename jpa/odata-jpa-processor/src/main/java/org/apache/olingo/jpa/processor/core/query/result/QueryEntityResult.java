@@ -3,6 +3,8 @@ package org.apache.olingo.jpa.processor.core.query.result;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.persistence.Tuple;
 
@@ -17,8 +19,11 @@ import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
  */
 public final class QueryEntityResult extends AbstractEntityQueryResult {
 
-  private final List<Tuple> resultValues;
+  private List<Tuple> resultValues;
+  private Stream<Tuple> pendingResultValues = null;
   private final Collection<String> requestedResultAttributes;
+  private String nextPageSkipToken = null;
+  private Long totalCount = null;
 
   public QueryEntityResult(final List<Tuple> result, final JPAEntityType jpaEntityType) {
     this(result, null, jpaEntityType);
@@ -39,6 +44,23 @@ public final class QueryEntityResult extends AbstractEntityQueryResult {
         .emptyList();
   }
 
+  /**
+   * Create a result not yet loaded from database. The rows are fetched on first access.
+   *
+   * @param result The stream of rows, will be closed after consumption.
+   * @see #QueryEntityResult(List, Collection, JPAEntityType)
+   * @see #getQueryResultStream()
+   */
+  public QueryEntityResult(final Stream<Tuple> result, final Collection<String> requestedResultAttributes,
+      final JPAEntityType jpaEntityType) {
+    super(jpaEntityType);
+    assert result != null;
+    this.resultValues = null;
+    this.pendingResultValues = result;
+    this.requestedResultAttributes = requestedResultAttributes != null ? requestedResultAttributes : Collections
+        .emptyList();
+  }
+
   /**
    * The {@linkplain #getResultNavigationKeyPath()} is used to order all tuples by the key build with that builder.
    *
@@ -46,9 +68,37 @@ public final class QueryEntityResult extends AbstractEntityQueryResult {
    * @see getResultNavigationKeyPath()
    */
   public List<Tuple> getQueryResult() {
+    if (resultValues == null) {
+      try (Stream<Tuple> stream = takePendingResultValues()) {
+        resultValues = stream.collect(Collectors.toList());
+      }
+    }
     return resultValues;
   }
 
+  /**
+   * Access the rows without loading the complete result into memory, if the result was created from a stream and
+   * not already loaded. In that case the stream can be consumed only once and the caller is responsible to close the
+   * stream.
+   *
+   * @see #getQueryResult()
+   */
+  public Stream<Tuple> getQueryResultStream() {
+    if (resultValues != null) {
+      return resultValues.stream();
+    }
+    return takePendingResultValues();
+  }
+
+  private Stream<Tuple> takePendingResultValues() {
+    if (pendingResultValues == null) {
+      throw new IllegalStateException("Query result stream is already consumed");
+    }
+    final Stream<Tuple> stream = pendingResultValues;
+    pendingResultValues = null;
+    return stream;
+  }
+
   /**
    *
    * @return List with requested attribute (DB alias) names or empty for no hint.
@@ -57,4 +107,31 @@ public final class QueryEntityResult extends AbstractEntityQueryResult {
     return requestedResultAttributes;
   }
 
+  public void setNextPageSkipToken(final String nextPageSkipToken) {
+    this.nextPageSkipToken = nextPageSkipToken;
+  }
+
+  /**
+   *
+   * @return The <code>$skiptoken</code> to request the next page of server-driven paging or <code>null</code> if the
+   * result is complete.
+   * @see org.apache.olingo.jpa.processor.core.query.PagingConfiguration
+   */
+  public String getNextPageSkipToken() {
+    return nextPageSkipToken;
+  }
+
+  public void setTotalCount(final Long totalCount) {
+    this.totalCount = totalCount;
+  }
+
+  /**
+   *
+   * @return The number of all entities matching the request (ignoring $top, $skip and server-driven paging) or
+   * <code>null</code> if not determined. In that case the complete result is the total.
+   */
+  public Long getTotalCount() {
+    return totalCount;
+  }
+
 }
@@ -0,0 +1,162 @@
+package org.apache.olingo.jpa.processor.core.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+import javax.persistence.Table;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.core.api.JPAODataSearchProvider;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Base class for search providers using the native full-text features of a database. The keys of matching rows are
+ * selected by a native SQL query using the full-text index of the table.
+ * <p>
+ * The full-text index must be created by the database administrator.
+ */
+public abstract class AbstractNativeSearchProvider implements JPAODataSearchProvider {
+
+  /**
+   * The (unquoted) identifiers of table for an entity type.
+   */
+  protected static final class TableName {
+    private final String schema;
+    private final String table;
+
+    TableName(final String schema, final String table) {
+      this.schema = schema;
+      this.table = table;
+    }
+
+    /**
+     *
+     * @return The schema or <code>null</code> if not defined.
+     */
+    public String getSchema() {
+      return schema;
+    }
+
+    public String getTable() {
+      return table;
+    }
+  }
+
+  @Override
+  public Collection<?> findMatchingKeys(final EntityManager em, final JPAEntityType entityType,
+      final String searchTerm, final int maxKeys) throws ODataApplicationException {
+    try {
+      final TableName tableName = determineTableName(entityType.getTypeClass());
+      if (tableName == null) {
+        return null;
+      }
+      final JPAMemberAttribute keyAttribute = entityType.getKeyAttributes(false).get(0);
+      final Query query = createKeyQuery(em, tableName, keyAttribute, searchTerm);
+      if (query == null) {
+        return null;
+      }
+      // one more to detect too many matches
+      query.setMaxResults(maxKeys + 1);
+      final List<?> rows = query.getResultList();
+      final List<Object> keys = new ArrayList<>(rows.size());
+      for (final Object row : rows) {
+        addKeyValues(keys, row, keyAttribute);
+      }
+      return keys;
+    } catch (final ODataJPAModelException | PersistenceException e) {
+      throw new ODataJPADBAdaptorException(ODataJPADBAdaptorException.MessageKeys.NOT_SUPPORTED_SEARCH,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   *
+   * @param tableName The table of entity type.
+   * @param keyAttribute The single key attribute of entity type.
+   * @param searchTerm The search term given by client.
+   * @return The native query selecting the keys of matching rows or <code>null</code> if the table is not supported.
+   */
+  protected abstract Query createKeyQuery(EntityManager em, TableName tableName, JPAMemberAttribute keyAttribute,
+      String searchTerm);
+
+  /**
+   * Add the key value(s) of a result row of {@link #createKeyQuery(EntityManager, TableName, JPAMemberAttribute, String)
+   * key query}. The default implementation converts a single value or an array of values into the type of key
+   * attribute.
+   */
+  protected void addKeyValues(final List<Object> keys, final Object row, final JPAMemberAttribute keyAttribute)
+      throws ODataApplicationException {
+    if (row instanceof Object[]) {
+      for (final Object value : (Object[]) row) {
+        keys.add(convertKeyValue(value, keyAttribute));
+      }
+    } else {
+      keys.add(convertKeyValue(row, keyAttribute));
+    }
+  }
+
+  private Object convertKeyValue(final Object value, final JPAMemberAttribute keyAttribute)
+      throws ODataApplicationException {
+    final Class<?> keyType = keyAttribute.getType();
+    if (value == null || keyType.isInstance(value)) {
+      return value;
+    }
+    try {
+      final EdmPrimitiveTypeKind kind = EdmPrimitiveTypeKind.valueOfFQN(keyAttribute.getProperty().getTypeAsFQNObject());
+      final EdmPrimitiveType edmType = EdmPrimitiveTypeFactory.getInstance(kind);
+      return edmType.valueOfString(value.toString(), Boolean.TRUE, null, null, null, Boolean.TRUE, keyType);
+    } catch (final EdmPrimitiveTypeException | IllegalArgumentException e) {
+      throw new ODataJPADBAdaptorException(ODataJPADBAdaptorException.MessageKeys.PARAMETER_CONVERSION_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   *
+   * @return The table name declared by {@link Table @Table} of the entity class or a super class or
+   * <code>null</code> if not declared.
+   */
+  protected TableName determineTableName(final Class<?> entityClass) {
+    for (Class<?> clazz = entityClass; clazz != null; clazz = clazz.getSuperclass()) {
+      final Table table = clazz.getAnnotation(Table.class);
+      if (table != null && !table.name().isEmpty()) {
+        final String schema = table.schema().isEmpty() ? null : normalizeIdentifier(table.schema());
+        return new TableName(schema, normalizeIdentifier(table.name()));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Convert an identifier as given by JPA mapping into the (unquoted) form as stored by the database: quoted
+   * identifiers are used 'as is', unquoted identifiers are converted into upper case.
+   */
+  protected String normalizeIdentifier(final String identifier) {
+    if (identifier.length() > 1 && identifier.startsWith("\"") && identifier.endsWith("\"")) {
+      return identifier.substring(1, identifier.length() - 1);
+    }
+    return identifier.toUpperCase(Locale.ENGLISH);
+  }
+
+  /**
+   *
+   * @return The identifier as quoted identifier for SQL.
+   */
+  protected static String quoteIdentifier(final String identifier) {
+    return "\"" + identifier.replace("\"", "\"\"") + "\"";
+  }
+
+}
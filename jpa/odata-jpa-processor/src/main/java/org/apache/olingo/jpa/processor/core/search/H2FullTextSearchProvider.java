@@ -0,0 +1,33 @@
+package org.apache.olingo.jpa.processor.core.search;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
+
+/**
+ * Search provider using the native full-text search of H2 (<code>org.h2.fulltext.FullText</code>). The full-text
+ * index for a table must be created before:
+ *
+ * <pre>
+ * CREATE ALIAS IF NOT EXISTS FT_INIT FOR "org.h2.fulltext.FullText.init";
+ * CALL FT_INIT();
+ * CALL FT_CREATE_INDEX('MYSCHEMA', 'MYTABLE', NULL);
+ * </pre>
+ *
+ * The search is done for complete words (case insensitive), tables without full-text index will have no matches.
+ */
+public class H2FullTextSearchProvider extends AbstractNativeSearchProvider {
+
+  @Override
+  protected Query createKeyQuery(final EntityManager em, final TableName tableName,
+      final JPAMemberAttribute keyAttribute, final String searchTerm) {
+    final Query query = em.createNativeQuery(
+        "SELECT ARRAY_GET(\"KEYS\", 1) FROM FT_SEARCH_DATA(?1, 0, 0) WHERE \"SCHEMA\" = ?2 AND \"TABLE\" = ?3");
+    query.setParameter(1, searchTerm);
+    query.setParameter(2, tableName.getSchema() != null ? tableName.getSchema() : "PUBLIC");
+    query.setParameter(3, tableName.getTable());
+    return query;
+  }
+
+}
@@ -0,0 +1,30 @@
+package org.apache.olingo.jpa.processor.core.search;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
+
+/**
+ * Search provider using the native full-text search of SAP HANA via the <code>CONTAINS()</code> predicate over all
+ * columns having a full-text index.
+ */
+public class HANAFullTextSearchProvider extends AbstractNativeSearchProvider {
+
+  @Override
+  protected Query createKeyQuery(final EntityManager em, final TableName tableName,
+      final JPAMemberAttribute keyAttribute, final String searchTerm) {
+    final StringBuilder sql = new StringBuilder("SELECT ");
+    sql.append(quoteIdentifier(normalizeIdentifier(keyAttribute.getDBFieldName())));
+    sql.append(" FROM ");
+    if (tableName.getSchema() != null) {
+      sql.append(quoteIdentifier(tableName.getSchema())).append('.');
+    }
+    sql.append(quoteIdentifier(tableName.getTable()));
+    sql.append(" WHERE CONTAINS(*, ?1)");
+    final Query query = em.createNativeQuery(sql.toString());
+    query.setParameter(1, searchTerm);
+    return query;
+  }
+
+}
@@ -0,0 +1,334 @@
+package org.apache.olingo.jpa.processor.core.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPASelector;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.core.api.JPAODataSearchProvider;
+import org.apache.olingo.jpa.processor.core.mapping.JPATransactionSynchronization;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Search provider using an embedded inverted index held in memory and persisted on disk (one snapshot and one journal
+ * file per entity type). The index contains the words of all searchable attributes (all simple attributes if no
+ * attribute is marked with {@link org.apache.olingo.jpa.metadata.core.edm.annotation.EdmSearchable @EdmSearchable}).
+ * Every word of the search term must match a word (or the beginning of a word) of an entity, case insensitive. The
+ * provider is intended for tables with a moderate number of rows, for large tables use the full-text features of the
+ * database (like {@link H2FullTextSearchProvider}).
+ * <p>
+ * Only entity types registered via {@link #indexEntityType(JPAEntityType)} are handled by the provider, for all
+ * other entity types the default search is used. The index is kept in sync by the {@link SearchIndexEntityListener}
+ * that must be configured as entity listener for the indexed entities (in <i>orm.xml</i> or via
+ * {@link javax.persistence.EntityListeners @EntityListeners}). Changes done outside of JPA require a
+ * {@link #rebuild(EntityManager, JPAEntityType) rebuild} of the index.
+ */
+public class IndexSearchProvider implements JPAODataSearchProvider, Closeable {
+
+  private static class IndexedType {
+    private final List<JPASelector> searchablePaths;
+    private final JPAMemberAttribute keyAttribute;
+    private final InvertedIndex index;
+
+    IndexedType(final List<JPASelector> searchablePaths, final JPAMemberAttribute keyAttribute,
+        final InvertedIndex index) {
+      this.searchablePaths = searchablePaths;
+      this.keyAttribute = keyAttribute;
+      this.index = index;
+    }
+  }
+
+  /**
+   * Converts the key values using the OData representation of the key attribute.
+   */
+  private static class EdmKeyCodec implements InvertedIndex.KeyCodec {
+    private final EdmPrimitiveType edmType;
+    private final Class<?> keyType;
+    private final Integer precision;
+
+    EdmKeyCodec(final JPAMemberAttribute keyAttribute) throws ODataJPAModelException {
+      final EdmPrimitiveTypeKind kind = EdmPrimitiveTypeKind.valueOfFQN(keyAttribute.getProperty()
+          .getTypeAsFQNObject());
+      this.edmType = EdmPrimitiveTypeFactory.getInstance(kind);
+      this.keyType = keyAttribute.getType();
+      // the precision of decimals is not limited, but of fractional seconds
+      this.precision = kind == EdmPrimitiveTypeKind.Decimal ? null : Integer.valueOf(12);
+    }
+
+    @Override
+    public String encode(final Object key) throws IOException {
+      try {
+        return edmType.valueToString(key, Boolean.FALSE, null, precision, VARIABLE_SCALE, Boolean.TRUE);
+      } catch (final EdmPrimitiveTypeException e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public Object decode(final String text) throws IOException {
+      try {
+        return edmType.valueOfString(text, Boolean.FALSE, null, precision, VARIABLE_SCALE, Boolean.TRUE, keyType);
+      } catch (final EdmPrimitiveTypeException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+  private final static Logger LOG = Logger.getLogger(IndexSearchProvider.class.getName());
+  private final static int REBUILD_BATCH_SIZE = 1000;
+  private final static Integer VARIABLE_SCALE = Integer.valueOf(Integer.MAX_VALUE);
+
+  private final EntityManagerFactory emf;
+  private final Path directory;
+  private final Map<Class<?>, IndexedType> indexedTypes = new ConcurrentHashMap<>();
+
+  /**
+   *
+   * @param emf The entity manager factory of the service, only changes of entities managed by entity managers of this
+   * factory are applied to the index.
+   * @param directory The directory to store the index files, will be created if not existing.
+   */
+  public IndexSearchProvider(final EntityManagerFactory emf, final Path directory) throws IOException {
+    if (emf == null) {
+      throw new IllegalArgumentException("EntityManagerFactory required");
+    }
+    if (directory == null) {
+      throw new IllegalArgumentException("Directory required");
+    }
+    this.emf = emf;
+    this.directory = Files.createDirectories(directory);
+  }
+
+  /**
+   * Register an entity type to be handled by the index. An existing index file of the entity type is loaded, use
+   * {@link #rebuild(EntityManager, JPAEntityType)} to create the initial index. With the first registered entity type
+   * the provider starts to listen to entity changes of its entity manager factory notified by the
+   * {@link SearchIndexEntityListener}.
+   *
+   * @param entityType The entity type, must have a single (not embedded) key attribute of a primitive type.
+   */
+  public void indexEntityType(final JPAEntityType entityType) throws IOException, ODataJPAModelException {
+    final List<JPAMemberAttribute> keyAttributes = entityType.getKeyAttributes(false);
+    if (keyAttributes.size() != 1 || keyAttributes.get(0).isComplex()) {
+      throw new IllegalArgumentException("Entity type " + entityType.getExternalName()
+      + " must have a single key attribute to be indexed");
+    }
+    final List<JPASelector> searchablePaths = new ArrayList<>();
+    List<JPASelector> candidates = entityType.getSearchablePath();
+    if (candidates.isEmpty()) {
+      candidates = entityType.getPathList();
+    }
+    for (final JPASelector candidate : candidates) {
+      if (isIndexable(candidate)) {
+        searchablePaths.add(candidate);
+      }
+    }
+    final InvertedIndex index = new InvertedIndex(directory.resolve(entityType.getExternalName() + ".idx"),
+        new EdmKeyCodec(keyAttributes.get(0)));
+    indexedTypes.put(entityType.getTypeClass(), new IndexedType(searchablePaths, keyAttributes.get(0), index));
+    SearchIndexEntityListener.register(emf, this);
+  }
+
+  /**
+   * The same restriction as for LIKE based search: attributes stored in another table are not indexed.
+   */
+  private static boolean isIndexable(final JPASelector path) {
+    for (final JPAAttribute<?> attribute : path.getPathElements()) {
+      if (attribute.isJoinCollection() || attribute.isAssociation()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Recreate the index of an entity type from database content. The entities are read in batches, so also large
+   * tables can be indexed.
+   *
+   * @param em The entity manager used to read the entities.
+   */
+  public void rebuild(final EntityManager em, final JPAEntityType entityType) throws IOException,
+  ODataJPAModelException {
+    final IndexedType indexedType = indexedTypes.get(entityType.getTypeClass());
+    if (indexedType == null) {
+      throw new IllegalArgumentException("Entity type " + entityType.getExternalName() + " is not indexed");
+    }
+    indexedType.index.clear();
+    final CriteriaBuilder cb = em.getCriteriaBuilder();
+    final CriteriaQuery<?> cq = cb.createQuery(entityType.getTypeClass());
+    final Root<?> root = cq.from(entityType.getTypeClass());
+    cq.orderBy(cb.asc(root.get(indexedType.keyAttribute.getInternalName())));
+    for (int first = 0;; first += REBUILD_BATCH_SIZE) {
+      final List<?> entities = em.createQuery(cq).setFirstResult(first).setMaxResults(REBUILD_BATCH_SIZE)
+          .getResultList();
+      for (final Object entity : entities) {
+        updateIndex(indexedType, entity);
+      }
+      if (entities.size() < REBUILD_BATCH_SIZE) {
+        break;
+      }
+    }
+    indexedType.index.flush();
+  }
+
+  @Override
+  public Collection<?> findMatchingKeys(final EntityManager em, final JPAEntityType entityType,
+      final String searchTerm, final int maxKeys) throws ODataApplicationException {
+    final IndexedType indexedType = indexedTypes.get(entityType.getTypeClass());
+    if (indexedType == null) {
+      return null;
+    }
+    // one more to detect too many matches
+    return indexedType.index.search(searchTerm, maxKeys < Integer.MAX_VALUE ? maxKeys + 1 : maxKeys);
+  }
+
+  /**
+   *
+   * @return The indexed type for the entity class, also for sub classes (like proxies) of an indexed entity class, or
+   * <code>null</code>.
+   */
+  private IndexedType determineIndexedType(final Class<?> entityClass) {
+    for (Class<?> clazz = entityClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+      final IndexedType indexedType = indexedTypes.get(clazz);
+      if (indexedType != null) {
+        return indexedType;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Update the index for a created or modified entity after commit of the current transaction.
+   *
+   * @return FALSE if the entity is not indexed by this provider.
+   */
+  boolean entityChanged(final Object entity) throws ODataJPAModelException {
+    final IndexedType indexedType = determineIndexedType(entity.getClass());
+    if (indexedType == null) {
+      return false;
+    }
+    final Object key = indexedType.keyAttribute.getAttributeAccessor().getPropertyValue(entity);
+    if (key == null) {
+      return true;
+    }
+    // the values are taken now, the entity may be changed until commit
+    final Set<String> words = determineWords(indexedType, entity);
+    JPATransactionSynchronization.afterCommit(() -> {
+      try {
+        indexedType.index.put(key, words);
+      } catch (final IOException e) {
+        logIndexProblem(entity, e);
+      }
+    });
+    return true;
+  }
+
+  /**
+   * Update the index for a deleted entity after commit of the current transaction.
+   *
+   * @return FALSE if the entity is not indexed by this provider.
+   */
+  boolean entityRemoved(final Object entity) throws ODataJPAModelException {
+    final IndexedType indexedType = determineIndexedType(entity.getClass());
+    if (indexedType == null) {
+      return false;
+    }
+    final Object key = indexedType.keyAttribute.getAttributeAccessor().getPropertyValue(entity);
+    if (key == null) {
+      return true;
+    }
+    JPATransactionSynchronization.afterCommit(() -> {
+      try {
+        indexedType.index.remove(key);
+      } catch (final IOException e) {
+        logIndexProblem(entity, e);
+      }
+    });
+    return true;
+  }
+
+  private static void updateIndex(final IndexedType indexedType, final Object entity)
+      throws ODataJPAModelException, IOException {
+    final Object key = indexedType.keyAttribute.getAttributeAccessor().getPropertyValue(entity);
+    if (key == null) {
+      return;
+    }
+    indexedType.index.put(key, determineWords(indexedType, entity));
+  }
+
+  private static Set<String> determineWords(final IndexedType indexedType, final Object entity)
+      throws ODataJPAModelException {
+    final Set<String> words = new LinkedHashSet<>();
+    for (final JPASelector path : indexedType.searchablePaths) {
+      final Object value = readValue(entity, path);
+      if (value != null) {
+        words.addAll(InvertedIndex.tokenize(value.toString()));
+      }
+    }
+    return words;
+  }
+
+  private static Object readValue(final Object entity, final JPASelector path) throws ODataJPAModelException {
+    Object value = entity;
+    for (final JPAAttribute<?> attribute : path.getPathElements()) {
+      value = attribute.getAttributeAccessor().getPropertyValue(value);
+      if (value == null) {
+        return null;
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Write all modified indexes as snapshot to disk, so the journals of changes are not longer needed.
+   */
+  public void flush() throws IOException {
+    for (final IndexedType indexedType : indexedTypes.values()) {
+      indexedType.index.flush();
+    }
+  }
+
+  /**
+   * Write all indexes to disk and stop listening to entity changes.
+   */
+  @Override
+  public void close() throws IOException {
+    SearchIndexEntityListener.unregister(emf, this);
+    flush();
+    for (final IndexedType indexedType : indexedTypes.values()) {
+      indexedType.index.close();
+    }
+  }
+
+  /**
+   * Helper method to log failed index updates (without breaking the JPA transaction).
+   */
+  static void logIndexProblem(final Object entity, final Exception e) {
+    LOG.log(Level.WARNING, "Search index not updated for " + entity.getClass().getSimpleName()
+        + ", rebuild the index", e);
+  }
+}
@@ -0,0 +1,309 @@
+package org.apache.olingo.jpa.processor.core.search;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.apache.olingo.commons.core.Decoder;
+import org.apache.olingo.commons.core.Encoder;
+
+/**
+ * Inverted index for one entity type: maps the (lower case) words of the searchable attribute values to the keys of
+ * entities. The index is held in memory, so it's intended for tables with a moderate number of rows; use the
+ * full-text features of the database for large tables. All methods are thread safe.
+ * <p>
+ * The index is persisted as text: a snapshot file written by {@link #flush()} and a journal file with every change
+ * applied after the last snapshot, so no change is lost without a flush. Every line is
+ * <code>P &lt;key&gt; &lt;word&gt;...</code> for a put or <code>R &lt;key&gt;</code> for a removal, with the key
+ * converted by the {@link KeyCodec} and URI encoded.
+ */
+class InvertedIndex {
+
+  /**
+   * Conversion of the keys of entities into a text representation and back.
+   */
+  interface KeyCodec {
+    String encode(Object key) throws IOException;
+
+    Object decode(String text) throws IOException;
+  }
+
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final String PUT = "P";
+  private static final String REMOVE = "R";
+
+  private final Path file;
+  private final Path journalFile;
+  private final KeyCodec keyCodec;
+  private final TreeMap<String, Set<Object>> wordToKeys = new TreeMap<>();
+  private final Map<Object, Set<String>> keyToWords = new HashMap<>();
+  private Writer journal = null;
+  /**
+   * TRUE if the content was changed since the last snapshot.
+   */
+  private boolean modified = false;
+  /**
+   * TRUE after {@link #clear()}: the changes are not journaled, because the complete content must be written as
+   * snapshot.
+   */
+  private boolean snapshotRequired = false;
+
+  /**
+   *
+   * @param file The file to persist the index, existing content (and journal) is loaded.
+   */
+  InvertedIndex(final Path file, final KeyCodec keyCodec) throws IOException {
+    this.file = file;
+    this.journalFile = file.resolveSibling(file.getFileName().toString() + ".journal");
+    this.keyCodec = keyCodec;
+    load();
+  }
+
+  /**
+   * Split the given text into (lower case) words.
+   */
+  static Set<String> tokenize(final String text) {
+    final Set<String> words = new LinkedHashSet<>();
+    if (text == null) {
+      return words;
+    }
+    for (final String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+      if (!word.isEmpty()) {
+        words.add(word);
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Replace the indexed words of an entity.
+   *
+   * @param key The key of entity.
+   * @param words The words of entity, an empty collection will remove the entity from index.
+   */
+  synchronized void put(final Object key, final Collection<String> words) throws IOException {
+    putInternal(key, words);
+    if (words.isEmpty()) {
+      writeJournal(REMOVE, key, words);
+    } else {
+      writeJournal(PUT, key, words);
+    }
+  }
+
+  synchronized void remove(final Object key) throws IOException {
+    removeInternal(key);
+    writeJournal(REMOVE, key, null);
+  }
+
+  /**
+   * Remove all entries; the journal is not written until the next {@link #flush()}.
+   */
+  synchronized void clear() throws IOException {
+    wordToKeys.clear();
+    keyToWords.clear();
+    modified = true;
+    snapshotRequired = true;
+    closeJournal();
+  }
+
+  private void putInternal(final Object key, final Collection<String> words) {
+    removeInternal(key);
+    if (words.isEmpty()) {
+      return;
+    }
+    final Set<String> entityWords = new HashSet<>(words);
+    keyToWords.put(key, entityWords);
+    for (final String word : entityWords) {
+      Set<Object> keys = wordToKeys.get(word);
+      if (keys == null) {
+        keys = new HashSet<>();
+        wordToKeys.put(word, keys);
+      }
+      keys.add(key);
+    }
+    modified = true;
+  }
+
+  private void removeInternal(final Object key) {
+    final Set<String> words = keyToWords.remove(key);
+    if (words == null) {
+      return;
+    }
+    for (final String word : words) {
+      final Set<Object> keys = wordToKeys.get(word);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          wordToKeys.remove(word);
+        }
+      }
+    }
+    modified = true;
+  }
+
+  /**
+   * Every word of the search term must match (as prefix) a word of an entity. The keys matching the first word are
+   * checked one by one against the other words, so the search stops after <i>limit</i> keys without building the
+   * complete match sets of all words.
+   *
+   * @param limit The maximum number of keys to collect.
+   * @return The keys of matching entities, at most <i>limit</i> keys.
+   */
+  synchronized Set<Object> search(final String searchTerm, final int limit) {
+    final Set<Object> result = new HashSet<>();
+    final List<Collection<Set<Object>>> matchesPerWord = new ArrayList<>();
+    for (final String searchWord : tokenize(searchTerm)) {
+      final SortedMap<String, Set<Object>> prefixMatches = wordToKeys.subMap(searchWord, searchWord
+          + Character.MAX_VALUE);
+      if (prefixMatches.isEmpty()) {
+        return result;
+      }
+      matchesPerWord.add(prefixMatches.values());
+    }
+    if (matchesPerWord.isEmpty() || limit < 1) {
+      return result;
+    }
+    for (final Set<Object> keys : matchesPerWord.get(0)) {
+      for (final Object key : keys) {
+        if (!result.contains(key) && matchesAllWords(key, matchesPerWord)) {
+          result.add(key);
+          if (result.size() >= limit) {
+            return result;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private static boolean matchesAllWords(final Object key, final List<Collection<Set<Object>>> matchesPerWord) {
+    for (int i = 1; i < matchesPerWord.size(); i++) {
+      boolean found = false;
+      for (final Set<Object> keys : matchesPerWord.get(i)) {
+        if (keys.contains(key)) {
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Write the complete index as snapshot into the file (if modified since last snapshot) and remove the journal.
+   */
+  synchronized void flush() throws IOException {
+    if (!modified) {
+      return;
+    }
+    final Path tempFile = file.resolveSibling(file.getFileName().toString() + ".tmp");
+    try (BufferedWriter out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+      for (final Map.Entry<Object, Set<String>> entry : keyToWords.entrySet()) {
+        writeLine(out, PUT, entry.getKey(), entry.getValue());
+      }
+    }
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    // the journal is contained in the snapshot
+    closeJournal();
+    Files.deleteIfExists(journalFile);
+    modified = false;
+    snapshotRequired = false;
+  }
+
+  /**
+   * Close the journal, the index is usable further.
+   */
+  synchronized void close() throws IOException {
+    closeJournal();
+  }
+
+  private void closeJournal() throws IOException {
+    if (journal != null) {
+      journal.close();
+      journal = null;
+    }
+  }
+
+  private void writeJournal(final String operation, final Object key, final Collection<String> words)
+      throws IOException {
+    if (snapshotRequired) {
+      return;
+    }
+    if (journal == null) {
+      journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+    }
+    writeLine(journal, operation, key, words);
+    journal.flush();
+  }
+
+  private void writeLine(final Writer out, final String operation, final Object key, final Collection<String> words)
+      throws IOException {
+    out.write(operation);
+    out.write(' ');
+    out.write(Encoder.encode(keyCodec.encode(key)));
+    if (words != null) {
+      for (final String word : words) {
+        // words are consisting of letters and digits only
+        out.write(' ');
+        out.write(word);
+      }
+    }
+    out.write('\n');
+  }
+
+  private void load() throws IOException {
+    readFile(file);
+    readFile(journalFile);
+    modified = Files.exists(journalFile);
+  }
+
+  private void readFile(final Path source) throws IOException {
+    if (!Files.exists(source)) {
+      return;
+    }
+    try (BufferedReader in = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        final String[] parts = line.split(" ");
+        if (parts.length < 2) {
+          throw new IOException("Invalid line in index file " + source + ": " + line);
+        }
+        final Object key = keyCodec.decode(Decoder.decode(parts[1]));
+        if (PUT.equals(parts[0])) {
+          putInternal(key, Arrays.asList(parts).subList(2, parts.length));
+        } else if (REMOVE.equals(parts[0])) {
+          removeInternal(key);
+        } else {
+          throw new IOException("Invalid line in index file " + source + ": " + line);
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,110 @@
+package org.apache.olingo.jpa.processor.core.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import javax.persistence.metamodel.EntityType;
+
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.core.mapping.JPATransactionSynchronization;
+
+/**
+ * JPA entity listener to keep the indexes of all {@link IndexSearchProvider index search providers} in sync with the
+ * entities. Configure the listener for the indexed entities:
+ *
+ * <pre>
+ * &#64;Entity
+ * &#64;EntityListeners(SearchIndexEntityListener.class)
+ * public class BusinessPartner {
+ * ...
+ * </pre>
+ *
+ * Changes done within a transaction of the persistence adapter (all modifying OData requests) are applied to the
+ * index after commit of the transaction and discarded on roll back, see
+ * {@link org.apache.olingo.jpa.processor.core.mapping.JPATransactionSynchronization}. Changes done outside of such
+ * a transaction are applied immediately.
+ * <p>
+ * The providers are bound to the entity manager factory of their service: a change is notified only to the providers
+ * of the factory of the active transaction or, outside of such a transaction, to the providers of the factories
+ * managing the entity class. So multiple services (or persistence units) in one JVM do not update the indexes of each
+ * other.
+ */
+public class SearchIndexEntityListener {
+
+  private static final Map<EntityManagerFactory, Set<IndexSearchProvider>> PROVIDERS = new ConcurrentHashMap<>();
+
+  static void register(final EntityManagerFactory emf, final IndexSearchProvider provider) {
+    PROVIDERS.computeIfAbsent(emf, k -> new CopyOnWriteArraySet<>()).add(provider);
+  }
+
+  static void unregister(final EntityManagerFactory emf, final IndexSearchProvider provider) {
+    PROVIDERS.computeIfPresent(emf, (k, providers) -> {
+      providers.remove(provider);
+      return providers.isEmpty() ? null : providers;
+    });
+  }
+
+  private static Collection<IndexSearchProvider> determineProviders(final Object entity) {
+    final EntityManager em = JPATransactionSynchronization.getActiveEntityManager();
+    if (em != null && em.isOpen()) {
+      final Set<IndexSearchProvider> providers = PROVIDERS.get(em.getEntityManagerFactory());
+      return providers != null ? providers : Collections.emptySet();
+    }
+    final List<IndexSearchProvider> providers = new ArrayList<>();
+    for (final Map.Entry<EntityManagerFactory, Set<IndexSearchProvider>> entry : PROVIDERS.entrySet()) {
+      if (isManaged(entry.getKey(), entity.getClass())) {
+        providers.addAll(entry.getValue());
+      }
+    }
+    return providers;
+  }
+
+  /**
+   * Also sub classes (like proxies) of a managed entity class are accepted.
+   */
+  private static boolean isManaged(final EntityManagerFactory emf, final Class<?> entityClass) {
+    if (!emf.isOpen()) {
+      return false;
+    }
+    for (final EntityType<?> entityType : emf.getMetamodel().getEntities()) {
+      if (entityType.getJavaType() != null && entityType.getJavaType().isAssignableFrom(entityClass)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @PostPersist
+  @PostUpdate
+  public void entityStored(final Object entity) {
+    for (final IndexSearchProvider provider : determineProviders(entity)) {
+      try {
+        provider.entityChanged(entity);
+      } catch (final ODataJPAModelException | RuntimeException e) {
+        IndexSearchProvider.logIndexProblem(entity, e);
+      }
+    }
+  }
+
+  @PostRemove
+  public void entityRemoved(final Object entity) {
+    for (final IndexSearchProvider provider : determineProviders(entity)) {
+      try {
+        provider.entityRemoved(entity);
+      } catch (final ODataJPAModelException | RuntimeException e) {
+        IndexSearchProvider.logIndexProblem(entity, e);
+      }
+    }
+  }
+}
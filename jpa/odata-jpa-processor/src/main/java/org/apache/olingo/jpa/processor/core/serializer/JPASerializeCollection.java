@@ -2,6 +2,7 @@ package org.apache.olingo.jpa.processor.core.serializer;
 
 import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.jpa.processor.core.query.Util;
@@ -12,6 +13,7 @@ import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.serializer.SerializerResult;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.api.uri.UriHelper;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 
@@ -39,7 +41,29 @@ public final class JPASerializeCollection implements JPASerializer {
       throws SerializerException {
 
     final EdmEntitySet targetEdmEntitySet = Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+    final SerializerResult serializerResult = serializer.entityCollection(this.serviceMetadata, targetEdmEntitySet
+        .getEntityType(), result, createOptions(request, targetEdmEntitySet));
+    return serializerResult;
+
+  }
 
+  /**
+   * Serialize the entities while writing the response content, so the entities must not be loaded completely into
+   * memory.
+   *
+   * @see ODataSerializer#entityCollectionStreamed(ServiceMetadata, org.apache.olingo.commons.api.edm.EdmEntityType,
+   * EntityIterator, EntityCollectionSerializerOptions)
+   */
+  public SerializerStreamResult serializeStreamed(final ODataRequest request, final EntityIterator result)
+      throws SerializerException {
+
+    final EdmEntitySet targetEdmEntitySet = Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+    return serializer.entityCollectionStreamed(this.serviceMetadata, targetEdmEntitySet.getEntityType(), result,
+        createOptions(request, targetEdmEntitySet));
+  }
+
+  private EntityCollectionSerializerOptions createOptions(final ODataRequest request,
+      final EdmEntitySet targetEdmEntitySet) throws SerializerException {
     final String selectList = uriHelper.buildContextURLSelectList(targetEdmEntitySet.getEntityType(),
         uriInfo.getExpandOption(), uriInfo.getSelectOption());
 
@@ -49,18 +73,13 @@ public final class JPASerializeCollection implements JPASerializer {
         .build();
 
     final String id = request.getRawBaseUri() + "/" + targetEdmEntitySet.getEntityType().getName();
-    final EntityCollectionSerializerOptions opts = EntityCollectionSerializerOptions.with()
+    return EntityCollectionSerializerOptions.with()
         .contextURL(contextUrl)
         .id(id)
         .count(uriInfo.getCountOption())
         .select(uriInfo.getSelectOption())
         .expand(uriInfo.getExpandOption())
         .build();
-
-    final SerializerResult serializerResult = serializer.entityCollection(this.serviceMetadata, targetEdmEntitySet
-        .getEntityType(), result, opts);
-    return serializerResult;
-
   }
 
 }
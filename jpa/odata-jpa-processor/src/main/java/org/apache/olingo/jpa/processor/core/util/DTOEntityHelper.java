@@ -1,30 +1,101 @@
 package org.apache.olingo.jpa.processor.core.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.jpa.metadata.api.JPAEdmProvider;
 import org.apache.olingo.jpa.metadata.core.edm.dto.ODataDTO;
 import org.apache.olingo.jpa.metadata.core.edm.dto.ODataDTOHandler;
+import org.apache.olingo.jpa.metadata.core.edm.dto.ODataDTOQuery;
+import org.apache.olingo.jpa.metadata.core.edm.dto.ODataDTOStreamingHandler;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPASelector;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAConversionException;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAConversionException.MessageKeys;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 import org.apache.olingo.jpa.processor.core.query.EntityConverter;
+import org.apache.olingo.jpa.processor.core.query.Util;
 import org.apache.olingo.jpa.processor.transformation.Transformation;
+import org.apache.olingo.jpa.processor.transformation.impl.ODataResponseContent;
 import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceComplexProperty;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
 
 public class DTOEntityHelper {
 
+  /**
+   * Iterator converting the DTOs of a stream into entities while the response is written. The stream is closed after
+   * the last DTO, on conversion errors or by calling {@link #close()}.
+   */
+  private static class DTOEntityIterator extends EntityIterator implements AutoCloseable {
+    private final Stream<?> dtos;
+    private final Iterator<?> dtoIterator;
+    private final EntityConverter converter;
+    private final JPAEntityType jpaEntityType;
+    private boolean closed = false;
+
+    DTOEntityIterator(final Stream<?> dtos, final EntityConverter converter, final JPAEntityType jpaEntityType) {
+      this.dtos = dtos;
+      this.dtoIterator = dtos.iterator();
+      this.converter = converter;
+      this.jpaEntityType = jpaEntityType;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (closed) {
+        return false;
+      }
+      if (dtoIterator.hasNext()) {
+        return true;
+      }
+      close();
+      return false;
+    }
+
+    @Override
+    public Entity next() {
+      try {
+        return converter.convertJPA2ODataEntity(jpaEntityType, dtoIterator.next());
+      } catch (ODataJPAModelException | ODataJPAConversionException | RuntimeException e) {
+        close();
+        throw new ODataRuntimeException("Unable to convert DTO into entity of type " + jpaEntityType
+            .getExternalName(), e);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      dtos.close();
+    }
+  }
+
   private final Logger log = Logger.getLogger(DTOEntityHelper.class.getName());
 
   private final JPAEdmProvider provider;
@@ -91,11 +162,35 @@ public class DTOEntityHelper {
     }
   }
 
+  /**
+   *
+   * @param request The request, used only for a {@link ODataDTOStreamingHandler streaming handler}.
+   * @param responseFormat The response format, used only for a {@link ODataDTOStreamingHandler streaming handler}.
+   */
+  @SuppressWarnings("unchecked")
   public <O> O loadEntities(final Transformation<?, O> transformation,
-      final EdmEntitySet targetEdmEntitySet)
+      final EdmEntitySet targetEdmEntitySet, final ODataRequest request, final ContentType responseFormat)
           throws ODataApplicationException {
-    final EntityCollection ec = loadAsEntityCollection(targetEdmEntitySet);
+    final ODataDTOHandler<?> handler = createHandler(targetEdmEntitySet);
     try {
+      if (ODataDTOStreamingHandler.class.isInstance(handler) && ODataResponseContent.class.isAssignableFrom(
+          transformation.getOutputType())) {
+        // convert and serialize the DTOs one by one while writing the response
+        final DTOEntityIterator entities = loadAsEntityIterator(targetEdmEntitySet,
+            (ODataDTOStreamingHandler<?>) handler);
+        try {
+          final Transformation<EntityIterator, ODataResponseContent> streamTransformation = context
+              .getTransformerFactory().createTransformation(EntityIterator.class, ODataResponseContent.class,
+                  new TypedParameter(UriInfoResource.class, uriInfo), new TypedParameter(ODataRequest.class, request),
+                  new TypedParameter(ContentType.class, responseFormat));
+          // the transformation takes over the responsibility to close the stream
+          return (O) streamTransformation.transform(entities);
+        } catch (SerializerException | RuntimeException e) {
+          entities.close();
+          throw e;
+        }
+      }
+      final EntityCollection ec = loadAsEntityCollection(targetEdmEntitySet, handler);
       final Transformation<EntityCollection, O> subTransformation = transformation.createSubTransformation(
           EntityCollection.class);
       return subTransformation.transform(ec);
@@ -104,34 +199,120 @@ public class DTOEntityHelper {
     }
   }
 
-  private EntityCollection loadAsEntityCollection(final EdmEntitySet targetEdmEntitySet)
-      throws ODataApplicationException {
+  private EntityCollection loadAsEntityCollection(final EdmEntitySet targetEdmEntitySet,
+      final ODataDTOHandler<?> handler) throws ODataApplicationException {
     try {
       final EntityCollection odataEntityCollection = new EntityCollection();
-      final ODataDTOHandler<?> handler = buildHandlerInstance(targetEdmEntitySet);
-      final Collection<?> result = handler.read(uriInfo);
-      if (result == null) {
-        return odataEntityCollection;
-      }
       final JPAEntityType jpaEntityType = provider.getServiceDocument()
           .getEntityType(targetEdmEntitySet.getName());
-
       final EntityConverter converter = new EntityConverter(context.getOdata().createUriHelper(),
           provider.getServiceDocument(), context.getServiceMetaData());
+      if (ODataDTOStreamingHandler.class.isInstance(handler)) {
+        final ODataDTOStreamingHandler<?> streamingHandler = (ODataDTOStreamingHandler<?>) handler;
+        final ODataDTOQuery query = buildQuery(jpaEntityType);
+        try (Stream<?> result = streamingHandler.read(uriInfo, query)) {
+          final Iterator<?> iterator = result.iterator();
+          while (iterator.hasNext()) {
+            odataEntityCollection.getEntities().add(converter.convertJPA2ODataEntity(jpaEntityType, iterator.next()));
+          }
+        }
+        if (query.isCountRequested()) {
+          odataEntityCollection.setCount(Util.convertCount(streamingHandler.count(uriInfo, query)));
+        }
+        return odataEntityCollection;
+      }
+      final Collection<?> result = handler.read(uriInfo);
+      if (result == null) {
+        return odataEntityCollection;
+      }
       for (final Object o : result) {
         final Entity entity = converter.convertJPA2ODataEntity(jpaEntityType, o);
         odataEntityCollection.getEntities().add(entity);
       }
       return odataEntityCollection;
-    } catch (InstantiationException | IllegalAccessException e) {
+    } catch (final ODataJPAModelException e) {
       throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
           HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  private DTOEntityIterator loadAsEntityIterator(final EdmEntitySet targetEdmEntitySet,
+      final ODataDTOStreamingHandler<?> handler) throws ODataApplicationException {
+    try {
+      final JPAEntityType jpaEntityType = provider.getServiceDocument()
+          .getEntityType(targetEdmEntitySet.getName());
+      final EntityConverter converter = new EntityConverter(context.getOdata().createUriHelper(),
+          provider.getServiceDocument(), context.getServiceMetaData());
+      final ODataDTOQuery query = buildQuery(jpaEntityType);
+      // the count must be written before the entities
+      final Integer count = query.isCountRequested() ? Util.convertCount(handler.count(uriInfo, query)) : null;
+      final DTOEntityIterator entities = new DTOEntityIterator(handler.read(uriInfo, query), converter,
+          jpaEntityType);
+      entities.setCount(count);
+      return entities;
     } catch (final ODataJPAModelException e) {
       throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
           HttpStatusCode.INTERNAL_SERVER_ERROR, e);
     }
   }
 
+  /**
+   * Collect the query options of request for a {@link ODataDTOStreamingHandler}.
+   */
+  private ODataDTOQuery buildQuery(final JPAEntityType jpaEntityType) throws ODataJPAModelException,
+  ODataJPAQueryException {
+    final Integer top = uriInfo.getTopOption() != null ? Integer.valueOf(uriInfo.getTopOption().getValue()) : null;
+    final int skip = uriInfo.getSkipOption() != null ? uriInfo.getSkipOption().getValue() : 0;
+    final List<ODataDTOQuery.SortOrder> orderBy = new ArrayList<>();
+    if (uriInfo.getOrderByOption() != null) {
+      for (final OrderByItem orderByItem : uriInfo.getOrderByOption().getOrders()) {
+        final JPASelector selector = determineSelector(jpaEntityType, orderByItem);
+        if (selector == null) {
+          throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_INVALID_VALUE,
+              HttpStatusCode.BAD_REQUEST, uriInfo.getOrderByOption().getText(), "$orderby");
+        }
+        final List<String> attributeNames = new ArrayList<>(selector.getPathElements().size());
+        for (final JPAAttribute<?> attribute : selector.getPathElements()) {
+          attributeNames.add(attribute.getInternalName());
+        }
+        orderBy.add(new ODataDTOQuery.SortOrder(selector.getAlias(), attributeNames, orderByItem.isDescending()));
+      }
+    }
+    return new ODataDTOQuery(top, skip, orderBy, uriInfo.getFilterOption() != null ? uriInfo.getFilterOption()
+        .getExpression() : null, uriInfo.getSearchOption() != null ? uriInfo.getSearchOption().getText() : null,
+        uriInfo.getCountOption() != null && uriInfo.getCountOption().getValue());
+  }
+
+  /**
+   *
+   * @return The selector for a simple (not collection) property or <code>null</code>.
+   */
+  private static JPASelector determineSelector(final JPAEntityType entityType, final OrderByItem orderByItem)
+      throws ODataJPAModelException {
+    if (!Member.class.isInstance(orderByItem.getExpression())) {
+      return null;
+    }
+    final UriInfoResource resourcePath = ((Member) orderByItem.getExpression()).getResourcePath();
+    final StringBuilder externalPath = new StringBuilder();
+    for (final UriResource uriResource : resourcePath.getUriResourceParts()) {
+      if (externalPath.length() > 0) {
+        externalPath.append(JPASelector.PATH_SEPERATOR);
+      }
+      if (uriResource instanceof UriResourcePrimitiveProperty) {
+        externalPath.append(((UriResourcePrimitiveProperty) uriResource).getProperty().getName());
+      } else if (uriResource instanceof UriResourceComplexProperty) {
+        externalPath.append(((UriResourceComplexProperty) uriResource).getProperty().getName());
+      } else {
+        return null;
+      }
+    }
+    final JPASelector selector = entityType.getPath(externalPath.toString());
+    if (selector == null || !selector.getLeaf().isSimple() || selector.getLeaf().isCollection()) {
+      return null;
+    }
+    return selector;
+  }
+
   public void updateEntity(final EdmEntitySet targetEdmEntitySet, final Entity odataEntity)
       throws ODataApplicationException {
     try {
@@ -153,6 +334,18 @@ public class DTOEntityHelper {
 
   }
 
+  private ODataDTOHandler<?> createHandler(final EdmEntitySet targetEdmEntitySet) throws ODataApplicationException {
+    try {
+      return buildHandlerInstance(targetEdmEntitySet);
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    } catch (final ODataJPAModelException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
   private ODataDTOHandler<?> buildHandlerInstance(final EdmEntitySet targetEdmEntitySet)
       throws ODataJPAModelException, InstantiationException, IllegalAccessException, ODataApplicationException {
     final Class<? extends ODataDTOHandler<?>> classHandler = determineDTOHandlerClass(targetEdmEntitySet);
@@ -1,15 +1,18 @@
 package org.apache.olingo.jpa.processor.core.util;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.jpa.cdi.Inject;
@@ -24,6 +27,11 @@ import org.apache.olingo.server.api.ODataApplicationException;
  * <li>org.apache.olingo.jpa.cdi.Inject (javax.inject.Inject): for fields</li>
  * <li>org.apache.olingo.jpa.cdi.Inject: for method parameters</li>
  * </ul>
+ * The fields to inject are determined once per class (injection plan) and the resolved values are cached per type,
+ * so repeated injection into objects of the same class is cheap.
+ * <p>
+ * A <code>null</code> registered for exactly the type of a field hides the value of a parent injector, like for
+ * {@link #getDependencyValue(Class)}.
  *
  * @author Ralf Zozmann
  *
@@ -52,18 +60,40 @@ public final class DependencyInjectorImpl implements ModifiableDependencyInjecto
     }
   }
 
-  private static class InjectionOccurrence {
+  /**
+   * A field to inject values into, with precompiled setter.
+   */
+  private static class InjectionPoint {
 
     private final Field field;
-    private final Object matchingObject;
+    private final MethodHandle setter;
 
-    InjectionOccurrence(final Field field, final Object matchingObject) {
+    InjectionPoint(final Field field, final MethodHandle setter) {
       super();
       this.field = field;
-      this.matchingObject = matchingObject;
+      this.setter = setter;
     }
   }
 
+  /**
+   * The injection points of a class (including super classes), computed once per class.
+   */
+  private static final ClassValue<List<InjectionPoint>> INJECTION_PLANS = new ClassValue<List<InjectionPoint>>() {
+    @Override
+    protected List<InjectionPoint> computeValue(final Class<?> type) {
+      return Collections.unmodifiableList(new ArrayList<>(findAnnotatedFields(type)));
+    }
+  };
+
+  /**
+   * Marker for a resolved type without value in an injector.
+   */
+  private static final Object NO_VALUE = new Object();
+  /**
+   * Marker for a resolved type registered with <code>null</code> as value in an injector.
+   */
+  private static final Object NULL_VALUE = new Object();
+
   private static class ValueReference<T> {
     private final T value;
 
@@ -77,6 +107,11 @@ public final class DependencyInjectorImpl implements ModifiableDependencyInjecto
   }
 
   private final Map<Class<?>, ValueReference<?>> valueMapping = new HashMap<>();
+  /**
+   * The value (or {@link #NO_VALUE} or {@link #NULL_VALUE}) of this injector (without parent) for a field type, invalidated on every change
+   * of {@link #valueMapping}.
+   */
+  private final Map<Class<?>, Object> resolvedValues = new ConcurrentHashMap<>();
   private final DependencyInjectorImpl parent;
 
   /**
@@ -122,6 +157,7 @@ public final class DependencyInjectorImpl implements ModifiableDependencyInjecto
   @Override
   public final void removeDependencyValue(final Class<?> type) {
     final ValueReference<?> entry = valueMapping.remove(type);
+    resolvedValues.clear();
     if (parent != null && entry == null) {
       // if value reference could not be removed try to do the same on parent...
       parent.removeDependencyValue(type);
@@ -176,6 +212,7 @@ public final class DependencyInjectorImpl implements ModifiableDependencyInjecto
       throw new IllegalArgumentException("Type is not allowed for injection");
     }
     valueMapping.put(type, new ValueReference<Object>(value));
+    resolvedValues.clear();
   }
 
   /**
@@ -183,6 +220,7 @@ public final class DependencyInjectorImpl implements ModifiableDependencyInjecto
    */
   public void dispose() {
     valueMapping.clear();
+    resolvedValues.clear();
   }
 
   @Override
@@ -190,41 +228,45 @@ public final class DependencyInjectorImpl implements ModifiableDependencyInjecto
     if (target == null) {
       return;
     }
-    internalInjectDependencyValues(target, new HashSet<>());
-  }
-
-  void internalInjectDependencyValues(final Object target, final Set<Field> alreadyHandledFields)
-      throws ODataApplicationException {
-    // own values
-    final Collection<InjectionOccurrence> occurrences = findAnnotatedFields(target.getClass());
-    for (final InjectionOccurrence o : occurrences) {
-      if (alreadyHandledFields.contains(o.field)) {
-        continue;
-      }
-      if (o.matchingObject != null) {
-        // if no DI has an value then the field is affected multiple times from 'null' setting
-        alreadyHandledFields.add(o.field);
-      }
-      final boolean accessible = o.field.isAccessible();
-      if (!accessible) {
-        o.field.setAccessible(true);
-      }
+    for (final InjectionPoint injectionPoint : INJECTION_PLANS.get(target.getClass())) {
+      final Object value = resolveValue(injectionPoint.field.getType());
       try {
-        o.field.set(target, o.matchingObject);
-      } catch (IllegalArgumentException | IllegalAccessException e) {
+        injectionPoint.setter.invoke(target, value);
+      } catch (final Error e) {
+        throw e;
+      } catch (final Throwable e) {
         throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
             HttpStatusCode.INTERNAL_SERVER_ERROR, e);
-      } finally {
-        // reset
-        if (!accessible) {
-          o.field.setAccessible(false);
-        }
       }
     }
-    // parent values
-    if (parent != null) {
-      parent.internalInjectDependencyValues(target, alreadyHandledFields);
+  }
+
+  /**
+   *
+   * @return The value of the nearest injector (this or a parent) having a value for the field type or
+   * <code>null</code>.
+   */
+  private Object resolveValue(final Class<?> fieldType) {
+    for (DependencyInjectorImpl injector = this; injector != null; injector = injector.parent) {
+      final Object value = injector.resolveOwnValue(fieldType);
+      if (value == NULL_VALUE) {
+        return null;
+      }
+      if (value != NO_VALUE) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  private Object resolveOwnValue(final Class<?> fieldType) {
+    final Object cached = resolvedValues.get(fieldType);
+    if (cached != null) {
+      return cached;
     }
+    final Object resolved = findMatchingValue(fieldType);
+    resolvedValues.put(fieldType, resolved);
+    return resolved;
   }
 
   /**
@@ -245,35 +287,54 @@ public final class DependencyInjectorImpl implements ModifiableDependencyInjecto
     return false;
   }
 
-  private Collection<InjectionOccurrence> findAnnotatedFields(final Class<?> clazz) {
+  private static Collection<InjectionPoint> findAnnotatedFields(final Class<?> clazz) {
     if (Object.class.equals(clazz)) {
       // don't inspect Object class
       return Collections.emptyList();
     }
     final Field[] clazzFields = clazz.getDeclaredFields();
-    final Collection<InjectionOccurrence> occurrences = new LinkedList<>();
-    Object value;
+    final Collection<InjectionPoint> occurrences = new LinkedList<>();
     for (final Field field : clazzFields) {
       if (isAnnotatedForInjection(field)) {
-        value = findMatchingValue(field);
-        occurrences.add(new InjectionOccurrence(field, value));
+        occurrences.add(new InjectionPoint(field, createSetter(field)));
       }
     }
     final Class<?> clazzSuper = clazz.getSuperclass();
     if (clazzSuper != null) {
-      final Collection<InjectionOccurrence> superOccurrences = findAnnotatedFields(clazzSuper);
+      final Collection<InjectionPoint> superOccurrences = findAnnotatedFields(clazzSuper);
       occurrences.addAll(superOccurrences);
     }
     return occurrences;
   }
 
-  private Object findMatchingValue(final Field field) {
+  private static MethodHandle createSetter(final Field field) {
+    // the field instance is a copy owned by the injection plan, so the accessible flag is not shared
+    field.setAccessible(true);
+    try {
+      return MethodHandles.lookup().unreflectSetter(field);
+    } catch (final IllegalAccessException e) {
+      throw new IllegalStateException("Field " + field.getDeclaringClass().getName() + "#" + field.getName()
+      + " is not accessible for injection", e);
+    }
+  }
+
+  /**
+   *
+   * @return The matching value, {@link #NULL_VALUE} for a <code>null</code> registered for exactly the field type or
+   * {@link #NO_VALUE}.
+   */
+  private Object findMatchingValue(final Class<?> fieldType) {
+    // direct match first
+    final ValueReference<?> directMatch = valueMapping.get(fieldType);
+    if (directMatch != null) {
+      return directMatch.getValueObject() != null ? directMatch.getValueObject() : NULL_VALUE;
+    }
     for (final Entry<Class<?>, ValueReference<?>> entry : valueMapping.entrySet()) {
-      if (isMatchingType(entry.getKey(), field.getType())) {
+      if (isMatchingType(entry.getKey(), fieldType) && entry.getValue().getValueObject() != null) {
         return entry.getValue().getValueObject();
       }
     }
-    return null;
+    return NO_VALUE;
   }
 
   /**
@@ -285,7 +346,7 @@ public final class DependencyInjectorImpl implements ModifiableDependencyInjecto
    *            {@link java.lang.reflect.Parameter#getType()}
    * @return TRUE if types are matching
    */
-  private boolean isMatchingType(final Class<?> requestedType, final Class<?> actualType) {
+  private static boolean isMatchingType(final Class<?> requestedType, final Class<?> actualType) {
     return actualType.isAssignableFrom(requestedType);
   }
 }
@@ -0,0 +1,27 @@
+package org.apache.olingo.jpa.processor.core.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.apache.olingo.server.api.ODataResponse;
+
+public final class ODataResponseHelper {
+
+  private ODataResponseHelper() {
+    // static helper only
+  }
+
+  /**
+   * Write {@link ODataResponse#getODataContent() streamed content} into a buffer and set the buffer as content of the
+   * response. Required if the content is written after the transaction is closed or by the $batch response
+   * serializer, not able to handle streamed content.
+   */
+  public static void bufferStreamedContent(final ODataResponse response) {
+    if (response.getContent() != null || response.getODataContent() == null) {
+      return;
+    }
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    response.getODataContent().write(buffer);
+    response.setContent(new ByteArrayInputStream(buffer.toByteArray()));
+  }
+}
@@ -5,13 +5,21 @@ import java.util.Collection;
 import java.util.List;
 
 import org.apache.olingo.jpa.processor.core.api.JPAServiceDebugger;
+import org.apache.olingo.jpa.processor.metrics.JPAMetric;
+import org.apache.olingo.jpa.processor.metrics.JPAMetricsCollector;
+import org.apache.olingo.jpa.processor.metrics.JPARequestMetrics;
 import org.apache.olingo.server.api.debug.RuntimeMeasurement;
 
-public class JPACoreDebugger implements JPAServiceDebugger {
+/**
+ * Debugger used in Olingo debug mode, collecting the runtime measurements for the debug output. The
+ * {@link JPAMetric measurements} of request are also contained in the debug output.
+ *
+ */
+public class JPACoreDebugger implements JPAServiceDebugger, JPAMetricsCollector {
   private final List<RuntimeMeasurement> runtimeInformation = new ArrayList<RuntimeMeasurement>();
 
   @Override
-  public int startRuntimeMeasurement(final String className, final String methodName) {
+  public synchronized int startRuntimeMeasurement(final String className, final String methodName) {
     final int handleId = runtimeInformation.size();
 
     final RuntimeMeasurement measurement = new RuntimeMeasurement();
@@ -25,7 +33,7 @@ public class JPACoreDebugger implements JPAServiceDebugger {
   }
 
   @Override
-  public void stopRuntimeMeasurement(final int handle) {
+  public synchronized void stopRuntimeMeasurement(final int handle) {
     if (handle < runtimeInformation.size()) {
       final RuntimeMeasurement runtimeMeasurement = runtimeInformation.get(handle);
       if (runtimeMeasurement != null) {
@@ -35,8 +43,30 @@ public class JPACoreDebugger implements JPAServiceDebugger {
   }
 
   @Override
-  public Collection<? extends RuntimeMeasurement> getRuntimeInformation() {
-    return runtimeInformation;
+  public synchronized Collection<? extends RuntimeMeasurement> getRuntimeInformation() {
+    return new ArrayList<RuntimeMeasurement>(runtimeInformation);
+  }
+
+  @Override
+  public void record(final JPAMetric metric, final long value) {
+    if (metric.getKind() != JPAMetric.Kind.Duration) {
+      // the debug output can show only durations
+      return;
+    }
+    final long now = System.nanoTime();
+    final RuntimeMeasurement measurement = new RuntimeMeasurement();
+    measurement.setTimeStarted(now - value);
+    measurement.setTimeStopped(now);
+    measurement.setClassName(JPARequestMetrics.class.getSimpleName());
+    measurement.setMethodName(metric.getName());
+    synchronized (this) {
+      runtimeInformation.add(measurement);
+    }
+  }
+
+  @Override
+  public void requestCompleted(final JPARequestMetrics requestMetrics) {
+    // nothing to do
   }
 
 }
@@ -1,16 +1,14 @@
 package org.apache.olingo.jpa.processor.impl;
 
-import java.util.List;
-
 import javax.persistence.EntityManager;
 
-import org.apache.olingo.commons.api.data.Entity;
-import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.IntermediateServiceDocument;
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.prefer.Preferences.Return;
 import org.apache.olingo.server.api.processor.Processor;
 
 /**
@@ -66,39 +64,11 @@ abstract class AbstractProcessor implements Processor {
   }
 
   /**
-   * Merge the content (properties) from first entity into the second entity. The
-   * result will be a new entity instance representing the merged state of both
-   * entities.
+   * @return TRUE if the request is part of a $batch change set, so writing the changes to the database can be
+   * deferred to the end of the change set.
    */
-  protected Entity mergeEntities(final Entity from, final Entity to) {
-    final Entity odataEntityMerged = new Entity();
-    // copy the 'to' entity as base for merged state
-    odataEntityMerged.setType(to.getType());
-    odataEntityMerged.setBaseURI(to.getBaseURI());
-    odataEntityMerged.setEditLink(to.getEditLink());
-    odataEntityMerged.setETag(to.getETag());
-    odataEntityMerged.setId(to.getId());
-    odataEntityMerged.setMediaContentSource(to.getMediaContentSource());
-    odataEntityMerged.setMediaContentType(to.getMediaContentType());
-    odataEntityMerged.setMediaETag(to.getMediaETag());
-    odataEntityMerged.setSelfLink(to.getSelfLink());
-    final List<Property> propertiesMerged = odataEntityMerged.getProperties();
-    for (final Property pTo : to.getProperties()) {
-      // we can take the property instance self (without cloning), because the merged
-      // "state" should be affected by changes on the origin 'to' entity (meaning any
-      // manipulation on property values)
-      propertiesMerged.add(pTo);
-    }
-    // overwrite properties with values from 'from'
-    for (final Property pFrom : from.getProperties()) {
-      final Property pExisting = odataEntityMerged.getProperty(pFrom.getName());
-      if (pExisting != null) {
-        // remove old property (from 'to') if we get a newer one from 'from'
-        propertiesMerged.remove(pExisting);
-      }
-      propertiesMerged.add(pFrom);
-    }
-    return odataEntityMerged;
+  protected final boolean isProcessedInChangeSet() {
+    return requestContext.getDependencyInjector().getDependencyValue(ChangeSetContext.class) != null;
   }
 
   /**
@@ -112,4 +82,15 @@ abstract class AbstractProcessor implements Processor {
     return value.equalsIgnoreCase(headerValue);
   }
 
+  /**
+   * @return TRUE if the client prefers a response without content, via <code>Prefer: return=minimal</code> (or the
+   * legacy <code>return: minimal</code> header).
+   */
+  protected final boolean isReturnMinimalPreferred(final ODataRequest request) {
+    if (hasPreference(request, "return", "minimal")) {
+      return true;
+    }
+    return getOData().createPreferences(request.getHeaders(HttpHeader.PREFER)).getReturn() == Return.MINIMAL;
+  }
+
 }
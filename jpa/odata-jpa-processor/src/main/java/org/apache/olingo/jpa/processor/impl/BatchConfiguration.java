@@ -0,0 +1,43 @@
+package org.apache.olingo.jpa.processor.impl;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Configuration to enable the parallel processing of $batch requests; without configuration all request parts are
+ * processed sequentially.
+ * <p>
+ * Consecutive GET requests outside of change sets are processed concurrently, every request with an own entity
+ * manager, transaction and request context. Change sets, modifying requests and requests referencing a Content-ID are
+ * processed one after another in the order of the batch request. Every change set and every modifying request outside
+ * of a change set is committed in an own transaction before the next request part is processed, so following GET
+ * requests see the changes. The response parts are always in the order of the request parts. In debug mode the request
+ * parts are processed sequentially in the transaction of the $batch request. A concurrently processed request part
+ * failing outside of the OData handler (for example while creating the entity manager) results in an error response
+ * for that request part only.
+ * <p>
+ * The client hook methods of the servlet handler (like <code>modifyRequestContext()</code>) are called for every
+ * concurrently processed request part by the executing thread, so they must be thread safe.
+ *
+ */
+public class BatchConfiguration {
+
+  private final ExecutorService executor;
+
+  /**
+   *
+   * @param executor The executor to process the request parts, should be bounded (like
+   * {@link java.util.concurrent.Executors#newFixedThreadPool(int)}) and shared by all requests. The current thread
+   * will always process one of the concurrent request parts by its own. Request parts rejected by the executor are
+   * processed by the current thread. The executor is never shut down by the processor.
+   */
+  public BatchConfiguration(final ExecutorService executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor required");
+    }
+    this.executor = executor;
+  }
+
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+}
@@ -0,0 +1,88 @@
+package org.apache.olingo.jpa.processor.impl;
+
+/**
+ * A single byte range of a <code>Range</code> request header, see
+ * <a href="https://tools.ietf.org/html/rfc7233#section-2.1">RFC 7233 - 2.1 Byte Ranges</a>. Requests with multiple
+ * ranges or other units are answered with the complete content, this is allowed by the specification.
+ */
+final class ByteRange {
+
+  private static final String BYTES_UNIT = "bytes=";
+
+  private final long first;
+  private final long last;
+
+  private ByteRange(final long first, final long last) {
+    this.first = first;
+    this.last = last;
+  }
+
+  /**
+   *
+   * @param header The value of <code>Range</code> header, maybe <code>null</code>.
+   * @param contentLength The length of the complete content.
+   * @return The range or <code>null</code> if the complete content has to be sent.
+   */
+  static ByteRange parse(final String header, final long contentLength) {
+    if (header == null || !header.trim().startsWith(BYTES_UNIT)) {
+      return null;
+    }
+    final String spec = header.trim().substring(BYTES_UNIT.length()).trim();
+    final int separator = spec.indexOf('-');
+    if (separator < 0 || spec.indexOf(',') > -1) {
+      return null;
+    }
+    try {
+      final String firstPart = spec.substring(0, separator).trim();
+      final String lastPart = spec.substring(separator + 1).trim();
+      if (firstPart.isEmpty()) {
+        // suffix range: the last n bytes
+        final long suffixLength = Long.parseLong(lastPart);
+        if (suffixLength < 0) {
+          // syntactically invalid (like 'bytes=--5')
+          return null;
+        }
+        if (suffixLength == 0 || contentLength == 0) {
+          return new ByteRange(contentLength, contentLength - 1);
+        }
+        return new ByteRange(Math.max(0, contentLength - suffixLength), contentLength - 1);
+      }
+      final long first = Long.parseLong(firstPart);
+      if (first < 0) {
+        // syntactically invalid
+        return null;
+      }
+      if (lastPart.isEmpty()) {
+        return new ByteRange(first, contentLength - 1);
+      }
+      final long last = Long.parseLong(lastPart);
+      if (last < first) {
+        // syntactically invalid
+        return null;
+      }
+      return new ByteRange(first, Math.min(last, contentLength - 1));
+    } catch (final NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   *
+   * @return FALSE if the range starts behind the content, the response must be <i>416 Range Not Satisfiable</i>.
+   */
+  boolean isSatisfiable() {
+    return first <= last;
+  }
+
+  long getFirst() {
+    return first;
+  }
+
+  long getLast() {
+    return last;
+  }
+
+  long getLength() {
+    return last - first + 1;
+  }
+}
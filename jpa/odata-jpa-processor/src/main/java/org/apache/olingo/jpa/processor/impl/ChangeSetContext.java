@@ -0,0 +1,16 @@
+package org.apache.olingo.jpa.processor.impl;
+
+/**
+ * Registered as dependency value of the request context while the requests of a $batch change set are processed. All
+ * requests of the change set share one entity manager and transaction, the processors defer the flush of their
+ * changes to the end of the change set (if the response doesn't require the database state), so the JPA provider is
+ * able to write the changes with JDBC statement batching.
+ *
+ * @see JPAODataBatchProcessor#processChangeSet(org.apache.olingo.server.api.batch.BatchFacade, java.util.List)
+ */
+final class ChangeSetContext {
+
+  ChangeSetContext() {
+    // package private
+  }
+}
@@ -0,0 +1,57 @@
+package org.apache.olingo.jpa.processor.impl;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+
+/**
+ * Handler to process a request independent of the current request: with an own entity manager, transaction and
+ * request context, so multiple reading requests can be processed concurrently and every modifying $batch request part
+ * (a change set or a single modifying request) is committed or rolled back on its own. The handler is provided by the servlet handler as dependency value of the
+ * request context.
+ *
+ * @see BatchConfiguration
+ */
+public interface IsolatedRequestHandler {
+
+  /**
+   * Processing of the requests of a modifying $batch request part within the isolated transaction.
+   */
+  @FunctionalInterface
+  public interface ModificationProcessing {
+
+    /**
+     *
+     * @param facade The facade to process the requests, resolving references to the Content-ID of a previous request
+     * of a change set.
+     * @param requestContext The request context of the isolated transaction.
+     * @return The response part of the request part or a response part, not being a change set, with the error
+     * response of the failing request of a change set.
+     */
+    public ODataResponsePart process(BatchFacade facade, ModifiableJPAODataRequestContext requestContext)
+        throws ODataApplicationException, ODataLibraryException;
+  }
+
+  /**
+   * Process a reading request, the transaction is never committed. This method is thread safe.
+   *
+   * @return The response with a completely buffered content, because the transaction is already closed. Errors while
+   * processing the request are part of the response.
+   */
+  public ODataResponse process(ODataRequest request) throws ODataApplicationException;
+
+  /**
+   * Process the requests of a modifying $batch request part. The transaction is committed if no response of the
+   * returned response part is an error response (status code 400 or higher), otherwise (error response or exception)
+   * the transaction is rolled back.
+   *
+   * @return The response part created by the processing.
+   */
+  public ODataResponsePart processModification(ModificationProcessing processing) throws ODataException;
+
+}
@@ -48,6 +48,7 @@ import org.apache.olingo.jpa.processor.core.query.Util;
 import org.apache.olingo.jpa.processor.core.query.result.QueryEntityResult;
 import org.apache.olingo.jpa.processor.core.util.JPAEntityHelper;
 import org.apache.olingo.jpa.processor.core.util.TypedParameter;
+import org.apache.olingo.jpa.processor.impl.deserializer.MultipartConfiguration;
 import org.apache.olingo.jpa.processor.impl.deserializer.MultipartFormDataDeserializer;
 import org.apache.olingo.jpa.processor.transformation.Transformation;
 import org.apache.olingo.server.api.OData;
@@ -350,6 +351,7 @@ ActionEntityProcessor, ActionEntityCollectionProcessor, ActionComplexProcessor,
     final OData odata = getOData();
     final ServiceMetadata serviceMetadata = getServiceMetadata();
     Map<String, Parameter> parameters = Collections.emptyMap();
+    MultipartFormDataDeserializer multipartDeserializer = null;
     try {
       if (!jpaAction.getParameters().isEmpty() && request.getBody().available() > 0) {
 
@@ -367,7 +369,9 @@ ActionEntityProcessor, ActionEntityCollectionProcessor, ActionComplexProcessor,
         final ODataDeserializer deserializer;
         if (requestFormat.isCompatible(ContentType.MULTIPART_FORM_DATA)) {
           // for action calls we support multi part/form-data
-          deserializer = new MultipartFormDataDeserializer(request);
+          multipartDeserializer = new MultipartFormDataDeserializer(request, getRequestContext()
+              .getDependencyInjector().getDependencyValue(MultipartConfiguration.class));
+          deserializer = multipartDeserializer;
         } else {
           deserializer = odata.createDeserializer(requestFormat, serviceMetadata);
         }
@@ -383,6 +387,18 @@ ActionEntityProcessor, ActionEntityCollectionProcessor, ActionComplexProcessor,
           HttpStatusCode.INTERNAL_SERVER_ERROR, ex);
     }
 
+    try {
+      return invokeAction(uriInfo, jpaAction, parameters, handle);
+    } finally {
+      if (multipartDeserializer != null) {
+        // delete the spooled file parts
+        multipartDeserializer.close();
+      }
+    }
+  }
+
+  private ActionCallResult<?> invokeAction(final UriInfo uriInfo, final JPAAction jpaAction,
+      final Map<String, Parameter> parameters, final int handle) throws ODataApplicationException {
     final List<Object> results = new LinkedList<>();
     if (jpaAction.isBound()) {
       // determine entity context
@@ -4,22 +4,40 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import javax.persistence.PersistenceException;
+
+import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.ModifiableDependencyInjector;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import org.apache.olingo.jpa.processor.core.util.ODataResponseHelper;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.batch.BatchFacade;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.ODataExceptionHelper;
 
 /**
  * 
@@ -32,8 +50,26 @@ import org.apache.olingo.server.api.processor.BatchProcessor;
  */
 public class JPAODataBatchProcessor implements BatchProcessor {
 
+  private final Logger log = Logger.getLogger(JPAODataBatchProcessor.class.getName());
+  private final JPAODataRequestContext requestContext;
   private OData odata;
 
+  /**
+   * Create a processor handling all request parts sequentially.
+   */
+  public JPAODataBatchProcessor() {
+    this(null);
+  }
+
+  /**
+   *
+   * @param requestContext The context to look up a {@link BatchConfiguration} for parallel processing of independent
+   * request parts or <code>null</code>.
+   */
+  public JPAODataBatchProcessor(final JPAODataRequestContext requestContext) {
+    this.requestContext = requestContext;
+  }
+
   @Override
   public void init(final OData odata, final ServiceMetadata serviceMetadata) {
     this.odata = odata;
@@ -50,9 +86,18 @@ public class JPAODataBatchProcessor implements BatchProcessor {
     final List<BatchRequestPart> requestParts = odata.createFixedFormatDeserializer()
         .parseBatchRequest(request.getBody(), boundary, options);
 
-    final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
-    for (final BatchRequestPart part : requestParts) {
-      responseParts.add(facade.handleBatchRequest(part));
+    final BatchConfiguration configuration = requestContext != null ? requestContext.getDependencyInjector()
+        .getDependencyValue(BatchConfiguration.class) : null;
+    final IsolatedRequestHandler isolatedRequestHandler = requestContext != null ? requestContext
+        .getDependencyInjector().getDependencyValue(IsolatedRequestHandler.class) : null;
+    final List<ODataResponsePart> responseParts;
+    if (configuration == null || isolatedRequestHandler == null || requestParts.size() < 2) {
+      responseParts = new ArrayList<ODataResponsePart>(requestParts.size());
+      for (final BatchRequestPart part : requestParts) {
+        responseParts.add(processSequential(facade, part, isolatedRequestHandler));
+      }
+    } else {
+      responseParts = processParallel(facade, requestParts, configuration.getExecutor(), isolatedRequestHandler);
     }
     final InputStream responseContent = odata.createFixedFormatSerializer().batchResponse(responseParts, boundary);
     final String responseBoundary = "batch_" + UUID.randomUUID().toString();
@@ -62,11 +107,239 @@ public class JPAODataBatchProcessor implements BatchProcessor {
     response.setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
   }
 
+  /**
+   * A modifying request outside of a change set is committed on its own by the {@link IsolatedRequestHandler} like a
+   * change set, so all modifications of the $batch request are handled the same way.
+   *
+   * @param isolatedRequestHandler The handler for modifying requests or <code>null</code> to process the request in
+   * the transaction of the $batch request.
+   */
+  private ODataResponsePart processSequential(final BatchFacade facade, final BatchRequestPart part,
+      final IsolatedRequestHandler isolatedRequestHandler) throws ODataApplicationException, ODataLibraryException {
+    if (isolatedRequestHandler != null && !part.isChangeSet() && !isReadRequest(part)) {
+      return processModification(isolatedRequestHandler, (isolatedFacade, isolatedContext) -> {
+        final ODataResponsePart responsePart = isolatedFacade.handleBatchRequest(part);
+        bufferStreamedContent(responsePart);
+        return responsePart;
+      });
+    }
+    final ODataResponsePart responsePart = facade.handleBatchRequest(part);
+    bufferStreamedContent(responsePart);
+    return responsePart;
+  }
+
+  /**
+   * Independent reading request parts are collected until a part is reached that must be processed in order, then the
+   * collected parts are processed concurrently. Modifying request parts are committed before the next request part is
+   * processed, so the following reading request parts are independent again.
+   */
+  private List<ODataResponsePart> processParallel(final BatchFacade facade, final List<BatchRequestPart> requestParts,
+      final ExecutorService executor, final IsolatedRequestHandler isolatedRequestHandler)
+          throws ODataApplicationException, ODataLibraryException {
+    final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>(requestParts.size());
+    final List<ODataRequest> independentRequests = new ArrayList<>();
+    for (final BatchRequestPart part : requestParts) {
+      if (isIndependentReadRequest(part)) {
+        independentRequests.add(part.getRequests().get(0));
+        continue;
+      }
+      processConcurrent(independentRequests, executor, isolatedRequestHandler, responseParts);
+      responseParts.add(processSequential(facade, part, isolatedRequestHandler));
+    }
+    processConcurrent(independentRequests, executor, isolatedRequestHandler, responseParts);
+    return responseParts;
+  }
+
+  private boolean isReadRequest(final BatchRequestPart part) {
+    return !part.isChangeSet() && part.getRequests().size() == 1 && part.getRequests().get(0)
+        .getMethod() == HttpMethod.GET;
+  }
+
+  private boolean isIndependentReadRequest(final BatchRequestPart part) {
+    if (!isReadRequest(part)) {
+      return false;
+    }
+    final ODataRequest request = part.getRequests().get(0);
+    if (request.getHeader(HttpHeader.CONTENT_ID) != null) {
+      return false;
+    }
+    // a reference to the Content-ID of another request part starts the resource path with '$'
+    final String resourcePath = request.getRawODataPath();
+    return resourcePath == null || !resourcePath.startsWith("/$");
+  }
+
+  /**
+   * Process the requests concurrently and add the responses (in the order of requests) to the response parts. A
+   * failing request results in an error response for that request part only.
+   */
+  private void processConcurrent(final List<ODataRequest> requests, final ExecutorService executor,
+      final IsolatedRequestHandler isolatedRequestHandler, final List<ODataResponsePart> responseParts) {
+    if (requests.isEmpty()) {
+      return;
+    }
+    final List<Future<ODataResponse>> responses = new ArrayList<>(requests.size());
+    try {
+      for (final ODataRequest request : requests.subList(0, requests.size() - 1)) {
+        try {
+          responses.add(executor.submit(() -> processIsolated(isolatedRequestHandler, request)));
+        } catch (final RejectedExecutionException e) {
+          // the executor is exhausted
+          responses.add(CompletableFuture.completedFuture(processIsolated(isolatedRequestHandler, request)));
+        }
+      }
+      // the current thread has to wait anyway, so use it to process the last request
+      responses.add(CompletableFuture.completedFuture(processIsolated(isolatedRequestHandler, requests.get(requests
+          .size() - 1))));
+      for (final Future<ODataResponse> response : responses) {
+        responseParts.add(new ODataResponsePart(waitForResponse(response), false));
+      }
+    } finally {
+      for (final Future<ODataResponse> response : responses) {
+        response.cancel(true);
+      }
+      requests.clear();
+    }
+  }
+
+  private ODataResponse processIsolated(final IsolatedRequestHandler isolatedRequestHandler,
+      final ODataRequest request) {
+    try {
+      return isolatedRequestHandler.process(request);
+    } catch (final ODataApplicationException | RuntimeException e) {
+      log.log(Level.WARNING, "Failed to process batch request part " + request.getRawODataPath(), e);
+      return createErrorResponse(e);
+    }
+  }
+
+  private ODataResponse waitForResponse(final Future<ODataResponse> response) {
+    try {
+      return response.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return createErrorResponse(new ODataJPAProcessorException(
+          ODataJPAProcessorException.MessageKeys.BATCH_PART_PROCESSING_ERROR, HttpStatusCode.INTERNAL_SERVER_ERROR,
+          e));
+    } catch (final ExecutionException e) {
+      // only errors are able to escape processIsolated()
+      log.log(Level.SEVERE, "Failed to process batch request part", e.getCause());
+      return createErrorResponse(new ODataJPAProcessorException(
+          ODataJPAProcessorException.MessageKeys.BATCH_PART_PROCESSING_ERROR, HttpStatusCode.INTERNAL_SERVER_ERROR,
+          e.getCause()));
+    }
+  }
+
+  /**
+   * Create the response for a request part failed outside of the OData handler, so the failure affects only that
+   * request part and not the complete $batch request.
+   */
+  private ODataResponse createErrorResponse(final Exception exception) {
+    final ODataServerError serverError = exception instanceof ODataApplicationException ? ODataExceptionHelper
+        .createServerErrorObject((ODataApplicationException) exception) : ODataExceptionHelper.createServerErrorObject(
+            exception);
+    final ODataResponse response = new ODataResponse();
+    response.setStatusCode(serverError.getStatusCode());
+    try {
+      response.setContent(odata.createSerializer(ContentType.JSON).error(serverError).getContent());
+      response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.JSON.toContentTypeString());
+    } catch (final SerializerException e) {
+      log.log(Level.WARNING, "Failed to serialize error of batch request part", e);
+    }
+    return response;
+  }
+
+  /**
+   * The batch response serializer is not able to handle {@link ODataResponse#getODataContent() streamed content}, so
+   * we have to write the content into a buffer.
+   */
+  private void bufferStreamedContent(final ODataResponsePart responsePart) {
+    for (final ODataResponse partResponse : responsePart.getResponses()) {
+      ODataResponseHelper.bufferStreamedContent(partResponse);
+    }
+  }
+
+  /**
+   * Every change set is processed in an own transaction by the {@link IsolatedRequestHandler}, like every other
+   * modifying request part: a failing request rolls back the change set and its error response is the response of the
+   * change set, the other request parts of the $batch request are processed further. Without isolated request handler
+   * (like in debug mode) all request parts are processed in the transaction of the $batch request and a failing
+   * request of a change set cancels the complete $batch request, because the changes of the change set cannot be
+   * rolled back separately.
+   * <p>
+   * Writing the changes to the database is deferred to the end of the change set, except a response requires the
+   * database state (no <code>Prefer: return=minimal</code>), so the JPA provider is able to use JDBC statement batching
+   * (like <code>eclipselink.jdbc.batch-writing</code>).
+   */
   @Override
   public ODataResponsePart processChangeSet(final BatchFacade facade, final List<ODataRequest> requests)
       throws ODataApplicationException, ODataLibraryException {
-    throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.BATCH_CHANGE_SET_NOT_IMPLEMENTED,
-        HttpStatusCode.NOT_IMPLEMENTED);
+    if (!ModifiableJPAODataRequestContext.class.isInstance(requestContext)) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.BATCH_CHANGE_SET_NOT_IMPLEMENTED,
+          HttpStatusCode.NOT_IMPLEMENTED);
+    }
+    final IsolatedRequestHandler isolatedRequestHandler = requestContext.getDependencyInjector().getDependencyValue(
+        IsolatedRequestHandler.class);
+    if (isolatedRequestHandler == null) {
+      return processChangeSet(facade, requests, ModifiableJPAODataRequestContext.class.cast(requestContext), false);
+    }
+    return processModification(isolatedRequestHandler, (isolatedFacade, isolatedContext) -> processChangeSet(
+        isolatedFacade, requests, isolatedContext, true));
+  }
+
+  /**
+   * Process a modifying request part in an own transaction, a failure results in an error response for that request
+   * part only.
+   */
+  private ODataResponsePart processModification(final IsolatedRequestHandler isolatedRequestHandler,
+      final IsolatedRequestHandler.ModificationProcessing processing) {
+    final ODataResponsePart responsePart;
+    try {
+      responsePart = isolatedRequestHandler.processModification(processing);
+    } catch (final ODataException | RuntimeException e) {
+      log.log(Level.WARNING, "Failed to process modifying batch request part", e);
+      return new ODataResponsePart(createErrorResponse(e), false);
+    }
+    // entities loaded before by the $batch request are stale after the commit, the entity manager of the $batch
+    // request has no changes to flush
+    requestContext.getEntityManager().clear();
+    return responsePart;
+  }
+
+  /**
+   *
+   * @param isolated TRUE if the change set is processed in an own transaction, so a failing request results in the
+   * error response of the change set instead of an exception.
+   */
+  private ODataResponsePart processChangeSet(final BatchFacade facade, final List<ODataRequest> requests,
+      final ModifiableJPAODataRequestContext changeSetContext, final boolean isolated)
+      throws ODataApplicationException, ODataLibraryException {
+    final ModifiableDependencyInjector dependencyInjector = changeSetContext.getDependencyInjector();
+    final List<ODataResponse> responses = new ArrayList<ODataResponse>(requests.size());
+    dependencyInjector.registerDependencyMapping(ChangeSetContext.class, new ChangeSetContext());
+    try {
+      for (final ODataRequest request : requests) {
+        final ODataResponse response = facade.handleODataRequest(request);
+        if (response.getStatusCode() >= 400) {
+          if (isolated) {
+            return new ODataResponsePart(response, false);
+          }
+          final HttpStatusCode statusCode = HttpStatusCode.fromStatusCode(response.getStatusCode());
+          throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.BATCH_CHANGE_SET_FAILED,
+              statusCode != null ? statusCode : HttpStatusCode.BAD_REQUEST, request.getMethod() + " " + request
+              .getRawODataPath(), Integer.toString(response.getStatusCode()));
+        }
+        responses.add(response);
+      }
+      // write all deferred changes at once
+      changeSetContext.getEntityManager().flush();
+    } catch (final PersistenceException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.BATCH_PART_PROCESSING_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    } finally {
+      dependencyInjector.removeDependencyValue(ChangeSetContext.class);
+    }
+    final ODataResponsePart responsePart = new ODataResponsePart(responses, true);
+    bufferStreamedContent(responsePart);
+    return responsePart;
   }
 
 }
@@ -0,0 +1,115 @@
+package org.apache.olingo.jpa.processor.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import org.apache.olingo.jpa.processor.core.query.EntityConverter;
+import org.apache.olingo.jpa.processor.core.query.EntityDeleteQueryBuilder;
+import org.apache.olingo.jpa.processor.core.query.EntityUpdateQueryBuilder;
+import org.apache.olingo.jpa.processor.core.query.NavigationRoot;
+import org.apache.olingo.jpa.processor.core.query.Util;
+import org.apache.olingo.jpa.processor.core.util.DTOEntityHelper;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.deserializer.ODataDeserializer;
+import org.apache.olingo.server.api.uri.UriInfo;
+
+/**
+ * Processor for the OData 4.01 collection operations, deleting or updating all entities of an entity set matching a
+ * filter with one statement, without loading the entities:
+ *
+ * <pre>
+ * DELETE .../Persons?$filter=...
+ * DELETE .../Persons/$filter(...)/$each
+ * PATCH .../Persons?$filter=...
+ * PATCH .../Persons/$filter(...)/$each
+ * </pre>
+ *
+ * These requests are not dispatched by Olingo, so the processor is called directly from the request handler if
+ * registered as processor.
+ */
+public class JPAODataBulkProcessor extends AbstractProcessor {
+
+  private final Logger log = Logger.getLogger(JPAODataBulkProcessor.class.getName());
+
+  public JPAODataBulkProcessor(final JPAODataRequestContext context) {
+    super(context);
+  }
+
+  public void deleteEntityCollection(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo)
+      throws ODataApplicationException, ODataLibraryException {
+    checkJPAEntitySet(uriInfo);
+    try {
+      final EntityDeleteQueryBuilder query = new EntityDeleteQueryBuilder(getRequestContext(), new NavigationRoot(
+          uriInfo), getEntityManager());
+      final int count = query.execute();
+      log.log(Level.FINER, "Deleted " + count + " entities of type " + query.getQueryResultType().getInternalName());
+      response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    } catch (final ODataJPAModelException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  public void updateEntityCollection(final ODataRequest request, final ODataResponse response,
+      final UriInfo uriInfo, final ContentType requestFormat) throws ODataApplicationException,
+  ODataLibraryException {
+    checkJPAEntitySet(uriInfo);
+    try {
+      final EntityUpdateQueryBuilder query = new EntityUpdateQueryBuilder(getRequestContext(), new NavigationRoot(
+          uriInfo), getEntityManager());
+      final JPAEntityType jpaEntityType = query.getQueryResultType();
+      final EdmEntityType edmType = getServiceMetadata().getEdm().getEntityType(jpaEntityType.getExternalFQN());
+      final ODataDeserializer deserializer = getOData().createDeserializer(requestFormat, getServiceMetadata());
+      final Entity odataEntityPatchData = deserializer.entity(request.getBody(), edmType).getEntity();
+      if (!odataEntityPatchData.getNavigationLinks().isEmpty() || !odataEntityPatchData.getNavigationBindings()
+          .isEmpty()) {
+        throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_UPDATE,
+            HttpStatusCode.NOT_IMPLEMENTED);
+      }
+
+      final EntityConverter entityConverter = new EntityConverter(getOData().createUriHelper(), sd,
+          getServiceMetadata());
+      final Map<JPAMemberAttribute, Object> values = new LinkedHashMap<>();
+      for (final JPAMemberAttribute jpaAttribute : jpaEntityType.getAttributes(false)) {
+        if (odataEntityPatchData.getProperty(jpaAttribute.getExternalName()) == null) {
+          continue;
+        }
+        if (jpaAttribute.isKey()) {
+          throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.BULK_UPDATE_KEY_PROPERTY,
+              HttpStatusCode.BAD_REQUEST, jpaAttribute.getExternalName());
+        }
+        values.put(jpaAttribute, entityConverter.transferOData2JPAProperty(null, jpaAttribute, odataEntityPatchData
+            .getProperties()));
+      }
+      final int count = query.execute(values);
+      log.log(Level.FINER, "Updated " + count + " entities of type " + jpaEntityType.getInternalName());
+      response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    } catch (final ODataJPAModelException | NoSuchFieldException | IllegalAccessException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  private void checkJPAEntitySet(final UriInfo uriInfo) throws ODataApplicationException {
+    final EdmEntitySet targetEdmEntitySet = Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+    if (new DTOEntityHelper(getRequestContext(), uriInfo).isTargetingDTOWithHandler(targetEdmEntitySet)) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_RESOURCE_TYPE,
+          HttpStatusCode.NOT_IMPLEMENTED, targetEdmEntitySet.getName());
+    }
+  }
+}
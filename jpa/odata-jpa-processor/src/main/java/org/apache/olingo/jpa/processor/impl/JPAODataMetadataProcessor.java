@@ -0,0 +1,82 @@
+package org.apache.olingo.jpa.processor.impl;
+
+import java.io.ByteArrayInputStream;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.impl.MetadataDocumentCache.RenderedDocument;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.processor.MetadataProcessor;
+import org.apache.olingo.server.api.processor.ServiceDocumentProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
+
+/**
+ * Processor serving the <code>$metadata</code> document from the {@link MetadataDocumentCache} of the global context
+ * and the service document. Every response has a strong ETag, conditional requests (<code>If-None-Match</code>) are
+ * answered with <i>304 Not Modified</i>.
+ * <p>
+ * Processors derived from {@link org.apache.olingo.server.api.processor.DefaultProcessor DefaultProcessor} do not
+ * replace this processor, to use a custom metadata processor remove this processor from
+ * {@link org.apache.olingo.jpa.processor.core.api.JPAODataServletHandler#collectProcessors(JPAODataRequestContext)
+ * JPAODataServletHandler#collectProcessors()}.
+ *
+ * @see org.apache.olingo.server.api.processor.DefaultProcessor
+ */
+public class JPAODataMetadataProcessor implements MetadataProcessor, ServiceDocumentProcessor {
+
+  private final MetadataDocumentCache cache;
+  private OData odata;
+  private ServiceMetadata serviceMetadata;
+
+  public JPAODataMetadataProcessor(final JPAODataRequestContext requestContext) {
+    this.cache = requestContext.getDependencyInjector().getDependencyValue(MetadataDocumentCache.class);
+    if (cache == null) {
+      throw new IllegalStateException("Dependency injection not working: " + MetadataDocumentCache.class
+          .getSimpleName() + " expected");
+    }
+  }
+
+  @Override
+  public void init(final OData odata, final ServiceMetadata serviceMetadata) {
+    this.odata = odata;
+    this.serviceMetadata = serviceMetadata;
+  }
+
+  @Override
+  public void readMetadata(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
+      final ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+    writeDocument(request, response, cache.getMetadataDocument(odata, serviceMetadata, responseFormat),
+        responseFormat);
+  }
+
+  @Override
+  public void readServiceDocument(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
+      final ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+    writeDocument(request, response, cache.getServiceDocument(odata, serviceMetadata, responseFormat, request
+        .getRawBaseUri()), responseFormat);
+  }
+
+  private void writeDocument(final ODataRequest request, final ODataResponse response,
+      final RenderedDocument document, final ContentType responseFormat) throws ODataLibraryException {
+    response.setHeader(HttpHeader.ETAG, document.getETag());
+    if (odata.createETagHelper().checkReadPreconditions(document.getETag(), request.getHeaders(HttpHeader.IF_MATCH),
+        request.getHeaders(HttpHeader.IF_NONE_MATCH))) {
+      response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+      return;
+    }
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    if (request.getMethod() == HttpMethod.HEAD) {
+      return;
+    }
+    response.setContent(new ByteArrayInputStream(document.getContent()));
+    response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
+  }
+}
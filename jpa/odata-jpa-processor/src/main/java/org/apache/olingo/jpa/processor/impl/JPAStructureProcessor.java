@@ -1,13 +1,24 @@
 package org.apache.olingo.jpa.processor.impl;
 
 import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.sql.Blob;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.persistence.EntityManager;
+import javax.persistence.GeneratedValue;
+import javax.sql.rowset.serial.SerialBlob;
 
 import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.ContextURL.Suffix;
@@ -20,9 +31,12 @@ import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAFunction;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAOperationResultParameter;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPASelector;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
@@ -33,6 +47,9 @@ import org.apache.olingo.jpa.processor.core.query.EntityConverter;
 import org.apache.olingo.jpa.processor.core.query.EntityCountQueryBuilder;
 import org.apache.olingo.jpa.processor.core.query.EntityQueryBuilder;
 import org.apache.olingo.jpa.processor.core.query.JPAInstanceResultConverter;
+import org.apache.olingo.jpa.processor.core.query.ManagedEntityQueryBuilder;
+import org.apache.olingo.jpa.processor.core.query.MediaStreamContent;
+import org.apache.olingo.jpa.processor.core.query.MediaStreamQueryBuilder;
 import org.apache.olingo.jpa.processor.core.query.NavigationRoot;
 import org.apache.olingo.jpa.processor.core.query.Util;
 import org.apache.olingo.jpa.processor.core.query.result.QueryEntityResult;
@@ -57,7 +74,7 @@ import org.apache.olingo.server.api.deserializer.DeserializerResult;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.api.processor.ComplexProcessor;
 import org.apache.olingo.server.api.processor.CountEntityCollectionProcessor;
-import org.apache.olingo.server.api.processor.EntityProcessor;
+import org.apache.olingo.server.api.processor.MediaEntityProcessor;
 import org.apache.olingo.server.api.processor.PrimitiveValueProcessor;
 import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
 import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
@@ -75,8 +92,13 @@ import org.apache.olingo.server.core.uri.queryoption.ExpandItemImpl;
 import org.apache.olingo.server.core.uri.queryoption.ExpandOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.LevelsOptionImpl;
 
-public class JPAStructureProcessor extends AbstractProcessor implements EntityProcessor, CountEntityCollectionProcessor,
-ComplexProcessor, PrimitiveValueProcessor {
+public class JPAStructureProcessor extends AbstractProcessor implements MediaEntityProcessor,
+CountEntityCollectionProcessor, ComplexProcessor, PrimitiveValueProcessor {
+
+  private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+  private static final String HEADER_CONTENT_RANGE = "Content-Range";
+  private static final String HEADER_IF_RANGE = "If-Range";
+  private static final int MEDIA_BUFFER_SIZE = 8192;
 
   private final Logger log = Logger.getLogger(AbstractProcessor.class.getName());
 
@@ -121,18 +143,27 @@ ComplexProcessor, PrimitiveValueProcessor {
 
       final EntityManager em = getEntityManager();
       em.persist(persistenceJPAEntity);
-      // force writing to DB...
-      log.log(Level.FINER, "Flush new created entity of type " + jpaEntityType.getInternalName() + " to DB...");
-      em.flush();
-      // ...so as to reload with data from DB, also filling values not given with 'create request', but derived from DB
-      log.log(Level.FINER, "Reload new created entity of type " + jpaEntityType.getInternalName()
-      + " from DB to get also dervied values not given in creation request...");
-      em.refresh(persistenceJPAEntity);
+      final boolean returnMinimal = isReturnMinimalPreferred(request);
+      // in a change set the flush is deferred, as long as the key is known (for the location) without DB; a
+      // generated key (like IDENTITY, a primitive key is 0 before) is known only after writing
+      if (!returnMinimal || !isProcessedInChangeSet() || hasGeneratedKey(jpaEntityType) || em
+          .getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(persistenceJPAEntity) == null) {
+        // force writing to DB...
+        log.log(Level.FINER, "Flush new created entity of type " + jpaEntityType.getInternalName() + " to DB...");
+        em.flush();
+      }
+      if (!returnMinimal) {
+        // ...so as to reload with data from DB, also filling values not given with 'create request', but derived
+        // from DB
+        log.log(Level.FINER, "Reload new created entity of type " + jpaEntityType.getInternalName()
+        + " from DB to get also dervied values not given in creation request...");
+        em.refresh(persistenceJPAEntity);
+      }
       // convert reverse to get also generated fields
       odataEntity = entityConverter.convertJPA2ODataEntity(jpaEntityType, persistenceJPAEntity);
 
       response.setHeader("Location", request.getRawBaseUri() + "/" + odataEntity.getId().toASCIIString()); // set always
-      if (hasPreference(request, "return", "minimal")) {
+      if (returnMinimal) {
         response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
         request.setHeader(HttpHeader.ODATA_ENTITY_ID, odataEntity.getId().toASCIIString());
       } else {
@@ -169,6 +200,16 @@ ComplexProcessor, PrimitiveValueProcessor {
 
   }
 
+  private static boolean hasGeneratedKey(final JPAEntityType jpaEntityType) throws ODataJPAModelException {
+    for (final JPAMemberAttribute keyAttribute : jpaEntityType.getKeyAttributes(true)) {
+      if (keyAttribute.getAnnotatedElement() != null && keyAttribute.getAnnotatedElement().getAnnotation(
+          GeneratedValue.class) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public void updateEntity(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
       final ContentType requestFormat,
@@ -209,63 +250,58 @@ ComplexProcessor, PrimitiveValueProcessor {
       }
     }
 
-    // normal JPA entity handling
-    final Transformation<QueryEntityResult, EntityCollection> transformation = getRequestContext()
-        .getTransformerFactory()
-        .createTransformation(QueryEntityResult.class, EntityCollection.class, new TypedParameter(UriInfoResource.class,
-            uriInfo));
-    final EntityCollection entityCollectionCompleteEntities = loadDataBaseData(request, uriInfo, transformation);
-
-    if (entityCollectionCompleteEntities.getEntities() == null || entityCollectionCompleteEntities.getEntities().isEmpty()) {
-      response.setStatusCode(HttpStatusCode.NOT_FOUND.getStatusCode());
-    } else if (entityCollectionCompleteEntities.getEntities().size() > 1) {
-      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_RESULT_CONV_ERROR,
-          HttpStatusCode.INTERNAL_SERVER_ERROR);
-    } else {
-      try {
-        final JPAEntityType jpaEntityType = getRequestContext().getEdmProvider().getServiceDocument()
-            .getEntityType(targetEdmEntitySet.getName());
-        final EdmEntityType edmType = serviceMetadata.getEdm().getEntityType(jpaEntityType.getExternalFQN());
-
-        final ODataDeserializer deserializer = odata.createDeserializer(requestFormat, serviceMetadata);
-        final DeserializerResult deserializerResult = deserializer.entity(request.getBody(), edmType);
-        // if PATCH method, then only a few properties are set (and no ID...)
-        final Entity odataEntityPatchData = deserializerResult.getEntity();
-        final Entity odataEntityMerged = mergeEntities(odataEntityPatchData,
-            entityCollectionCompleteEntities.getEntities().get(0));
+    // normal JPA entity handling: load the managed entity once and modify only the given properties
+    try {
+      final ManagedEntityQueryBuilder query = new ManagedEntityQueryBuilder(getRequestContext(), new NavigationRoot(
+          uriInfo), getEntityManager());
+      final List<Object> persistenceEntities = query.execute();
+      if (persistenceEntities.isEmpty()) {
+        response.setStatusCode(HttpStatusCode.NOT_FOUND.getStatusCode());
+        return;
+      } else if (persistenceEntities.size() > 1) {
+        throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_RESULT_CONV_ERROR,
+            HttpStatusCode.INTERNAL_SERVER_ERROR);
+      }
+      final Object persistenceEntity = persistenceEntities.get(0);
+      final JPAEntityType jpaEntityType = query.getQueryResultType();
+      final EdmEntityType edmType = serviceMetadata.getEdm().getEntityType(jpaEntityType.getExternalFQN());
 
-        final EntityManager em = getEntityManager();
-        final JPAEntityHelper invoker = new JPAEntityHelper(em, sd, uriInfo, odata.createUriHelper(),
-            getRequestContext());
-        // load the entity as JPA instance from DB, using the ID from resource path
-        final Object persistenceEntity = invoker.lookupJPAEntity(jpaEntityType, odataEntityMerged);
-        if (persistenceEntity == null) {
-          throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_RESULT_CONV_ERROR,
-              HttpStatusCode.INTERNAL_SERVER_ERROR);
-        }
-        final EntityConverter entityConverter = new EntityConverter(odata.createUriHelper(), sd, serviceMetadata);
-        final Object persistenceModifiedEntity = entityConverter.convertOData2JPAEntity(odataEntityMerged,
-            jpaEntityType);
-        final Object persistenceMergedEntity = em.merge(persistenceModifiedEntity);
+      final ODataDeserializer deserializer = odata.createDeserializer(requestFormat, serviceMetadata);
+      final DeserializerResult deserializerResult = deserializer.entity(request.getBody(), edmType);
+      // if PATCH method, then only a few properties are set (and no ID...)
+      final Entity odataEntityPatchData = deserializerResult.getEntity();
 
-        // convert reverse to get also generated fields
-        final Entity odataEntityUpdated = entityConverter.convertJPA2ODataEntity(jpaEntityType,
-            persistenceMergedEntity);
+      final EntityConverter entityConverter = new EntityConverter(odata.createUriHelper(), sd, serviceMetadata);
+      entityConverter.transferOData2JPAEntity(odataEntityPatchData, jpaEntityType, persistenceEntity);
+      final EntityManager em = getEntityManager();
+      final boolean returnMinimal = isReturnMinimalPreferred(request);
+      if (!returnMinimal || !isProcessedInChangeSet()) {
+        // write the changes to DB to get also derived values (like version) into the response
+        log.log(Level.FINER, "Flush modified entity of type " + jpaEntityType.getInternalName() + " to DB...");
+        em.flush();
+      }
 
-        // full response containing complete entity content
-        final EntityCollection entityCollectionResult = new EntityCollection();
-        entityCollectionResult.getEntities().add(odataEntityUpdated);
-        final JPASerializer serializer = new JPASerializeEntity(getServiceMetadata(), getOData(),
-            responseFormat, uriInfo);
-        // serialize the first (and only) entry
-        final SerializerResult serializerResult = serializer.serialize(request, entityCollectionResult);
-        response.setContent(serializerResult.getContent());
-        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
-        response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
-      } catch (final ODataException e) {
-        throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
-            HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+      if (returnMinimal) {
+        response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+        response.setHeader(HttpHeader.PREFERENCE_APPLIED, "return=minimal");
+        return;
       }
+      // convert reverse to get also generated fields
+      final Entity odataEntityUpdated = entityConverter.convertJPA2ODataEntity(jpaEntityType, persistenceEntity);
+
+      // full response containing complete entity content
+      final EntityCollection entityCollectionResult = new EntityCollection();
+      entityCollectionResult.getEntities().add(odataEntityUpdated);
+      final JPASerializer serializer = new JPASerializeEntity(getServiceMetadata(), getOData(),
+          responseFormat, uriInfo);
+      // serialize the first (and only) entry
+      final SerializerResult serializerResult = serializer.serialize(request, entityCollectionResult);
+      response.setContent(serializerResult.getContent());
+      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+      response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
+    } catch (final ODataJPAModelException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
     }
   }
 
@@ -352,10 +388,20 @@ ComplexProcessor, PrimitiveValueProcessor {
   /**
    * Central method to load single or many (entity/dto) data from a source.
    */
-  @SuppressWarnings("unchecked")
   private <O> O retrieveEntityResult(final ODataRequest request, final UriInfo uriInfo,
       final Transformation<QueryEntityResult, O> transformation, final ContentType responseFormat)
           throws ODataApplicationException, ODataLibraryException {
+    return retrieveEntityResult(request, uriInfo, transformation, responseFormat, false);
+  }
+
+  /**
+   * @param serverDrivenPaging TRUE to restrict the result to a page, see
+   * {@link EntityQueryBuilder#setServerDrivenPagingEnabled(boolean)}.
+   */
+  @SuppressWarnings("unchecked")
+  private <O> O retrieveEntityResult(final ODataRequest request, final UriInfo uriInfo,
+      final Transformation<QueryEntityResult, O> transformation, final ContentType responseFormat,
+      final boolean serverDrivenPaging) throws ODataApplicationException, ODataLibraryException {
 
     final List<UriResource> resourceParts = uriInfo.getUriResourceParts();
 
@@ -378,7 +424,7 @@ ComplexProcessor, PrimitiveValueProcessor {
 
     final DTOEntityHelper helper = new DTOEntityHelper(getRequestContext(), uriInfo);
     if (helper.isTargetingDTOWithHandler(targetEdmEntitySet)) {
-      return helper.loadEntities(transformation, targetEdmEntitySet);
+      return helper.loadEntities(transformation, targetEdmEntitySet, request, responseFormat);
     }
 
     if (Util.hasApplyAggregateOption(uriInfo)) {
@@ -401,7 +447,7 @@ ComplexProcessor, PrimitiveValueProcessor {
           HttpStatusCode.NOT_IMPLEMENTED, "Not supported");
     }
 
-    return loadDataBaseData(request, uriInfo, transformation);
+    return loadDataBaseData(request, uriInfo, transformation, serverDrivenPaging);
   }
 
   /**
@@ -410,12 +456,19 @@ ComplexProcessor, PrimitiveValueProcessor {
   private <O> O loadDataBaseData(final ODataRequest request, final UriInfo uriInfo,
       final Transformation<QueryEntityResult, O> transformation)
           throws ODataApplicationException, ODataLibraryException {
+    return loadDataBaseData(request, uriInfo, transformation, false);
+  }
+
+  private <O> O loadDataBaseData(final ODataRequest request, final UriInfo uriInfo,
+      final Transformation<QueryEntityResult, O> transformation, final boolean serverDrivenPaging)
+          throws ODataApplicationException, ODataLibraryException {
     final ServiceMetadata serviceMetadata = getServiceMetadata();
     try {
       // Create a JPQL Query and execute it (load entities)
       final EntityQueryBuilder query = new EntityQueryBuilder(getRequestContext(), new NavigationRoot(uriInfo),
           getEntityManager(),
           serviceMetadata);
+      query.setServerDrivenPagingEnabled(serverDrivenPaging);
       return query.execute(true, transformation);
 
     } catch (final ODataJPAModelException e) {
@@ -436,7 +489,11 @@ ComplexProcessor, PrimitiveValueProcessor {
                     ODataRequest.class, request), new TypedParameter(ContentType.class,
                         responseFormat));
 
-    final ODataResponseContent result = retrieveEntityResult(request, uriInfo, transformation, responseFormat);
+    // only the OData formats are able to transport the next link
+    final boolean serverDrivenPaging = responseFormat.isCompatible(ContentType.APPLICATION_JSON) || responseFormat
+        .isCompatible(ContentType.APPLICATION_XML) || responseFormat.isCompatible(ContentType.APPLICATION_ATOM_XML);
+    final ODataResponseContent result = retrieveEntityResult(request, uriInfo, transformation, responseFormat,
+        serverDrivenPaging);
     if (result.getContentState() == ContentState.NULL) {
       // 404 Not Found indicates that the resource specified by the request URL does
       // not exist. The response body MAY
@@ -447,7 +504,11 @@ ComplexProcessor, PrimitiveValueProcessor {
       // Assumption 404 is handled by Olingo during URL parsing
       response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
     } else {
-      response.setContent(result.getContent());
+      if (result.getStreamedContent() != null) {
+        response.setODataContent(result.getStreamedContent());
+      } else {
+        response.setContent(result.getContent());
+      }
       response.setStatusCode(HttpStatusCode.OK.getStatusCode());
       response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
     }
@@ -570,4 +631,249 @@ ComplexProcessor, PrimitiveValueProcessor {
     throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_DELETE,
         HttpStatusCode.NOT_IMPLEMENTED);
   }
+
+  @Override
+  public void readMediaEntity(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
+      final ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+    final EdmEntitySet targetEdmEntitySet = Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+    if (new DTOEntityHelper(getRequestContext(), uriInfo).isTargetingDTOWithHandler(targetEdmEntitySet)) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_RESOURCE_TYPE,
+          HttpStatusCode.NOT_IMPLEMENTED, targetEdmEntitySet.getName());
+    }
+    final MediaStreamContent content;
+    try {
+      final MediaStreamQueryBuilder query = new MediaStreamQueryBuilder(getRequestContext(), new NavigationRoot(
+          uriInfo), getEntityManager());
+      content = query.execute();
+    } catch (final ODataJPAModelException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+    if (content == null) {
+      response.setStatusCode(HttpStatusCode.NOT_FOUND.getStatusCode());
+      return;
+    }
+    if (content.isNull()) {
+      response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+      return;
+    }
+    try {
+      writeMediaContent(request, response, content, responseFormat);
+    } catch (SQLException | IOException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.MEDIA_STREAM_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   * The content is not copied into memory, the stream is consumed by Olingo while writing the response (the reading
+   * transaction is still open). A single byte range is served as <i>206 Partial Content</i>, if the (optional)
+   * <code>If-Range</code> header matches the ETag of media entity.
+   */
+  private void writeMediaContent(final ODataRequest request, final ODataResponse response,
+      final MediaStreamContent content, final ContentType responseFormat) throws SQLException, IOException {
+    final long length = content.getLength();
+    response.setHeader(HttpHeader.CONTENT_TYPE, content.getContentType() != null ? content.getContentType()
+        : responseFormat.toContentTypeString());
+    if (content.getETag() != null) {
+      response.setHeader(HttpHeader.ETAG, content.getETag());
+    }
+    if (length < 0) {
+      // unknown length, no partial content possible
+      response.setContent(content.openStream());
+      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+      return;
+    }
+    response.setHeader(HEADER_ACCEPT_RANGES, "bytes");
+    final String ifRange = request.getHeader(HEADER_IF_RANGE);
+    // without ETag (or with date in If-Range) we cannot validate the range, so the complete content is sent
+    final boolean rangeValid = ifRange == null || ifRange.trim().equals(content.getETag());
+    final ByteRange range = rangeValid ? ByteRange.parse(request.getHeader(HttpHeader.RANGE), length) : null;
+    if (range == null) {
+      response.setHeader(HttpHeader.CONTENT_LENGTH, Long.toString(length));
+      response.setContent(content.openStream(0, length));
+      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    } else if (!range.isSatisfiable()) {
+      response.setHeader(HEADER_CONTENT_RANGE, "bytes */" + length);
+      response.setStatusCode(HttpStatusCode.RANGE_NOT_SATISFIABLE.getStatusCode());
+    } else {
+      response.setHeader(HEADER_CONTENT_RANGE, "bytes " + range.getFirst() + "-" + range.getLast() + "/" + length);
+      response.setHeader(HttpHeader.CONTENT_LENGTH, Long.toString(range.getLength()));
+      response.setContent(content.openStream(range.getFirst(), range.getLength()));
+      response.setStatusCode(HttpStatusCode.PARTIAL_CONTENT.getStatusCode());
+    }
+  }
+
+  @Override
+  public void createMediaEntity(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
+      final ContentType requestFormat, final ContentType responseFormat) throws ODataApplicationException,
+  ODataLibraryException {
+    throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_CREATE,
+        HttpStatusCode.NOT_IMPLEMENTED);
+  }
+
+  @Override
+  public void updateMediaEntity(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
+      final ContentType requestFormat, final ContentType responseFormat) throws ODataApplicationException,
+  ODataLibraryException {
+    final EdmEntitySet targetEdmEntitySet = Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+    if (new DTOEntityHelper(getRequestContext(), uriInfo).isTargetingDTOWithHandler(targetEdmEntitySet)) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_UPDATE,
+          HttpStatusCode.NOT_IMPLEMENTED);
+    }
+    try {
+      final ManagedEntityQueryBuilder query = new ManagedEntityQueryBuilder(getRequestContext(), new NavigationRoot(
+          uriInfo), getEntityManager());
+      final List<Object> persistenceEntities = query.execute();
+      if (persistenceEntities.isEmpty()) {
+        response.setStatusCode(HttpStatusCode.NOT_FOUND.getStatusCode());
+        return;
+      } else if (persistenceEntities.size() > 1) {
+        throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_RESULT_CONV_ERROR,
+            HttpStatusCode.INTERNAL_SERVER_ERROR);
+      }
+      final Object persistenceEntity = persistenceEntities.get(0);
+      final JPAEntityType jpaEntityType = query.getQueryResultType();
+      final JPASelector streamPath = jpaEntityType.getStreamAttributePath();
+      final Class<?> streamType = ((JPAMemberAttribute) streamPath.getLeaf()).getType();
+      final Object content = readMediaContent(request, streamType);
+      try {
+        setPathValue(persistenceEntity, streamPath, content);
+        final JPASelector contentTypePath = jpaEntityType.getContentTypeAttributePath();
+        if (contentTypePath != null && requestFormat != null) {
+          setPathValue(persistenceEntity, contentTypePath, requestFormat.toContentTypeString());
+        }
+        if (content instanceof TemporaryFileBlob) {
+          // the JDBC driver has to read the temporary file before it is deleted
+          getEntityManager().flush();
+        }
+      } finally {
+        if (content instanceof TemporaryFileBlob) {
+          ((TemporaryFileBlob) content).free();
+        }
+      }
+      response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    } catch (final ODataJPAModelException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    } catch (SQLException | IOException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.MEDIA_STREAM_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  private static void setPathValue(final Object persistenceEntity, final JPASelector path, final Object value)
+      throws ODataJPAModelException {
+    Object target = persistenceEntity;
+    final List<JPAAttribute<?>> pathElements = path.getPathElements();
+    for (int i = 0; i < pathElements.size() - 1; i++) {
+      target = pathElements.get(i).getAttributeAccessor().getPropertyValue(target);
+      if (target == null) {
+        throw new ODataJPAModelException(ODataJPAModelException.MessageKeys.INVALID_COMPLEX_TYPE);
+      }
+    }
+    path.getLeaf().getAttributeAccessor().setPropertyValue(target, value);
+  }
+
+  /**
+   * The request body is read in chunks into memory, limited by the {@link MediaConfiguration}. For a {@link Blob}
+   * attribute a larger upload is spooled into a temporary file, passed as {@link TemporaryFileBlob} to the JDBC driver;
+   * the caller has to {@link TemporaryFileBlob#free() free} it. The <code>Content-Length</code> header is used only to
+   * reject a too large upload early, never to size a buffer.
+   */
+  private Object readMediaContent(final ODataRequest request, final Class<?> streamType)
+      throws ODataJPAProcessorException, SQLException, IOException {
+    if (!byte[].class.equals(streamType) && !Blob.class.equals(streamType)) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_RESOURCE_TYPE,
+          HttpStatusCode.NOT_IMPLEMENTED, streamType.getName());
+    }
+    final MediaConfiguration configuration = determineMediaConfiguration();
+    final int memorySize = configuration.getMaxMediaSize();
+    final long maxSize = Blob.class.equals(streamType) ? configuration.getMaxMediaStreamSize() : memorySize;
+    final String contentLength = request.getHeader(HttpHeader.CONTENT_LENGTH);
+    if (contentLength != null && isLongerThan(contentLength, maxSize)) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.MEDIA_STREAM_TOO_LARGE,
+          HttpStatusCode.PAYLOAD_TOO_LARGE, Long.toString(maxSize));
+    }
+    try (InputStream is = request.getBody()) {
+      final ByteArrayOutputStream os = new ByteArrayOutputStream(MEDIA_BUFFER_SIZE);
+      final byte[] buffer = new byte[MEDIA_BUFFER_SIZE];
+      long size = 0;
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        size += read;
+        if (size > maxSize) {
+          throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.MEDIA_STREAM_TOO_LARGE,
+              HttpStatusCode.PAYLOAD_TOO_LARGE, Long.toString(maxSize));
+        }
+        if (size > memorySize) {
+          return spoolMediaContent(os, buffer, read, is, size, maxSize, configuration);
+        }
+        os.write(buffer, 0, read);
+      }
+      if (Blob.class.equals(streamType)) {
+        return new SerialBlob(os.toByteArray());
+      }
+      return os.toByteArray();
+    }
+  }
+
+  /**
+   * Write the already read content and the rest of the request body into a temporary file.
+   */
+  private TemporaryFileBlob spoolMediaContent(final ByteArrayOutputStream memory, final byte[] buffer,
+      final int bufferLength, final InputStream is, final long readSize, final long maxSize,
+      final MediaConfiguration configuration) throws IOException, ODataJPAProcessorException {
+    final File file = File.createTempFile("olingo-media-", ".tmp", configuration.getTemporaryDirectory());
+    final TemporaryFileBlob blob = new TemporaryFileBlob(file);
+    boolean spooled = false;
+    try (OutputStream os = new BufferedOutputStream(new FileOutputStream(file))) {
+      memory.writeTo(os);
+      os.write(buffer, 0, bufferLength);
+      long size = readSize;
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        size += read;
+        if (size > maxSize) {
+          throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.MEDIA_STREAM_TOO_LARGE,
+              HttpStatusCode.PAYLOAD_TOO_LARGE, Long.toString(maxSize));
+        }
+        os.write(buffer, 0, read);
+      }
+      spooled = true;
+    } finally {
+      if (!spooled) {
+        blob.free();
+      }
+    }
+    log.log(Level.FINER, "Spooled media upload into " + file.getAbsolutePath());
+    return blob;
+  }
+
+  /**
+   *
+   * @return TRUE if the header value is a number greater than the given size; an invalid value is ignored, because
+   * the read content is limited anyway.
+   */
+  private static boolean isLongerThan(final String contentLength, final long maxSize) {
+    try {
+      return Long.parseLong(contentLength.trim()) > maxSize;
+    } catch (final NumberFormatException e) {
+      // a number out of the long range is too large for sure
+      return contentLength.trim().matches("\\d+");
+    }
+  }
+
+  private MediaConfiguration determineMediaConfiguration() {
+    final MediaConfiguration configuration = getRequestContext().getDependencyInjector().getDependencyValue(
+        MediaConfiguration.class);
+    return configuration != null ? configuration : new MediaConfiguration();
+  }
+
+  @Override
+  public void deleteMediaEntity(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo)
+      throws ODataApplicationException, ODataLibraryException {
+    throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_DELETE,
+        HttpStatusCode.NOT_IMPLEMENTED);
+  }
 }
@@ -0,0 +1,78 @@
+package org.apache.olingo.jpa.processor.impl;
+
+import java.io.File;
+
+/**
+ * Configuration for the upload of media streams (PUT on <code>$value</code> of a media entity), looked up while
+ * updating the media stream. Without configuration the default sizes are used.
+ * <ul>
+ * <li>A stream attribute of type <code>byte[]</code> requires the complete upload in memory, so the upload is limited
+ * to {@link #getMaxMediaSize()} bytes (default {@link #DEFAULT_MAX_MEDIA_SIZE 16 MB}).</li>
+ * <li>For a stream attribute of type {@link java.sql.Blob} an upload up to {@link #getMaxMediaSize()} bytes is held
+ * in memory, a larger upload is spooled into a temporary file and streamed from there into the database. These
+ * uploads are limited to {@link #getMaxMediaStreamSize()} bytes (default {@link #DEFAULT_MAX_MEDIA_STREAM_SIZE 1
+ * GB}). Map media streams of large files (like uploads of 50-200 MB) as {@link java.sql.Blob}, this requires a JPA
+ * provider supporting {@link java.sql.Blob} attributes (EclipseLink converts LOB columns into <code>byte[]</code> while
+ * loading an entity).</li>
+ * </ul>
+ * A larger upload is rejected with <i>413 Payload Too Large</i>. To change the limits register an instance with
+ * other sizes, see {@link org.apache.olingo.jpa.processor.ModifiableDependencyInjector}.
+ *
+ */
+public class MediaConfiguration {
+
+  public static final int DEFAULT_MAX_MEDIA_SIZE = 16 * 1024 * 1024;
+  public static final long DEFAULT_MAX_MEDIA_STREAM_SIZE = 1024L * 1024 * 1024;
+
+  private final int maxMediaSize;
+  private final long maxMediaStreamSize;
+  private final File temporaryDirectory;
+
+  public MediaConfiguration() {
+    this(DEFAULT_MAX_MEDIA_SIZE);
+  }
+
+  /**
+   *
+   * @param maxMediaSize The maximum size in bytes of an uploaded media stream held in memory.
+   */
+  public MediaConfiguration(final int maxMediaSize) {
+    this(maxMediaSize, Math.max(maxMediaSize, DEFAULT_MAX_MEDIA_STREAM_SIZE), null);
+  }
+
+  /**
+   *
+   * @param maxMediaSize The maximum size in bytes of an uploaded media stream held in memory.
+   * @param maxMediaStreamSize The maximum size in bytes of an uploaded media stream for a {@link java.sql.Blob}
+   * attribute, must not be less than <i>maxMediaSize</i>.
+   * @param temporaryDirectory The directory for spooled uploads or <code>null</code> to use the default directory
+   * for temporary files.
+   */
+  public MediaConfiguration(final int maxMediaSize, final long maxMediaStreamSize, final File temporaryDirectory) {
+    if (maxMediaSize < 0) {
+      throw new IllegalArgumentException("Maximum media size must not be negative");
+    }
+    if (maxMediaStreamSize < maxMediaSize) {
+      throw new IllegalArgumentException("Maximum media stream size must not be less than maximum media size");
+    }
+    this.maxMediaSize = maxMediaSize;
+    this.maxMediaStreamSize = maxMediaStreamSize;
+    this.temporaryDirectory = temporaryDirectory;
+  }
+
+  public int getMaxMediaSize() {
+    return maxMediaSize;
+  }
+
+  public long getMaxMediaStreamSize() {
+    return maxMediaStreamSize;
+  }
+
+  /**
+   *
+   * @return The directory for spooled uploads or <code>null</code>.
+   */
+  public File getTemporaryDirectory() {
+    return temporaryDirectory;
+  }
+}
@@ -0,0 +1,117 @@
+package org.apache.olingo.jpa.processor.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.impl.IntermediateServiceDocument;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.serializer.SerializerResult;
+
+/**
+ * Cache of the rendered <code>$metadata</code> document. The document is rendered once per media type and rendered
+ * again only after a change of the {@link IntermediateServiceDocument#getModelVersion() model version}. The service
+ * document contains the base URI of the request, so it's rendered for every request (it's small) and only the ETag
+ * is derived from the content.
+ *
+ * @see JPAODataMetadataProcessor
+ */
+public final class MetadataDocumentCache {
+
+  static final class RenderedDocument {
+    private final long modelVersion;
+    private final byte[] content;
+    private final String eTag;
+
+    private RenderedDocument(final long modelVersion, final byte[] content) {
+      this.modelVersion = modelVersion;
+      this.content = content;
+      this.eTag = "\"" + buildHash(content) + "\"";
+    }
+
+    byte[] getContent() {
+      return content;
+    }
+
+    /**
+     *
+     * @return The strong ETag derived from the content, so the value is the same on all nodes of a cluster.
+     */
+    String getETag() {
+      return eTag;
+    }
+  }
+
+  @FunctionalInterface
+  private static interface DocumentRenderer {
+    SerializerResult render() throws SerializerException;
+  }
+
+  private final IntermediateServiceDocument serviceDocument;
+  private final ConcurrentMap<String, RenderedDocument> documents = new ConcurrentHashMap<>();
+
+  public MetadataDocumentCache(final IntermediateServiceDocument serviceDocument) {
+    if (serviceDocument == null) {
+      throw new IllegalArgumentException("Service document required");
+    }
+    this.serviceDocument = serviceDocument;
+  }
+
+  RenderedDocument getMetadataDocument(final OData odata, final ServiceMetadata serviceMetadata,
+      final ContentType format) throws SerializerException {
+    // the parameters of the format are not relevant for the $metadata document, so the number of entries is limited
+    // to the supported media types
+    return getDocument(format.getType() + "/" + format.getSubtype(), () -> odata.createSerializer(format)
+        .metadataDocument(serviceMetadata));
+  }
+
+  RenderedDocument getServiceDocument(final OData odata, final ServiceMetadata serviceMetadata,
+      final ContentType format, final String rawBaseUri) throws SerializerException {
+    return new RenderedDocument(serviceDocument.getModelVersion(), readContent(odata.createSerializer(format)
+        .serviceDocument(serviceMetadata, rawBaseUri)));
+  }
+
+  private RenderedDocument getDocument(final String key, final DocumentRenderer renderer)
+      throws SerializerException {
+    final long modelVersion = serviceDocument.getModelVersion();
+    final RenderedDocument existing = documents.get(key);
+    if (existing != null && existing.modelVersion == modelVersion) {
+      return existing;
+    }
+    // concurrent requests may render the same document, the last one wins
+    final RenderedDocument document = new RenderedDocument(modelVersion, readContent(renderer.render()));
+    documents.put(key, document);
+    return document;
+  }
+
+  private static byte[] readContent(final SerializerResult result) throws SerializerException {
+    try (InputStream is = result.getContent()) {
+      final ByteArrayOutputStream os = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        os.write(buffer, 0, read);
+      }
+      return os.toByteArray();
+    } catch (final IOException e) {
+      throw new SerializerException("An I/O exception occurred.", e, SerializerException.MessageKeys.IO_EXCEPTION);
+    }
+  }
+
+  private static String buildHash(final byte[] content) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return new BigInteger(1, digest.digest(content)).toString(16);
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package org.apache.olingo.jpa.processor.impl;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read only {@link Blob} backed by a temporary file, used to pass a large media upload as stream to the JDBC driver.
+ * The file is deleted by {@link #free()}.
+ */
+class TemporaryFileBlob implements Blob {
+
+  private final static Logger LOG = Logger.getLogger(TemporaryFileBlob.class.getName());
+
+  private final File file;
+  private final List<InputStream> openStreams = new LinkedList<>();
+  private boolean freed = false;
+
+  TemporaryFileBlob(final File file) {
+    this.file = file;
+  }
+
+  private void checkNotFreed() throws SQLException {
+    if (freed) {
+      throw new SQLException("Blob is already freed");
+    }
+  }
+
+  @Override
+  public long length() throws SQLException {
+    checkNotFreed();
+    return file.length();
+  }
+
+  @Override
+  public byte[] getBytes(final long pos, final int length) throws SQLException {
+    checkNotFreed();
+    if (pos < 1 || length < 0) {
+      throw new SQLException("Invalid position or length");
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      final long available = Math.max(0, raf.length() - (pos - 1));
+      final byte[] bytes = new byte[(int) Math.min(length, available)];
+      raf.seek(pos - 1);
+      raf.readFully(bytes);
+      return bytes;
+    } catch (final IOException e) {
+      throw new SQLException(e);
+    }
+  }
+
+  @Override
+  public synchronized InputStream getBinaryStream() throws SQLException {
+    checkNotFreed();
+    try {
+      final InputStream is = new BufferedInputStream(Files.newInputStream(file.toPath()));
+      openStreams.add(is);
+      return is;
+    } catch (final IOException e) {
+      throw new SQLException(e);
+    }
+  }
+
+  @Override
+  public InputStream getBinaryStream(final long pos, final long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public long position(final byte[] pattern, final long start) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public long position(final Blob pattern, final long start) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public int setBytes(final long pos, final byte[] bytes) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public int setBytes(final long pos, final byte[] bytes, final int offset, final int len) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public OutputStream setBinaryStream(final long pos) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void truncate(final long len) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  /**
+   * Close all streams opened on the blob and delete the file.
+   */
+  @Override
+  public synchronized void free() {
+    if (freed) {
+      return;
+    }
+    freed = true;
+    for (final InputStream is : openStreams) {
+      try {
+        is.close();
+      } catch (final IOException e) {
+        LOG.log(Level.FINE, "Failed to close stream of " + file.getAbsolutePath(), e);
+      }
+    }
+    openStreams.clear();
+    if (file.exists() && !file.delete()) {
+      LOG.log(Level.WARNING, "Failed to delete temporary media file " + file.getAbsolutePath());
+      file.deleteOnExit();
+    }
+  }
+}
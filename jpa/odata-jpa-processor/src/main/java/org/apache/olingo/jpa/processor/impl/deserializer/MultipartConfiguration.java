@@ -0,0 +1,50 @@
+package org.apache.olingo.jpa.processor.impl.deserializer;
+
+import java.io.File;
+
+/**
+ * Configuration for the <i>multipart/form-data</i> action parameters, looked up while deserializing the
+ * parameters of an action call.
+ * <p>
+ * File parts up to the memory threshold are buffered in memory, larger parts are spooled into temporary files. The
+ * action gets an input stream reading the temporary file; the file is deleted after the stream is closed or the
+ * action call is finished. Without configuration the {@link #DEFAULT_MEMORY_THRESHOLD default threshold} is used.
+ *
+ */
+public class MultipartConfiguration {
+
+  public static final int DEFAULT_MEMORY_THRESHOLD = 1024 * 1024;
+
+  private final int memoryThreshold;
+  private final File temporaryDirectory;
+
+  public MultipartConfiguration() {
+    this(DEFAULT_MEMORY_THRESHOLD, null);
+  }
+
+  /**
+   *
+   * @param memoryThreshold The maximum size in bytes of file parts buffered in memory.
+   * @param temporaryDirectory The directory for spooled file parts or <code>null</code> to use the default directory
+   * for temporary files.
+   */
+  public MultipartConfiguration(final int memoryThreshold, final File temporaryDirectory) {
+    if (memoryThreshold < 0) {
+      throw new IllegalArgumentException("Memory threshold must not be negative");
+    }
+    this.memoryThreshold = memoryThreshold;
+    this.temporaryDirectory = temporaryDirectory;
+  }
+
+  public int getMemoryThreshold() {
+    return memoryThreshold;
+  }
+
+  /**
+   *
+   * @return The directory for spooled file parts or <code>null</code>.
+   */
+  public File getTemporaryDirectory() {
+    return temporaryDirectory;
+  }
+}
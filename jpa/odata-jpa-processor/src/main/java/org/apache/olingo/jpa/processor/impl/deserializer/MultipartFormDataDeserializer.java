@@ -1,11 +1,18 @@
 package org.apache.olingo.jpa.processor.impl.deserializer;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -15,7 +22,6 @@ import org.apache.commons.fileupload.FileItemStream;
 import org.apache.commons.fileupload.FileUpload;
 import org.apache.commons.fileupload.FileUploadException;
 import org.apache.commons.fileupload.util.Streams;
-import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.data.Parameter;
 import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.EdmAction;
@@ -28,13 +34,48 @@ import org.apache.olingo.server.api.deserializer.DeserializerResult;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.core.deserializer.DeserializerResultImpl;
 
-public class MultipartFormDataDeserializer implements ODataDeserializer {
+public class MultipartFormDataDeserializer implements ODataDeserializer, AutoCloseable {
+
+  /**
+   * Input stream of a spooled file part, deleting the file on close.
+   */
+  private static class SpooledFileInputStream extends FilterInputStream {
+
+    private final File file;
+
+    SpooledFileInputStream(final File file) throws IOException {
+      super(new FileInputStream(file));
+      this.file = file;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        deleteFile(file);
+      }
+    }
+  }
+
+  private static final int BUFFER_SIZE = 8192;
 
   private final Logger log = Logger.getLogger(ODataDeserializer.class.getName());
   private final ODataRequest request;
+  private final MultipartConfiguration configuration;
+  private final List<SpooledFileInputStream> spooledStreams = new LinkedList<>();
 
   public MultipartFormDataDeserializer(final ODataRequest request) {
+    this(request, null);
+  }
+
+  /**
+   *
+   * @param configuration The configuration or <code>null</code> to use the default configuration.
+   */
+  public MultipartFormDataDeserializer(final ODataRequest request, final MultipartConfiguration configuration) {
     this.request = request;
+    this.configuration = configuration != null ? configuration : new MultipartConfiguration();
   }
 
   @Override
@@ -51,6 +92,7 @@ public class MultipartFormDataDeserializer implements ODataDeserializer {
   public DeserializerResult actionParameters(final InputStream streamBody, final EdmAction edmAction) throws DeserializerException {
     final FileUpload upload = new FileUpload();
     final ODataRequestContext odataRequestContext = new ODataRequestContext(request, streamBody);
+    boolean success = false;
     try {
       final Map<String, Parameter> mapDataParameters = new HashMap<>();
       final FileItemIterator iter = upload.getItemIterator(odataRequestContext);
@@ -77,21 +119,78 @@ public class MultipartFormDataDeserializer implements ODataDeserializer {
             assignParameterValue(vType, dataParameter, Streams.asString(stream));
           } else {
             // file == binary data == input stream
-            // TODO avoid memory consuming buffering of complete input stream...
-            // currently this loop here is auto-closing; also the FileItemIterator will close the previously opened item/stream
-            // so we have no chance to forward the (unconsumed) input streams to the action... so we have to create a memory
-            // loaded buffer :-(
-            final byte[] data = IOUtils.toByteArray(stream);
-            final ByteArrayInputStream bais = new ByteArrayInputStream(data);
-            assignParameterValue(vType, dataParameter, bais);
+            // the FileItemIterator will close the previously opened item/stream, so we cannot forward the unconsumed
+            // input stream to the action: small parts are buffered in memory, larger parts are spooled to disk
+            assignParameterValue(vType, dataParameter, bufferPart(stream));
           }
           mapDataParameters.put(parameterName, dataParameter);
         }
       }
+      success = true;
       return DeserializerResultImpl.with().actionParameters(mapDataParameters).build();
     } catch (final IOException | FileUploadException e) {
       throw new DeserializerException("Couldn't parse action parameters from multi part/form-data body", e,
           DeserializerException.MessageKeys.IO_EXCEPTION);
+    } finally {
+      if (!success) {
+        close();
+      }
+    }
+  }
+
+  private InputStream bufferPart(final InputStream stream) throws IOException {
+    final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    int read;
+    while ((read = stream.read(buffer)) != -1) {
+      if (memory.size() + read > configuration.getMemoryThreshold()) {
+        return spoolPart(memory, buffer, read, stream);
+      }
+      memory.write(buffer, 0, read);
+    }
+    return new ByteArrayInputStream(memory.toByteArray());
+  }
+
+  private InputStream spoolPart(final ByteArrayOutputStream memory, final byte[] buffer, final int bufferLength,
+      final InputStream stream) throws IOException {
+    final File file = File.createTempFile("olingo-multipart-", ".tmp", configuration.getTemporaryDirectory());
+    try (OutputStream os = new FileOutputStream(file)) {
+      memory.writeTo(os);
+      os.write(buffer, 0, bufferLength);
+      int read;
+      while ((read = stream.read(buffer)) != -1) {
+        os.write(buffer, 0, read);
+      }
+    } catch (final IOException e) {
+      deleteFile(file);
+      throw e;
+    }
+    log.log(Level.FINER, "Spooled multi part/form-data entry into " + file.getAbsolutePath());
+    final SpooledFileInputStream spooled = new SpooledFileInputStream(file);
+    spooledStreams.add(spooled);
+    return spooled;
+  }
+
+  /**
+   * Close all streams of spooled file parts and delete the temporary files. Should be called after the action call
+   * is finished.
+   */
+  @Override
+  public void close() {
+    for (final SpooledFileInputStream stream : spooledStreams) {
+      try {
+        stream.close();
+      } catch (final IOException e) {
+        log.log(Level.WARNING, "Failed to close spooled multi part/form-data entry", e);
+      }
+    }
+    spooledStreams.clear();
+  }
+
+  private static void deleteFile(final File file) {
+    if (file.exists() && !file.delete()) {
+      // maybe still opened on some OS
+      file.deleteOnExit();
     }
   }
 
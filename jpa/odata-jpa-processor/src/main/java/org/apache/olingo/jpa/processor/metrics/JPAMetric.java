@@ -0,0 +1,81 @@
+package org.apache.olingo.jpa.processor.metrics;
+
+/**
+ * The measurement points of request processing reported to a {@link JPAMetricsCollector}.
+ *
+ */
+public enum JPAMetric {
+
+  /**
+   * Parsing (and validation) of the OData URI.
+   */
+  UriParsing("uri.parsing", Kind.Duration),
+  /**
+   * The authorization check by a registered {@link org.apache.olingo.jpa.processor.core.security.SecurityInceptor
+   * SecurityInceptor}, including the parsing of the URI for the check.
+   */
+  SecurityCheck("security.check", Kind.Duration),
+  /**
+   * Building the JPA criteria query for an entity query (including $filter, $orderby and $select), also for every
+   * $expand query.
+   */
+  CriteriaBuild("criteria.build", Kind.Duration),
+  /**
+   * Execution of a JPA query in the database, including the fetch of result rows (but not for streamed results),
+   * also for every $expand query.
+   */
+  DatabaseExecution("database.execution", Kind.Duration),
+  /**
+   * The number of rows loaded by a JPA query, also for every $expand query.
+   */
+  RowCount("rows", Kind.Count),
+  /**
+   * A complete $expand query (criteria build and execution), reported once per expand query.
+   */
+  ExpandQuery("expand.query", Kind.Duration),
+  /**
+   * Conversion of the query result rows into OData entities. For a streamed result the conversion is done while
+   * writing the response and therefore part of {@link #Serialization}.
+   */
+  Conversion("conversion", Kind.Duration),
+  /**
+   * Writing the response content into the HTTP response, measured once per request by the HTTP handler. Content
+   * produced while writing (streamed results) is serialized within this duration.
+   */
+  Serialization("serialization", Kind.Duration),
+  /**
+   * The number of bytes written as response content.
+   */
+  SerializedBytes("serialization.bytes", Kind.Count);
+
+  public static enum Kind {
+    /**
+     * The value is a duration in nanoseconds.
+     */
+    Duration,
+    /**
+     * The value is an amount (number of rows, bytes, ...).
+     */
+    Count;
+  }
+
+  private final String name;
+  private final Kind kind;
+
+  private JPAMetric(final String name, final Kind kind) {
+    this.name = name;
+    this.kind = kind;
+  }
+
+  /**
+   *
+   * @return The (dot separated) name of metric usable as name for a timer or histogram in metric registries.
+   */
+  public String getName() {
+    return name;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+}
@@ -0,0 +1,36 @@
+package org.apache.olingo.jpa.processor.metrics;
+
+/**
+ * Service provider interface to receive the performance measurements of every request. Register one (shared)
+ * instance as dependency value while preparing the request context to enable the measurement:
+ * <p>
+ * <code>requestContext.getDependencyInjector().registerDependencyMapping(JPAMetricsCollector.class, collector);</code>
+ * <p>
+ * The measurement starts before the security checks, so a collector registered later (in
+ * <code>JPAODataServletHandler#modifyRequestContext()</code>) is ignored.
+ * <p>
+ * If no collector is registered (and the Olingo debug mode is not active), no measurement is done at all. The
+ * methods are called from the threads processing the requests, so implementations must be thread safe.
+ *
+ * @see JPAMetricsRegistryAdapter
+ */
+public interface JPAMetricsCollector {
+
+  /**
+   * Called for every single measurement.
+   *
+   * @param metric The measured aspect.
+   * @param value The duration in nanoseconds for metrics of {@link JPAMetric.Kind#Duration kind duration} or the
+   * amount for metrics of {@link JPAMetric.Kind#Count kind count}.
+   */
+  public void record(JPAMetric metric, long value);
+
+  /**
+   * Called once after the response of request was written.
+   *
+   * @param requestMetrics The summarized measurements of the complete request, to determine the distribution of
+   * time between the processing stages.
+   */
+  public void requestCompleted(JPARequestMetrics requestMetrics);
+
+}
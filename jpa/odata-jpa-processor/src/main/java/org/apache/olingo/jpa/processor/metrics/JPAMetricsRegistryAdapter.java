@@ -0,0 +1,59 @@
+package org.apache.olingo.jpa.processor.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapter to forward the measurements to a metric registry (like Micrometer or Dropwizard Metrics) using timers for
+ * durations and histograms (distribution summaries) for counts. Example for Micrometer:
+ *
+ * <pre>
+ * new JPAMetricsRegistryAdapter("odata.jpa") {
+ *   protected void recordTimer(String name, long duration, TimeUnit unit) {
+ *     registry.timer(name).record(duration, unit);
+ *   }
+ *
+ *   protected void recordHistogram(String name, long value) {
+ *     registry.summary(name).record(value);
+ *   }
+ * };
+ * </pre>
+ *
+ */
+public abstract class JPAMetricsRegistryAdapter implements JPAMetricsCollector {
+
+  private final String[] names;
+
+  /**
+   *
+   * @param namePrefix The prefix for all metric names (like <code>odata.jpa</code>) or <code>null</code> to use the
+   * plain {@link JPAMetric#getName() names}.
+   */
+  protected JPAMetricsRegistryAdapter(final String namePrefix) {
+    final JPAMetric[] metrics = JPAMetric.values();
+    names = new String[metrics.length];
+    for (final JPAMetric metric : metrics) {
+      names[metric.ordinal()] = namePrefix == null || namePrefix.isEmpty() ? metric.getName() : namePrefix + "."
+          + metric.getName();
+    }
+  }
+
+  @Override
+  public final void record(final JPAMetric metric, final long value) {
+    switch (metric.getKind()) {
+    case Duration:
+      recordTimer(names[metric.ordinal()], value, TimeUnit.NANOSECONDS);
+      break;
+    default:
+      recordHistogram(names[metric.ordinal()], value);
+    }
+  }
+
+  @Override
+  public void requestCompleted(final JPARequestMetrics requestMetrics) {
+    // nothing to do as default
+  }
+
+  protected abstract void recordTimer(String name, long duration, TimeUnit unit);
+
+  protected abstract void recordHistogram(String name, long value);
+}
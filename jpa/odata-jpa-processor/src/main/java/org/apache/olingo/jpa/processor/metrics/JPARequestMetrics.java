@@ -0,0 +1,146 @@
+package org.apache.olingo.jpa.processor.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The measurement of a single request, forwarding every measurement to the {@link JPAMetricsCollector collectors}
+ * and summarizing the values per {@link JPAMetric}. Usage:
+ *
+ * <pre>
+ * final long start = metrics.start();
+ * ...
+ * metrics.stop(JPAMetric.DatabaseExecution, start);
+ * </pre>
+ *
+ * The {@link #DISABLED disabled} instance does nothing, especially it does not allocate memory or query the system
+ * time. The instance is thread safe, so it can be shared by parallel processed parts of a request.
+ *
+ */
+public final class JPARequestMetrics {
+
+  public static final JPARequestMetrics DISABLED = new JPARequestMetrics();
+
+  private final JPAMetricsCollector[] collectors;
+  private final AtomicLongArray totals;
+  private final AtomicLongArray recordCounts;
+
+  private JPARequestMetrics() {
+    this.collectors = null;
+    this.totals = null;
+    this.recordCounts = null;
+  }
+
+  /**
+   *
+   * @param collectors The collectors to forward the measurements to, at least one.
+   */
+  public JPARequestMetrics(final JPAMetricsCollector... collectors) {
+    if (collectors == null || collectors.length == 0) {
+      throw new IllegalArgumentException("Collector required");
+    }
+    this.collectors = collectors.clone();
+    this.totals = new AtomicLongArray(JPAMetric.values().length);
+    this.recordCounts = new AtomicLongArray(JPAMetric.values().length);
+  }
+
+  public boolean isEnabled() {
+    return collectors != null;
+  }
+
+  /**
+   *
+   * @return The start time for {@link #stop(JPAMetric, long)} or 0 if disabled.
+   */
+  public long start() {
+    if (collectors == null) {
+      return 0;
+    }
+    return System.nanoTime();
+  }
+
+  /**
+   * Record the duration since <i>start</i>.
+   *
+   * @param start The value returned by {@link #start()}.
+   */
+  public void stop(final JPAMetric metric, final long start) {
+    if (collectors == null) {
+      return;
+    }
+    record(metric, System.nanoTime() - start);
+  }
+
+  /**
+   * Record an amount for a metric of {@link JPAMetric.Kind#Count kind count}.
+   */
+  public void count(final JPAMetric metric, final long value) {
+    if (collectors == null) {
+      return;
+    }
+    record(metric, value);
+  }
+
+  private void record(final JPAMetric metric, final long value) {
+    totals.addAndGet(metric.ordinal(), value);
+    recordCounts.incrementAndGet(metric.ordinal());
+    for (final JPAMetricsCollector collector : collectors) {
+      collector.record(metric, value);
+    }
+  }
+
+  /**
+   *
+   * @return The sum of all recorded values of the metric in this request: the duration in nanoseconds or the
+   * amount.
+   */
+  public long getTotal(final JPAMetric metric) {
+    if (collectors == null) {
+      return 0;
+    }
+    return totals.get(metric.ordinal());
+  }
+
+  /**
+   *
+   * @return The number of measurements of the metric in this request, for example the number of $expand queries.
+   */
+  public long getRecordCount(final JPAMetric metric) {
+    if (collectors == null) {
+      return 0;
+    }
+    return recordCounts.get(metric.ordinal());
+  }
+
+  /**
+   * Inform all collectors about the end of request.
+   */
+  public void complete() {
+    if (collectors == null) {
+      return;
+    }
+    for (final JPAMetricsCollector collector : collectors) {
+      collector.requestCompleted(this);
+    }
+  }
+
+  @Override
+  public String toString() {
+    if (collectors == null) {
+      return "disabled";
+    }
+    final StringBuilder buffer = new StringBuilder();
+    for (final JPAMetric metric : JPAMetric.values()) {
+      if (buffer.length() > 0) {
+        buffer.append(", ");
+      }
+      buffer.append(metric.getName()).append('=');
+      if (metric.getKind() == JPAMetric.Kind.Duration) {
+        buffer.append(TimeUnit.NANOSECONDS.toMicros(getTotal(metric))).append("us");
+      } else {
+        buffer.append(getTotal(metric));
+      }
+    }
+    return buffer.toString();
+  }
+}
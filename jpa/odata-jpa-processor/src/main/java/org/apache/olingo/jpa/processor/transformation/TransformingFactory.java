@@ -11,6 +11,7 @@ import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.jpa.processor.ModifiableDependencyInjector;
 import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.util.TypedParameter;
+import org.apache.olingo.jpa.processor.transformation.impl.EntityIterator2ODataResponseContentTransformation;
 import org.apache.olingo.jpa.processor.transformation.impl.QueryEntityResult2EntityCollectionTransformation;
 import org.apache.olingo.jpa.processor.transformation.impl.QueryEntityResult2ODataResponseContentTransformation;
 import org.apache.olingo.server.api.serializer.SerializerException;
@@ -39,6 +40,10 @@ public class TransformingFactory {
     // DB-Tuples -> OData-EntityCollection -> JSON/XML
     registerTransformation(QueryEntityResult2ODataResponseContentTransformation.DEFAULT_DECLARATION,
         QueryEntityResult2ODataResponseContentTransformation.class);
+
+    // OData-Entities (streamed) -> JSON/XML
+    registerTransformation(EntityIterator2ODataResponseContentTransformation.DEFAULT_DECLARATION,
+        EntityIterator2ODataResponseContentTransformation.class);
   }
 
   public <I, O> void registerTransformation(final TransformationDeclaration<I, O> declaration,
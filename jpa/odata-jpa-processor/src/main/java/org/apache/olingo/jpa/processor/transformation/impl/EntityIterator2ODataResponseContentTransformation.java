@@ -0,0 +1,152 @@
+package org.apache.olingo.jpa.processor.transformation.impl;
+
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.jpa.cdi.Inject;
+import org.apache.olingo.jpa.processor.JPAODataGlobalContext;
+import org.apache.olingo.jpa.processor.core.serializer.JPASerializeCollection;
+import org.apache.olingo.jpa.processor.transformation.Transformation;
+import org.apache.olingo.jpa.processor.transformation.TransformationContextRequirement;
+import org.apache.olingo.jpa.processor.transformation.TransformationDeclaration;
+import org.apache.olingo.jpa.processor.transformation.impl.ODataResponseContent.ContentState;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+
+/**
+ * Transformation from an {@link EntityIterator} into {@link ODataResponseContent#getStreamedContent() streamed
+ * content}: the entities are taken from the iterator while the response is written. Count and next link must be set
+ * on the iterator before. An iterator implementing {@link AutoCloseable} is closed after the content was written or
+ * if the serialization fails.
+ */
+public class EntityIterator2ODataResponseContentTransformation implements
+Transformation<EntityIterator, ODataResponseContent> {
+
+  public final static TransformationDeclaration<EntityIterator, ODataResponseContent> DEFAULT_DECLARATION =
+      new TransformationDeclaration<>(
+          EntityIterator.class, ODataResponseContent.class, new TransformationContextRequirement(
+              JPAODataGlobalContext.class), new TransformationContextRequirement(
+                  UriInfoResource.class), new TransformationContextRequirement(
+                      ODataRequest.class), new TransformationContextRequirement(
+                          ContentType.class));
+
+  /**
+   * Content closing the iterator after writing, also if the write fails (like for a disconnected client).
+   */
+  private static class ClosingODataContent implements ODataContent {
+    private final ODataContent content;
+    private final AutoCloseable resource;
+
+    ClosingODataContent(final ODataContent content, final AutoCloseable resource) {
+      this.content = content;
+      this.resource = resource;
+    }
+
+    @Override
+    public void write(final WritableByteChannel channel) {
+      try {
+        content.write(channel);
+      } finally {
+        close(resource);
+      }
+    }
+
+    @Override
+    public void write(final OutputStream stream) {
+      try {
+        content.write(stream);
+      } finally {
+        close(resource);
+      }
+    }
+  }
+
+  private final static Logger LOG = Logger.getLogger(EntityIterator2ODataResponseContentTransformation.class
+      .getName());
+
+  @Inject
+  private JPAODataGlobalContext globalContext;
+  @Inject
+  private ContentType responseFormat;
+  @Inject
+  private UriInfoResource uriResource;
+  @Inject
+  private ODataRequest odataRequest;
+
+  @Override
+  public Class<EntityIterator> getInputType() {
+    return EntityIterator.class;
+  }
+
+  @Override
+  public Class<ODataResponseContent> getOutputType() {
+    return ODataResponseContent.class;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <I> Transformation<I, ODataResponseContent> createSubTransformation(final Class<I> newStart)
+      throws SerializerException {
+    if (newStart.isAssignableFrom(getInputType())) {
+      return (Transformation<I, ODataResponseContent>) this;
+    }
+    throw new SerializerException("No sub transformation possible", SerializerException.MessageKeys.UNSUPPORTED_FORMAT);
+  }
+
+  @Override
+  public ODataResponseContent transform(final EntityIterator input) throws SerializerException {
+    if (globalContext == null) {
+      throw new IllegalStateException("Dependency injection not working: " + JPAODataGlobalContext.class.getSimpleName()
+          + " expected");
+    }
+    if (responseFormat == null) {
+      throw new IllegalStateException("Dependency injection not working: " + ContentType.class.getSimpleName()
+          + " expected");
+    }
+    if (uriResource == null) {
+      throw new IllegalStateException("Dependency injection not working: " + UriInfoResource.class.getSimpleName()
+          + " expected");
+    }
+    if (odataRequest == null) {
+      throw new IllegalStateException("Dependency injection not working: " + ODataRequest.class.getSimpleName()
+          + " expected");
+    }
+
+    if (!AutoCloseable.class.isInstance(input)) {
+      return serialize(input);
+    }
+    final AutoCloseable resource = (AutoCloseable) input;
+    try {
+      final ODataResponseContent content = serialize(input);
+      return new ODataResponseContent(content.getContentState(), new ClosingODataContent(content
+          .getStreamedContent(), resource));
+    } catch (SerializerException | RuntimeException e) {
+      close(resource);
+      throw e;
+    }
+  }
+
+  private ODataResponseContent serialize(final EntityIterator input) throws SerializerException {
+    final JPASerializeCollection serializer = new JPASerializeCollection(globalContext.getServiceMetaData(),
+        globalContext.getOdata(), responseFormat, uriResource);
+    final SerializerStreamResult sResult = serializer.serializeStreamed(odataRequest, input);
+    // we cannot know whether the collection is empty without consuming the iterator
+    return new ODataResponseContent(ContentState.PRESENT, sResult.getODataContent());
+  }
+
+  private static void close(final AutoCloseable resource) {
+    try {
+      resource.close();
+    } catch (final Exception e) {
+      LOG.log(Level.WARNING, "Closing the source of entities failed", e);
+    }
+  }
+
+}
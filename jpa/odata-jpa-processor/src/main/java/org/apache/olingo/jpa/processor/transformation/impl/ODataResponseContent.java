@@ -2,6 +2,8 @@ package org.apache.olingo.jpa.processor.transformation.impl;
 
 import java.io.InputStream;
 
+import org.apache.olingo.server.api.ODataContent;
+
 public class ODataResponseContent {
   public enum ContentState {
     /**
@@ -22,17 +24,41 @@ public class ODataResponseContent {
 
   private final ContentState contentState;
   private final InputStream content;
+  private final ODataContent streamedContent;
 
   public ODataResponseContent(final ContentState contentState, final InputStream content) {
     this.contentState = contentState;
     this.content = content;
+    this.streamedContent = null;
+  }
+
+  /**
+   * Create a response content written directly into the response output (after processing).
+   */
+  public ODataResponseContent(final ContentState contentState, final ODataContent streamedContent) {
+    this.contentState = contentState;
+    this.content = null;
+    this.streamedContent = streamedContent;
   }
 
   public ContentState getContentState() {
     return contentState;
   }
 
+  /**
+   *
+   * @return The content or <code>null</code> if the content is {@link #getStreamedContent() streamed}.
+   */
   public InputStream getContent() {
     return content;
   }
+
+  /**
+   *
+   * @return The content to write directly into the response output or <code>null</code> if the content is
+   * {@link #getContent() buffered}.
+   */
+  public ODataContent getStreamedContent() {
+    return streamedContent;
+  }
 }
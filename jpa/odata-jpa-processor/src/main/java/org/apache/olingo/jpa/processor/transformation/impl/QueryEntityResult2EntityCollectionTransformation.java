@@ -5,13 +5,18 @@ import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.jpa.cdi.Inject;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.processor.JPAODataGlobalContext;
+import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import org.apache.olingo.jpa.processor.core.query.DatabaseQueryResult2ODataEntityConverter;
+import org.apache.olingo.jpa.processor.core.query.Util;
 import org.apache.olingo.jpa.processor.core.query.result.QueryEntityResult;
+import org.apache.olingo.jpa.processor.metrics.JPAMetric;
+import org.apache.olingo.jpa.processor.metrics.JPARequestMetrics;
 import org.apache.olingo.jpa.processor.transformation.Transformation;
 import org.apache.olingo.jpa.processor.transformation.TransformationContextRequirement;
 import org.apache.olingo.jpa.processor.transformation.TransformationDeclaration;
 import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.queryoption.CountOption;
@@ -29,6 +34,16 @@ Transformation<QueryEntityResult, EntityCollection> {
   private final JPAODataGlobalContext globalContext = null;
   @Inject
   private final UriInfoResource uriResource = null;
+  /**
+   * Optional, required only to build the next link for server-driven paging.
+   */
+  @Inject
+  private final ODataRequest odataRequest = null;
+  /**
+   * Optional, required only for performance measurement.
+   */
+  @Inject
+  private final JPAODataRequestContext requestContext = null;
 
   @Override
   public Class<QueryEntityResult> getInputType() {
@@ -70,10 +85,14 @@ Transformation<QueryEntityResult, EntityCollection> {
   private EntityCollection convertToEntityCollection(final QueryEntityResult result) throws ODataApplicationException {
     // Convert tuple result into an OData Result
     EntityCollection entityCollection;
+    final JPARequestMetrics metrics = requestContext != null ? requestContext.getRequestMetrics()
+        : JPARequestMetrics.DISABLED;
+    final long start = metrics.start();
     try {
       entityCollection = new DatabaseQueryResult2ODataEntityConverter(globalContext.getEdmProvider()
           .getServiceDocument(), globalContext.getOdata().createUriHelper(), globalContext.getServiceMetaData())
           .convertDBTuple2OData(result);
+      metrics.stop(JPAMetric.Conversion, start);
     } catch (final ODataJPAModelException e) {
       throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_RESULT_CONV_ERROR,
           HttpStatusCode.INTERNAL_SERVER_ERROR, e);
@@ -82,7 +101,18 @@ Transformation<QueryEntityResult, EntityCollection> {
     // Count results if requested
     final CountOption countOption = uriResource/* getNavigation().getLastStep() */.getCountOption();
     if (countOption != null && countOption.getValue()) {
-      entityCollection.setCount(Integer.valueOf(entityCollection.getEntities().size()));
+      // the result may be limited by $top, $skip or paging
+      final Long totalCount = result.getTotalCount();
+      entityCollection.setCount(totalCount != null ? Util.convertCount(totalCount.longValue()) : Integer.valueOf(
+          entityCollection.getEntities().size()));
+    }
+
+    if (result.getNextPageSkipToken() != null) {
+      if (odataRequest == null) {
+        throw new IllegalStateException("Dependency injection not working: " + ODataRequest.class.getSimpleName()
+            + " expected to build next link");
+      }
+      entityCollection.setNext(Util.buildNextLink(odataRequest, result.getNextPageSkipToken()));
     }
 
     return entityCollection;
@@ -0,0 +1,95 @@
+package org.apache.olingo.jpa.processor.transformation.impl;
+
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.jpa.cdi.Inject;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.JPAODataGlobalContext;
+import org.apache.olingo.jpa.processor.core.query.DatabaseQueryResult2ODataEntityConverter;
+import org.apache.olingo.jpa.processor.core.query.Util;
+import org.apache.olingo.jpa.processor.core.query.result.QueryEntityResult;
+import org.apache.olingo.jpa.processor.transformation.Transformation;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.queryoption.CountOption;
+
+/**
+ * Transformation from {@link QueryEntityResult} into an {@link EntityIterator}: the rows are converted into entities
+ * while the iterator is consumed, without building an complete entity collection. Count and next link are set on the
+ * iterator, so it can be serialized by {@link EntityIterator2ODataResponseContentTransformation}.
+ *
+ * @see org.apache.olingo.jpa.processor.core.query.StreamingMode#Streamed
+ */
+public class QueryEntityResult2EntityIteratorTransformation implements
+Transformation<QueryEntityResult, EntityIterator> {
+
+  @Inject
+  private JPAODataGlobalContext globalContext;
+  @Inject
+  private UriInfoResource uriResource;
+  /**
+   * Optional, required only to build the next link for server-driven paging.
+   */
+  @Inject
+  private ODataRequest odataRequest;
+
+  @Override
+  public Class<QueryEntityResult> getInputType() {
+    return QueryEntityResult.class;
+  }
+
+  @Override
+  public Class<EntityIterator> getOutputType() {
+    return EntityIterator.class;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <I> Transformation<I, EntityIterator> createSubTransformation(final Class<I> newStart)
+      throws SerializerException {
+    if (newStart.isAssignableFrom(getInputType())) {
+      return (Transformation<I, EntityIterator>) this;
+    }
+    throw new SerializerException("No sub transformation possible", SerializerException.MessageKeys.UNSUPPORTED_FORMAT);
+  }
+
+  @Override
+  public EntityIterator transform(final QueryEntityResult input) throws SerializerException {
+    if (globalContext == null) {
+      throw new IllegalStateException("Dependency injection not working: " + JPAODataGlobalContext.class.getSimpleName()
+          + " expected");
+    }
+    if (uriResource == null) {
+      throw new IllegalStateException("Dependency injection not working: " + UriInfoResource.class.getSimpleName()
+          + " expected");
+    }
+
+    final CountOption countOption = uriResource.getCountOption();
+    final EntityIterator entities;
+    try {
+      // the count must be written before the entities, so we have to load the complete result if the total count is
+      // not already known
+      Integer count = null;
+      if (countOption != null && countOption.getValue()) {
+        count = input.getTotalCount() != null ? Util.convertCount(input.getTotalCount().longValue()) : Integer.valueOf(
+            input.getQueryResult().size());
+      }
+      entities = new DatabaseQueryResult2ODataEntityConverter(globalContext.getEdmProvider().getServiceDocument(),
+          globalContext.getOdata().createUriHelper(), globalContext.getServiceMetaData())
+          .convertDBTuple2ODataStreamed(input);
+      entities.setCount(count);
+    } catch (final ODataJPAModelException | ODataApplicationException e) {
+      throw new SerializerException("", e, SerializerException.MessageKeys.IO_EXCEPTION);
+    }
+    if (input.getNextPageSkipToken() != null) {
+      if (odataRequest == null) {
+        throw new IllegalStateException("Dependency injection not working: " + ODataRequest.class.getSimpleName()
+            + " expected to build next link");
+      }
+      entities.setNext(Util.buildNextLink(odataRequest, input.getNextPageSkipToken()));
+    }
+    return entities;
+  }
+
+}
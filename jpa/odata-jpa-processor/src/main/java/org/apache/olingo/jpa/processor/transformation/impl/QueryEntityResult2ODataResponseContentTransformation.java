@@ -1,10 +1,12 @@
 package org.apache.olingo.jpa.processor.transformation.impl;
 
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.jpa.cdi.Inject;
 import org.apache.olingo.jpa.processor.JPAODataGlobalContext;
 import org.apache.olingo.jpa.processor.JPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.query.StreamingMode;
 import org.apache.olingo.jpa.processor.core.query.result.QueryEntityResult;
 import org.apache.olingo.jpa.processor.transformation.Transformation;
 import org.apache.olingo.jpa.processor.transformation.TransformationContextRequirement;
@@ -18,7 +20,9 @@ import org.apache.olingo.server.api.uri.UriInfoResource;
 /**
  * High level transformation combining {@link QueryEntityResult2EntityCollectionTransformation} (from
  * {@link QueryEntityResult}) +
- * {@link EntityCollection2ODataResponseContentTransformation} (to {@link ODataResponseContent}).
+ * {@link EntityCollection2ODataResponseContentTransformation} (to {@link ODataResponseContent}).<br/>
+ * If {@link StreamingMode#Streamed} is configured {@link QueryEntityResult2EntityIteratorTransformation} +
+ * {@link EntityIterator2ODataResponseContentTransformation} are used instead.
  *
  * @author Ralf Zozmann
  *
@@ -39,6 +43,8 @@ Transformation<QueryEntityResult, ODataResponseContent> {
 
   @Inject
   private JPAODataRequestContext requestContext;
+  @Inject
+  private StreamingMode streamingMode;
 
   @Override
   public Class<QueryEntityResult> getInputType() {
@@ -93,12 +99,39 @@ Transformation<QueryEntityResult, ODataResponseContent> {
     return step2;
   }
 
+  private QueryEntityResult2EntityIteratorTransformation createStreamedStep1() throws SerializerException {
+    final QueryEntityResult2EntityIteratorTransformation step1 = new QueryEntityResult2EntityIteratorTransformation();
+    try {
+      requestContext.getDependencyInjector().injectDependencyValues(step1);
+    } catch (final ODataApplicationException e) {
+      throw new SerializerException("Could not create instance of transformation", e,
+          SerializerException.MessageKeys.IO_EXCEPTION);
+    }
+    return step1;
+  }
+
+  private EntityIterator2ODataResponseContentTransformation createStreamedStep2() throws SerializerException {
+    final EntityIterator2ODataResponseContentTransformation step2 =
+        new EntityIterator2ODataResponseContentTransformation();
+    try {
+      requestContext.getDependencyInjector().injectDependencyValues(step2);
+    } catch (final ODataApplicationException e) {
+      throw new SerializerException("Could not create instance of transformation", e,
+          SerializerException.MessageKeys.IO_EXCEPTION);
+    }
+    return step2;
+  }
+
   @Override
   public ODataResponseContent transform(final QueryEntityResult input) throws SerializerException {
     if (requestContext == null) {
       throw new IllegalStateException("Dependency injection not working: " + JPAODataGlobalContext.class.getSimpleName()
           + " expected");
     }
+    if (streamingMode == StreamingMode.Streamed) {
+      final EntityIterator entities = createStreamedStep1().transform(input);
+      return createStreamedStep2().transform(entities);
+    }
     final QueryEntityResult2EntityCollectionTransformation step1 = createStep1();
     final EntityCollection2ODataResponseContentTransformation step2 = createStep2();
     final EntityCollection entityCollection = step1.transform(input);
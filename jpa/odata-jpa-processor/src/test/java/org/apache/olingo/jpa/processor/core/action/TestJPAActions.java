@@ -6,11 +6,13 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Collections;
@@ -47,6 +49,7 @@ import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmActionParameter;
 import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmActionResult;
 import org.apache.olingo.jpa.metadata.core.edm.complextype.ODataComplexType;
 import org.apache.olingo.jpa.metadata.core.edm.dto.ODataDTO;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.mapping.JPAAdapter;
 import org.apache.olingo.jpa.processor.core.testmodel.BusinessPartnerRole;
 import org.apache.olingo.jpa.processor.core.testmodel.Organization;
@@ -59,6 +62,7 @@ import org.apache.olingo.jpa.processor.core.testmodel.dto.sub.SystemRequirement;
 import org.apache.olingo.jpa.processor.core.testmodel.otherpackage.TestEnum;
 import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
 import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.apache.olingo.jpa.processor.impl.deserializer.MultipartConfiguration;
 import org.apache.olingo.jpa.test.util.AbstractTest.JPAProvider;
 import org.apache.olingo.jpa.test.util.Constant;
 import org.junit.Test;
@@ -531,6 +535,48 @@ public class TestJPAActions extends TestBase {
     assertTrue(((ArrayNode) helper.getJsonObjectValue().get("value")).get(1).asInt() == binaryData.getBytes().length);
   }
 
+  @Test
+  public void testMultipartFormContentUploadSpooled() throws Exception {
+    final String fileName = "file-" + Long.toString(System.currentTimeMillis()) + ".log";
+    final String boundary = "boundary";
+    final StringBuilder binaryData = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      binaryData.append("line ").append(i).append(';');
+    }
+    final String NEW_LINE = "\r\n";
+
+    final StringBuffer requestBody = new StringBuffer("");
+    requestBody.append("--").append(boundary).append(NEW_LINE);
+    requestBody.append("Content-Disposition: form-data; name=\"filename\"").append(NEW_LINE);
+    requestBody.append(NEW_LINE);
+    requestBody.append(fileName).append(NEW_LINE);
+    requestBody.append("--").append(boundary).append(NEW_LINE);
+    requestBody.append("Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"").append(NEW_LINE);
+    requestBody.append("Content-Type: application/octet-stream").append(NEW_LINE);
+    requestBody.append(NEW_LINE);
+    requestBody.append(binaryData).append(NEW_LINE);
+    requestBody.append("--").append(boundary).append("--").append(NEW_LINE);
+
+    final File temporaryDirectory = Files.createTempDirectory("multipart").toFile();
+    final URIBuilder uriBuilder = newUriBuilder().appendActionCallSegment("uploadFile");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder, requestBody
+        .toString(), HttpMethod.POST) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        // spool the file part into the temporary directory
+        requestContext.getDependencyInjector().registerDependencyMapping(MultipartConfiguration.class,
+            new MultipartConfiguration(100, temporaryDirectory));
+      }
+    };
+    helper.setRequestContentType("multipart/form-data; boundary=" + boundary);
+
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    assertEquals(binaryData.length(), ((ArrayNode) helper.getJsonObjectValue().get("value")).get(1).asInt());
+    // the spooled file is deleted after action call
+    assertEquals(0, temporaryDirectory.list().length);
+    temporaryDirectory.delete();
+  }
+
   @Test
   public void testMultipartFormContentUploadMultipleFiles() throws Exception {
 
@@ -13,6 +13,7 @@ import org.apache.olingo.jpa.processor.JPAODataRequestContext;
 import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.mapping.JPAAdapter;
 import org.apache.olingo.jpa.processor.core.util.DependencyInjectorImpl;
+import org.apache.olingo.jpa.processor.metrics.JPARequestMetrics;
 import org.apache.olingo.jpa.processor.transformation.TransformingFactory;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -50,6 +51,11 @@ public class JPAODataContextAccessDouble implements JPAODataRequestContext {
     return new JPAEmptyDebugger();
   }
 
+  @Override
+  public JPARequestMetrics getRequestMetrics() {
+    return JPARequestMetrics.DISABLED;
+  }
+
   @Override
   public OData getOdata() {
     return null;
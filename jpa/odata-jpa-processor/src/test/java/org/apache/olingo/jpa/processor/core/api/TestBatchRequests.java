@@ -6,16 +6,24 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.query.StreamingMode;
 import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
 import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.apache.olingo.jpa.processor.impl.BatchConfiguration;
 import org.junit.Test;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 
 public class TestBatchRequests extends TestBase {
 
@@ -79,6 +87,320 @@ public class TestBatchRequests extends TestBase {
     assertEquals("5", value.get("ID").asText());
   }
 
+  @Test
+  public void testCollectionGetRequestStreamedCheckValue() throws IOException, ODataException {
+    final StringBuffer requestBody = new StringBuffer("--abc123\r\n");
+    requestBody.append("Content-Type: application/http\r\n");
+    requestBody.append("Content-Transfer-Encoding: binary\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("GET Organizations?$filter=ID%20eq%20'3' HTTP/1.1\r\n");
+    requestBody.append("Content-Type: application/json\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("--abc123--");
+
+    final URIBuilder uriBuilder = newUriBuilder().appendBatchSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter,
+        uriBuilder, requestBody.toString(), HttpMethod.POST) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        requestContext.getDependencyInjector().registerDependencyMapping(StreamingMode.class, StreamingMode.Streamed);
+      }
+    };
+    helper.execute(HttpStatusCode.ACCEPTED.getStatusCode());
+    assertEquals(200, helper.getBatchResultStatus(1));
+    final JsonNode value = helper.getBatchResult(1);
+    assertEquals("3", value.get("value").get(0).get("ID").asText());
+  }
+
+  @Test
+  public void testParallelGetRequestsCheckValues() throws IOException, ODataException {
+    final String requestBody = createBodyGet("Organizations('3')", "Organizations?$filter=ID%20eq%20'5'",
+        "AdministrativeDivision", "Organizations('3')?$expand=Roles");
+
+    final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+    try {
+      final URIBuilder uriBuilder = newUriBuilder().appendBatchSegment();
+      final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter,
+          uriBuilder, requestBody, HttpMethod.POST) {
+        @Override
+        protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+          requestContext.getDependencyInjector().registerDependencyMapping(StreamingMode.class,
+              StreamingMode.Streamed);
+          requestContext.getDependencyInjector().registerDependencyMapping(BatchConfiguration.class,
+              new BatchConfiguration(executor));
+        }
+      };
+      helper.execute(HttpStatusCode.ACCEPTED.getStatusCode());
+      assertEquals(200, helper.getBatchResultStatus(1));
+      assertEquals(200, helper.getBatchResultStatus(2));
+      assertEquals(404, helper.getBatchResultStatus(3));
+      assertEquals(200, helper.getBatchResultStatus(4));
+      assertEquals("3", helper.getBatchResult(1).get("ID").asText());
+      assertEquals("5", helper.getBatchResult(2).get("value").get(0).get("ID").asText());
+      assertEquals("3", helper.getBatchResult(4).get("ID").asText());
+      assertTrue(helper.getBatchResult(4).get("Roles").size() > 0);
+      // the last part is processed by the request thread
+      assertEquals(3, executor.getTaskCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testParallelGetRequestsRejected() throws IOException, ODataException {
+    final String requestBody = createBodyGet("Organizations('3')", "Organizations('5')", "Organizations('7')");
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    final URIBuilder uriBuilder = newUriBuilder().appendBatchSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter,
+        uriBuilder, requestBody, HttpMethod.POST) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        requestContext.getDependencyInjector().registerDependencyMapping(BatchConfiguration.class,
+            new BatchConfiguration(executor));
+      }
+    };
+    helper.execute(HttpStatusCode.ACCEPTED.getStatusCode());
+    assertEquals("3", helper.getBatchResult(1).get("ID").asText());
+    assertEquals("5", helper.getBatchResult(2).get("ID").asText());
+    assertEquals("7", helper.getBatchResult(3).get("ID").asText());
+  }
+
+  @Test
+  public void testParallelGetRequestFailureAffectsPartOnly() throws IOException, ODataException {
+    final String requestBody = createBodyGet("Organizations('3')", "Organizations('5')", "Organizations('7')");
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final AtomicInteger calls = new AtomicInteger();
+    try {
+      final URIBuilder uriBuilder = newUriBuilder().appendBatchSegment();
+      final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter,
+          uriBuilder, requestBody, HttpMethod.POST) {
+        @Override
+        protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+          // the first call is for the $batch request itself, the second for one of the parts
+          if (calls.incrementAndGet() == 2) {
+            throw new IllegalStateException("Test failure");
+          }
+          requestContext.getDependencyInjector().registerDependencyMapping(BatchConfiguration.class,
+              new BatchConfiguration(executor));
+        }
+      };
+      helper.execute(HttpStatusCode.ACCEPTED.getStatusCode());
+      int failed = 0;
+      for (int part = 1; part <= 3; part++) {
+        final int status = helper.getBatchResultStatus(part);
+        if (status == HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode()) {
+          failed++;
+        } else {
+          assertEquals(200, status);
+        }
+      }
+      assertEquals(1, failed);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testChangeSetCreateAndUpdate() throws IOException, ODataException {
+    final String prefix = createUniqueName("ChangeSet");
+    final StringBuffer requestBody = new StringBuffer("--abc123\r\n");
+    requestBody.append("Content-Type: multipart/mixed;boundary=changeset_1\r\n");
+    requestBody.append("\r\n");
+    appendChangeSetRequest(requestBody, "1", "POST RelationshipSourceEntities", true, "{\"Name\": \"" + prefix
+        + "-1\"}");
+    appendChangeSetRequest(requestBody, "2", "POST RelationshipSourceEntities", false, "{\"Name\": \"" + prefix
+        + "-2\"}");
+    appendChangeSetRequest(requestBody, "3", "PATCH $1", true, "{\"Name\": \"" + prefix + "-3\"}");
+    requestBody.append("--changeset_1--\r\n");
+    requestBody.append("--abc123--");
+
+    final URIBuilder uriBuilder = newUriBuilder().appendBatchSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter,
+        uriBuilder, requestBody.toString(), HttpMethod.POST);
+    helper.execute(HttpStatusCode.ACCEPTED.getStatusCode());
+    assertEquals(204, helper.getBatchResultStatus(1));
+    assertEquals(201, helper.getBatchResultStatus(2));
+    assertEquals(prefix + "-2", helper.getBatchResult(2).get("Name").asText());
+    assertEquals(204, helper.getBatchResultStatus(3));
+
+    final URIBuilder uriBuilderCheck = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities").filter(
+        "startswith(Name,'" + prefix + "')").orderBy("Name");
+    final ServerCallSimulator helperCheck = new ServerCallSimulator(persistenceAdapter, uriBuilderCheck);
+    helperCheck.execute(HttpStatusCode.OK.getStatusCode());
+    final ArrayNode created = helperCheck.getJsonObjectValues();
+    assertEquals(2, created.size());
+    assertEquals(prefix + "-2", created.get(0).get("Name").asText());
+    assertEquals(prefix + "-3", created.get(1).get("Name").asText());
+
+    final URIBuilder uriBuilderDelete = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities").filter(
+        "startswith(Name,'" + prefix + "')");
+    final ServerCallSimulator helperDelete = new ServerCallSimulator(persistenceAdapter, uriBuilderDelete, null,
+        HttpMethod.DELETE);
+    helperDelete.execute(HttpStatusCode.NO_CONTENT.getStatusCode());
+  }
+
+  @Test
+  public void testChangeSetFailureRollsBackChangeSetOnly() throws IOException, ODataException {
+    final String prefix = createUniqueName("ChangeSetFail");
+    final StringBuffer requestBody = new StringBuffer("--abc123\r\n");
+    requestBody.append("Content-Type: multipart/mixed;boundary=changeset_1\r\n");
+    requestBody.append("\r\n");
+    appendChangeSetRequest(requestBody, "1", "POST RelationshipSourceEntities", true, "{\"Name\": \"" + prefix
+        + "-1\"}");
+    appendChangeSetRequest(requestBody, "2", "PATCH RelationshipSourceEntities(-1)", true,
+        "{\"Name\": \"not existing\"}");
+    requestBody.append("--changeset_1--\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("--abc123\r\n");
+    requestBody.append("Content-Type: multipart/mixed;boundary=changeset_1\r\n");
+    requestBody.append("\r\n");
+    appendChangeSetRequest(requestBody, "3", "POST RelationshipSourceEntities", true, "{\"Name\": \"" + prefix
+        + "-2\"}");
+    requestBody.append("--changeset_1--\r\n");
+    requestBody.append("--abc123--");
+
+    final URIBuilder uriBuilder = newUriBuilder().appendBatchSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter,
+        uriBuilder, requestBody.toString(), HttpMethod.POST);
+    helper.execute(HttpStatusCode.ACCEPTED.getStatusCode());
+    // the failing change set is answered with the error response of the failing request
+    assertEquals(404, helper.getBatchResultStatus(1));
+    assertEquals(204, helper.getBatchResultStatus(2));
+
+    final URIBuilder uriBuilderCheck = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities").filter(
+        "startswith(Name,'" + prefix + "')");
+    final ServerCallSimulator helperCheck = new ServerCallSimulator(persistenceAdapter, uriBuilderCheck);
+    helperCheck.execute(HttpStatusCode.OK.getStatusCode());
+    final ArrayNode created = helperCheck.getJsonObjectValues();
+    assertEquals(1, created.size());
+    assertEquals(prefix + "-2", created.get(0).get("Name").asText());
+
+    final ServerCallSimulator helperDelete = new ServerCallSimulator(persistenceAdapter, uriBuilderCheck, null,
+        HttpMethod.DELETE);
+    helperDelete.execute(HttpStatusCode.NO_CONTENT.getStatusCode());
+  }
+
+  @Test
+  public void testChangeSetCollectionOperation() throws IOException, ODataException {
+    final String prefix = createUniqueName("ChangeSetEach");
+    final StringBuffer requestBody = new StringBuffer("--abc123\r\n");
+    requestBody.append("Content-Type: multipart/mixed;boundary=changeset_1\r\n");
+    requestBody.append("\r\n");
+    appendChangeSetRequest(requestBody, "1", "POST RelationshipSourceEntities", true, "{\"Name\": \"" + prefix
+        + "-1\"}");
+    appendChangeSetRequest(requestBody, "2", "DELETE RelationshipSourceEntities/$filter(startswith(Name,'" + prefix
+        + "'))/$each", false, "");
+    requestBody.append("--changeset_1--\r\n");
+    requestBody.append("--abc123--");
+
+    final URIBuilder uriBuilder = newUriBuilder().appendBatchSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter,
+        uriBuilder, requestBody.toString(), HttpMethod.POST);
+    helper.execute(HttpStatusCode.ACCEPTED.getStatusCode());
+    assertEquals(204, helper.getBatchResultStatus(1));
+    assertEquals(204, helper.getBatchResultStatus(2));
+
+    final URIBuilder uriBuilderCheck = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities").filter(
+        "startswith(Name,'" + prefix + "')");
+    final ServerCallSimulator helperCheck = new ServerCallSimulator(persistenceAdapter, uriBuilderCheck);
+    helperCheck.execute(HttpStatusCode.OK.getStatusCode());
+    assertEquals(0, helperCheck.getJsonObjectValues().size());
+  }
+
+  @Test
+  public void testModifyingRequestOutsideChangeSetCommittedOwnTransaction() throws IOException, ODataException {
+    final String prefix = createUniqueName("BatchModify");
+    final StringBuffer requestBody = new StringBuffer();
+    appendRequest(requestBody, "POST RelationshipSourceEntities", "{\"Name\": \"" + prefix + "-1\"}");
+    appendRequest(requestBody, "PATCH RelationshipSourceEntities(-1)", "{\"Name\": \"not existing\"}");
+    requestBody.append("--abc123\r\n");
+    requestBody.append("Content-Type: multipart/mixed;boundary=changeset_1\r\n");
+    requestBody.append("\r\n");
+    appendChangeSetRequest(requestBody, "1", "PATCH RelationshipSourceEntities/$filter(startswith(Name,'" + prefix
+        + "'))/$each", false, "{\"Name\": \"" + prefix + "-2\"}");
+    requestBody.append("--changeset_1--\r\n");
+    requestBody.append("\r\n");
+    requestBody.append(createBodyGet("RelationshipSourceEntities?$filter=startswith(Name,'" + prefix + "')"));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final URIBuilder uriBuilder = newUriBuilder().appendBatchSegment();
+      final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter,
+          uriBuilder, requestBody.toString(), HttpMethod.POST) {
+        @Override
+        protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+          requestContext.getDependencyInjector().registerDependencyMapping(BatchConfiguration.class,
+              new BatchConfiguration(executor));
+        }
+      };
+      helper.execute(HttpStatusCode.ACCEPTED.getStatusCode());
+      assertEquals(201, helper.getBatchResultStatus(1));
+      // the failing request is rolled back on its own
+      assertEquals(404, helper.getBatchResultStatus(2));
+      // the change set sees the committed entity of the first request
+      assertEquals(204, helper.getBatchResultStatus(3));
+      assertEquals(200, helper.getBatchResultStatus(4));
+      final JsonNode found = helper.getBatchResult(4).get("value");
+      assertEquals(1, found.size());
+      assertEquals(prefix + "-2", found.get(0).get("Name").asText());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    final URIBuilder uriBuilderDelete = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities").filter(
+        "startswith(Name,'" + prefix + "')");
+    final ServerCallSimulator helperDelete = new ServerCallSimulator(persistenceAdapter, uriBuilderDelete, null,
+        HttpMethod.DELETE);
+    helperDelete.execute(HttpStatusCode.NO_CONTENT.getStatusCode());
+  }
+
+  private void appendRequest(final StringBuffer requestBody, final String methodAndPath, final String content) {
+    requestBody.append("--abc123\r\n");
+    requestBody.append("Content-Type: application/http\r\n");
+    requestBody.append("Content-Transfer-Encoding: binary\r\n");
+    requestBody.append("\r\n");
+    requestBody.append(methodAndPath + " HTTP/1.1\r\n");
+    requestBody.append("Content-Type: application/json\r\n");
+    requestBody.append("\r\n");
+    requestBody.append(content + "\r\n");
+  }
+
+  private void appendChangeSetRequest(final StringBuffer requestBody, final String contentId,
+      final String methodAndPath, final boolean returnMinimal, final String content) {
+    requestBody.append("--changeset_1\r\n");
+    requestBody.append("Content-Type: application/http\r\n");
+    requestBody.append("Content-Transfer-Encoding: binary\r\n");
+    requestBody.append("Content-ID: " + contentId + "\r\n");
+    requestBody.append("\r\n");
+    requestBody.append(methodAndPath + " HTTP/1.1\r\n");
+    requestBody.append("Content-Type: application/json\r\n");
+    if (returnMinimal) {
+      requestBody.append("Prefer: return=minimal\r\n");
+    }
+    requestBody.append("\r\n");
+    requestBody.append(content + "\r\n");
+  }
+
+  private String createBodyGet(final String... resourcePaths) {
+    final StringBuffer requestBody = new StringBuffer();
+    for (final String resourcePath : resourcePaths) {
+      requestBody.append("--abc123\r\n");
+      requestBody.append("Content-Type: application/http\r\n");
+      requestBody.append("Content-Transfer-Encoding: binary\r\n");
+      requestBody.append("\r\n");
+      requestBody.append("GET " + resourcePath + " HTTP/1.1\r\n");
+      requestBody.append("Content-Type: application/json\r\n");
+      requestBody.append("\r\n");
+      requestBody.append("\r\n");
+    }
+    requestBody.append("--abc123--");
+    return requestBody.toString();
+  }
+
   private String createBodyTwoGetOneFail() {
     final StringBuffer requestBody = new StringBuffer("--abc123\r\n");
     requestBody.append("Content-Type: application/http\r\n");
@@ -1,7 +1,11 @@
 package org.apache.olingo.jpa.processor.core.api;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.time.chrono.IsoEra;
@@ -10,7 +14,11 @@ import java.util.Map;
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.query.JPAQueryHints;
 import org.apache.olingo.jpa.processor.core.testmodel.dto.EnvironmentInfo;
 import org.apache.olingo.jpa.processor.core.testmodel.dto.sub.SystemRequirement;
 import org.apache.olingo.jpa.processor.core.testmodel.otherpackage.TestEnum;
@@ -18,6 +26,7 @@ import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
 import org.apache.olingo.jpa.processor.core.util.TestBase;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public class TestODataBasics extends TestBase {
@@ -58,6 +67,63 @@ public class TestODataBasics extends TestBase {
         "ComplexType Name=\"Map{1}\" Abstract=\"true\" OpenType=\"true\""));
   }
 
+  @Test
+  public void testMetadataConditionalRequest() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendMetadataSegment();
+    final ServerCallSimulator first = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    first.execute(HttpStatusCode.OK.getStatusCode());
+    final String eTag = first.getResponseHeader(HttpHeader.ETAG);
+    assertNotNull(eTag);
+    final JPAODataServletHandler handler = first.getServletHandler();
+
+    final ServerCallSimulator second = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    second.setServletHandler(handler);
+    second.setRequestHeader(HttpHeader.IF_NONE_MATCH, eTag);
+    second.execute(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+    assertEquals(eTag, second.getResponseHeader(HttpHeader.ETAG));
+
+    // HEAD without content
+    final ServerCallSimulator third = new ServerCallSimulator(persistenceAdapter, uriBuilder, null, HttpMethod.HEAD);
+    third.setServletHandler(handler);
+    third.execute(HttpStatusCode.OK.getStatusCode());
+    assertEquals(eTag, third.getResponseHeader(HttpHeader.ETAG));
+  }
+
+  @Test
+  public void testServiceDocumentConditionalRequest() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder();
+    final ServerCallSimulator first = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    first.execute(HttpStatusCode.OK.getStatusCode());
+    final String eTag = first.getResponseHeader(HttpHeader.ETAG);
+    assertNotNull(eTag);
+
+    final ServerCallSimulator second = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    second.setServletHandler(first.getServletHandler());
+    second.setRequestHeader(HttpHeader.IF_NONE_MATCH, eTag);
+    second.execute(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+
+    final ServerCallSimulator third = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    third.setServletHandler(first.getServletHandler());
+    third.setRequestHeader(HttpHeader.IF_NONE_MATCH, "\"other\"");
+    third.execute(HttpStatusCode.OK.getStatusCode());
+    assertEquals(first.getRawResult(), third.getRawResult());
+  }
+
+  @Test
+  public void testBuildMetamodelAtStartup() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").expand("Roles");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder) {
+      @Override
+      protected JPAODataServletHandler createServletHandler() throws ODataException {
+        final JPAODataServletHandler handler = super.createServletHandler();
+        handler.buildMetamodel(null);
+        return handler;
+      }
+    };
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    assertFalse(helper.getJsonObjectValues().size() == 0);
+  }
+
   @Test
   public void testService() throws IOException, ODataException {
     final URIBuilder uriBuilder = newUriBuilder();
@@ -92,4 +158,39 @@ public class TestODataBasics extends TestBase {
     assertNotNull(person);
   }
 
+  @Test
+  public void testReadOnlyRequest() throws IOException, ODataException {
+    final ReadOnlyConfiguration configuration = new ReadOnlyConfiguration(new JPAQueryHints().setHint(
+        "eclipselink.read-only", "true").setHint("eclipselink.jdbc.fetch-size", Integer.valueOf(100)));
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").expand("Roles").orderBy(
+        "ID").top(3).count(true);
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder) {
+      @Override
+      protected JPAODataServletHandler createServletHandler() throws ODataException {
+        final JPAODataServletHandler handler = super.createServletHandler();
+        handler.setReadOnlyConfiguration(configuration);
+        return handler;
+      }
+
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        assertFalse(requestContext.getEntityManager().getTransaction().isActive());
+        assertSame(configuration.getQueryHints(), requestContext.getDependencyInjector().getDependencyValue(
+            JPAQueryHints.class));
+      }
+    };
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    final ArrayNode orgs = helper.getJsonObjectValues();
+    assertEquals(3, orgs.size());
+    assertEquals("1", orgs.get(0).get("ID").asText());
+    assertTrue(orgs.get(0).get("Roles").size() > 0);
+    assertTrue(helper.getJsonObjectValue().get("@odata.count").asInt() > 3);
+    try {
+      configuration.getQueryHints().setHint("eclipselink.read-only", "false");
+      fail("Shared query hints must be immutable");
+    } catch (final UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
 }
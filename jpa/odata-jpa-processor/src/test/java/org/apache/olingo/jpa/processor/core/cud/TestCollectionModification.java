@@ -0,0 +1,107 @@
+package org.apache.olingo.jpa.processor.core.cud;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.olingo.client.api.uri.URIBuilder;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
+import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+public class TestCollectionModification extends TestBase {
+
+  private void createSourceEntity(final String name) throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder, "{\"Name\": \""
+        + name + "\"}", HttpMethod.POST);
+    helper.execute(HttpStatusCode.CREATED.getStatusCode());
+  }
+
+  private ArrayNode loadSourceEntities(final String namePrefix) throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities").filter(
+        "startswith(Name,'" + namePrefix + "')");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    return helper.getJsonObjectValues();
+  }
+
+  @Test
+  public void testUpdateAndDeleteFilteredCollection() throws IOException, ODataException {
+    final String prefix = createUniqueName("Bulk");
+    createSourceEntity(prefix + "-1");
+    createSourceEntity(prefix + "-2");
+    createSourceEntity("Other-" + prefix);
+    assertEquals(2, loadSourceEntities(prefix).size());
+
+    final URIBuilder uriBuilderUpdate = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities").filter(
+        "startswith(Name,'" + prefix + "')");
+    final ServerCallSimulator helperUpdate = new ServerCallSimulator(persistenceAdapter, uriBuilderUpdate, "{\"Name\": \""
+        + prefix + "-updated\"}", HttpMethod.PATCH);
+    helperUpdate.execute(HttpStatusCode.NO_CONTENT.getStatusCode());
+    final ArrayNode updated = loadSourceEntities(prefix);
+    assertEquals(2, updated.size());
+    assertEquals(prefix + "-updated", updated.get(0).get("Name").asText());
+    assertEquals(prefix + "-updated", updated.get(1).get("Name").asText());
+
+    final URIBuilder uriBuilderDelete = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities")
+        .appendEntitySetSegment("$filter(startswith(Name,'" + prefix + "'))").appendEntitySetSegment("$each");
+    final ServerCallSimulator helperDelete = new ServerCallSimulator(persistenceAdapter, uriBuilderDelete, null,
+        HttpMethod.DELETE);
+    helperDelete.execute(HttpStatusCode.NO_CONTENT.getStatusCode());
+    assertEquals(0, loadSourceEntities(prefix).size());
+    // not matching the filter
+    assertEquals(1, loadSourceEntities("Other-" + prefix).size());
+  }
+
+  @Test
+  public void testDeleteEachWithSpecialCharactersInFilter() throws IOException, ODataException {
+    final String prefix = createUniqueName("Each");
+    createSourceEntity(prefix + "-a&b+c");
+    createSourceEntity(prefix + "-a");
+    assertEquals(2, loadSourceEntities(prefix).size());
+
+    final URIBuilder uriBuilderDelete = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities")
+        .appendEntitySetSegment("$filter(startswith(Name,'" + prefix + "-a&b+c'))").appendEntitySetSegment("$each");
+    final ServerCallSimulator helperDelete = new ServerCallSimulator(persistenceAdapter, uriBuilderDelete, null,
+        HttpMethod.DELETE);
+    helperDelete.execute(HttpStatusCode.NO_CONTENT.getStatusCode());
+    final ArrayNode remaining = loadSourceEntities(prefix);
+    assertEquals(1, remaining.size());
+    assertEquals(prefix + "-a", remaining.get(0).get("Name").asText());
+  }
+
+  @Test
+  public void testDeleteCollectionWithoutFilterNotAllowed() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder, null,
+        HttpMethod.DELETE);
+    helper.execute(HttpStatusCode.METHOD_NOT_ALLOWED.getStatusCode());
+  }
+
+  @Test
+  public void testUpdateCollectionKeyNotAllowed() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities").filter(
+        "Name eq 'not existing'");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder, "{\"ID\": 1}",
+        HttpMethod.PATCH);
+    helper.execute(HttpStatusCode.BAD_REQUEST.getStatusCode());
+    assertTrue(helper.getRawResult().contains("Key property ID cannot be changed"));
+  }
+
+  @Test
+  public void testEachWithEncodedFilterOptionNotAllowed() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("RelationshipSourceEntities")
+        .appendEntitySetSegment("$each").addCustomQueryOption("%24filter", "true");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder, null,
+        HttpMethod.DELETE);
+    helper.execute(HttpStatusCode.BAD_REQUEST.getStatusCode());
+    assertTrue(helper.getRawResult().contains("$filter not allowed together with $each"));
+  }
+}
@@ -10,6 +10,7 @@ import java.time.temporal.ChronoUnit;
 
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
@@ -52,5 +53,42 @@ public class TestObjectModification extends TestBase {
     assertEquals(DayOfWeek.WEDNESDAY.name(), dceSecondRead.withArray("EnumCollection").get(0).asText());
   }
 
+  @Test
+  public void testPatchReturnMinimal() throws IOException, ODataException {
+    final URIBuilder uriBuilderResource = newUriBuilder().appendEntitySetSegment("DatatypeConversionEntities")
+        .appendKeySegment(Integer.valueOf(2));
+    final ServerCallSimulator callRead = new ServerCallSimulator(persistenceAdapter, uriBuilderResource);
+    callRead.execute(HttpStatusCode.OK.getStatusCode());
+    final ObjectNode dceFirstRead = callRead.getJsonObjectValue();
+    assertEquals(IsoEra.BCE.name(), dceFirstRead.get("AStringMappedEnum").asText());
+
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilderResource,
+        "{\"AStringMappedEnum\": \"CE\"}", HttpMethod.PATCH);
+    helper.setRequestHeader(HttpHeader.PREFER, "return=minimal");
+    helper.execute(HttpStatusCode.NO_CONTENT.getStatusCode());
+    assertEquals("return=minimal", helper.getResponseHeader(HttpHeader.PREFERENCE_APPLIED));
+
+    // only the patched property is modified
+    callRead.execute(HttpStatusCode.OK.getStatusCode());
+    final ObjectNode dceSecondRead = callRead.getJsonObjectValue();
+    assertEquals(IsoEra.CE.name(), dceSecondRead.get("AStringMappedEnum").asText());
+    assertEquals(dceFirstRead.get("AOrdinalMappedEnum"), dceSecondRead.get("AOrdinalMappedEnum"));
+    assertEquals(dceFirstRead.get("EnumCollection"), dceSecondRead.get("EnumCollection"));
+
+    // restore for other tests, with full response
+    final ServerCallSimulator helperRestore = new ServerCallSimulator(persistenceAdapter, uriBuilderResource,
+        "{\"AStringMappedEnum\": \"BCE\"}", HttpMethod.PATCH);
+    helperRestore.execute(HttpStatusCode.OK.getStatusCode());
+    assertEquals(IsoEra.BCE.name(), helperRestore.getJsonObjectValue().get("AStringMappedEnum").asText());
+  }
+
+  @Test
+  public void testPatchNotExisting() throws IOException, ODataException {
+    final URIBuilder uriBuilderResource = newUriBuilder().appendEntitySetSegment("DatatypeConversionEntities")
+        .appendKeySegment(Integer.valueOf(-1));
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilderResource,
+        "{\"AStringMappedEnum\": \"CE\"}", HttpMethod.PATCH);
+    helper.execute(HttpStatusCode.NOT_FOUND.getStatusCode());
+  }
 
 }
@@ -11,8 +11,13 @@ import java.net.StandardProtocolFamily;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import java.util.zip.Deflater;
 
+import javax.persistence.Id;
+
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
@@ -23,6 +28,8 @@ import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmAction;
 import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmActionParameter;
 import org.apache.olingo.jpa.metadata.core.edm.complextype.ODataComplexType;
 import org.apache.olingo.jpa.metadata.core.edm.dto.ODataDTO;
+import org.apache.olingo.jpa.metadata.core.edm.dto.ODataDTOQuery;
+import org.apache.olingo.jpa.metadata.core.edm.dto.ODataDTOStreamingHandler;
 import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import org.apache.olingo.jpa.processor.core.testmodel.BusinessPartner;
 import org.apache.olingo.jpa.processor.core.testmodel.Phone;
@@ -33,6 +40,7 @@ import org.apache.olingo.jpa.processor.core.util.TestBase;
 import org.apache.olingo.jpa.processor.core.util.TestGenericJPAPersistenceAdapter;
 import org.apache.olingo.jpa.test.util.Constant;
 import org.apache.olingo.jpa.test.util.DataSourceHelper;
+import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -116,6 +124,71 @@ public class TestDTOs extends TestBase {
     private Phone phone;
   }
 
+  /**
+   * DTO simulating a large archive, the records are created on demand only.
+   */
+  @ODataDTO(handler = ArchiveRecordHandler.class)
+  public static class ArchiveRecord {
+    @Id
+    private long id;
+    @SuppressWarnings("unused")
+    private String title;
+
+    public ArchiveRecord() {
+      // default constructor
+    }
+
+    ArchiveRecord(final long id) {
+      this.id = id;
+      this.title = "Record " + id;
+    }
+  }
+
+  public static class ArchiveRecordHandler implements ODataDTOStreamingHandler<ArchiveRecord> {
+
+    static final long NUMBER_OF_RECORDS = 1000000;
+    static final AtomicLong createdRecords = new AtomicLong();
+    static ODataDTOQuery lastQuery = null;
+    static long count = NUMBER_OF_RECORDS;
+    static volatile boolean streamClosed = false;
+
+    static void reset() {
+      createdRecords.set(0);
+      lastQuery = null;
+      count = NUMBER_OF_RECORDS;
+      streamClosed = false;
+    }
+
+    @Override
+    public Collection<ArchiveRecord> read(final UriInfoResource requestedResource) throws RuntimeException {
+      throw new UnsupportedOperationException("Streaming handler");
+    }
+
+    @Override
+    public void write(final UriInfoResource requestedResource, final ArchiveRecord dto) throws RuntimeException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Stream<ArchiveRecord> read(final UriInfoResource requestedResource, final ODataDTOQuery query)
+        throws RuntimeException {
+      lastQuery = query;
+      final boolean descending = !query.getOrderBy().isEmpty() && query.getOrderBy().get(0).isDescending();
+      Stream<ArchiveRecord> records = LongStream.range(0, NUMBER_OF_RECORDS).map(i -> descending ? NUMBER_OF_RECORDS
+          - 1 - i : i).peek(i -> createdRecords.incrementAndGet()).mapToObj(ArchiveRecord::new).skip(query
+              .getSkip());
+      if (query.getTop() != null) {
+        records = records.limit(query.getTop().intValue());
+      }
+      return records.onClose(() -> streamClosed = true);
+    }
+
+    @Override
+    public long count(final UriInfoResource requestedResource, final ODataDTOQuery query) throws RuntimeException {
+      return count;
+    }
+  }
+
   @Before
   public void setup() throws ODataJPAModelException {
     persistenceAdapter.registerDTO(EnvironmentInfo.class);
@@ -290,4 +363,56 @@ public class TestDTOs extends TestBase {
     assertNotNull(metamodel.get(Constant.PUNIT_NAME).get(Phone.class.getSimpleName()));
   }
 
+  @Test
+  public void testGetDTOWithStreamingHandler() throws IOException, ODataException {
+    ArchiveRecordHandler.reset();
+    persistenceAdapter.registerDTO(ArchiveRecord.class);
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("ArchiveRecords").top(3).skip(10).orderBy(
+        "Id desc").count(true);
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    final ObjectNode result = helper.getJsonObjectValue();
+    assertEquals(ArchiveRecordHandler.NUMBER_OF_RECORDS, result.get("@odata.count").asLong());
+    assertEquals(3, helper.getJsonObjectValues().size());
+    assertEquals(ArchiveRecordHandler.NUMBER_OF_RECORDS - 11, helper.getJsonObjectValues().get(0).get("Id").asLong());
+    assertEquals("Record " + (ArchiveRecordHandler.NUMBER_OF_RECORDS - 11), helper.getJsonObjectValues().get(0).get(
+        "Title").asText());
+
+    final ODataDTOQuery query = ArchiveRecordHandler.lastQuery;
+    assertEquals(Integer.valueOf(3), query.getTop());
+    assertEquals(10, query.getSkip());
+    assertEquals(1, query.getOrderBy().size());
+    assertEquals("Id", query.getOrderBy().get(0).getPropertyPath());
+    assertEquals("id", query.getOrderBy().get(0).getAttributeNames().get(0));
+    assertTrue(query.isCountRequested());
+    assertNull(query.getFilter());
+  }
+
+  @Test
+  public void testStreamingHandlerReadsLazilyAndClosesStream() throws IOException, ODataException {
+    ArchiveRecordHandler.reset();
+    persistenceAdapter.registerDTO(ArchiveRecord.class);
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("ArchiveRecords").top(5).skip(20);
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    assertEquals(5, helper.getJsonObjectValues().size());
+    // only the records up to the requested page are created
+    assertEquals(25, ArchiveRecordHandler.createdRecords.get());
+    assertTrue(ArchiveRecordHandler.streamClosed);
+  }
+
+  @Test
+  public void testStreamingHandlerCountOutOfRange() throws IOException, ODataException {
+    ArchiveRecordHandler.reset();
+    ArchiveRecordHandler.count = Integer.MAX_VALUE + 1L;
+    persistenceAdapter.registerDTO(ArchiveRecord.class);
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("ArchiveRecords").top(3).count(true);
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    assertEquals(0, ArchiveRecordHandler.createdRecords.get());
+  }
+
 }
@@ -1,8 +1,11 @@
 package org.apache.olingo.jpa.processor.core.dto;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.LinkedList;
@@ -95,6 +98,14 @@ public class TestDependencyInjection extends TestBase {
     }
   }
 
+  public static class InjectionTarget {
+    @Inject
+    private CharSequence text;
+
+    @Inject
+    private Number number;
+  }
+
   @Before
   public void setup() throws ODataJPAModelException {
     persistenceAdapter.registerDTO(Dto.class);
@@ -128,4 +139,46 @@ public class TestDependencyInjection extends TestBase {
     final DependencyInjectorImpl injector = new DependencyInjectorImpl();
     injector.registerDependencyMapping(Integer.class, Integer.valueOf(2));
   }
+
+  @Test
+  public void testInjectionResolutionThroughParent() throws ODataException {
+    final DependencyInjectorImpl parent = new DependencyInjectorImpl();
+    parent.registerDependencyMapping(String.class, "parent");
+    final DependencyInjectorImpl child = new DependencyInjectorImpl(parent);
+    final InjectionTarget target = new InjectionTarget();
+
+    child.injectDependencyValues(target);
+    assertEquals("parent", target.text);
+    assertNull(target.number);
+
+    // registration after first injection must be respected
+    child.registerDependencyMapping(StringBuilder.class, new StringBuilder("child"));
+    child.registerDependencyMapping(BigDecimal.class, BigDecimal.ONE);
+    child.injectDependencyValues(target);
+    assertEquals("child", target.text.toString());
+    assertEquals(BigDecimal.ONE, target.number);
+
+    child.removeDependencyValue(StringBuilder.class);
+    child.injectDependencyValues(target);
+    assertEquals("parent", target.text);
+  }
+
+  @Test
+  public void testNullValueHidesParentValue() throws ODataException {
+    final DependencyInjectorImpl parent = new DependencyInjectorImpl();
+    parent.registerDependencyMapping(CharSequence.class, "parent");
+    final DependencyInjectorImpl child = new DependencyInjectorImpl(parent);
+    child.registerDependencyMapping(CharSequence.class, null);
+    final InjectionTarget target = new InjectionTarget();
+    target.text = "old";
+
+    assertNull(child.getDependencyValue(CharSequence.class));
+    child.injectDependencyValues(target);
+    assertNull(target.text);
+
+    child.removeDependencyValue(CharSequence.class);
+    assertEquals("parent", child.getDependencyValue(CharSequence.class));
+    child.injectDependencyValues(target);
+    assertEquals("parent", target.text);
+  }
 }
@@ -76,6 +76,48 @@ public class TestJPAQueryWhereClause extends TestBase {
     assertEquals("3", orgs.get(0).get("ID").asText());
   }
 
+  @Test
+  public void testFilterIn() throws IOException, ODataException {
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").filter(
+        "ID in ('3','5','42')").orderBy("ID");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode orgs = helper.getJsonObjectValues();
+    assertEquals(2, orgs.size());
+    assertEquals("3", orgs.get(0).get("ID").asText());
+    assertEquals("5", orgs.get(1).get("ID").asText());
+  }
+
+  @Test
+  public void testFilterInLargeValueList() throws IOException, ODataException {
+    // more values than allowed for a single IN list
+    final StringBuilder values = new StringBuilder();
+    for (int i = 1; i <= 2500; i++) {
+      values.append(values.length() > 0 ? "," : "").append("'").append(i).append("'");
+    }
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").filter("ID in (" + values
+        + ")");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode orgs = helper.getJsonObjectValues();
+    assertEquals(10, orgs.size());
+  }
+
+  @Test
+  public void testFilterInLambdaAny() throws IOException, ODataException {
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").filter(
+        "Roles/any(d:d/RoleCategory in ('A','C'))");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode orgs = helper.getJsonObjectValues();
+    assertTrue(orgs.size() > 0);
+  }
+
   @Test
   public void testFilterOneDescriptionEquals() throws IOException, ODataException {
 
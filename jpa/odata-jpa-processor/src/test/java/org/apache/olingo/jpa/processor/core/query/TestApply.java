@@ -97,4 +97,69 @@ public class TestApply extends TestBase {
     assertEquals(11.0, aggNode.get("Sum").asDouble(), 0.0);
   }
 
+  @Test
+  public void testGroupByWithCount() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("BusinessPartnerRoles").addQueryOption(
+        "apply", "groupby((RoleCategory),aggregate($count as Count))", false).orderBy("RoleCategory");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode valueArray = helper.getJsonObjectValue().withArray("value");
+    assertEquals(5, valueArray.size());
+    assertEquals("A", valueArray.get(0).get("RoleCategory").asText());
+    assertEquals(3, valueArray.get(0).get("Count").asInt());
+    assertEquals("B", valueArray.get(1).get("RoleCategory").asText());
+    assertEquals(1, valueArray.get(1).get("Count").asInt());
+  }
+
+  @Test
+  public void testGroupByWithCountDistinct() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("BusinessPartnerRoles").addQueryOption(
+        "apply", "aggregate(RoleCategory with countdistinct as Categories)", false);
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode valueArray = helper.getJsonObjectValue().withArray("value");
+    assertEquals(1, valueArray.size());
+    assertEquals(5, valueArray.get(0).get("Categories").asInt());
+  }
+
+  @Test
+  public void testGroupByWithFilterBeforeAndAfterGrouping() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("BusinessPartnerRoles").addQueryOption(
+        "apply", "filter(RoleCategory ne 'A')/groupby((RoleCategory),aggregate($count as Count))/filter(Count gt 1)",
+        false).orderBy("RoleCategory");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode valueArray = helper.getJsonObjectValue().withArray("value");
+    assertEquals(2, valueArray.size());
+    assertEquals("C", valueArray.get(0).get("RoleCategory").asText());
+    assertEquals(3, valueArray.get(0).get("Count").asInt());
+    assertEquals("X", valueArray.get(1).get("RoleCategory").asText());
+    assertEquals(2, valueArray.get(1).get("Count").asInt());
+  }
+
+  @Test
+  public void testGroupByOrderByAggregateWithTop() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("BusinessPartnerRoles").addQueryOption(
+        "apply", "groupby((RoleCategory),aggregate($count as Count))", false).orderBy("Count desc,RoleCategory desc")
+        .top(2);
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode valueArray = helper.getJsonObjectValue().withArray("value");
+    assertEquals(2, valueArray.size());
+    assertEquals("C", valueArray.get(0).get("RoleCategory").asText());
+    assertEquals("A", valueArray.get(1).get("RoleCategory").asText());
+  }
+
+  @Test
+  public void testGroupByRollupNotImplemented() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("BusinessPartnerRoles").addQueryOption(
+        "apply", "groupby((rollup($all,RoleCategory)),aggregate($count as Count))", false);
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode());
+  }
+
 }
@@ -3,13 +3,18 @@ package org.apache.olingo.jpa.processor.core.query;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
 import org.apache.olingo.jpa.processor.core.util.TestBase;
 import org.junit.Test;
@@ -68,6 +73,47 @@ public class TestJPACount extends TestBase {
     assertNull(result.get("@odata.count"));
   }
 
+  @Test
+  public void testTopSkipCountTrueQueryOption() throws IOException, ODataException {
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").filter("Country eq 'USA'")
+        .orderBy("ID").skip(2).top(3).count(true);
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    final ArrayNode orgs = helper.getJsonObjectValues();
+    assertEquals(3, orgs.size());
+    final ObjectNode result = helper.getJsonObjectValue();
+    // the count of all matching entities, not of the page
+    assertEquals(9, result.get("@odata.count").asInt());
+  }
+
+  @Test
+  public void testTopCountTrueStreamedConcurrent() throws IOException, ODataException {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").filter(
+          "Country eq 'USA'").orderBy("ID").top(4).count(true);
+      final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder) {
+        @Override
+        protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+          requestContext.getDependencyInjector().registerDependencyMapping(StreamingMode.class,
+              StreamingMode.Streamed);
+          requestContext.getDependencyInjector().registerDependencyMapping(CountConfiguration.class,
+              new CountConfiguration(executor));
+        }
+      };
+
+      helper.execute(HttpStatusCode.OK.getStatusCode());
+      final ArrayNode orgs = helper.getJsonObjectValues();
+      assertEquals(4, orgs.size());
+      final ObjectNode result = helper.getJsonObjectValue();
+      assertEquals(9, result.get("@odata.count").asInt());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   public void testExpandCountOrderBy() throws IOException, ODataException {
 
@@ -115,4 +161,15 @@ public class TestJPACount extends TestBase {
     assertEquals(285, Integer.parseInt(helper.getRawResult()));
   }
 
+  @Test
+  public void testTotalCountOutOfIntegerRange() throws ODataJPAQueryException {
+    assertEquals(Integer.valueOf(Integer.MAX_VALUE), Util.convertCount(Integer.MAX_VALUE));
+    try {
+      Util.convertCount(Integer.MAX_VALUE + 1L);
+      fail("Count is not an integer");
+    } catch (final ODataJPAQueryException e) {
+      assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), e.getStatusCode());
+    }
+  }
+
 }
@@ -18,6 +18,8 @@ import org.apache.olingo.client.api.uri.QueryOption;
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.testmodel.AdministrativeDivision;
 import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
 import org.apache.olingo.jpa.processor.core.util.TestBase;
 import org.junit.Ignore;
@@ -742,4 +744,76 @@ public class TestJPAProcessorExpand extends TestBase {
     final ArrayNode orgs = helper.getJsonObjectValues();
     assertEquals(9, orgs.size()); // 9 of 10 organizations
   }
+
+  private ServerCallSimulator createSimulator(final URIBuilder uriBuilder, final ExpandConfiguration configuration)
+      throws IOException, ODataException {
+    return new ServerCallSimulator(persistenceAdapter, uriBuilder) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        requestContext.getDependencyInjector().registerDependencyMapping(ExpandConfiguration.class, configuration);
+      }
+    };
+  }
+
+  @Test
+  public void testExpandKeyBatchEntitySet() throws IOException, ODataException {
+    final ExpandConfiguration configuration = new ExpandConfiguration(ExpandConfiguration.Strategy.KeyBatch);
+    // force multiple queries
+    configuration.setMaxKeyParameters(3);
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").orderBy("ID").expand("Roles");
+    final ServerCallSimulator helper = createSimulator(uriBuilder, configuration);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode orgs = helper.getJsonObjectValues();
+    assertEquals(10, orgs.size());
+    ObjectNode org = (ObjectNode) orgs.get(0);
+    ArrayNode roles = (ArrayNode) org.get("Roles");
+    assertEquals(1, roles.size());
+
+    org = (ObjectNode) orgs.get(3);
+    roles = (ArrayNode) org.get("Roles");
+    assertEquals(3, roles.size());
+  }
+
+  @Test
+  public void testExpandKeyBatchNestedCompoundKeyForEntityType() throws IOException, ODataException {
+    final ExpandConfiguration configuration = new ExpandConfiguration();
+    configuration.setStrategy(AdministrativeDivision.class, ExpandConfiguration.Strategy.KeyBatch);
+    // less than the number of key attributes -> one owning entity per query
+    configuration.setMaxKeyParameters(2);
+
+    final Map<String, Object> mapKeys = new HashMap<String, Object>();
+    mapKeys.put("DivisionCode", "BE253");
+    mapKeys.put("CodeID", "NUTS3");
+    mapKeys.put("CodePublisher", "Eurostat");
+    final Map<QueryOption, Object> expandOptionsTargets = new HashMap<>();
+    expandOptionsTargets.put(QueryOption.EXPAND, "Children($orderby=DivisionCode asc)");
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("AdministrativeDivisions").appendKeySegment(
+        mapKeys).expandWithOptions("Parent", expandOptionsTargets);
+    final ServerCallSimulator helper = createSimulator(uriBuilder, configuration);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ObjectNode div = helper.getJsonObjectValue();
+    final ObjectNode parent = (ObjectNode) div.get("Parent");
+    assertEquals("BE25", parent.get("DivisionCode").asText());
+    final ArrayNode children = (ArrayNode) parent.get("Children");
+    assertEquals(8, children.size());
+    assertEquals("BE251", children.get(0).get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testExpandKeyBatchHavingElementCollections() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("PersonImages").appendKeySegment("99").expand(
+        "PersonReferenceWithoutMappedAttribute");
+    final ServerCallSimulator helper = createSimulator(uriBuilder, new ExpandConfiguration(
+        ExpandConfiguration.Strategy.KeyBatch));
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ObjectNode personImage = helper.getJsonObjectValue();
+    final ObjectNode person = (ObjectNode) personImage.get("PersonReferenceWithoutMappedAttribute");
+    assertNotNull(person);
+    assertEquals(98, person.get("ID").asLong());
+    assertEquals(2, ((ArrayNode) person.get("PhoneNumbers")).size());
+  }
 }
@@ -1,25 +1,36 @@
 package org.apache.olingo.jpa.processor.core.query;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.util.ImageLoader;
 import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
 import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.apache.olingo.jpa.processor.impl.MediaConfiguration;
 import org.apache.olingo.jpa.test.util.AbstractTest.JPAProvider;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public class TestJPAQuerySelectByPath extends TestBase {
 
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void testNavigationToOwnPrimitiveProperty() throws IOException, ODataException {
     final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").appendKeySegment("3")
@@ -122,7 +133,6 @@ public class TestJPAQuerySelectByPath extends TestBase {
     assertEquals("../../$metadata#Organizations/Address/Region", org.get("@odata.context").asText());
   }
 
-  @Ignore("MediaEntityProcessor required")
   @Test
   public void testNavigationToStreamValue() throws IOException, ODataException {
     new ImageLoader().loadPerson(persistenceAdapter.createEntityManager(), "OlingoOrangeTM.png", "99");
@@ -136,8 +146,6 @@ public class TestJPAQuerySelectByPath extends TestBase {
     assertEquals(93316, act.length, 0);
   }
 
-  // TODO
-  @Ignore("MediaEntityProcessor required")
   @Test
   public void testNavigationToStreamValueVia() throws IOException, ODataException {
     new ImageLoader().loadPerson(persistenceAdapter.createEntityManager(), "OlingoOrangeTM.png", "99");
@@ -151,6 +159,118 @@ public class TestJPAQuerySelectByPath extends TestBase {
     assertEquals(93316, act.length, 0);
   }
 
+  @Test
+  public void testStreamValueRange() throws IOException, ODataException {
+    new ImageLoader().loadPerson(persistenceAdapter.createEntityManager(), "OlingoOrangeTM.png", "99");
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("PersonImages").appendKeySegment("99")
+        .appendValueSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.setRequestHeader(HttpHeader.RANGE, "bytes=93216-");
+    helper.execute(HttpStatusCode.PARTIAL_CONTENT.getStatusCode());
+
+    assertEquals("bytes 93216-93315/93316", helper.getResponseHeader("Content-Range"));
+    assertEquals("image/png", helper.getResponseHeader(HttpHeader.CONTENT_TYPE));
+    assertEquals(100, helper.getBinaryResult().length);
+  }
+
+  @Test
+  public void testStreamValueRangeNotSatisfiable() throws IOException, ODataException {
+    new ImageLoader().loadPerson(persistenceAdapter.createEntityManager(), "OlingoOrangeTM.png", "99");
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("PersonImages").appendKeySegment("99")
+        .appendValueSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.setRequestHeader(HttpHeader.RANGE, "bytes=100000-");
+    helper.execute(HttpStatusCode.RANGE_NOT_SATISFIABLE.getStatusCode());
+
+    assertEquals("bytes */93316", helper.getResponseHeader("Content-Range"));
+  }
+
+  @Test
+  public void testStreamValueInvalidRangeIgnored() throws IOException, ODataException {
+    new ImageLoader().loadPerson(persistenceAdapter.createEntityManager(), "OlingoOrangeTM.png", "99");
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("PersonImages").appendKeySegment("99")
+        .appendValueSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.setRequestHeader(HttpHeader.RANGE, "bytes=--5");
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    assertEquals(93316, helper.getBinaryResult().length);
+  }
+
+  @Test
+  public void testUpdateStreamValue() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("PersonImages").appendKeySegment("97")
+        .appendValueSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder, "Hello media",
+        HttpMethod.PUT);
+    helper.setRequestContentType("image/png");
+    helper.execute(HttpStatusCode.NO_CONTENT.getStatusCode());
+
+    final ServerCallSimulator helperRead = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helperRead.setRequestHeader(HttpHeader.RANGE, "bytes=6-");
+    helperRead.execute(HttpStatusCode.PARTIAL_CONTENT.getStatusCode());
+    assertEquals("media", new String(helperRead.getBinaryResult(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testUpdateStreamValueTooLarge() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("PersonImages").appendKeySegment("97")
+        .appendValueSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder, "Hello media",
+        HttpMethod.PUT) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        requestContext.getDependencyInjector().registerDependencyMapping(MediaConfiguration.class,
+            new MediaConfiguration(5));
+      }
+    };
+    helper.setRequestContentType("image/png");
+    helper.execute(HttpStatusCode.PAYLOAD_TOO_LARGE.getStatusCode());
+  }
+
+  @Test
+  public void testUpdateBlobStreamValueSpooledToFile() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("PersonDocuments").appendKeySegment("99")
+        .appendValueSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder,
+        "Hello large media", HttpMethod.PUT) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        requestContext.getDependencyInjector().registerDependencyMapping(MediaConfiguration.class,
+            new MediaConfiguration(5, 100, tempFolder.getRoot()));
+      }
+    };
+    helper.setRequestContentType("text/plain");
+    helper.execute(HttpStatusCode.NO_CONTENT.getStatusCode());
+    // the spooled upload is deleted
+    assertEquals(0, tempFolder.getRoot().list().length);
+
+    final ServerCallSimulator helperRead = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helperRead.execute(HttpStatusCode.OK.getStatusCode());
+    assertEquals("Hello large media", new String(helperRead.getBinaryResult(), StandardCharsets.UTF_8));
+    assertTrue(helperRead.getResponseHeader(HttpHeader.CONTENT_TYPE).startsWith("text/plain"));
+  }
+
+  @Test
+  public void testUpdateBlobStreamValueTooLarge() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("PersonDocuments").appendKeySegment("99")
+        .appendValueSegment();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder,
+        "Hello large media", HttpMethod.PUT) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        requestContext.getDependencyInjector().registerDependencyMapping(MediaConfiguration.class,
+            new MediaConfiguration(5, 10, tempFolder.getRoot()));
+      }
+    };
+    helper.setRequestContentType("text/plain");
+    helper.execute(HttpStatusCode.PAYLOAD_TOO_LARGE.getStatusCode());
+    assertEquals(0, tempFolder.getRoot().list().length);
+  }
+
   @Test
   public void testNavigationToComplexAttributeValue() throws IOException, ODataException {
     // skip test with Hibernate
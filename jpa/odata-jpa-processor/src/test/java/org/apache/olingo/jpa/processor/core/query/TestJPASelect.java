@@ -11,6 +11,7 @@ import java.time.DayOfWeek;
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
 import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
 import org.apache.olingo.jpa.processor.core.util.TestBase;
 import org.apache.olingo.jpa.test.util.AbstractTest.JPAProvider;
@@ -181,4 +182,60 @@ public class TestJPASelect extends TestBase {
     assertEquals(2, targets.size());
   }
 
+  private ServerCallSimulator createStreamingSimulator(final URIBuilder uriBuilder) throws IOException,
+  ODataException {
+    return new ServerCallSimulator(persistenceAdapter, uriBuilder) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        requestContext.getDependencyInjector().registerDependencyMapping(StreamingMode.class, StreamingMode.Streamed);
+      }
+    };
+  }
+
+  @Test
+  public void testSelectStreamedWithCount() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").orderBy("ID").count(true);
+    final ServerCallSimulator helper = createStreamingSimulator(uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ObjectNode result = helper.getJsonObjectValue();
+    assertEquals(10, result.get("@odata.count").asInt());
+    final ArrayNode orgs = result.withArray("value");
+    assertEquals(10, orgs.size());
+    assertEquals("1", orgs.get(0).get("ID").asText());
+    assertNotNull(orgs.get(0).get("Address"));
+  }
+
+  @Test
+  public void testSelectStreamedWithElementCollection() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Persons").filter("ID eq '99'");
+    final ServerCallSimulator helper = createStreamingSimulator(uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode persons = helper.getJsonObjectValues();
+    assertEquals(1, persons.size());
+    assertEquals(2, ((ArrayNode) persons.get(0).get("PhoneNumbers")).size());
+  }
+
+  @Test
+  public void testSelectStreamedWithExpand() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").orderBy("ID").expand(
+        "Roles");
+    final ServerCallSimulator helper = createStreamingSimulator(uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode orgs = helper.getJsonObjectValues();
+    assertEquals(10, orgs.size());
+    assertEquals(3, ((ArrayNode) orgs.get(3).get("Roles")).size());
+  }
+
+  @Test
+  public void testSelectStreamedEmptyResult() throws IOException, ODataException {
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").filter("ID eq 'xyz'");
+    final ServerCallSimulator helper = createStreamingSimulator(uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    assertEquals(0, helper.getJsonObjectValues().size());
+  }
+
 }
@@ -0,0 +1,192 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.client.api.uri.URIBuilder;
+import org.apache.olingo.client.core.ConfigurationImpl;
+import org.apache.olingo.client.core.uri.URIBuilderImpl;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.testmodel.Organization;
+import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
+import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.apache.olingo.server.api.ODataRequest;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class TestJPAServerDrivenPaging extends TestBase {
+
+  private ServerCallSimulator createPagingSimulator(final URIBuilder uriBuilder, final PagingConfiguration config)
+      throws IOException, ODataException {
+    return new ServerCallSimulator(persistenceAdapter, uriBuilder) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        requestContext.getDependencyInjector().registerDependencyMapping(PagingConfiguration.class, config);
+      }
+    };
+  }
+
+  /**
+   * Load all pages by following the next links.
+   *
+   * @return The values of given property for all entities of all pages.
+   */
+  private List<String> loadAllPages(final URIBuilder uriBuilder, final PagingConfiguration config,
+      final int expectedPageSize, final String property) throws IOException, ODataException {
+    final List<String> values = new ArrayList<>();
+    URIBuilder nextUriBuilder = uriBuilder;
+    int pages = 0;
+    while (nextUriBuilder != null) {
+      final ServerCallSimulator helper = createPagingSimulator(nextUriBuilder, config);
+      helper.execute(HttpStatusCode.OK.getStatusCode());
+      final ObjectNode result = helper.getJsonObjectValue();
+      final ArrayNode entities = result.withArray("value");
+      assertTrue(entities.size() <= expectedPageSize);
+      for (final JsonNode entity : entities) {
+        values.add(entity.get(property).asText());
+      }
+      final JsonNode nextLink = result.get("@odata.nextLink");
+      if (nextLink != null) {
+        assertEquals(expectedPageSize, entities.size());
+        assertFalse(nextLink.asText().contains("$top"));
+        nextUriBuilder = new URIBuilderImpl(new ConfigurationImpl(), nextLink.asText());
+      } else {
+        nextUriBuilder = null;
+      }
+      pages++;
+      // avoid endless loop
+      assertTrue(pages < 20);
+    }
+    return values;
+  }
+
+  private List<String> loadWithoutPaging(final URIBuilder uriBuilder, final String property) throws IOException,
+  ODataException {
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    final List<String> values = new ArrayList<>();
+    for (final JsonNode entity : helper.getJsonObjectValues()) {
+      values.add(entity.get(property).asText());
+    }
+    return values;
+  }
+
+  @Test
+  public void testPagingByKey() throws IOException, ODataException {
+    final PagingConfiguration config = new PagingConfiguration(3);
+    final List<String> paged = loadAllPages(newUriBuilder().appendEntitySetSegment("Organizations"), config, 3,
+        "ID");
+    assertEquals(10, paged.size());
+    assertEquals(loadWithoutPaging(newUriBuilder().appendEntitySetSegment("Organizations").orderBy("ID"), "ID"),
+        paged);
+  }
+
+  @Test
+  public void testPagingWithOrderByAndFilter() throws IOException, ODataException {
+    final PagingConfiguration config = new PagingConfiguration(2);
+    final List<String> paged = loadAllPages(newUriBuilder().appendEntitySetSegment("Organizations").filter(
+        "Address/Region ne 'xyz'").orderBy("ID desc"), config, 2, "ID");
+    assertEquals(loadWithoutPaging(newUriBuilder().appendEntitySetSegment("Organizations").filter(
+        "Address/Region ne 'xyz'").orderBy("ID desc"), "ID"), paged);
+  }
+
+  @Test
+  public void testPagingWithOrderByNavigationUsesOffset() throws IOException, ODataException {
+    final PagingConfiguration config = new PagingConfiguration(4);
+    final List<String> paged = loadAllPages(newUriBuilder().appendEntitySetSegment("Organizations").orderBy(
+        "Roles/$count desc"), config, 4, "ID");
+    assertEquals(loadWithoutPaging(newUriBuilder().appendEntitySetSegment("Organizations").orderBy(
+        "Roles/$count desc,ID"), "ID"), paged);
+  }
+
+  @Test
+  public void testPagingRespectsTopAndSkip() throws IOException, ODataException {
+    final PagingConfiguration config = new PagingConfiguration(3);
+    final List<String> paged = loadAllPages(newUriBuilder().appendEntitySetSegment("Organizations").orderBy("ID").skip(
+        1).top(5), config, 3, "ID");
+    assertEquals(5, paged.size());
+    assertEquals(loadWithoutPaging(newUriBuilder().appendEntitySetSegment("Organizations").orderBy("ID").skip(1)
+        .top(5), "ID"), paged);
+  }
+
+  @Test
+  public void testNoNextLinkForSmallResult() throws IOException, ODataException {
+    final PagingConfiguration config = new PagingConfiguration(3);
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").top(3);
+    final ServerCallSimulator helper = createPagingSimulator(uriBuilder, config);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    final ObjectNode result = helper.getJsonObjectValue();
+    assertEquals(3, result.withArray("value").size());
+    assertNull(result.get("@odata.nextLink"));
+  }
+
+  @Test
+  public void testPageSizePerEntity() throws IOException, ODataException {
+    final PagingConfiguration config = new PagingConfiguration();
+    config.setMaxPageSize(Organization.class, Integer.valueOf(5));
+    final ServerCallSimulator helper = createPagingSimulator(newUriBuilder().appendEntitySetSegment(
+        "Organizations"), config);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    final ObjectNode result = helper.getJsonObjectValue();
+    assertEquals(5, result.withArray("value").size());
+    assertNotNull(result.get("@odata.nextLink"));
+
+    // no paging for other entities
+    final ServerCallSimulator helperPersons = createPagingSimulator(newUriBuilder().appendEntitySetSegment(
+        "BusinessPartnerRoles"), config);
+    helperPersons.execute(HttpStatusCode.OK.getStatusCode());
+    assertNull(helperPersons.getJsonObjectValue().get("@odata.nextLink"));
+  }
+
+  @Test
+  public void testInvalidSkipToken() throws IOException, ODataException {
+    final PagingConfiguration config = new PagingConfiguration(3);
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").skipToken("abc");
+    final ServerCallSimulator helper = createPagingSimulator(uriBuilder, config);
+    helper.execute(HttpStatusCode.BAD_REQUEST.getStatusCode());
+  }
+
+  @Test
+  public void testSkipTokenRejectedForOtherShape() throws IOException, ODataException {
+    final PagingConfiguration config = new PagingConfiguration(3);
+    final ServerCallSimulator helper = createPagingSimulator(newUriBuilder().appendEntitySetSegment("Organizations")
+        .orderBy("ID"), config);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    final String nextLink = helper.getJsonObjectValue().get("@odata.nextLink").asText();
+    final String skipToken = nextLink.substring(nextLink.indexOf("$skiptoken=") + "$skiptoken=".length());
+
+    final ServerCallSimulator helperOtherOrder = createPagingSimulator(newUriBuilder().appendEntitySetSegment(
+        "Organizations").orderBy("ID desc").skipToken(skipToken), config);
+    helperOtherOrder.execute(HttpStatusCode.BAD_REQUEST.getStatusCode());
+  }
+
+  @Test
+  public void testNextLinkEncodesQueryOptions() {
+    final ODataRequest request = new ODataRequest();
+    request.setRawBaseUri("http://localhost:8080/Test/Olingo.svc");
+    request.setRawODataPath("/Organizations");
+    // not encoded by the servlet container
+    request.setRawQueryPath("$filter=Name1 ne 'a+b#c'&$top=5&$orderby=ID");
+    final String nextLink = Util.buildNextLink(request, "abc").toString();
+    assertEquals("http://localhost:8080/Test/Olingo.svc/Organizations?%24filter=Name1%20ne%20'a%2Bb%23c'"
+        + "&%24orderby=ID&$skiptoken=abc", nextLink);
+
+    // encoded by the servlet container, including an encoded '&' as part of the value
+    request.setRawQueryPath("$filter=Name1%20ne%20'a%26b'&$skip=2");
+    assertEquals("http://localhost:8080/Test/Olingo.svc/Organizations?%24filter=Name1%20ne%20'a%26b'&$skiptoken=abc",
+        Util.buildNextLink(request, "abc").toString());
+  }
+
+}
@@ -0,0 +1,52 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.net.URL;
+
+import org.apache.olingo.jpa.metadata.core.edm.converter.ODataAttributeConverter;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAConvertibleElement;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAMemberAttribute;
+import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.junit.Test;
+
+public class TestODataAttributeConverterRegistry extends TestBase {
+
+  @Test
+  public void testCustomConverterIsShared() throws Exception {
+    final JPAEntityType et = helper.getJPAEntityType("DatatypeConversionEntities");
+    final JPAMemberAttribute attribute = et.getAttribute("aUrl");
+
+    final ODataAttributeConverter<Object, Object> converter = ODataAttributeConverterRegistry
+        .determineCustomODataAttributeConverter(attribute);
+    assertNotNull(converter);
+    assertSame(converter, ODataAttributeConverterRegistry.determineCustomODataAttributeConverter(attribute));
+    assertSame(converter, ODataAttributeConverterRegistry.determineJPA2ODataConverter(attribute));
+    // kept on the attribute of the meta model
+    assertSame(converter, ((JPAConvertibleElement) attribute).getJPA2ODataConverter());
+
+    final Object odataValue = converter.convertToOData(new URL("http://example.org"));
+    assertEquals("http://example.org", odataValue);
+  }
+
+  @Test
+  public void testNoConverterIsKept() throws Exception {
+    final JPAEntityType et = helper.getJPAEntityType("DatatypeConversionEntities");
+    final JPAMemberAttribute attribute = et.getAttribute("aTime1");
+
+    assertNull(ODataAttributeConverterRegistry.determineCustomODataAttributeConverter(attribute));
+    assertNull(ODataAttributeConverterRegistry.determineCustomODataAttributeConverter(attribute));
+
+    final JPAMemberAttribute attributeAsIs = et.getAttribute("aDecimal");
+    assertNull(ODataAttributeConverterRegistry.determineJPA2ODataConverter(attributeAsIs));
+    // negative result is kept on the attribute too
+    assertNotNull(((JPAConvertibleElement) attributeAsIs).getJPA2ODataConverter());
+    assertNull(ODataAttributeConverterRegistry.determineJPA2ODataConverter(attributeAsIs));
+    assertNull(ODataAttributeConverterRegistry.determineDefaultODataAttributeConverter(String.class, String.class));
+  }
+
+}
@@ -0,0 +1,178 @@
+package org.apache.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.olingo.client.api.uri.URIBuilder;
+import org.apache.olingo.client.core.ConfigurationImpl;
+import org.apache.olingo.client.core.uri.URIBuilderImpl;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
+import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class TestQueryPlanCache extends TestBase {
+
+  private ObjectNode execute(final URIBuilder uriBuilder, final QueryPlanCache cache,
+      final PagingConfiguration pagingConfiguration) throws IOException, ODataException {
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder) {
+      @Override
+      protected void modifyRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+        if (cache != null) {
+          requestContext.getDependencyInjector().registerDependencyMapping(QueryPlanCache.class, cache);
+        }
+        if (pagingConfiguration != null) {
+          requestContext.getDependencyInjector().registerDependencyMapping(PagingConfiguration.class,
+              pagingConfiguration);
+        }
+      }
+    };
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    return helper.getJsonObjectValue();
+  }
+
+  private List<String> loadIDs(final String filter, final QueryPlanCache cache) throws IOException, ODataException {
+    final ObjectNode result = execute(newUriBuilder().appendEntitySetSegment("Organizations").filter(filter).orderBy(
+        "ID"), cache, null);
+    final List<String> ids = new ArrayList<>();
+    for (final JsonNode entity : result.withArray("value")) {
+      ids.add(entity.get("ID").asText());
+    }
+    return ids;
+  }
+
+  @Test
+  public void testSameShapeReusesQuery() throws IOException, ODataException {
+    final QueryPlanCache cache = new QueryPlanCache();
+    assertEquals(loadIDs("ID gt '5'", null), loadIDs("ID gt '5'", cache));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, cache.size());
+
+    final List<String> ids = loadIDs("ID gt '8'", cache);
+    assertEquals(loadIDs("ID gt '8'", null), ids);
+    assertTrue(ids.size() > 0);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testInlinedLiteralsAreDistinguished() throws IOException, ODataException {
+    final QueryPlanCache cache = new QueryPlanCache();
+    final List<String> ids1 = loadIDs("contains(Name1,'Third')", cache);
+    assertEquals(loadIDs("contains(Name1,'Third')", null), ids1);
+    final List<String> ids2 = loadIDs("contains(Name1,'Org')", cache);
+    assertEquals(loadIDs("contains(Name1,'Org')", null), ids2);
+    assertTrue(ids1.size() != ids2.size());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2, cache.size());
+
+    loadIDs("contains(Name1,'Org')", cache);
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void testLambdaFilter() throws IOException, ODataException {
+    final QueryPlanCache cache = new QueryPlanCache();
+    assertEquals(loadIDs("Roles/any(d:d/RoleCategory eq 'A')", null), loadIDs("Roles/any(d:d/RoleCategory eq 'A')",
+        cache));
+    assertEquals(loadIDs("Roles/any(d:d/RoleCategory eq 'C')", null), loadIDs("Roles/any(d:d/RoleCategory eq 'C')",
+        cache));
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void testNullLiteralIsOtherShape() throws IOException, ODataException {
+    final QueryPlanCache cache = new QueryPlanCache();
+    assertEquals(loadIDs("Name2 eq 'x'", null), loadIDs("Name2 eq 'x'", cache));
+    assertEquals(loadIDs("Name2 eq null", null), loadIDs("Name2 eq null", cache));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testKeysetPagingWithCache() throws IOException, ODataException {
+    final QueryPlanCache cache = new QueryPlanCache();
+    final PagingConfiguration pagingConfiguration = new PagingConfiguration(3);
+    final List<String> ids = new ArrayList<>();
+    URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").filter("ID ne '4'");
+    while (uriBuilder != null) {
+      final ObjectNode result = execute(uriBuilder, cache, pagingConfiguration);
+      for (final JsonNode entity : result.withArray("value")) {
+        ids.add(entity.get("ID").asText());
+      }
+      final JsonNode nextLink = result.get("@odata.nextLink");
+      uriBuilder = nextLink == null ? null : new URIBuilderImpl(new ConfigurationImpl(), nextLink.asText());
+    }
+    assertEquals(loadIDs("ID ne '4'", null), ids);
+    // first page and following pages are different shapes
+    assertEquals(2, cache.size());
+    assertTrue(cache.getHitCount() > 0);
+  }
+
+  @Test
+  public void testEviction() throws IOException, ODataException {
+    final QueryPlanCache cache = new QueryPlanCache(1);
+    loadIDs("ID gt '5'", cache);
+    loadIDs("Country eq 'DEU'", cache);
+    assertEquals(1, cache.size());
+    assertEquals(loadIDs("ID gt '3'", null), loadIDs("ID gt '3'", cache));
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void testSearchIsNotCached() throws IOException, ODataException {
+    final QueryPlanCache cache = new QueryPlanCache();
+    execute(newUriBuilder().appendEntitySetSegment("Organizations").search("Org"), cache, null);
+    execute(newUriBuilder().appendEntitySetSegment("Organizations").search("Org"), cache, null);
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    final QueryPlanCache cache = new QueryPlanCache(2);
+    final List<String> expected3 = loadIDs("ID gt '3'", null);
+    final List<String> expectedDEU = loadIDs("Country eq 'DEU'", null);
+    final List<String> expectedName = loadIDs("contains(Name1,'Org')", null);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 12; i++) {
+        final int variant = i % 3;
+        futures.add(executor.submit(() -> {
+          switch (variant) {
+          case 0:
+            assertEquals(expected3, loadIDs("ID gt '3'", cache));
+            break;
+          case 1:
+            assertEquals(expectedDEU, loadIDs("Country eq 'DEU'", cache));
+            break;
+          default:
+            assertEquals(expectedName, loadIDs("contains(Name1,'Org')", cache));
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(cache.size() <= 2);
+    assertEquals(12, cache.getHitCount() + cache.getMissCount());
+  }
+
+}
@@ -0,0 +1,69 @@
+package org.apache.olingo.jpa.processor.core.query.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+
+import org.apache.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.apache.olingo.jpa.processor.core.util.TupleDouble;
+import org.junit.Test;
+
+public class TestNavigationKeyBuilder extends TestBase {
+
+  private TupleDouble createRow(final String prefix, final Object businessPartnerID, final Object roleCategory) {
+    final HashMap<String, Object> values = new HashMap<String, Object>();
+    values.put("Other", "x");
+    values.put(prefix + "BusinessPartnerID", businessPartnerID);
+    values.put(prefix + "RoleCategory", roleCategory);
+    return new TupleDouble(values);
+  }
+
+  @Test
+  public void testOwningAndTargetRowKeyMatching() throws ODataJPAModelException {
+    final NavigationKeyBuilder cut = new NavigationKeyBuilder(helper.getJPAEntityType("BusinessPartnerRoles"));
+    final String prefix = cut.getNavigationAliasPrefix();
+
+    final NavigationKey owningKey = cut.buildKeyForNavigationOwningRow(createRow("", "3", "C"));
+    final NavigationKey targetKey = cut.buildKeyForNavigationTargetRow(createRow(prefix, "3", "C"));
+    assertEquals(owningKey, targetKey);
+    assertEquals(owningKey.hashCode(), targetKey.hashCode());
+
+    // positions are already resolved, but must work also for other rows
+    assertNotEquals(owningKey, cut.buildKeyForNavigationTargetRow(createRow(prefix, "3", "A")));
+    assertEquals(owningKey, cut.buildKeyForNavigationOwningRow(createRow("", "3", "C")));
+  }
+
+  @Test
+  public void testKeyValuesAreTyped() throws ODataJPAModelException {
+    final NavigationKeyBuilder cut = new NavigationKeyBuilder(helper.getJPAEntityType("BusinessPartnerRoles"));
+
+    final NavigationKey stringKey = cut.buildKeyForNavigationOwningRow(createRow("", "1", "C"));
+    final NavigationKey numberKey = cut.buildKeyForNavigationOwningRow(createRow("", Integer.valueOf(1), "C"));
+    assertNotEquals(stringKey, numberKey);
+    // no collision of concatenated values
+    assertNotEquals(cut.buildKeyForNavigationOwningRow(createRow("", "1|2", "3")), cut
+        .buildKeyForNavigationOwningRow(createRow("", "1", "2|3")));
+  }
+
+  @Test
+  public void testIntegralKeyValuesAreNormalized() throws ODataJPAModelException {
+    final NavigationKeyBuilder cut = new NavigationKeyBuilder(helper.getJPAEntityType("BusinessPartnerRoles"));
+    final String prefix = cut.getNavigationAliasPrefix();
+
+    final NavigationKey integerKey = cut.buildKeyForNavigationOwningRow(createRow("", Integer.valueOf(7), "C"));
+    for (final Object value : new Object[] { Long.valueOf(7), Short.valueOf((short) 7), BigInteger.valueOf(7),
+        new BigDecimal("7.00") }) {
+      final NavigationKey targetKey = cut.buildKeyForNavigationTargetRow(createRow(prefix, value, "C"));
+      assertEquals(integerKey, targetKey);
+      assertEquals(integerKey.hashCode(), targetKey.hashCode());
+    }
+    assertNotEquals(integerKey, cut.buildKeyForNavigationTargetRow(createRow(prefix, new BigDecimal("7.5"), "C")));
+    assertEquals(cut.buildKeyForNavigationOwningRow(createRow("", new BigDecimal("1E+30"), "C")), cut
+        .buildKeyForNavigationTargetRow(createRow(prefix, new BigInteger("1000000000000000000000000000000"), "C")));
+  }
+
+}
@@ -3,17 +3,25 @@ package org.apache.olingo.jpa.processor.core.search;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Metamodel;
 import javax.sql.DataSource;
 
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.commons.core.Encoder;
+import org.apache.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import org.apache.olingo.jpa.processor.core.database.AbstractJPADatabaseProcessor;
 import org.apache.olingo.jpa.processor.core.database.JPA_HANADatabaseProcessor;
 import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
 import org.apache.olingo.jpa.processor.core.util.TestBase;
@@ -21,12 +29,17 @@ import org.apache.olingo.jpa.processor.core.util.TestGenericJPAPersistenceAdapte
 import org.apache.olingo.jpa.test.util.AbstractTest.JPAProvider;
 import org.apache.olingo.jpa.test.util.Constant;
 import org.apache.olingo.jpa.test.util.DataSourceHelper;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
 public class TestJPASearch extends TestBase {
 
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void testAllAttributesSimpleCase() throws IOException, ODataException {
 
@@ -122,4 +135,191 @@ public class TestJPASearch extends TestBase {
     assertEquals("Bezirk Löwen", ents.get(0).get("Name").asText());
   }
 
+  @Test
+  public void testIndexSearchProvider() throws IOException, ODataException {
+    final JPAEntityType organizationType = helper.getJPAEntityType("Organizations");
+    final EntityManager em = persistenceAdapter.createEntityManager();
+    final IndexSearchProvider provider = new IndexSearchProvider(determineEntityManagerFactory(), tempFolder.getRoot().toPath());
+    try {
+      provider.indexEntityType(organizationType);
+      provider.rebuild(em, organizationType);
+      ((AbstractJPADatabaseProcessor) persistenceAdapter.getDatabaseAccessor()).setSearchProvider(provider);
+
+      ServerCallSimulator simulator = new ServerCallSimulator(persistenceAdapter, newUriBuilder()
+          .appendEntitySetSegment("Organizations").search("third"));
+      simulator.execute(HttpStatusCode.OK.getStatusCode());
+      ArrayNode ents = simulator.getJsonObjectValues();
+      assertEquals(1, ents.size());
+      assertEquals("3", ents.get(0).get("ID").asText());
+
+      // prefix of word
+      simulator = new ServerCallSimulator(persistenceAdapter, newUriBuilder().appendEntitySetSegment("Organizations")
+          .search("Org"));
+      simulator.execute(HttpStatusCode.OK.getStatusCode());
+      assertEquals(10, simulator.getJsonObjectValues().size());
+
+      // simulate deletion via entity listener
+      new SearchIndexEntityListener().entityRemoved(em.find(organizationType.getTypeClass(), "3"));
+      simulator = new ServerCallSimulator(persistenceAdapter, newUriBuilder().appendEntitySetSegment("Organizations")
+          .search("third"));
+      simulator.execute(HttpStatusCode.OK.getStatusCode());
+      ents = simulator.getJsonObjectValues();
+      assertEquals(0, ents.size());
+    } finally {
+      provider.close();
+      em.close();
+    }
+
+    // reload the persisted index
+    final IndexSearchProvider reloaded = new IndexSearchProvider(determineEntityManagerFactory(), tempFolder.getRoot().toPath());
+    try {
+      reloaded.indexEntityType(organizationType);
+      assertEquals(0, reloaded.findMatchingKeys(null, organizationType, "third", 1000).size());
+      assertEquals(1, reloaded.findMatchingKeys(null, organizationType, "second", 1000).size());
+    } finally {
+      reloaded.close();
+    }
+  }
+
+  @Test
+  public void testIndexSearchProviderAppliesChangesAfterCommit() throws IOException, ODataException {
+    final JPAEntityType organizationType = helper.getJPAEntityType("Organizations");
+    final IndexSearchProvider provider = new IndexSearchProvider(determineEntityManagerFactory(), tempFolder.getRoot().toPath());
+    try {
+      provider.indexEntityType(organizationType);
+      final EntityManager em = persistenceAdapter.createEntityManager();
+      provider.rebuild(em, organizationType);
+      final Object organization = em.find(organizationType.getTypeClass(), "3");
+
+      // rolled back change must not modify the index (the adapter closes the entity manager)
+      persistenceAdapter.beginTransaction(em);
+      new SearchIndexEntityListener().entityRemoved(organization);
+      assertEquals(1, provider.findMatchingKeys(null, organizationType, "third", 1000).size());
+      persistenceAdapter.cancelTransaction(em);
+      assertEquals(1, provider.findMatchingKeys(null, organizationType, "third", 1000).size());
+
+      // committed change is applied
+      final EntityManager emCommit = persistenceAdapter.createEntityManager();
+      persistenceAdapter.beginTransaction(emCommit);
+      new SearchIndexEntityListener().entityRemoved(organization);
+      assertEquals(1, provider.findMatchingKeys(null, organizationType, "third", 1000).size());
+      persistenceAdapter.commitTransaction(emCommit);
+      assertEquals(0, provider.findMatchingKeys(null, organizationType, "third", 1000).size());
+    } finally {
+      provider.close();
+    }
+
+    // the change is persisted in the journal without flush
+    final IndexSearchProvider reloaded = new IndexSearchProvider(determineEntityManagerFactory(), tempFolder.getRoot().toPath());
+    try {
+      reloaded.indexEntityType(organizationType);
+      assertEquals(0, reloaded.findMatchingKeys(null, organizationType, "third", 1000).size());
+    } finally {
+      reloaded.close();
+    }
+  }
+
+  @Test
+  public void testIndexSearchProviderStopsAtMaxKeys() throws IOException, ODataException {
+    final JPAEntityType organizationType = helper.getJPAEntityType("Organizations");
+    final EntityManager em = persistenceAdapter.createEntityManager();
+    final IndexSearchProvider provider = new IndexSearchProvider(determineEntityManagerFactory(), tempFolder
+        .getRoot().toPath());
+    try {
+      provider.indexEntityType(organizationType);
+      provider.rebuild(em, organizationType);
+      assertEquals(10, provider.findMatchingKeys(em, organizationType, "Org", 1000).size());
+      // one more than accepted to detect too many matches
+      assertEquals(3, provider.findMatchingKeys(em, organizationType, "Org", 2).size());
+      assertEquals(1, provider.findMatchingKeys(em, organizationType, "Org third", 2).size());
+    } finally {
+      provider.close();
+      em.close();
+    }
+  }
+
+  @Test
+  public void testIndexSearchProviderIgnoresChangesOfOtherEntityManagerFactory() throws IOException,
+  ODataException {
+    final JPAEntityType organizationType = helper.getJPAEntityType("Organizations");
+    final EntityManagerFactory otherEmf = mock(EntityManagerFactory.class);
+    final Metamodel otherMetamodel = mock(Metamodel.class);
+    when(otherEmf.isOpen()).thenReturn(Boolean.TRUE);
+    when(otherEmf.getMetamodel()).thenReturn(otherMetamodel);
+    when(otherMetamodel.getEntities()).thenReturn(Collections.emptySet());
+    final EntityManager em = persistenceAdapter.createEntityManager();
+    final IndexSearchProvider provider = new IndexSearchProvider(otherEmf, tempFolder.getRoot().toPath());
+    try {
+      provider.indexEntityType(organizationType);
+      provider.rebuild(em, organizationType);
+      final Object organization = em.find(organizationType.getTypeClass(), "3");
+
+      // without transaction
+      new SearchIndexEntityListener().entityRemoved(organization);
+      assertEquals(1, provider.findMatchingKeys(null, organizationType, "third", 1000).size());
+
+      // within a transaction of the service
+      persistenceAdapter.beginTransaction(em);
+      new SearchIndexEntityListener().entityRemoved(organization);
+      persistenceAdapter.commitTransaction(em);
+      assertEquals(1, provider.findMatchingKeys(null, organizationType, "third", 1000).size());
+    } finally {
+      provider.close();
+    }
+  }
+
+  private EntityManagerFactory determineEntityManagerFactory() {
+    final EntityManager em = persistenceAdapter.createEntityManager();
+    try {
+      return em.getEntityManagerFactory();
+    } finally {
+      em.close();
+    }
+  }
+
+  @Test
+  public void testSearchProviderTooManyMatches() throws IOException, ODataException {
+    final JPAEntityType organizationType = helper.getJPAEntityType("Organizations");
+    final EntityManager em = persistenceAdapter.createEntityManager();
+    final IndexSearchProvider provider = new IndexSearchProvider(determineEntityManagerFactory(), tempFolder.getRoot().toPath());
+    try {
+      provider.indexEntityType(organizationType);
+      provider.rebuild(em, organizationType);
+      ((AbstractJPADatabaseProcessor) persistenceAdapter.getDatabaseAccessor()).setSearchProvider(provider, 2);
+
+      final ServerCallSimulator simulator = new ServerCallSimulator(persistenceAdapter, newUriBuilder()
+          .appendEntitySetSegment("Organizations").search("Org"));
+      simulator.execute(HttpStatusCode.BAD_REQUEST.getStatusCode());
+    } finally {
+      provider.close();
+      em.close();
+    }
+  }
+
+  @Test
+  public void testH2FullTextSearchProvider() throws IOException, ODataException {
+    final EntityManager em = persistenceAdapter.createEntityManager();
+    try {
+      em.getTransaction().begin();
+      em.createNativeQuery("CREATE ALIAS IF NOT EXISTS FT_INIT FOR \"org.h2.fulltext.FullText.init\"")
+      .executeUpdate();
+      em.createNativeQuery("CALL FT_INIT()").executeUpdate();
+      em.createNativeQuery("CALL FT_CREATE_INDEX('OLINGO', 'org.apache.olingo.jpa::BusinessPartner', 'NameLine1')")
+      .executeUpdate();
+      em.getTransaction().commit();
+    } finally {
+      em.close();
+    }
+    ((AbstractJPADatabaseProcessor) persistenceAdapter.getDatabaseAccessor()).setSearchProvider(
+        new H2FullTextSearchProvider());
+
+    final URIBuilder uriBuilder = newUriBuilder().appendEntitySetSegment("Organizations").search("Third");
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder);
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+
+    final ArrayNode ents = helper.getJsonObjectValues();
+    assertEquals(1, ents.size());
+    assertEquals("3", ents.get(0).get("ID").asText());
+  }
+
 }
@@ -75,6 +75,7 @@ public class ServerCallSimulator {
   private HttpServletResponseDouble resp = null;
   private boolean executed = false;
   private SecurityInceptor securityInceptor = null;
+  private JPAODataServletHandler servletHandler = null;
 
   /**
    *
@@ -141,6 +142,22 @@ public class ServerCallSimulator {
     req.setHeader(HttpHeader.ACCEPT, type);
   }
 
+  public void setRequestHeader(final String name, final String value) {
+    req.setHeader(name, value);
+  }
+
+  /**
+   *
+   * @param servletHandler The handler (of another call) to reuse, to process the request with the same global context.
+   */
+  public void setServletHandler(final JPAODataServletHandler servletHandler) {
+    this.servletHandler = servletHandler;
+  }
+
+  public JPAODataServletHandler getServletHandler() {
+    return servletHandler;
+  }
+
   public void setSecurityInceptor(final SecurityInceptor securityInceptor) {
     this.securityInceptor = securityInceptor;
   }
@@ -151,7 +168,10 @@ public class ServerCallSimulator {
 
   public void execute(final int status) throws ODataException, UnsupportedEncodingException {
     this.resp = new HttpServletResponseDouble();
-    final JPAODataServletHandler handler = createServletHandler();
+    if (servletHandler == null) {
+      servletHandler = createServletHandler();
+    }
+    final JPAODataServletHandler handler = servletHandler;
     if (securityInceptor != null) {
       handler.setSecurityInceptor(securityInceptor);
     }
@@ -193,6 +213,13 @@ public class ServerCallSimulator {
     return resp.getStatus();
   }
 
+  public String getResponseHeader(final String name) {
+    if (!executed) {
+      throw new IllegalStateException("call execute() before");
+    }
+    return resp.getHeader(name);
+  }
+
   public String getRawResult() throws IOException {
     if (!executed) {
       throw new IllegalStateException("call execute() before");
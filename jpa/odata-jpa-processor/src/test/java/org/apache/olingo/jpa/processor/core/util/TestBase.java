@@ -2,6 +2,7 @@ package org.apache.olingo.jpa.processor.core.util;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.apache.olingo.client.api.domain.ClientComplexValue;
@@ -42,6 +43,8 @@ public abstract class TestBase {
     java.util.logging.LogManager.getLogManager().getLogger("").setLevel(Level.ALL);
   }
 
+  private static final AtomicInteger UNIQUE_NAME_COUNTER = new AtomicInteger(0);
+
   protected TestHelper helper;
   protected final static JPAEdmNameBuilder nameBuilder = new JPAEdmNameBuilder(Constant.PUNIT_NAME);
   protected TestGenericJPAPersistenceAdapter persistenceAdapter;
@@ -99,6 +102,15 @@ public abstract class TestBase {
     throw new UnsupportedOperationException("Current JPA provider not known");
   }
 
+  /**
+   *
+   * @return A name starting with the given prefix, unique for all test runs on the (shared) test database.
+   */
+  protected static String createUniqueName(final String prefix) {
+    return prefix + "-" + Long.toString(System.currentTimeMillis()) + "-" + Integer.toString(UNIQUE_NAME_COUNTER
+        .incrementAndGet());
+  }
+
   public static URIBuilder newUriBuilder() {
     return new URIBuilderImpl(new ConfigurationImpl(), ServerCallSimulator.SERVLET_LOCAL_BASE_URI) {
       @Override
@@ -0,0 +1,50 @@
+package org.apache.olingo.jpa.processor.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.jpa.processor.core.testmodel.dto.EnvironmentInfo;
+import org.apache.olingo.jpa.processor.core.testmodel.dto.sub.SystemRequirement;
+import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.apache.olingo.jpa.processor.impl.MetadataDocumentCache.RenderedDocument;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.junit.Test;
+
+public class TestMetadataDocumentCache extends TestBase {
+
+  @Test
+  public void testMetadataDocumentRenderedOncePerMediaType() throws ODataException {
+    final MetadataDocumentCache cache = new MetadataDocumentCache(jpaEdmProvider.getServiceDocument());
+    final RenderedDocument document = cache.getMetadataDocument(odata, serviceMetaData, ContentType.APPLICATION_XML);
+    assertSame(document, cache.getMetadataDocument(odata, serviceMetaData, ContentType.create(
+        ContentType.APPLICATION_XML, ContentType.PARAMETER_CHARSET, "utf-8")));
+    assertNotSame(document, cache.getMetadataDocument(odata, serviceMetaData, ContentType.APPLICATION_JSON));
+  }
+
+  @Test
+  public void testMetadataDocumentRenderedAgainAfterDTORegistration() throws ODataException {
+    final MetadataDocumentCache cache = new MetadataDocumentCache(jpaEdmProvider.getServiceDocument());
+    final RenderedDocument document = cache.getMetadataDocument(odata, serviceMetaData, ContentType.APPLICATION_XML);
+    assertFalse(new String(document.getContent(), StandardCharsets.UTF_8).contains(EnvironmentInfo.class
+        .getSimpleName()));
+
+    registerDTO(EnvironmentInfo.class);
+    registerDTO(SystemRequirement.class);
+    // Olingo keeps the schemas of a service metadata instance, so a new instance is required to see the DTO
+    final ServiceMetadata changedMetaData = odata.createServiceMetadata(jpaEdmProvider, Collections.emptyList());
+    final RenderedDocument changed = cache.getMetadataDocument(odata, changedMetaData, ContentType.APPLICATION_XML);
+    assertNotSame(document, changed);
+    assertNotEquals(document.getETag(), changed.getETag());
+    assertTrue(new String(changed.getContent(), StandardCharsets.UTF_8).contains(EnvironmentInfo.class
+        .getSimpleName()));
+  }
+
+}
@@ -0,0 +1,133 @@
+package org.apache.olingo.jpa.processor.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.client.api.uri.URIBuilder;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.jpa.processor.ModifiableJPAODataRequestContext;
+import org.apache.olingo.jpa.processor.core.api.JPAODataServletHandler;
+import org.apache.olingo.jpa.processor.core.util.ServerCallSimulator;
+import org.apache.olingo.jpa.processor.core.util.TestBase;
+import org.junit.Test;
+
+public class TestJPARequestMetrics extends TestBase {
+
+  private static class CollectingMetricsCollector implements JPAMetricsCollector {
+    private final Map<JPAMetric, Long> values = new EnumMap<>(JPAMetric.class);
+    private final List<JPARequestMetrics> completedRequests = new ArrayList<>();
+
+    @Override
+    public void record(final JPAMetric metric, final long value) {
+      final Long existing = values.get(metric);
+      values.put(metric, Long.valueOf(existing == null ? value : existing.longValue() + value));
+    }
+
+    @Override
+    public void requestCompleted(final JPARequestMetrics requestMetrics) {
+      completedRequests.add(requestMetrics);
+    }
+
+    long get(final JPAMetric metric) {
+      final Long value = values.get(metric);
+      return value == null ? -1 : value.longValue();
+    }
+  }
+
+  private CollectingMetricsCollector execute(final URIBuilder uriBuilder) throws IOException, ODataException {
+    final CollectingMetricsCollector collector = new CollectingMetricsCollector();
+    final ServerCallSimulator helper = new ServerCallSimulator(persistenceAdapter, uriBuilder) {
+      @Override
+      protected JPAODataServletHandler createServletHandler() throws ODataException {
+        return new JPAODataServletHandler(persistenceAdapter) {
+          @Override
+          protected void prepareRequestContext(final ModifiableJPAODataRequestContext requestContext) {
+            super.prepareRequestContext(requestContext);
+            requestContext.getDependencyInjector().registerDependencyMapping(JPAMetricsCollector.class, collector);
+          }
+        };
+      }
+    };
+    helper.execute(HttpStatusCode.OK.getStatusCode());
+    assertNotNull(helper.getJsonObjectValue());
+    return collector;
+  }
+
+  @Test
+  public void testEntityCollectionStages() throws IOException, ODataException {
+    final CollectingMetricsCollector collector = execute(newUriBuilder().appendEntitySetSegment("Organizations")
+        .expand("Roles"));
+
+    assertTrue(collector.get(JPAMetric.UriParsing) > 0);
+    // the default security inceptor is active
+    assertTrue(collector.get(JPAMetric.SecurityCheck) > 0);
+    assertTrue(collector.get(JPAMetric.CriteriaBuild) > 0);
+    assertTrue(collector.get(JPAMetric.DatabaseExecution) > 0);
+    assertTrue(collector.get(JPAMetric.RowCount) > 0);
+    assertTrue(collector.get(JPAMetric.ExpandQuery) > 0);
+    assertTrue(collector.get(JPAMetric.Conversion) > 0);
+    assertTrue(collector.get(JPAMetric.Serialization) > 0);
+    assertTrue(collector.get(JPAMetric.SerializedBytes) > 0);
+
+    assertEquals(1, collector.completedRequests.size());
+    final JPARequestMetrics requestMetrics = collector.completedRequests.get(0);
+    assertEquals(collector.get(JPAMetric.SerializedBytes), requestMetrics.getTotal(JPAMetric.SerializedBytes));
+    assertEquals(1, requestMetrics.getRecordCount(JPAMetric.ExpandQuery));
+    // the parsing for the security check is not measured as URI parsing
+    assertEquals(1, requestMetrics.getRecordCount(JPAMetric.UriParsing));
+    assertEquals(1, requestMetrics.getRecordCount(JPAMetric.SecurityCheck));
+    // measured only once, while writing the response
+    assertEquals(1, requestMetrics.getRecordCount(JPAMetric.Serialization));
+  }
+
+  @Test
+  public void testRegistryAdapter() {
+    final Map<String, Long> timers = new HashMap<>();
+    final Map<String, Long> histograms = new HashMap<>();
+    final JPAMetricsRegistryAdapter adapter = new JPAMetricsRegistryAdapter("odata") {
+
+      @Override
+      protected void recordTimer(final String name, final long duration, final TimeUnit unit) {
+        timers.put(name, Long.valueOf(unit.toNanos(duration)));
+      }
+
+      @Override
+      protected void recordHistogram(final String name, final long amount) {
+        histograms.put(name, Long.valueOf(amount));
+      }
+    };
+    final JPARequestMetrics metrics = new JPARequestMetrics(adapter);
+    metrics.stop(JPAMetric.DatabaseExecution, metrics.start());
+    metrics.count(JPAMetric.RowCount, 42);
+    metrics.complete();
+
+    assertTrue(timers.containsKey("odata.database.execution"));
+    assertEquals(Long.valueOf(42), histograms.get("odata.rows"));
+    assertEquals(1, timers.size());
+    assertEquals(1, histograms.size());
+  }
+
+  @Test
+  public void testDisabled() {
+    final JPARequestMetrics metrics = JPARequestMetrics.DISABLED;
+    assertFalse(metrics.isEnabled());
+    assertEquals(0, metrics.start());
+    metrics.stop(JPAMetric.DatabaseExecution, 0);
+    metrics.count(JPAMetric.RowCount, 42);
+    metrics.complete();
+    assertEquals(0, metrics.getTotal(JPAMetric.RowCount));
+    assertEquals(0, metrics.getRecordCount(JPAMetric.RowCount));
+  }
+
+}
@@ -0,0 +1,43 @@
+package org.apache.olingo.jpa.processor.core.testmodel;
+
+import java.sql.Blob;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmIgnore;
+import org.apache.olingo.jpa.metadata.core.edm.annotation.EdmMediaStream;
+
+/**
+ * Media entity with the stream mapped as {@link Blob}, used to test large uploads. EclipseLink cannot load the entity
+ * with a document (LOB columns are converted into <code>byte[]</code>), so only the media stream is accessed.
+ */
+@Entity(name = "PersonDocument")
+@Table(schema = "\"OLINGO\"", name = "\"org.apache.olingo.jpa::PersonDocument\"")
+public class PersonDocument {
+  @Id
+  @Column(name = "\"PID\"")
+  private String pID;
+
+  @Column(name = "\"Document\"")
+  @EdmMediaStream(contentTypeAttribute = "mimeType")
+  private Blob document;
+
+  @EdmIgnore
+  @Column(name = "\"MimeType\"")
+  private String mimeType;
+
+  public String getID() {
+    return pID;
+  }
+
+  public Blob getDocument() {
+    return document;
+  }
+
+  String getMimeType() {
+    return mimeType;
+  }
+}
@@ -10,5 +10,5 @@ public interface TestDataConstants {
   public static final int NO_ATTRIBUTES_PHONE = 2;
   public static final int NO_ATTRIBUTES_ORGANIZATION = 2;
   public static final int NO_ATTRIBUTES_PERSON = 3;
-  public static final int NO_ENTITY_TYPES = 14;
+  public static final int NO_ENTITY_TYPES = 15;
 }